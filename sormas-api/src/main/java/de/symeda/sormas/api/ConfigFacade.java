@@ -125,5 +125,11 @@ public interface ConfigFacade {
 
 	int getStepSizeForCsvExport();
 
+	int getPushChunkSize();
+
+	int getImportChunkSize();
+
+	int getImportParallelWorkers();
+
 	String getIrisServerUrl();
 }
@@ -57,6 +57,12 @@ public interface CaseFacade {
 	 */
 	List<CaseDataDto> getAllActiveCasesAfter(Date date, boolean includeExtendedChangeDateFilters);
 
+	/**
+	 * Batched variant for synchronisation: Returns at most {@code batchSize} entities, ordered by change date and uuid.
+	 * The next batch is requested by passing change date and uuid of the last entity of the previous batch.
+	 */
+	List<CaseDataDto> getAllActiveCasesAfter(Date date, Integer batchSize, Date lastChangeDate, String lastUuid);
+
 	long count(CaseCriteria caseCriteria);
 
 	List<CaseIndexDto> getIndexList(CaseCriteria caseCriteria, Integer first, Integer max, List<SortProperty> sortProperties);
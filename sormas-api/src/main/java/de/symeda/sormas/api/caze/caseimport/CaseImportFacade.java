@@ -15,6 +15,8 @@
 
 package de.symeda.sormas.api.caze.caseimport;
 
+import java.util.List;
+
 import javax.ejb.Remote;
 
 import de.symeda.sormas.api.importexport.ImportLineResultDto;
@@ -40,4 +42,24 @@ public interface CaseImportFacade {
 		throws InvalidColumnException;
 
 	ImportLineResultDto<CaseImportEntities> saveImportedEntities(CaseImportEntities entities);
+
+	/**
+	 * Builds and validates the entities of several lines without saving them.
+	 * 
+	 * @return The results in the order of the lines; successful results contain the entities to save.
+	 */
+	List<ImportLineResultDto<CaseImportEntities>> buildImportEntities(
+		List<String[]> lines,
+		String[] entityClasses,
+		String[] entityProperties,
+		String[][] entityPropertyPaths,
+		boolean ignoreEmptyEntries);
+
+	/**
+	 * Saves the entities of several lines in one transaction. Entities whose person is similar to an existing person are not
+	 * saved but returned as duplicates, so the user can decide about them.
+	 * 
+	 * @return The results in the order of the entities.
+	 */
+	List<ImportLineResultDto<CaseImportEntities>> saveImportedEntities(List<CaseImportEntities> entities);
 }
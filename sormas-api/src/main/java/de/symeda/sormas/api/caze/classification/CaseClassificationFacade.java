@@ -32,6 +32,20 @@ public interface CaseClassificationFacade {
 
 	CaseClassification getClassification(CaseDataDto caze, List<PathogenTestDto> pathogenTests);
 
+	/**
+	 * Classifies all cases with their persons and pathogen tests loaded for the whole list at once.
+	 *
+	 * @return The classifications in the order of the cases.
+	 */
+	List<CaseClassification> getClassifications(List<CaseDataDto> cases);
+
+	/**
+	 * Reclassifies all cases of the disease that have not been classified as no case, e.g. after the classification criteria
+	 * have changed. Returns when the job has been started; the cases are processed asynchronously and the progress is logged and
+	 * stored as a system event.
+	 */
+	void reclassifyCases(Disease disease);
+
 	DiseaseClassificationCriteriaDto getByDisease(Disease disease);
 
 	List<DiseaseClassificationCriteriaDto> getAllSince(Date changeDate);
@@ -44,6 +44,12 @@ public class ClassificationCaseCriteriaDto extends ClassificationCriteriaDto {
 	protected String propertyId;
 	protected List<Object> propertyValues;
 
+	/**
+	 * The getter of the property, resolved on the first evaluation. Criteria are built once and evaluated for many cases, so
+	 * the getter is not looked up again for every evaluation.
+	 */
+	private transient Method propertyGetter;
+
 	public ClassificationCaseCriteriaDto() {
 
 	}
@@ -63,16 +69,43 @@ public class ClassificationCaseCriteriaDto extends ClassificationCriteriaDto {
 
 	@Override
 	public boolean eval(CaseDataDto caze, PersonDto person, List<PathogenTestDto> pathogenTests) {
+		return propertyValues.contains(getPropertyValue(getInvokeObject(caze)));
+	}
+
+	/**
+	 * @return The value of the property of the given instance of {@link #getInvokeClass()}.
+	 */
+	protected Object getPropertyValue(Object invokeObject) {
 
 		try {
-			Method method = getInvokeClass().getMethod("get" + propertyId.substring(0, 1).toUpperCase() + propertyId.substring(1));
-			Object value = method.invoke(getInvokeObject(caze));
-			return propertyValues.contains(value);
-		} catch (NoSuchMethodException | IllegalAccessException | IllegalArgumentException | InvocationTargetException | SecurityException e) {
+			return getPropertyGetter().invoke(invokeObject);
+		} catch (IllegalAccessException | IllegalArgumentException | InvocationTargetException | SecurityException e) {
 			throw new RuntimeException(e);
 		}
 	}
 
+	private Method getPropertyGetter() {
+
+		// no synchronization needed: concurrent evaluations resolve the same getter
+		Method getter = propertyGetter;
+		if (getter == null) {
+			String capitalizedPropertyId = propertyId.substring(0, 1).toUpperCase() + propertyId.substring(1);
+			try {
+				getter = getInvokeClass().getMethod("get" + capitalizedPropertyId);
+			} catch (NoSuchMethodException e) {
+				try {
+					getter = getInvokeClass().getMethod("is" + capitalizedPropertyId);
+				} catch (NoSuchMethodException newE) {
+					throw new RuntimeException(newE);
+				}
+			} catch (SecurityException e) {
+				throw new RuntimeException(e);
+			}
+			propertyGetter = getter;
+		}
+		return getter;
+	}
+
 	protected StringBuilder appendDescValues(StringBuilder stringBuilder) {
 
 		if (propertyValues.size() == 1 && propertyValues.get(0) instanceof YesNoUnknown) {
@@ -106,6 +139,7 @@ public class ClassificationCaseCriteriaDto extends ClassificationCriteriaDto {
 
 	public void setPropertyId(String propertyId) {
 		this.propertyId = propertyId;
+		this.propertyGetter = null;
 	}
 
 	public List<Object> getPropertyValues() {
@@ -17,8 +17,6 @@
  *******************************************************************************/
 package de.symeda.sormas.api.caze.classification;
 
-import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Method;
 import java.util.Date;
 import java.util.List;
 
@@ -55,21 +53,16 @@ public class ClassificationNotInStartDateRangeCriteriaDto extends Classification
 	@Override
 	public boolean eval(CaseDataDto caze, PersonDto person, List<PathogenTestDto> sampleTests) {
 
-		try {
-			Method method = getInvokeClass().getMethod("get" + propertyId.substring(0, 1).toUpperCase() + propertyId.substring(1));
-			Object value = method.invoke(getInvokeObject(caze));
-			if (value instanceof Date) {
-				Date startDate = CaseLogic.getStartDate(caze.getSymptoms().getOnsetDate(), caze.getReportDate());
-				Date lowerThresholdDate = DateHelper.subtractDays(startDate, daysBeforeStartDate);
+		Object value = getPropertyValue(getInvokeObject(caze));
+		if (value instanceof Date) {
+			Date startDate = CaseLogic.getStartDate(caze.getSymptoms().getOnsetDate(), caze.getReportDate());
+			Date lowerThresholdDate = DateHelper.subtractDays(startDate, daysBeforeStartDate);
 
-				return !(((Date) value).equals(lowerThresholdDate)
-					|| ((Date) value).equals(startDate)
-					|| (((Date) value).after(lowerThresholdDate) && ((Date) value).before(startDate)));
-			} else {
-				return true;
-			}
-		} catch (NoSuchMethodException | IllegalAccessException | IllegalArgumentException | InvocationTargetException | SecurityException e) {
-			throw new RuntimeException(e);
+			return !(((Date) value).equals(lowerThresholdDate)
+				|| ((Date) value).equals(startDate)
+				|| (((Date) value).after(lowerThresholdDate) && ((Date) value).before(startDate)));
+		} else {
+			return true;
 		}
 	}
 
@@ -17,8 +17,6 @@
  *******************************************************************************/
 package de.symeda.sormas.api.caze.classification;
 
-import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Method;
 import java.util.List;
 
 import de.symeda.sormas.api.EntityDto;
@@ -58,26 +56,9 @@ public class ClassificationPathogenTestCriteriaDto extends ClassificationCaseCri
 				continue;
 			}
 
-			Method method = null;
-			try {
-				method = getInvokeClass().getMethod("get" + propertyId.substring(0, 1).toUpperCase() + propertyId.substring(1));
-			} catch (NoSuchMethodException e) {
-				try {
-					method = getInvokeClass().getMethod("is" + propertyId.substring(0, 1).toUpperCase() + propertyId.substring(1));
-				} catch (NoSuchMethodException newE) {
-					throw new RuntimeException(newE);
-				}
-			} catch (SecurityException e) {
-				throw new RuntimeException(e);
-			}
-
-			try {
-				Object value = method.invoke(pathogenTest);
-				if (propertyValues.contains(value)) {
-					return true;
-				}
-			} catch (IllegalAccessException | IllegalArgumentException | InvocationTargetException | SecurityException e) {
-				throw new RuntimeException(e);
+			Object value = getPropertyValue(pathogenTest);
+			if (propertyValues.contains(value)) {
+				return true;
 			}
 		}
 
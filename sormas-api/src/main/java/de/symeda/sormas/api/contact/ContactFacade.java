@@ -39,6 +39,12 @@ public interface ContactFacade {
 
 	List<ContactDto> getAllActiveContactsAfter(Date date);
 
+	/**
+	 * Batched variant for synchronisation: Returns at most {@code batchSize} entities, ordered by change date and uuid.
+	 * The next batch is requested by passing change date and uuid of the last entity of the previous batch.
+	 */
+	List<ContactDto> getAllActiveContactsAfter(Date date, Integer batchSize, Date lastChangeDate, String lastUuid);
+
 	ContactDto getContactByUuid(String uuid);
 
 	Boolean isValidContactUuid(String uuid);
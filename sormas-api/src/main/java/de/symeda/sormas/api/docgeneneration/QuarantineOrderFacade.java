@@ -37,6 +37,18 @@ public interface QuarantineOrderFacade {
 		Properties extraProperties)
 		throws DocumentTemplateException;
 
+	/**
+	 * Generates the document for each of the root entities, which have to be of the same type.
+	 * 
+	 * @return A zip file with one document per root entity, named by its uuid and the template name
+	 */
+	byte[] getGeneratedDocuments(
+		String templateName,
+		List<ReferenceDto> rootEntityReferences,
+		UserReferenceDto userReference,
+		Properties extraProperties)
+		throws DocumentTemplateException;
+
 	List<String> getAvailableTemplates(ReferenceDto referenceDto) throws DocumentTemplateException;
 
 	DocumentVariables getDocumentVariables(ReferenceDto referenceDto, String templateName) throws DocumentTemplateException;
@@ -36,6 +36,12 @@ public interface EventFacade {
 
 	List<EventDto> getAllActiveEventsAfter(Date date);
 
+	/**
+	 * Batched variant for synchronisation: Returns at most {@code batchSize} entities, ordered by change date and uuid.
+	 * The next batch is requested by passing change date and uuid of the last entity of the previous batch.
+	 */
+	List<EventDto> getAllActiveEventsAfter(Date date, Integer batchSize, Date lastChangeDate, String lastUuid);
+
 	List<DashboardEventDto> getNewEventsForDashboard(EventCriteria eventCriteria);
 
 	Map<Disease, Long> getEventCountByDisease(EventCriteria eventCriteria);
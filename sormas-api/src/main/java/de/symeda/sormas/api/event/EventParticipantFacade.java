@@ -37,6 +37,12 @@ public interface EventParticipantFacade {
 
 	List<EventParticipantDto> getAllActiveEventParticipantsAfter(Date date);
 
+	/**
+	 * Batched variant for synchronisation: Returns at most {@code batchSize} entities, ordered by change date and uuid.
+	 * The next batch is requested by passing change date and uuid of the last entity of the previous batch.
+	 */
+	List<EventParticipantDto> getAllActiveEventParticipantsAfter(Date date, Integer batchSize, Date lastChangeDate, String lastUuid);
+
 	EventParticipantDto getEventParticipantByUuid(String uuid);
 
 	EventParticipantDto saveEventParticipant(@Valid EventParticipantDto dto);
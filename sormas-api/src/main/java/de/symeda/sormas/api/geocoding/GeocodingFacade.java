@@ -17,8 +17,11 @@
  *******************************************************************************/
 package de.symeda.sormas.api.geocoding;
 
+import java.util.List;
+
 import javax.ejb.Remote;
 
+import de.symeda.sormas.api.location.LocationDto;
 import de.symeda.sormas.api.region.GeoLatLon;
 
 @Remote
@@ -27,4 +30,11 @@ public interface GeocodingFacade {
 	boolean isEnabled();
 
 	GeoLatLon getLatLon(String street, String houseNumber, String postalCode, String city);
+
+	/**
+	 * Geocodes the addresses of all locations in one go. Identical and already geocoded addresses are served from a cache.
+	 *
+	 * @return The coordinates in the order of the locations; {@code null} for the ones that could not be geocoded.
+	 */
+	List<GeoLatLon> getLatLons(List<LocationDto> locations);
 }
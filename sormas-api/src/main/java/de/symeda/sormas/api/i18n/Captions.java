@@ -1180,7 +1180,7 @@ public interface Captions {
 	String importImportData = "importImportData";
 	String importImports = "importImports";
 	String importLineListing = "importLineListing";
-	String importProcessed = "importProcessed";
+	String importProcessedCount = "importProcessedCount";
 	String importSkips = "importSkips";
 	String inaccessibleValue = "inaccessibleValue";
 	String info = "info";
@@ -572,7 +572,7 @@ public interface Strings {
 	String infoImportAllSubcontinents = "infoImportAllSubcontinents";
 	String infoImportCsvFile = "infoImportCsvFile";
 	String infoImportInfrastructureAllowOverwrite = "infoImportInfrastructureAllowOverwrite";
-	String infoImportProcess = "infoImportProcess";
+	String infoImportProcessRunning = "infoImportProcessRunning";
 	String infoImportSimilarity = "infoImportSimilarity";
 	String infoLineListingConfigurationNation = "infoLineListingConfigurationNation";
 	String infoLineListingConfigurationNationEdit = "infoLineListingConfigurationNationEdit";
@@ -918,6 +918,7 @@ public interface Strings {
 	String notificationLabSampleShippedShortForEventParticipant = "notificationLabSampleShippedShortForEventParticipant";
 	String notificationPersonsUpdated = "notificationPersonsUpdated";
 	String notificationSmsSent = "notificationSmsSent";
+	String notificationTaskDigestMore = "notificationTaskDigestMore";
 	String notificationTaskDueGeneral = "notificationTaskDueGeneral";
 	String notificationTaskDueSpecific = "notificationTaskDueSpecific";
 	String notificationTaskStartGeneral = "notificationTaskStartGeneral";
@@ -36,6 +36,12 @@ public interface PersonFacade {
 
 	List<PersonDto> getPersonsAfter(Date date);
 
+	/**
+	 * Batched variant for synchronisation: Returns at most {@code batchSize} entities, ordered by change date and uuid.
+	 * The next batch is requested by passing change date and uuid of the last entity of the previous batch.
+	 */
+	List<PersonDto> getPersonsAfter(Date date, Integer batchSize, Date lastChangeDate, String lastUuid);
+
 	List<PersonDto> getDeathsBetween(Date fromDate, Date toDate, DistrictReferenceDto districtRef, Disease disease);
 
 	PersonReferenceDto getReferenceByUuid(String uuid);
@@ -34,6 +34,12 @@ public interface SampleFacade {
 
 	List<SampleDto> getAllActiveSamplesAfter(Date date);
 
+	/**
+	 * Batched variant for synchronisation: Returns at most {@code batchSize} entities, ordered by change date and uuid.
+	 * The next batch is requested by passing change date and uuid of the last entity of the previous batch.
+	 */
+	List<SampleDto> getAllActiveSamplesAfter(Date date, Integer batchSize, Date lastChangeDate, String lastUuid);
+
 	List<SampleIndexDto> getIndexList(SampleCriteria sampleCriteria, Integer first, Integer max, List<SortProperty> sortProperties);
 
 	List<SampleExportDto> getExportList(SampleCriteria sampleCriteria, Collection<String> selectedRows, int first, int max);
@@ -636,4 +636,17 @@ public class StatisticsCaseCriteria implements Serializable {
 			|| onsetQuartersOfYear != null
 			|| onsetYears != null;
 	}
+
+	public boolean hasOutcomeDate() {
+
+		return outcomeDateFrom != null
+			|| outcomeDateTo != null
+			|| outcomeEpiWeeks != null
+			|| outcomeEpiWeeksOfYear != null
+			|| outcomeMonths != null
+			|| outcomeMonthsOfYear != null
+			|| outcomeQuarters != null
+			|| outcomeQuartersOfYear != null
+			|| outcomeYears != null;
+	}
 }
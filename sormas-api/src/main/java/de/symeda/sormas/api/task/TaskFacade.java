@@ -35,6 +35,12 @@ public interface TaskFacade {
 
 	List<TaskDto> getAllActiveTasksAfter(Date date);
 
+	/**
+	 * Batched variant for synchronisation: Returns at most {@code batchSize} entities, ordered by change date and uuid.
+	 * The next batch is requested by passing change date and uuid of the last entity of the previous batch.
+	 */
+	List<TaskDto> getAllActiveTasksAfter(Date date, Integer batchSize, Date lastChangeDate, String lastUuid);
+
 	List<TaskDto> getAllByCase(CaseReferenceDto caseRef);
 
 	List<TaskDto> getAllByContact(ContactReferenceDto contactRef);
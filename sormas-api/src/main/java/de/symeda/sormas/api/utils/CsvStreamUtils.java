@@ -24,9 +24,9 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.collections.Predicate;
@@ -43,6 +43,12 @@ import de.symeda.sormas.api.utils.fieldvisibility.checkers.CountryFieldVisibilit
 
 public class CsvStreamUtils {
 
+	/**
+	 * Read methods by class, in the order of their {@link Order} annotation. Collecting them needs a lot of reflection, so they are
+	 * only collected once per class and then filtered for each export.
+	 */
+	private static final Map<Class<?>, List<Method>> READ_METHODS = new ConcurrentHashMap<>();
+
 	public static <T> void writeCsvContentToStream(
 		Class<T> csvRowClass,
 		SupplierBiFunction<Integer, Integer, List<T>> exportRowsSupplier,
@@ -60,25 +66,25 @@ public class CsvStreamUtils {
 				getExportRowClassReadMethods(csvRowClass, exportConfiguration, redMethodFilter, configFacade.getCountryLocale());
 
 			// 2. replace entity fields with all the columns of the entity
-			Map<Method, SubEntityProvider<T>> subEntityProviders = new HashMap<Method, SubEntityProvider<T>>();
+			// for each column the index of the getter of its sub entity; -1 for columns of the row itself
+			List<Integer> subEntityIndexes = new ArrayList<>(Collections.nCopies(readMethods.size(), -1));
+			List<Method> subEntityGetters = new ArrayList<>();
 			for (int i = 0; i < readMethods.size(); i++) {
 				final Method method = readMethods.get(i);
 				if (EntityDto.class.isAssignableFrom(method.getReturnType())) {
 
 					// allows us to access the sub entity
-					SubEntityProvider<T> subEntityProvider = createSubEntityProvider(method);
+					subEntityGetters.add(method);
 
 					// remove entity field
 					readMethods.remove(i);
+					subEntityIndexes.remove(i);
 
 					// add columns of the entity
 					List<Method> subReadMethods = getReadMethods(method.getReturnType(), null);
 					readMethods.addAll(i, subReadMethods);
-					i--;
-
-					for (Method subReadMethod : subReadMethods) {
-						subEntityProviders.put(subReadMethod, subEntityProvider);
-					}
+					subEntityIndexes.addAll(i, Collections.nCopies(subReadMethods.size(), subEntityGetters.size() - 1));
+					i += subReadMethods.size() - 1;
 				}
 			}
 
@@ -107,9 +113,10 @@ public class CsvStreamUtils {
 					fieldEntityClass = method.getAnnotation(ExportEntity.class).value();
 				}
 
-				if (subEntityProviders.containsKey(method)) {
-					fieldEntityClass = subEntityProviders.get(method).getEntityClass();
-					propertyId = subEntityProviders.get(method).getName() + "." + propertyId;
+				if (subEntityIndexes.get(i) >= 0) {
+					Method subEntityGetter = subEntityGetters.get(subEntityIndexes.get(i));
+					fieldEntityClass = subEntityGetter.getReturnType();
+					propertyId = getFieldNameFromMethod(subEntityGetter) + "." + propertyId;
 				}
 
 				if (fieldEntityClass != null) {
@@ -126,6 +133,16 @@ public class CsvStreamUtils {
 			labels[0] = CSVCommentLineValidator.DEFAULT_COMMENT_LINE_PREFIX + labels[0];
 			writer.writeNext(labels, false);
 
+			// 3. write the rows with flat arrays instead of per cell lookups; each sub entity is only fetched once per row
+			Method[] columnReadMethods = readMethods.toArray(new Method[0]);
+			int[] columnSubEntityIndexes = new int[columnReadMethods.length];
+			for (int i = 0; i < columnSubEntityIndexes.length; i++) {
+				columnSubEntityIndexes[i] = subEntityIndexes.get(i);
+			}
+			Method[] subEntityGetterArray = subEntityGetters.toArray(new Method[0]);
+			Object[] subEntities = new Object[subEntityGetterArray.length];
+			String[] values = new String[columnReadMethods.length];
+
 			int startIndex = 0;
 			int stepSize = configFacade.getStepSizeForCsvExport();
 
@@ -133,16 +150,17 @@ public class CsvStreamUtils {
 			while (!exportRows.isEmpty()) {
 				try {
 					for (T exportRow : exportRows) {
-						for (int i = 0; i < readMethods.size(); i++) {
-							Method method = readMethods.get(i);
-							SubEntityProvider<T> subEntityProvider = subEntityProviders.get(method);
-							Object entity = subEntityProvider != null ? subEntityProvider.get(exportRow) : exportRow;
+						for (int i = 0; i < subEntityGetterArray.length; i++) {
+							subEntities[i] = subEntityGetterArray[i].invoke(exportRow);
+						}
+						for (int i = 0; i < columnReadMethods.length; i++) {
+							Object entity = columnSubEntityIndexes[i] < 0 ? exportRow : subEntities[columnSubEntityIndexes[i]];
 							// Sub entity might be null
-							Object value = entity != null ? method.invoke(entity) : null;
+							Object value = entity != null ? columnReadMethods[i].invoke(entity) : null;
 
-							labels[i] = DataHelper.valueToString(value);
+							values[i] = value instanceof String ? (String) value : DataHelper.valueToString(value);
 						}
-						writer.writeNext(labels);
+						writer.writeNext(values);
 					}
 				} catch (InvocationTargetException | IllegalAccessException | IllegalArgumentException e) {
 					throw new RuntimeException(e);
@@ -196,6 +214,22 @@ public class CsvStreamUtils {
 	}
 
 	private static List<Method> getReadMethods(Class<?> clazz, final Predicate filters) {
+		List<Method> cachedReadMethods = READ_METHODS.get(clazz);
+		if (cachedReadMethods == null) {
+			cachedReadMethods = collectReadMethods(clazz);
+			READ_METHODS.put(clazz, cachedReadMethods);
+		}
+
+		ArrayList<Method> readMethods = new ArrayList<>(cachedReadMethods);
+
+		if (filters != null) {
+			CollectionUtils.filter(readMethods, filters);
+		}
+
+		return readMethods;
+	}
+
+	private static List<Method> collectReadMethods(Class<?> clazz) {
 		ArrayList<Method> readMethods = new ArrayList<>(Arrays.asList(clazz.getDeclaredMethods()));
 
 		CollectionUtils.filter(readMethods, new Predicate() {
@@ -203,9 +237,7 @@ public class CsvStreamUtils {
 			@Override
 			public boolean evaluate(Object o) {
 				Method m = (Method) o;
-				return (m.getName().startsWith("get") || m.getName().startsWith("is"))
-					&& m.isAnnotationPresent(Order.class)
-					&& (filters == null || filters.evaluate(o));
+				return (m.getName().startsWith("get") || m.getName().startsWith("is")) && m.isAnnotationPresent(Order.class);
 			}
 		});
 		Collections.sort(readMethods, new Comparator<Method>() {
@@ -219,44 +251,16 @@ public class CsvStreamUtils {
 			}
 		});
 
-		return readMethods;
+		// skips the access check on every invocation
+		for (Method readMethod : readMethods) {
+			readMethod.setAccessible(true);
+		}
+
+		return Collections.unmodifiableList(readMethods);
 	}
 
 	public interface SupplierBiFunction<T, U, R> {
 
 		R apply(T t, U u);
 	}
-
-	private interface SubEntityProvider<T> {
-
-		String getName();
-
-		Class<?> getEntityClass();
-
-		Object get(T parent);
-	}
-
-	private static <T> SubEntityProvider<T> createSubEntityProvider(final Method getter) {
-		return new SubEntityProvider<T>() {
-
-			@Override
-			public String getName() {
-				return getFieldNameFromMethod(getter);
-			}
-
-			@Override
-			public Class<?> getEntityClass() {
-				return getter.getReturnType();
-			}
-
-			@Override
-			public Object get(T parent) {
-				try {
-					return getter.invoke(parent);
-				} catch (IllegalAccessException | IllegalArgumentException | InvocationTargetException e) {
-					throw new RuntimeException(e);
-				}
-			}
-		};
-	}
 }
@@ -18,7 +18,10 @@ package de.symeda.sormas.api.utils.pseudonymization;
 import java.lang.reflect.Field;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import de.symeda.sormas.api.user.UserRight;
 import de.symeda.sormas.api.utils.fieldaccess.FieldAccessChecker;
@@ -27,6 +30,11 @@ import de.symeda.sormas.api.utils.pseudonymization.valuepseudonymizers.DefaultVa
 
 public class DtoPseudonymizer {
 
+	/**
+	 * Fields of each class including the ones of its superclasses, made accessible once.
+	 */
+	private static final Map<Class<?>, List<Field>> DECLARED_FIELDS = new ConcurrentHashMap<>();
+
 	protected FieldAccessCheckers inJurisdictionCheckers;
 	protected FieldAccessCheckers outsideJurisdictionCheckers;
 
@@ -34,6 +42,15 @@ public class DtoPseudonymizer {
 
 	private final boolean pseudonymizeMandatoryFields;
 
+	/**
+	 * The checkers and their rights don't change after they were added, so the fields to pseudonymize are only resolved once per
+	 * class.
+	 */
+	private final Map<Class<?>, FieldPlan> inJurisdictionFieldPlans = new ConcurrentHashMap<>();
+	private final Map<Class<?>, FieldPlan> outsideJurisdictionFieldPlans = new ConcurrentHashMap<>();
+
+	private final Map<Class<? extends ValuePseudonymizer>, ValuePseudonymizer<?>> valuePseudonymizers = new ConcurrentHashMap<>();
+
 	protected DtoPseudonymizer(
 		FieldAccessCheckers inJurisdictionCheckers,
 		FieldAccessCheckers outsideJurisdictionCheckers,
@@ -49,6 +66,9 @@ public class DtoPseudonymizer {
 	public void addFieldAccessChecker(FieldAccessChecker inJurisdictionChecker, FieldAccessChecker outsideJurisdictionChecker) {
 		this.inJurisdictionCheckers.add(inJurisdictionChecker);
 		this.outsideJurisdictionCheckers.add(outsideJurisdictionChecker);
+
+		inJurisdictionFieldPlans.clear();
+		outsideJurisdictionFieldPlans.clear();
 	}
 
 	public <DTO> void pseudonymizeDtoCollection(
@@ -67,17 +87,14 @@ public class DtoPseudonymizer {
 		final CustomCollectionItemPseudonymization<DTO> customPseudonymization,
 		boolean skipEmbeddedFields) {
 
-		List<Field> pseudonymizableFieldsInJurisdiction = getPseudonymizableFields(type, true);
-		List<Field> pseudonymizableFieldsOutsideJurisdiction = getPseudonymizableFields(type, false);
-		List<Field> embeddedFieldsInJurisdiction = getEmbeddedFields(type, true);
-		List<Field> embeddedFieldsOutsideJurisdiction = getEmbeddedFields(type, false);
+		FieldPlan fieldPlanInJurisdiction = getFieldPlan(type, true);
+		FieldPlan fieldPlanOutsideJurisdiction = getFieldPlan(type, false);
 
 		for (final DTO dto : dtos) {
 			final boolean isInJurisdiction = jurisdictionValidator.validate(dto);
 			pseudonymizeDto(
 				dto,
-				isInJurisdiction ? pseudonymizableFieldsInJurisdiction : pseudonymizableFieldsOutsideJurisdiction,
-				isInJurisdiction ? embeddedFieldsInJurisdiction : embeddedFieldsOutsideJurisdiction,
+				isInJurisdiction ? fieldPlanInJurisdiction : fieldPlanOutsideJurisdiction,
 				isInJurisdiction,
 				null,
 				customPseudonymization == null ? null : new CustomPseudonymization<DTO>() {
@@ -92,10 +109,7 @@ public class DtoPseudonymizer {
 	}
 
 	public <DTO> void pseudonymizeDto(Class<DTO> type, DTO dto, boolean isInJurisdiction, CustomPseudonymization<DTO> customPseudonymization) {
-		List<Field> declaredFields = getPseudonymizableFields(type, isInJurisdiction);
-		List<Field> embeddedFields = getEmbeddedFields(type, isInJurisdiction);
-
-		pseudonymizeDto(dto, declaredFields, embeddedFields, isInJurisdiction, null, customPseudonymization, false);
+		pseudonymizeDto(dto, getFieldPlan(type, isInJurisdiction), isInJurisdiction, null, customPseudonymization, false);
 	}
 
 	public <DTO extends Pseudonymizable> void restorePseudonymizedValues(Class<DTO> type, DTO dto, DTO originalDto, boolean isInJurisdiction) {
@@ -103,60 +117,31 @@ public class DtoPseudonymizer {
 			return;
 		}
 
-		List<Field> pseudonymizableFields = getPseudonymizableFields(type, isInJurisdiction);
-		List<Field> embeddedFields = getEmbeddedFields(type, isInJurisdiction);
+		FieldPlan fieldPlan = getFieldPlan(type, isInJurisdiction);
 
-		for (Field pseudonymizedField : pseudonymizableFields) {
-			if (!getFieldAccessCheckers(isInJurisdiction).isAccessible(pseudonymizedField, pseudonymizeMandatoryFields) || dto.isPseudonymized()) {
-				restoreOriginalValue(dto, pseudonymizedField, originalDto);
-			}
+		for (PlannedField pseudonymizedField : dto.isPseudonymized() ? fieldPlan.pseudonymizableFields : fieldPlan.inaccessibleFields) {
+			restoreOriginalValue(dto, pseudonymizedField.field, originalDto);
 		}
-		for (Field embeddedField : embeddedFields) {
-			Class<?> fieldType = embeddedField.getType();
+		for (PlannedField embeddedField : fieldPlan.embeddedFields) {
+			Class<?> fieldType = embeddedField.field.getType();
 
 			if (Pseudonymizable.class.isAssignableFrom(fieldType)) {
-				boolean isAccessible = embeddedField.isAccessible();
 				try {
-					embeddedField.setAccessible(true);
-
 					restorePseudonymizedValues(
 						(Class<Pseudonymizable>) fieldType,
-						(Pseudonymizable) embeddedField.get(dto),
-						(Pseudonymizable) embeddedField.get(originalDto),
+						(Pseudonymizable) embeddedField.field.get(dto),
+						(Pseudonymizable) embeddedField.field.get(originalDto),
 						isInJurisdiction);
 				} catch (IllegalAccessException e) {
-					throw new RuntimeException("Couldn't restore embedded field " + dto.getClass().getName() + "." + embeddedField.getName(), e);
-				} finally {
-					embeddedField.setAccessible(isAccessible);
+					throw new RuntimeException("Couldn't restore embedded field " + dto.getClass().getName() + "." + embeddedField.field.getName(), e);
 				}
 			}
 		}
 	}
 
-	private <DTO> boolean pseudonymizeDto(
-		Class<DTO> type,
-		DTO dto,
-		boolean isInJurisdiction,
-		Class<? extends ValuePseudonymizer> defaultPseudonymizerClass,
-		CustomPseudonymization<DTO> customPseudonymization,
-		boolean skipEmbeddedFields) {
-		List<Field> declaredFields = getPseudonymizableFields(type, isInJurisdiction);
-		List<Field> embeddedFields = getEmbeddedFields(type, isInJurisdiction);
-
-		return pseudonymizeDto(
-			dto,
-			declaredFields,
-			embeddedFields,
-			isInJurisdiction,
-			defaultPseudonymizerClass,
-			customPseudonymization,
-			skipEmbeddedFields);
-	}
-
 	private <DTO> boolean pseudonymizeDto(
 		DTO dto,
-		List<Field> pseudonymizableFields,
-		List<Field> embeddedFields,
+		FieldPlan fieldPlan,
 		boolean inJurisdiction,
 		Class<? extends ValuePseudonymizer> defaultPseudonymizerClass,
 		CustomPseudonymization<DTO> customPseudonymization,
@@ -167,36 +152,28 @@ public class DtoPseudonymizer {
 
 		boolean didPseudonymization = false;
 
-		for (Field field : pseudonymizableFields) {
-			if (!getFieldAccessCheckers(inJurisdiction).isAccessible(field, pseudonymizeMandatoryFields)) {
-				pseudonymizeField(dto, field, defaultPseudonymizerClass);
-				didPseudonymization = true;
-			}
+		for (PlannedField field : fieldPlan.inaccessibleFields) {
+			pseudonymizeField(dto, field, defaultPseudonymizerClass);
+			didPseudonymization = true;
 		}
 
 		if (!skipEmbeddedFields) {
-			for (Field embeddedField : embeddedFields) {
-				boolean accessible = embeddedField.isAccessible();
+			for (PlannedField embeddedField : fieldPlan.embeddedFields) {
 				try {
-
-					embeddedField.setAccessible(true);
-					Pseudonymizer pseudonymizerAnnotation = embeddedField.getAnnotation(Pseudonymizer.class);
 					Class<? extends ValuePseudonymizer> psudonomyzerClass =
-						pseudonymizerAnnotation != null ? pseudonymizerAnnotation.value() : defaultPseudonymizerClass;
+						embeddedField.pseudonymizerClass != null ? embeddedField.pseudonymizerClass : defaultPseudonymizerClass;
 
 					didPseudonymization = pseudonymizeDto(
-						(Class<Object>) embeddedField.getType(),
-						embeddedField.get(dto),
+						embeddedField.field.get(dto),
+						getFieldPlan(embeddedField.field.getType(), inJurisdiction),
 						inJurisdiction,
 						psudonomyzerClass,
 						null,
 						skipEmbeddedFields);
 				} catch (IllegalAccessException e) {
 					throw new RuntimeException(
-						"Failed to pseudonymize embedded field " + dto.getClass().getName() + "." + embeddedField.getName(),
+						"Failed to pseudonymize embedded field " + dto.getClass().getName() + "." + embeddedField.field.getName(),
 						e);
-				} finally {
-					embeddedField.setAccessible(accessible);
 				}
 			}
 		}
@@ -212,84 +189,92 @@ public class DtoPseudonymizer {
 		return didPseudonymization;
 	}
 
-	private <DTO> void pseudonymizeField(DTO dto, Field field, Class<? extends ValuePseudonymizer> pseudonymizerClass) {
+	private <DTO> void pseudonymizeField(DTO dto, PlannedField field, Class<? extends ValuePseudonymizer> defaultPseudonymizerClass) {
 
 		try {
-			field.setAccessible(true);
-
-			ValuePseudonymizer<?> pseudonymizer = getPseudonymizer(field, pseudonymizerClass);
-			Object emptyValue = pseudonymizer.pseudonymize(field.get(dto));
-			field.set(dto, emptyValue);
+			ValuePseudonymizer<?> pseudonymizer = getPseudonymizer(field, defaultPseudonymizerClass);
+			Object emptyValue = pseudonymizer.pseudonymize(field.field.get(dto));
+			field.field.set(dto, emptyValue);
 		} catch (IllegalAccessException | InstantiationException e) {
 			throw new RuntimeException(e);
-		} finally {
-			field.setAccessible(false);
 		}
 	}
 
-	private ValuePseudonymizer<?> getPseudonymizer(Field field, Class<? extends ValuePseudonymizer> defaultPseudonymizerClass)
+	private ValuePseudonymizer<?> getPseudonymizer(PlannedField field, Class<? extends ValuePseudonymizer> defaultPseudonymizerClass)
 		throws IllegalAccessException, InstantiationException {
-		Pseudonymizer pseudonymizerAnnotation = field.getAnnotation(Pseudonymizer.class);
 
-		if (pseudonymizerAnnotation == null) {
-			if (defaultPseudonymizerClass != null) {
-				return defaultPseudonymizerClass.newInstance();
-			}
+		Class<? extends ValuePseudonymizer> pseudonymizerClass =
+			field.pseudonymizerClass != null ? field.pseudonymizerClass : defaultPseudonymizerClass;
+		if (pseudonymizerClass == null) {
+			pseudonymizerClass = DefaultValuePseudonymizer.class;
+		}
 
-			return new DefaultValuePseudonymizer<>(stringValuePlaceholder);
+		// value pseudonymizers are stateless, so one instance of each is enough
+		ValuePseudonymizer<?> pseudonymizer = valuePseudonymizers.get(pseudonymizerClass);
+		if (pseudonymizer == null) {
+			pseudonymizer = pseudonymizerClass == DefaultValuePseudonymizer.class
+				? new DefaultValuePseudonymizer<>(stringValuePlaceholder)
+				: pseudonymizerClass.newInstance();
+			valuePseudonymizers.put(pseudonymizerClass, pseudonymizer);
 		}
 
-		return pseudonymizerAnnotation.value().newInstance();
+		return pseudonymizer;
 	}
 
 	private <DTO extends Pseudonymizable> void restoreOriginalValue(DTO dto, Field field, DTO originalDto) {
 
 		try {
-			field.setAccessible(true);
 			Object originalValue = field.get(originalDto);
 			field.set(dto, originalValue);
 		} catch (IllegalAccessException e) {
 			throw new RuntimeException(e);
-		} finally {
-			field.setAccessible(false);
 		}
 	}
 
-	private List<Field> getPseudonymizableFields(Class<?> type, boolean inJurisdiction) {
-		final FieldAccessCheckers fieldAccessCheckers = getFieldAccessCheckers(inJurisdiction);
+	private FieldPlan getFieldPlan(Class<?> type, boolean inJurisdiction) {
 
-		return filterFields(type, new FieldFilter() {
+		Map<Class<?>, FieldPlan> fieldPlans = inJurisdiction ? inJurisdictionFieldPlans : outsideJurisdictionFieldPlans;
+		FieldPlan fieldPlan = fieldPlans.get(type);
+		if (fieldPlan == null) {
+			fieldPlan = createFieldPlan(type, getFieldAccessCheckers(inJurisdiction));
+			fieldPlans.put(type, fieldPlan);
+		}
 
-			@Override
-			public boolean apply(Field field) {
-				return fieldAccessCheckers.isConfiguredForCheck(field, pseudonymizeMandatoryFields);
-			}
-		});
+		return fieldPlan;
 	}
 
-	private List<Field> getEmbeddedFields(Class<?> type, boolean inJurisdiction) {
-		final FieldAccessCheckers fieldAccessCheckers = getFieldAccessCheckers(inJurisdiction);
-
-		return filterFields(type, new FieldFilter() {
+	private FieldPlan createFieldPlan(Class<?> type, FieldAccessCheckers fieldAccessCheckers) {
 
-			@Override
-			public boolean apply(Field field) {
-				return fieldAccessCheckers.isEmbedded(field);
+		FieldPlan fieldPlan = new FieldPlan();
+		for (Field field : getDeclaredFields(type)) {
+			if (fieldAccessCheckers.isConfiguredForCheck(field, pseudonymizeMandatoryFields)) {
+				PlannedField plannedField = new PlannedField(field);
+				fieldPlan.pseudonymizableFields.add(plannedField);
+				if (!fieldAccessCheckers.isAccessible(field, pseudonymizeMandatoryFields)) {
+					fieldPlan.inaccessibleFields.add(plannedField);
+				}
+			}
+			if (fieldAccessCheckers.isEmbedded(field)) {
+				fieldPlan.embeddedFields.add(new PlannedField(field));
 			}
-		});
+		}
+
+		return fieldPlan;
 	}
 
-	private List<Field> filterFields(Class<?> type, FieldFilter filter) {
-		List<Field> declaredFields = new ArrayList<>();
+	private static List<Field> getDeclaredFields(Class<?> type) {
 
-		for (Field field : type.getDeclaredFields()) {
-			if (filter.apply(field)) {
-				declaredFields.add(field);
+		List<Field> declaredFields = DECLARED_FIELDS.get(type);
+		if (declaredFields == null) {
+			declaredFields = new ArrayList<>();
+			for (Class<?> currentType = type; currentType != null; currentType = currentType.getSuperclass()) {
+				for (Field field : currentType.getDeclaredFields()) {
+					field.setAccessible(true);
+					declaredFields.add(field);
+				}
 			}
-		}
-
-		if (type.getSuperclass() != null) {
-			declaredFields.addAll(filterFields(type.getSuperclass(), filter));
+			declaredFields = Collections.unmodifiableList(declaredFields);
+			DECLARED_FIELDS.put(type, declaredFields);
 		}
 
 		return declaredFields;
@@ -319,8 +304,22 @@ public class DtoPseudonymizer {
 		void pseudonymize(DTO dto);
 	}
 
-	private interface FieldFilter {
+	private static final class FieldPlan {
+
+		private final List<PlannedField> pseudonymizableFields = new ArrayList<>();
+		private final List<PlannedField> inaccessibleFields = new ArrayList<>();
+		private final List<PlannedField> embeddedFields = new ArrayList<>();
+	}
+
+	private static final class PlannedField {
 
-		boolean apply(Field field);
+		private final Field field;
+		private final Class<? extends ValuePseudonymizer> pseudonymizerClass;
+
+		private PlannedField(Field field) {
+			this.field = field;
+			Pseudonymizer pseudonymizerAnnotation = field.getAnnotation(Pseudonymizer.class);
+			this.pseudonymizerClass = pseudonymizerAnnotation != null ? pseudonymizerAnnotation.value() : null;
+		}
 	}
 }
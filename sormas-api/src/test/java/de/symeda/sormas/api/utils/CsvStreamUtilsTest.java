@@ -0,0 +1,162 @@
+/*
+ * SORMAS® - Surveillance Outbreak Response Management & Analysis System
+ * Copyright © 2016-2021 Helmholtz-Zentrum für Infektionsforschung GmbH (HZI)
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package de.symeda.sormas.api.utils;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.opencsv.CSVReader;
+import com.opencsv.exceptions.CsvException;
+
+import de.symeda.sormas.api.ConfigFacade;
+import de.symeda.sormas.api.EntityDto;
+
+public class CsvStreamUtilsTest {
+
+	@Test
+	public void testWriteCsvContentToStream() throws IOException, CsvException {
+
+		ConfigFacade configFacade = mock(ConfigFacade.class);
+		when(configFacade.getCsvSeparator()).thenReturn(',');
+		when(configFacade.getStepSizeForCsvExport()).thenReturn(2);
+
+		final List<ExportRow> rows = Arrays.asList(
+			new ExportRow("first", new ExportSubEntity("a", 1), new ExportSubEntity("b", 2)),
+			new ExportRow("second", null, new ExportSubEntity("c", 3)),
+			new ExportRow(null, new ExportSubEntity("d", 4), null));
+
+		for (int i = 0; i < 2; i++) {
+			// twice, so the second export uses the cached read methods
+			ByteArrayOutputStream out = new ByteArrayOutputStream();
+			CsvStreamUtils.writeCsvContentToStream(
+				ExportRow.class,
+				new CsvStreamUtils.SupplierBiFunction<Integer, Integer, List<ExportRow>>() {
+
+					@Override
+					public List<ExportRow> apply(Integer start, Integer max) {
+						return start < rows.size() ? rows.subList(start, Math.min(start + max, rows.size())) : Collections.<ExportRow> emptyList();
+					}
+				},
+				new CsvStreamUtils.SupplierBiFunction<String, Class<?>, String>() {
+
+					@Override
+					public String apply(String propertyId, Class<?> type) {
+						return propertyId;
+					}
+				},
+				null,
+				null,
+				configFacade,
+				out);
+
+			List<String[]> lines = new CSVReader(new StringReader(new String(out.toByteArray(), StandardCharsets.UTF_8))).readAll();
+			assertEquals(5, lines.size());
+			assertArrayEquals(
+				new String[] {
+					"name",
+					"first.text",
+					"first.number",
+					"second.text",
+					"second.number" },
+				lines.get(0));
+			assertArrayEquals(
+				new String[] {
+					"first",
+					"a",
+					"1",
+					"b",
+					"2" },
+				lines.get(2));
+			assertArrayEquals(
+				new String[] {
+					"second",
+					"",
+					"",
+					"c",
+					"3" },
+				lines.get(3));
+			assertArrayEquals(
+				new String[] {
+					"",
+					"d",
+					"4",
+					"",
+					"" },
+				lines.get(4));
+		}
+	}
+
+	public static class ExportRow {
+
+		private final String name;
+		private final ExportSubEntity first;
+		private final ExportSubEntity second;
+
+		public ExportRow(String name, ExportSubEntity first, ExportSubEntity second) {
+			this.name = name;
+			this.first = first;
+			this.second = second;
+		}
+
+		@Order(0)
+		public String getName() {
+			return name;
+		}
+
+		@Order(1)
+		public ExportSubEntity getFirst() {
+			return first;
+		}
+
+		@Order(2)
+		public ExportSubEntity getSecond() {
+			return second;
+		}
+	}
+
+	public static class ExportSubEntity extends EntityDto {
+
+		private final String text;
+		private final Integer number;
+
+		public ExportSubEntity(String text, Integer number) {
+			this.text = text;
+			this.number = number;
+		}
+
+		@Order(0)
+		public String getText() {
+			return text;
+		}
+
+		@Order(1)
+		public Integer getNumber() {
+			return number;
+		}
+	}
+}
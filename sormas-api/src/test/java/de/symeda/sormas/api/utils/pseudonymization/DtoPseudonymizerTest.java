@@ -0,0 +1,124 @@
+/*
+ * SORMAS® - Surveillance Outbreak Response Management & Analysis System
+ * Copyright © 2016-2021 Helmholtz-Zentrum für Infektionsforschung GmbH (HZI)
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package de.symeda.sormas.api.utils.pseudonymization;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+
+import de.symeda.sormas.api.user.UserRight;
+import de.symeda.sormas.api.utils.EmbeddedPersonalData;
+import de.symeda.sormas.api.utils.PersonalData;
+import de.symeda.sormas.api.utils.fieldaccess.FieldAccessCheckers;
+import de.symeda.sormas.api.utils.fieldaccess.checkers.PersonalDataFieldAccessChecker;
+import de.symeda.sormas.api.utils.pseudonymization.valuepseudonymizers.PostalCodePseudonymizer;
+
+public class DtoPseudonymizerTest {
+
+	private final DtoPseudonymizer pseudonymizer = new DtoPseudonymizer(
+		FieldAccessCheckers.withCheckers(PersonalDataFieldAccessChecker.inJurisdiction(new PersonalDataFieldAccessChecker.RightCheck() {
+
+			@Override
+			public boolean check(UserRight userRight) {
+				return true;
+			}
+		})),
+		FieldAccessCheckers.withCheckers(PersonalDataFieldAccessChecker.forcedNoAccess()),
+		"***",
+		true);
+
+	@Test
+	public void testPseudonymizeDtoCollection() {
+
+		final TestDto inJurisdiction = new TestDto("Name", "12345", "other", "sub");
+		TestDto outsideJurisdiction = new TestDto("Name", "12345", "other", "sub");
+
+		// twice, so the second run uses the resolved fields
+		for (int i = 0; i < 2; i++) {
+			pseudonymizer.pseudonymizeDtoCollection(
+				TestDto.class,
+				Arrays.asList(inJurisdiction, outsideJurisdiction),
+				new DtoPseudonymizer.JurisdictionValidator<TestDto>() {
+
+					@Override
+					public boolean validate(TestDto dto) {
+						return dto == inJurisdiction;
+					}
+				},
+				null);
+		}
+
+		assertFalse(inJurisdiction.isPseudonymized());
+		assertEquals("Name", inJurisdiction.name);
+		assertEquals("12345", inJurisdiction.postalCode);
+		assertEquals("sub", inJurisdiction.sub.text);
+
+		assertTrue(outsideJurisdiction.isPseudonymized());
+		assertEquals("***", outsideJurisdiction.name);
+		assertEquals("123", outsideJurisdiction.postalCode);
+		assertEquals("other", outsideJurisdiction.other);
+		assertEquals("***", outsideJurisdiction.sub.text);
+	}
+
+	@Test
+	public void testRestorePseudonymizedValues() {
+
+		TestDto original = new TestDto("Name", "12345", "other", "sub");
+		TestDto dto = new TestDto(null, null, "changed", null);
+		dto.setPseudonymized(true);
+
+		pseudonymizer.restorePseudonymizedValues(TestDto.class, dto, original, true);
+
+		assertEquals("Name", dto.name);
+		assertEquals("12345", dto.postalCode);
+		assertEquals("changed", dto.other);
+		assertNull(dto.sub);
+	}
+
+	public static class TestDto extends PseudonymizableDto {
+
+		@PersonalData
+		private String name;
+		@PersonalData
+		@Pseudonymizer(PostalCodePseudonymizer.class)
+		private String postalCode;
+		private String other;
+		@EmbeddedPersonalData
+		private SubDto sub;
+
+		public TestDto(String name, String postalCode, String other, String subText) {
+			this.name = name;
+			this.postalCode = postalCode;
+			this.other = other;
+			this.sub = subText != null ? new SubDto(subText) : null;
+		}
+	}
+
+	public static class SubDto {
+
+		@PersonalData
+		private String text;
+
+		public SubDto(String text) {
+			this.text = text;
+		}
+	}
+}
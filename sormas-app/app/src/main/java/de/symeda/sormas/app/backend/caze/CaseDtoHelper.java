@@ -81,6 +81,11 @@ public class CaseDtoHelper extends AdoDtoHelper<Case, CaseDataDto> {
 		return RetroProvider.getCaseFacade().pullAllSince(since);
 	}
 
+	@Override
+	protected Call<List<CaseDataDto>> pullBatchSince(long since, int size, Long lastChangeDate, String lastUuid) throws NoConnectionException {
+		return RetroProvider.getCaseFacade().pullBatchSince(since, size, lastChangeDate, lastUuid);
+	}
+
 	@Override
 	protected Call<List<CaseDataDto>> pullByUuids(List<String> uuids) throws NoConnectionException {
 		return RetroProvider.getCaseFacade().pullByUuids(uuids);
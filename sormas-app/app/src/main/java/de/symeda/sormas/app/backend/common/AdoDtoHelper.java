@@ -30,6 +30,7 @@ import android.util.Log;
 
 import de.symeda.sormas.api.EntityDto;
 import de.symeda.sormas.api.PushResult;
+import de.symeda.sormas.app.backend.config.ConfigProvider;
 import de.symeda.sormas.app.rest.NoConnectionException;
 import de.symeda.sormas.app.rest.RetroProvider;
 import de.symeda.sormas.app.rest.ServerCommunicationException;
@@ -42,12 +43,29 @@ public abstract class AdoDtoHelper<ADO extends AbstractDomainObject, DTO extends
 
 	private static final Logger logger = LoggerFactory.getLogger(AdoDtoHelper.class);
 
+	/**
+	 * Maximum number of entities pulled in one request. Limits the memory needed on server and device.
+	 */
+	public static final int PULL_BATCH_SIZE = 1000;
+	private static final int PULL_MAX_ATTEMPTS = 3;
+	private static final String PULL_CURSOR_SEPARATOR = ";";
+
 	protected abstract Class<ADO> getAdoClass();
 
 	protected abstract Class<DTO> getDtoClass();
 
 	protected abstract Call<List<DTO>> pullAllSince(long since) throws NoConnectionException;
 
+	/**
+	 * Pulls the entities changed since the given date in batches of at most {@code size} entities, ordered by change date and uuid.
+	 * The next batch is requested by passing change date and uuid of the last entity of the previous batch.
+	 *
+	 * @return null, if the entity can only be pulled as a whole using {@link #pullAllSince(long)}
+	 */
+	protected Call<List<DTO>> pullBatchSince(long since, int size, Long lastChangeDate, String lastUuid) throws NoConnectionException {
+		return null;
+	}
+
 	/**
 	 * Explicitly pull missing entities.
 	 * This is needed, because entities are synced based on user access rights and these might change
@@ -79,21 +97,16 @@ public abstract class AdoDtoHelper<ADO extends AbstractDomainObject, DTO extends
 		try {
 			final AbstractAdoDao<ADO> dao = DatabaseHelper.getAdoDao(getAdoClass());
 
-			Date maxModifiedDate = dao.getLatestChangeDate();
-			Call<List<DTO>> dtoCall = pullAllSince(maxModifiedDate != null ? maxModifiedDate.getTime() : 0);
-			if (dtoCall == null) {
-				return;
-			}
-
-			Response<List<DTO>> response;
-			try {
-				response = dtoCall.execute();
-			} catch (IOException e) {
-				throw new ServerCommunicationException(e);
+			String pullCursor = ConfigProvider.getPullCursor(dao.getTableName());
+			if (pullCursor != null) {
+				// continue the interrupted pull with the same base change date, right after the last stored entity
+				String[] cursor = pullCursor.split(PULL_CURSOR_SEPARATOR);
+				pullEntitiesSince(markAsRead, dao, Long.parseLong(cursor[0]), Long.parseLong(cursor[1]), cursor[2]);
+			} else {
+				Date maxModifiedDate = dao.getLatestChangeDate();
+				pullEntitiesSince(markAsRead, dao, maxModifiedDate != null ? maxModifiedDate.getTime() : 0, null, null);
 			}
 
-			handlePullResponse(markAsRead, dao, response);
-
 		} catch (RuntimeException e) {
 			Log.e(getClass().getName(), "Exception thrown when trying to pull entities");
 			throw new DaoException(e);
@@ -104,23 +117,75 @@ public abstract class AdoDtoHelper<ADO extends AbstractDomainObject, DTO extends
 		try {
 			final AbstractAdoDao<ADO> dao = DatabaseHelper.getAdoDao(getAdoClass());
 
-			Call<List<DTO>> dtoCall = pullAllSince(0);
+			ConfigProvider.setPullCursor(dao.getTableName(), null);
+			pullEntitiesSince(false, dao, 0, null, null);
+
+		} catch (RuntimeException e) {
+			Log.e(getClass().getName(), "Exception thrown when trying to pull entities");
+			throw new DaoException(e);
+		}
+	}
+
+	/**
+	 * Pulls batch by batch, if supported by the entity. Each batch is stored in its own transaction and the position after it is
+	 * kept as pull cursor, so an interrupted pull continues right after the last stored entity with the next synchronization.
+	 */
+	private void pullEntitiesSince(final boolean markAsRead, final AbstractAdoDao<ADO> dao, long since, Long lastChangeDate, String lastUuid)
+		throws DaoException, ServerCommunicationException, ServerConnectionException, NoConnectionException {
+
+		Call<List<DTO>> batchCall = pullBatchSince(since, PULL_BATCH_SIZE, lastChangeDate, lastUuid);
+		if (batchCall == null) {
+			Call<List<DTO>> dtoCall = pullAllSince(since);
 			if (dtoCall == null) {
 				return;
 			}
+			handlePullResponse(markAsRead, dao, executePull(dtoCall));
+			return;
+		}
 
-			Response<List<DTO>> response;
-			try {
-				response = dtoCall.execute();
-			} catch (IOException e) {
-				throw new ServerCommunicationException(e);
+		while (batchCall != null) {
+			Response<List<DTO>> response = executePull(batchCall);
+			if (!response.isSuccessful()) {
+				RetroProvider.throwException(response);
 			}
 
-			handlePullResponse(false, dao, response);
+			final List<DTO> result = response.body();
+			if (result == null || result.isEmpty()) {
+				ConfigProvider.setPullCursor(dao.getTableName(), null);
+				return;
+			}
 
-		} catch (RuntimeException e) {
-			Log.e(getClass().getName(), "Exception thrown when trying to pull entities");
-			throw new DaoException(e);
+			// remember the cursor before the result is prepared (and possibly re-ordered)
+			DTO last = result.get(result.size() - 1);
+			handlePulledList(dao, result);
+
+			if (result.size() < PULL_BATCH_SIZE) {
+				ConfigProvider.setPullCursor(dao.getTableName(), null);
+				return;
+			}
+			// saved after the batch: if the app is stopped in between, the batch is only pulled again
+			ConfigProvider.setPullCursor(
+				dao.getTableName(),
+				since + PULL_CURSOR_SEPARATOR + last.getChangeDate().getTime() + PULL_CURSOR_SEPARATOR + last.getUuid());
+			batchCall = pullBatchSince(since, PULL_BATCH_SIZE, last.getChangeDate().getTime(), last.getUuid());
+		}
+	}
+
+	/**
+	 * Executes the call and retries it when the connection was dropped.
+	 */
+	private Response<List<DTO>> executePull(Call<List<DTO>> call) throws ServerCommunicationException {
+
+		for (int attempt = 1;; attempt++) {
+			try {
+				return call.execute();
+			} catch (IOException e) {
+				if (attempt >= PULL_MAX_ATTEMPTS) {
+					throw new ServerCommunicationException(e);
+				}
+				Log.w(getClass().getName(), "Pull failed, retrying (attempt " + attempt + ")", e);
+				call = call.clone();
+			}
 		}
 	}
 
@@ -259,6 +259,7 @@ public class DatabaseHelper extends OrmLiteSqliteOpenHelper {
 
 			// keep config!
 			//TableUtils.clearTable(connectionSource, Config.class);
+			ConfigProvider.clearPullCursors();
 		} catch (SQLException e) {
 			Log.e(DatabaseHelper.class.getName(), "Can't clear database", e);
 			throw new RuntimeException(e);
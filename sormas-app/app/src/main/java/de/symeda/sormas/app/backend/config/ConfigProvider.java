@@ -80,6 +80,7 @@ public final class ConfigProvider {
 	private static String SERVER_LOCALE = "locale";
 	private static String SERVER_COUNTRY_NAME = "countryname";
 	private static String INITIAL_SYNC_REQUIRED = "initialSyncRequired";
+	private static String PULL_CURSOR = "pullCursor_";
 
 	private static final String FULL_COUNTRY_LOCALE_PATTERN = "[a-zA-Z]*-[a-zA-Z]*";
 
@@ -761,4 +762,23 @@ public final class ConfigProvider {
 		instance.initialSyncRequired = initialSyncRequired;
 		DatabaseHelper.getConfigDao().createOrUpdate(new Config(INITIAL_SYNC_REQUIRED, String.valueOf(initialSyncRequired)));
 	}
+
+	/**
+	 * @return The position of an interrupted batched pull of the entity, or null if its last pull has been completed.
+	 */
+	public static String getPullCursor(String entityName) {
+		Config config = DatabaseHelper.getConfigDao().queryForId(PULL_CURSOR + entityName);
+		return config != null ? config.getValue() : null;
+	}
+
+	public static void setPullCursor(String entityName, String pullCursor) {
+		saveConfigEntry(PULL_CURSOR + entityName, pullCursor);
+	}
+
+	/**
+	 * Needed when the pulled entities are deleted, because the cursors refer to them.
+	 */
+	public static void clearPullCursors() {
+		DatabaseHelper.getConfigDao().deleteByKeyPrefix(PULL_CURSOR);
+	}
 }
@@ -56,6 +56,11 @@ public class EventDtoHelper extends AdoDtoHelper<Event, EventDto> {
 		return RetroProvider.getEventFacade().pullAllSince(since);
 	}
 
+	@Override
+	protected Call<List<EventDto>> pullBatchSince(long since, int size, Long lastChangeDate, String lastUuid) throws NoConnectionException {
+		return RetroProvider.getEventFacade().pullBatchSince(since, size, lastChangeDate, lastUuid);
+	}
+
 	@Override
 	protected Call<List<EventDto>> pullByUuids(List<String> uuids) throws NoConnectionException {
 		return RetroProvider.getEventFacade().pullByUuids(uuids);
@@ -54,6 +54,11 @@ public class EventParticipantDtoHelper extends AdoDtoHelper<EventParticipant, Ev
 		return RetroProvider.getEventParticipantFacade().pullAllSince(since);
 	}
 
+	@Override
+	protected Call<List<EventParticipantDto>> pullBatchSince(long since, int size, Long lastChangeDate, String lastUuid) throws NoConnectionException {
+		return RetroProvider.getEventParticipantFacade().pullBatchSince(since, size, lastChangeDate, lastUuid);
+	}
+
 	@Override
 	protected Call<List<EventParticipantDto>> pullByUuids(List<String> uuids) throws NoConnectionException {
 		return RetroProvider.getEventParticipantFacade().pullByUuids(uuids);
@@ -24,6 +24,7 @@ import retrofit2.http.Body;
 import retrofit2.http.GET;
 import retrofit2.http.POST;
 import retrofit2.http.Path;
+import retrofit2.http.Query;
 
 /**
  * Created by Stefan Szczesny on 24.10.2016.
@@ -33,6 +34,13 @@ public interface ContactFacadeRetro {
 	@GET("contacts/all/{since}")
 	Call<List<ContactDto>> pullAllSince(@Path("since") long since);
 
+	@GET("contacts/all/{since}/{size}")
+	Call<List<ContactDto>> pullBatchSince(
+		@Path("since") long since,
+		@Path("size") int size,
+		@Query("lastChangeDate") Long lastChangeDate,
+		@Query("lastUuid") String lastUuid);
+
 	@POST("contacts/query")
 	Call<List<ContactDto>> pullByUuids(@Body List<String> uuids);
 
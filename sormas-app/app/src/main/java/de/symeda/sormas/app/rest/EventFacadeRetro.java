@@ -24,12 +24,20 @@ import retrofit2.http.Body;
 import retrofit2.http.GET;
 import retrofit2.http.POST;
 import retrofit2.http.Path;
+import retrofit2.http.Query;
 
 public interface EventFacadeRetro {
 
 	@GET("events/all/{since}")
 	Call<List<EventDto>> pullAllSince(@Path("since") long since);
 
+	@GET("events/all/{since}/{size}")
+	Call<List<EventDto>> pullBatchSince(
+		@Path("since") long since,
+		@Path("size") int size,
+		@Query("lastChangeDate") Long lastChangeDate,
+		@Query("lastUuid") String lastUuid);
+
 	@POST("events/query")
 	Call<List<EventDto>> pullByUuids(@Body List<String> uuids);
 
@@ -24,12 +24,20 @@ import retrofit2.http.Body;
 import retrofit2.http.GET;
 import retrofit2.http.POST;
 import retrofit2.http.Path;
+import retrofit2.http.Query;
 
 public interface EventParticipantFacadeRetro {
 
 	@GET("eventparticipants/all/{since}")
 	Call<List<EventParticipantDto>> pullAllSince(@Path("since") long since);
 
+	@GET("eventparticipants/all/{since}/{size}")
+	Call<List<EventParticipantDto>> pullBatchSince(
+		@Path("since") long since,
+		@Path("size") int size,
+		@Query("lastChangeDate") Long lastChangeDate,
+		@Query("lastUuid") String lastUuid);
+
 	@POST("eventparticipants/query")
 	Call<List<EventParticipantDto>> pullByUuids(@Body List<String> uuids);
 
@@ -24,6 +24,7 @@ import retrofit2.http.Body;
 import retrofit2.http.GET;
 import retrofit2.http.POST;
 import retrofit2.http.Path;
+import retrofit2.http.Query;
 
 /**
  * Created by Martin Wahnschaffe on 07.06.2016.
@@ -33,6 +34,13 @@ public interface PersonFacadeRetro {
 	@GET("persons/all/{since}")
 	Call<List<PersonDto>> pullAllSince(@Path("since") long since);
 
+	@GET("persons/all/{since}/{size}")
+	Call<List<PersonDto>> pullBatchSince(
+		@Path("since") long since,
+		@Path("size") int size,
+		@Query("lastChangeDate") Long lastChangeDate,
+		@Query("lastUuid") String lastUuid);
+
 	@POST("persons/query")
 	Call<List<PersonDto>> pullByUuids(@Body List<String> uuids);
 
@@ -12,6 +12,10 @@ import com.vladmihalcea.hibernate.type.json.JsonStringType;
 public class ExtendedPostgreSQL94Dialect extends PostgreSQL94Dialect {
 
 	public final static String SIMILARITY_OPERATOR = "similarity_operator";
+	/**
+	 * First and last name separated by a space, rendered exactly like the expression of the trigram index on person.
+	 */
+	public final static String FULL_NAME = "full_name";
 	public final static String ARRAY_TO_STRING = "array_to_string";
 	public final static String ARRAY_AGG = "array_agg";
 
@@ -23,5 +27,6 @@ public class ExtendedPostgreSQL94Dialect extends PostgreSQL94Dialect {
 		registerFunction(ARRAY_AGG, new StandardSQLFunction(ARRAY_AGG));
 		registerHibernateType(Types.OTHER, JsonStringType.class.getName());
 		registerFunction(SIMILARITY_OPERATOR, new SQLFunctionTemplate(StandardBasicTypes.BOOLEAN, "?1 % ?2"));
+		registerFunction(FULL_NAME, new SQLFunctionTemplate(StandardBasicTypes.STRING, "(?1 || ' ' || ?2)"));
 	}
 }
@@ -23,8 +23,12 @@ package de.symeda.sormas.backend.campaign.data;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 import javax.ejb.EJB;
@@ -494,23 +498,60 @@ public class CampaignFormDataFacadeEjb implements CampaignFormDataFacade {
 		return resultData;
 	}
 
+	/**
+	 * All series of the same form are computed in one query, which unnests the form values of each form data only once and
+	 * aggregates them per series with FILTER clauses.
+	 */
 	@Override
 	public List<CampaignDiagramDataDto> getDiagramData(List<CampaignDiagramSeries> diagramSeries, CampaignDiagramCriteria campaignDiagramCriteria) {
 
-		List<CampaignDiagramDataDto> resultData = new ArrayList<>();
 		final AreaReferenceDto area = campaignDiagramCriteria.getArea();
 		final RegionReferenceDto region = campaignDiagramCriteria.getRegion();
 		final DistrictReferenceDto district = campaignDiagramCriteria.getDistrict();
 		final CampaignReferenceDto campaign = campaignDiagramCriteria.getCampaign();
 
-		for (CampaignDiagramSeries series : diagramSeries) {
-			//@formatter:off
+		//@formatter:off
+		final String areaFilter = area != null ? " AND " + Area.TABLE_NAME + "." + Area.UUID + " = :areaUuid" : "";
+		final String regionFilter = region != null ? " AND " + CampaignFormData.REGION + "." + Region.UUID + " = :regionUuid" : "";
+		final String districtFilter = district != null ? " AND " + CampaignFormData.DISTRICT + "." + District.UUID + " = :districtUuid" : "";
+		final String campaignFilter = campaign != null ? " AND " + Campaign.TABLE_NAME + "." + Campaign.UUID + " = :campaignUuid" : "";
+		//@formatter:on
+
+		final String jurisdictionTableName;
+		final String jurisdictionNameField;
+		switch (campaignDiagramCriteria.getCampaignJurisdictionLevelGroupBy()) {
+		case REGION:
+			jurisdictionTableName = Region.TABLE_NAME;
+			jurisdictionNameField = Region.NAME;
+			break;
+		case DISTRICT:
+			jurisdictionTableName = District.TABLE_NAME;
+			jurisdictionNameField = District.NAME;
+			break;
+		case COMMUNITY:
+			jurisdictionTableName = Community.TABLE_NAME;
+			jurisdictionNameField = Community.NAME;
+			break;
+		case AREA:
+		default:
+			jurisdictionTableName = Area.TABLE_NAME;
+			jurisdictionNameField = Area.NAME;
+		}
+
+		// the results are returned in the order of the series
+		List<List<CampaignDiagramDataDto>> seriesResults = new ArrayList<>(diagramSeries.size());
+		Map<String, List<Integer>> seriesIndexesByForm = new LinkedHashMap<>();
+		for (int i = 0; i < diagramSeries.size(); i++) {
+			seriesResults.add(new ArrayList<>());
+			seriesIndexesByForm.computeIfAbsent(diagramSeries.get(i).getFormId(), formId -> new ArrayList<>()).add(i);
+		}
 
-				final String areaFilter = area != null ? " AND " + Area.TABLE_NAME + "." + Area.UUID + " = :areaUuid" : "";
-				final String regionFilter = region != null ? " AND " + CampaignFormData.REGION + "." + Region.UUID + " = :regionUuid" : "";
-				final String districtFilter = district != null ? " AND " + CampaignFormData.DISTRICT + "." + District.UUID + " = :districtUuid" : "";
-				final String campaignFilter = campaign != null ? " AND " + Campaign.TABLE_NAME + "." + Campaign.UUID + " = :campaignUuid" : "";
-				//@formatter:on
+		for (Map.Entry<String, List<Integer>> formSeries : seriesIndexesByForm.entrySet()) {
+			List<Integer> seriesIndexes = formSeries.getValue();
+			Set<String> fieldIds = seriesIndexes.stream()
+				.map(i -> diagramSeries.get(i).getFieldId())
+				.filter(Objects::nonNull)
+				.collect(Collectors.toCollection(LinkedHashSet::new));
 
 			// SELECT
 			StringBuilder selectBuilder = new StringBuilder("SELECT ").append(CampaignFormMeta.TABLE_NAME)
@@ -520,43 +561,47 @@ public class CampaignFormDataFacadeEjb implements CampaignFormDataFacade {
 				.append(CampaignFormMeta.TABLE_NAME)
 				.append(".")
 				.append(CampaignFormMeta.FORM_ID)
-				.append(" as formId");
-
-			if (series.getFieldId() != null) {
-				selectBuilder.append(", jsonData->>'")
-					.append(CampaignFormDataEntry.ID)
-					.append("' as fieldId, jsonMeta->>'")
-					.append(CampaignFormElement.CAPTION)
-					.append("' as fieldCaption,")
-					.append("CASE WHEN (jsonMeta ->> '")
-					.append(CampaignFormElement.TYPE)
-					.append("') = '")
-					.append(CampaignFormElementType.NUMBER.toString())
-					.append("' THEN sum(cast_to_int(jsonData->>'")
-					.append(CampaignFormDataEntry.VALUE)
-					.append("', 0)) ELSE sum(CASE WHEN(jsonData->>'")
-					.append(CampaignFormDataEntry.VALUE)
-					.append("') = '")
-					.append(series.getReferenceValue())
-					.append("' THEN 1 ELSE 0 END) END as sumValue,");
-			} else {
-				selectBuilder.append(", null as fieldId, null as fieldCaption, count(formId) as sumValue,");
-			}
-
-			final String jurisdictionGrouping;
-			switch (campaignDiagramCriteria.getCampaignJurisdictionLevelGroupBy()) {
-			case REGION:
-				appendInfrastructureSelection(selectBuilder, Region.TABLE_NAME, Region.NAME);
-				break;
-			case DISTRICT:
-				appendInfrastructureSelection(selectBuilder, District.TABLE_NAME, District.NAME);
-				break;
-			case COMMUNITY:
-				appendInfrastructureSelection(selectBuilder, Community.TABLE_NAME, Community.NAME);
-				break;
-			case AREA:
-			default:
-				appendInfrastructureSelection(selectBuilder, Area.TABLE_NAME, Area.NAME);
+				.append(" as formId, ");
+			appendInfrastructureSelection(selectBuilder, jurisdictionTableName, jurisdictionNameField);
+
+			for (int i : seriesIndexes) {
+				CampaignDiagramSeries series = diagramSeries.get(i);
+				if (series.getFieldId() != null) {
+					String fieldFilter = " FILTER (WHERE jsonData->>'" + CampaignFormDataEntry.ID + "' = :fieldId" + i + ")";
+					selectBuilder.append(", max(jsonMeta->>'")
+						.append(CampaignFormElement.CAPTION)
+						.append("')")
+						.append(fieldFilter)
+						.append(" as fieldCaption")
+						.append(i)
+						.append(", CASE WHEN max(jsonMeta ->> '")
+						.append(CampaignFormElement.TYPE)
+						.append("')")
+						.append(fieldFilter)
+						.append(" = '")
+						.append(CampaignFormElementType.NUMBER.toString())
+						.append("' THEN sum(cast_to_int(jsonData->>'")
+						.append(CampaignFormDataEntry.VALUE)
+						.append("', 0))")
+						.append(fieldFilter)
+						.append(" ELSE sum(CASE WHEN(jsonData->>'")
+						.append(CampaignFormDataEntry.VALUE)
+						.append("') = :referenceValue")
+						.append(i)
+						.append(" THEN 1 ELSE 0 END)")
+						.append(fieldFilter)
+						.append(" END as sumValue")
+						.append(i);
+				} else {
+					selectBuilder.append(", null as fieldCaption")
+						.append(i)
+						.append(", count(DISTINCT ")
+						.append(CampaignFormData.TABLE_NAME)
+						.append(".")
+						.append(CampaignFormData.ID)
+						.append(") as sumValue")
+						.append(i);
+				}
 			}
 
 			// JOINS
@@ -608,31 +653,30 @@ public class CampaignFormDataFacadeEjb implements CampaignFormDataFacade {
 				.append(".")
 				.append(Campaign.ID);
 
-			if (series.getFieldId() != null) {
-				joinBuilder.append(", json_array_elements(")
+			if (!fieldIds.isEmpty()) {
+				// the values of all fields of the series, joined with their form elements; a left join to keep the count of forms
+				joinBuilder.append(" LEFT JOIN LATERAL (SELECT jsonData, jsonMeta FROM json_array_elements(")
+					.append(CampaignFormData.TABLE_NAME)
+					.append(".")
 					.append(CampaignFormData.FORM_VALUES)
 					.append(") as jsonData, json_array_elements(")
+					.append(CampaignFormMeta.TABLE_NAME)
+					.append(".")
 					.append(CampaignFormMeta.CAMPAIGN_FORM_ELEMENTS)
-					.append(") as jsonMeta");
-			}
-
-			// WHERE
-			StringBuilder whereBuilder =
-				new StringBuilder(" WHERE ").append(CampaignFormMeta.TABLE_NAME).append(".").append(CampaignFormMeta.FORM_ID).append(" = :campaignFormMetaId");
-
-			if (series.getFieldId() != null) {
-				whereBuilder.append(" AND jsonData->>'")
+					.append(") as jsonMeta WHERE jsonData->>'")
 					.append(CampaignFormDataEntry.ID)
-					.append("' = :campaignFormDataId")
-					.append(" AND jsonData->>'")
+					.append("' IN (:fieldIds) AND jsonData->>'")
 					.append(CampaignFormDataEntry.VALUE)
 					.append("' IS NOT NULL AND jsonData->>'")
 					.append(CampaignFormDataEntry.ID)
 					.append("' = jsonMeta->>'")
 					.append(CampaignFormElement.ID)
-					.append("'");
+					.append("') as fieldValues ON true");
 			}
 
+			// WHERE
+			StringBuilder whereBuilder =
+				new StringBuilder(" WHERE ").append(CampaignFormMeta.TABLE_NAME).append(".").append(CampaignFormMeta.FORM_ID).append(" = :campaignFormMetaId");
 			whereBuilder.append(areaFilter).append(regionFilter).append(districtFilter).append(campaignFilter);
 
 			// GROUP BY
@@ -642,41 +686,16 @@ public class CampaignFormDataFacadeEjb implements CampaignFormDataFacade {
 				.append(",")
 				.append(CampaignFormMeta.TABLE_NAME)
 				.append(".")
-				.append(CampaignFormMeta.FORM_ID);
-
-			if (series.getFieldId() != null) {
-				groupByBuilder.append(", jsonData->>'")
-					.append(CampaignFormDataEntry.ID)
-					.append("', jsonMeta->>'")
-					.append(CampaignFormElement.CAPTION)
-					.append("', jsonMeta->>'")
-					.append(CampaignFormElement.TYPE)
-					.append("'");
-			}
-
-			switch (campaignDiagramCriteria.getCampaignJurisdictionLevelGroupBy()) {
-			case REGION:
-				jurisdictionGrouping = ", " + Region.TABLE_NAME + "." + Region.UUID + ", " + Region.TABLE_NAME + "." + Region.NAME;
-				break;
-			case DISTRICT:
-				jurisdictionGrouping = ", " + District.TABLE_NAME + "." + District.UUID + ", " + District.TABLE_NAME + "." + District.NAME;
-				break;
-			case COMMUNITY:
-				jurisdictionGrouping = ", " + Community.TABLE_NAME + "." + Community.UUID + ", " + Community.TABLE_NAME + "." + Community.NAME;
-				break;
-			case AREA:
-			default:
-				jurisdictionGrouping = ", " + Area.TABLE_NAME + "." + Area.UUID + ", " + Area.TABLE_NAME + "." + Area.NAME;
-			}
-
-			groupByBuilder.append(jurisdictionGrouping);
+				.append(CampaignFormMeta.FORM_ID)
+				.append(", ");
+			appendInfrastructureSelection(groupByBuilder, jurisdictionTableName, jurisdictionNameField);
 
 			//@formatter:off
 			Query seriesDataQuery = em.createNativeQuery(
 					selectBuilder.toString() + " FROM " + CampaignFormData.TABLE_NAME + joinBuilder + whereBuilder + groupByBuilder);
 			//@formatter:on
 
-			seriesDataQuery.setParameter("campaignFormMetaId", series.getFormId());
+			seriesDataQuery.setParameter("campaignFormMetaId", formSeries.getKey());
 			if (area != null) {
 				seriesDataQuery.setParameter("areaUuid", area.getUuid());
 			}
@@ -689,29 +708,45 @@ public class CampaignFormDataFacadeEjb implements CampaignFormDataFacade {
 			if (campaign != null) {
 				seriesDataQuery.setParameter("campaignUuid", campaign.getUuid());
 			}
-
-			if (series.getFieldId() != null) {
-				seriesDataQuery.setParameter("campaignFormDataId", series.getFieldId());
+			if (!fieldIds.isEmpty()) {
+				seriesDataQuery.setParameter("fieldIds", fieldIds);
+			}
+			for (int i : seriesIndexes) {
+				CampaignDiagramSeries series = diagramSeries.get(i);
+				if (series.getFieldId() != null) {
+					seriesDataQuery.setParameter("fieldId" + i, series.getFieldId());
+					seriesDataQuery.setParameter("referenceValue" + i, String.valueOf(series.getReferenceValue()));
+				}
 			}
 
 			@SuppressWarnings("unchecked")
 			List<Object[]> resultList = seriesDataQuery.getResultList();
 
-			resultData.addAll(
-				resultList.stream()
-					.map(
-						(result) -> new CampaignDiagramDataDto(
-							(String) result[0],
-							(String) result[1],
-							(String) result[2],
-							(String) result[3],
-							(Number) result[4],
-							(String) result[5],
-							(String) result[6],
-							series.getStack()))
-					.collect(Collectors.toList()));
+			for (Object[] result : resultList) {
+				for (int j = 0; j < seriesIndexes.size(); j++) {
+					int i = seriesIndexes.get(j);
+					CampaignDiagramSeries series = diagramSeries.get(i);
+					Number sumValue = (Number) result[5 + 2 * j];
+					// a jurisdiction without values of the field has no result for this series
+					if (series.getFieldId() == null || sumValue != null) {
+						seriesResults.get(i)
+							.add(
+								new CampaignDiagramDataDto(
+									(String) result[0],
+									(String) result[1],
+									series.getFieldId(),
+									(String) result[4 + 2 * j],
+									sumValue,
+									(String) result[2],
+									(String) result[3],
+									series.getStack()));
+					}
+				}
+			}
 		}
 
+		List<CampaignDiagramDataDto> resultData = new ArrayList<>();
+		seriesResults.forEach(resultData::addAll);
 		return resultData;
 	}
 
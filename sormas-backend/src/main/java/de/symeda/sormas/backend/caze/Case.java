@@ -107,6 +107,8 @@ public class Case extends CoreAdo implements SormasToSormasEntity {
 	public static final String EPIDEMIOLOGICAL_CONFIRMATION = "epidemiologicalConfirmation";
 	public static final String LABORATORY_DIAGNOSTIC_CONFIRMATION = "laboratoryDiagnosticConfirmation";
 	public static final String SYSTEM_CASE_CLASSIFICATION = "systemCaseClassification";
+	public static final String CLASSIFICATION_USER = "classificationUser";
+	public static final String CLASSIFICATION_DATE = "classificationDate";
 	public static final String INVESTIGATION_STATUS = "investigationStatus";
 	public static final String PERSON = "person";
 	public static final String DISEASE = "disease";
@@ -163,6 +165,8 @@ public class Case extends CoreAdo implements SormasToSormasEntity {
 	public static final String POINT_OF_ENTRY = "pointOfEntry";
 	public static final String POINT_OF_ENTRY_DETAILS = "pointOfEntryDetails";
 	public static final String COMPLETENESS = "completeness";
+	public static final String DUPLICATE_BLOCKING_KEY_FIRST_NAME = "duplicateBlockingKeyFirstName";
+	public static final String DUPLICATE_BLOCKING_KEY_LAST_NAME = "duplicateBlockingKeyLastName";
 	public static final String ADDITIONAL_DETAILS = "additionalDetails";
 	public static final String EXTERNAL_ID = "externalID";
 	public static final String EXTERNAL_TOKEN = "externalToken";
@@ -315,6 +319,8 @@ public class Case extends CoreAdo implements SormasToSormasEntity {
 	private String pointOfEntryDetails;
 
 	private Float completeness;
+	private String duplicateBlockingKeyFirstName;
+	private String duplicateBlockingKeyLastName;
 	private String additionalDetails;
 	private String externalID;
 	private String externalToken;
@@ -1172,6 +1178,32 @@ public class Case extends CoreAdo implements SormasToSormasEntity {
 		this.completeness = completeness;
 	}
 
+	/**
+	 * Phonetic code of the person's first name. Cases are compared when searching for duplicates if one of their blocking keys
+	 * matches, regardless of whether it is the first or the last name key.
+	 */
+	@Column(length = COLUMN_LENGTH_DEFAULT)
+	public String getDuplicateBlockingKeyFirstName() {
+		return duplicateBlockingKeyFirstName;
+	}
+
+	public void setDuplicateBlockingKeyFirstName(String duplicateBlockingKeyFirstName) {
+		this.duplicateBlockingKeyFirstName = duplicateBlockingKeyFirstName;
+	}
+
+	/**
+	 * Phonetic code of the person's last name, see {@link #getDuplicateBlockingKeyFirstName()}.
+	 * {@code null} until it has been computed for cases that existed before the keys were introduced.
+	 */
+	@Column(length = COLUMN_LENGTH_DEFAULT)
+	public String getDuplicateBlockingKeyLastName() {
+		return duplicateBlockingKeyLastName;
+	}
+
+	public void setDuplicateBlockingKeyLastName(String duplicateBlockingKeyLastName) {
+		this.duplicateBlockingKeyLastName = duplicateBlockingKeyLastName;
+	}
+
 	@Column(length = COLUMN_LENGTH_BIG)
 	public String getAdditionalDetails() {
 		return additionalDetails;
@@ -34,6 +34,7 @@ import java.util.Collections;
 import java.util.Comparator;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -291,6 +292,7 @@ import de.symeda.sormas.utils.CaseJoins;
 public class CaseFacadeEjb implements CaseFacade {
 
 	private static final int ARCHIVE_BATCH_SIZE = 1000;
+	private static final int DUPLICATE_BLOCKING_KEY_BATCH_SIZE = 1000;
 	private static final long SECONDS_30_DAYS = 30L * 24L * 60L * 60L;
 
 	private final Logger logger = LoggerFactory.getLogger(getClass());
@@ -404,13 +406,27 @@ public class CaseFacadeEjb implements CaseFacade {
 
 	@Override
 	public List<CaseDataDto> getAllActiveCasesAfter(Date date, boolean includeExtendedChangeDateFilters) {
+		return getAllActiveCasesAfter(date, includeExtendedChangeDateFilters, null, null, null);
+	}
+
+	@Override
+	public List<CaseDataDto> getAllActiveCasesAfter(Date date, Integer batchSize, Date lastChangeDate, String lastUuid) {
+		return getAllActiveCasesAfter(date, false, batchSize, lastChangeDate, lastUuid);
+	}
+
+	private List<CaseDataDto> getAllActiveCasesAfter(
+		Date date,
+		boolean includeExtendedChangeDateFilters,
+		Integer batchSize,
+		Date lastChangeDate,
+		String lastUuid) {
 
 		if (userService.getCurrentUser() == null) {
 			return Collections.emptyList();
 		}
 
 		Pseudonymizer pseudonymizer = Pseudonymizer.getDefault(userService::hasRight);
-		return caseService.getAllActiveCasesAfter(date, includeExtendedChangeDateFilters)
+		return caseService.getAllActiveCasesAfter(date, includeExtendedChangeDateFilters, batchSize, lastChangeDate, lastUuid)
 			.stream()
 			.map(c -> convertToDto(c, pseudonymizer))
 			.collect(Collectors.toList());
@@ -1352,6 +1368,63 @@ public class CaseFacadeEjb implements CaseFacade {
 	@Override
 	public List<CaseIndexDto[]> getCasesForDuplicateMerging(CaseCriteria criteria, boolean ignoreRegion) {
 
+		CriteriaBuilder cb = em.getCriteriaBuilder();
+
+		// each block is queried separately so the queries can use the index of their blocking key; pairs found in several blocks are
+		// only listed once
+		Map<List<Long>, Object[]> foundIdsByPair = new LinkedHashMap<>();
+		for (CaseService.DuplicateBlock block : CaseService.DuplicateBlock.values()) {
+			for (Object[] ids : getDuplicateCaseIds(criteria, ignoreRegion, block)) {
+				foundIdsByPair.putIfAbsent(Arrays.asList((Long) ids[0], (Long) ids[1]), ids);
+			}
+		}
+		List<Object[]> foundIds = new ArrayList<>(foundIdsByPair.values());
+		foundIds.sort(Comparator.comparing((Object[] ids) -> (Date) ids[2]).reversed());
+
+		List<CaseIndexDto[]> resultList = new ArrayList<>();
+
+		if (!foundIds.isEmpty()) {
+			CriteriaQuery<CaseIndexDto> indexCasesCq = cb.createQuery(CaseIndexDto.class);
+			Root<Case> indexRoot = indexCasesCq.from(Case.class);
+			selectIndexDtoFields(indexCasesCq, indexRoot);
+			indexCasesCq.where(
+				indexRoot.get(Case.ID).in(foundIds.stream().map(a -> Arrays.copyOf(a, 2)).flatMap(Arrays::stream).collect(Collectors.toSet())));
+			Map<Long, CaseIndexDto> indexCases =
+				em.createQuery(indexCasesCq).getResultStream().collect(Collectors.toMap(c -> c.getId(), Function.identity()));
+
+			for (Object[] idPair : foundIds) {
+				try {
+					// Cloning is necessary here to allow us to add the same CaseIndexDto to the grid multiple times
+					CaseIndexDto parent = (CaseIndexDto) indexCases.get(idPair[0]).clone();
+					CaseIndexDto child = (CaseIndexDto) indexCases.get(idPair[1]).clone();
+
+					if (parent.getCompleteness() == null && child.getCompleteness() == null
+						|| parent.getCompleteness() != null
+							&& (child.getCompleteness() == null || (parent.getCompleteness() >= child.getCompleteness()))) {
+						resultList.add(
+							new CaseIndexDto[] {
+								parent,
+								child });
+					} else {
+						resultList.add(
+							new CaseIndexDto[] {
+								child,
+								parent });
+					}
+				} catch (CloneNotSupportedException e) {
+					throw new RuntimeException(e);
+				}
+			}
+		}
+
+		return resultList;
+	}
+
+	/**
+	 * @return The ids of the duplicate cases of one block and the creation date of the first case.
+	 */
+	private List<Object[]> getDuplicateCaseIds(CaseCriteria criteria, boolean ignoreRegion, CaseService.DuplicateBlock block) {
+
 		CriteriaBuilder cb = em.getCriteriaBuilder();
 		CriteriaQuery<Object[]> cq = cb.createQuery(Object[].class);
 		Root<Case> root = cq.from(Case.class);
@@ -1372,6 +1445,7 @@ public class CaseFacadeEjb implements CaseFacade {
 		// * first & last name concatenated with whitespace. Similarity function with default threshold of 0.65D
 		// uses postgres pg_trgm: https://www.postgresql.org/docs/9.6/pgtrgm.html
 		// * same disease
+		// * one duplicate blocking key in common (phonetic code of the first or last name)
 		// * same region (optional)
 		// * report date within 30 days of each other
 		// * same sex or same birth date (when defined)
@@ -1387,6 +1461,8 @@ public class CaseFacadeEjb implements CaseFacade {
 		Predicate nameSimilarityFilter =
 			cb.gt(cb.function("similarity", double.class, nameSimilarityExpr, nameSimilarityExpr2), configFacade.getNameSimilarityThreshold());
 		Predicate diseaseFilter = cb.equal(root.get(Case.DISEASE), root2.get(Case.DISEASE));
+		// only cases in the same block are compared, so the join does not need to compare all cases with each other
+		Predicate blockingKeyFilter = caseService.createDuplicateBlockingKeyFilter(cb, root, root2, block);
 		Predicate regionFilter = cb.equal(region.get(Region.ID), region2.get(Region.ID));
 		Predicate reportDateFilter = cb.lessThanOrEqualTo(
 			cb.abs(
@@ -1444,7 +1520,7 @@ public class CaseFacadeEjb implements CaseFacade {
 		} else {
 			filter = nameSimilarityFilter;
 		}
-		filter = cb.and(filter, diseaseFilter);
+		filter = cb.and(filter, diseaseFilter, blockingKeyFilter);
 
 		if (!ignoreRegion) {
 			filter = cb.and(filter, regionFilter);
@@ -1458,46 +1534,8 @@ public class CaseFacadeEjb implements CaseFacade {
 
 		cq.where(filter);
 		cq.multiselect(root.get(Case.ID), root2.get(Case.ID), root.get(Case.CREATION_DATE));
-		cq.orderBy(cb.desc(root.get(Case.CREATION_DATE)));
 
-		List<Object[]> foundIds = em.createQuery(cq).setParameter("date_type", "epoch").getResultList();
-		List<CaseIndexDto[]> resultList = new ArrayList<>();
-
-		if (!foundIds.isEmpty()) {
-			CriteriaQuery<CaseIndexDto> indexCasesCq = cb.createQuery(CaseIndexDto.class);
-			Root<Case> indexRoot = indexCasesCq.from(Case.class);
-			selectIndexDtoFields(indexCasesCq, indexRoot);
-			indexCasesCq.where(
-				indexRoot.get(Case.ID).in(foundIds.stream().map(a -> Arrays.copyOf(a, 2)).flatMap(Arrays::stream).collect(Collectors.toSet())));
-			Map<Long, CaseIndexDto> indexCases =
-				em.createQuery(indexCasesCq).getResultStream().collect(Collectors.toMap(c -> c.getId(), Function.identity()));
-
-			for (Object[] idPair : foundIds) {
-				try {
-					// Cloning is necessary here to allow us to add the same CaseIndexDto to the grid multiple times
-					CaseIndexDto parent = (CaseIndexDto) indexCases.get(idPair[0]).clone();
-					CaseIndexDto child = (CaseIndexDto) indexCases.get(idPair[1]).clone();
-
-					if (parent.getCompleteness() == null && child.getCompleteness() == null
-						|| parent.getCompleteness() != null
-							&& (child.getCompleteness() == null || (parent.getCompleteness() >= child.getCompleteness()))) {
-						resultList.add(
-							new CaseIndexDto[] {
-								parent,
-								child });
-					} else {
-						resultList.add(
-							new CaseIndexDto[] {
-								child,
-								parent });
-					}
-				} catch (CloneNotSupportedException e) {
-					throw new RuntimeException(e);
-				}
-			}
-		}
-
-		return resultList;
+		return em.createQuery(cq).setParameter("date_type", "epoch").getResultList();
 	}
 
 	public void updateCompleteness(String caseUuid) {
@@ -1739,7 +1777,10 @@ public class CaseFacadeEjb implements CaseFacade {
 		if (sourceContact != null) {
 			final Contact contact = contactService.getByUuid(sourceContact.getUuid());
 			final Case caze = caseService.getByUuid(cazeRef.getUuid());
-			contact.getSamples().forEach(sample -> sample.setAssociatedCase(caze));
+			contact.getSamples().forEach(sample -> {
+				sample.setAssociatedCase(caze);
+				sampleService.ensurePersisted(sample);
+			});
 		}
 	}
 
@@ -1748,7 +1789,10 @@ public class CaseFacadeEjb implements CaseFacade {
 		if (sourceEventParticipant != null) {
 			final EventParticipant eventParticipant = eventParticipantService.getByUuid(sourceEventParticipant.getUuid());
 			final Case caze = caseService.getByUuid(cazeRef.getUuid());
-			eventParticipant.getSamples().forEach(sample -> sample.setAssociatedCase(caze));
+			eventParticipant.getSamples().forEach(sample -> {
+				sample.setAssociatedCase(caze);
+				sampleService.ensurePersisted(sample);
+			});
 		}
 	}
 
@@ -1760,7 +1804,10 @@ public class CaseFacadeEjb implements CaseFacade {
 		eventParticipant.getSamples()
 			.stream()
 			.filter(sample -> sampleContainsTestForDisease(sample, disease))
-			.forEach(sample -> sample.setAssociatedCase(caze));
+			.forEach(sample -> {
+				sample.setAssociatedCase(caze);
+				sampleService.ensurePersisted(sample);
+			});
 
 	}
 
@@ -1960,7 +2007,8 @@ public class CaseFacadeEjb implements CaseFacade {
 				List<PathogenTestDto> pathogenTests =
 					pathogenTestService.getAllByCase(newCase).stream().map(s -> PathogenTestFacadeEjbLocal.toDto(s)).collect(Collectors.toList());
 
-				CaseClassification classification = caseClassificationFacade.getClassification(newCaseDto, pathogenTests);
+				CaseClassification classification =
+					caseClassificationFacade.getClassification(newCaseDto, PersonFacadeEjb.toDto(newCase.getPerson()), pathogenTests);
 
 				// only update when classification by system changes - user may overwrite this
 				if (classification != newCase.getSystemCaseClassification()) {
@@ -1989,6 +2037,9 @@ public class CaseFacadeEjb implements CaseFacade {
 		// Update completeness value
 		newCase.setCompleteness(calculateCompleteness(newCase));
 
+		// Update the duplicate blocking keys, the person's name might have changed
+		CaseService.updateDuplicateBlockingKeys(newCase);
+
 		// Send an email to all responsible supervisors when the case classification has
 		// changed
 		if (existingCase != null && existingCase.getCaseClassification() != newCase.getCaseClassification()) {
@@ -3362,6 +3413,25 @@ public class CaseFacadeEjb implements CaseFacade {
 			DateHelper.durationMillies(startTime));
 	}
 
+	/**
+	 * Computes the duplicate blocking keys for all cases that don't have them yet, i.e. the ones that have not been saved since the keys
+	 * were introduced.
+	 */
+	public void updateMissingDuplicateBlockingKeys() {
+
+		long startTime = DateHelper.startTime();
+
+		int caseCount = 0;
+		int updatedCount;
+		do {
+			updatedCount = caseService.updateMissingDuplicateBlockingKeys(DUPLICATE_BLOCKING_KEY_BATCH_SIZE);
+			caseCount += updatedCount;
+		}
+		while (updatedCount == DUPLICATE_BLOCKING_KEY_BATCH_SIZE);
+
+		logger.debug("updateMissingDuplicateBlockingKeys() finished. caseCount = {}, {}ms", caseCount, DateHelper.durationMillies(startTime));
+	}
+
 	@Override
 	public void updateArchived(List<String> caseUuids, boolean archived) {
 
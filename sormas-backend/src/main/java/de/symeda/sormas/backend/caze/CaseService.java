@@ -26,6 +26,9 @@ import java.util.Comparator;
 import java.util.Date;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import java.util.stream.Stream.Builder;
 
@@ -45,6 +48,7 @@ import javax.persistence.criteria.From;
 import javax.persistence.criteria.Join;
 import javax.persistence.criteria.JoinType;
 import javax.persistence.criteria.ParameterExpression;
+import javax.persistence.criteria.Path;
 import javax.persistence.criteria.Predicate;
 import javax.persistence.criteria.Root;
 import javax.persistence.criteria.Subquery;
@@ -54,6 +58,7 @@ import de.symeda.sormas.backend.contact.ContactQueryContext;
 import de.symeda.sormas.backend.util.IterableHelper;
 import de.symeda.sormas.backend.util.ModelConstants;
 import org.apache.commons.collections.CollectionUtils;
+import org.apache.commons.codec.language.Soundex;
 import org.apache.commons.lang3.StringUtils;
 
 import de.symeda.sormas.api.Disease;
@@ -79,6 +84,7 @@ import de.symeda.sormas.api.user.UserRole;
 import de.symeda.sormas.api.utils.DataHelper;
 import de.symeda.sormas.api.utils.DateHelper;
 import de.symeda.sormas.api.visit.VisitStatus;
+import de.symeda.sormas.backend.caze.access.CaseAccessService;
 import de.symeda.sormas.backend.clinicalcourse.ClinicalCourse;
 import de.symeda.sormas.backend.clinicalcourse.ClinicalVisit;
 import de.symeda.sormas.backend.clinicalcourse.ClinicalVisitService;
@@ -128,11 +134,15 @@ import de.symeda.sormas.utils.CaseJoins;
 @LocalBean
 public class CaseService extends AbstractCoreAdoService<Case> {
 
+	private static final Soundex SOUNDEX = new Soundex();
+
 	@EJB
 	private ContactService contactService;
 	@EJB
 	private SampleService sampleService;
 	@EJB
+	private CaseAccessService caseAccessService;
+	@EJB
 	private PersonFacadeEjbLocal personFacade;
 	@EJB
 	private PersonService personService;
@@ -192,6 +202,15 @@ public class CaseService extends AbstractCoreAdoService<Case> {
 	}
 
 	public List<Case> getAllActiveCasesAfter(Date date, boolean includeExtendedChangeDateFilters) {
+		return getAllActiveCasesAfter(date, includeExtendedChangeDateFilters, null, null, null);
+	}
+
+	public List<Case> getAllActiveCasesAfter(
+		Date date,
+		boolean includeExtendedChangeDateFilters,
+		Integer batchSize,
+		Date lastChangeDate,
+		String lastUuid) {
 
 		CriteriaBuilder cb = em.getCriteriaBuilder();
 		CriteriaQuery<Case> cq = cb.createQuery(getElementClass());
@@ -221,11 +240,14 @@ public class CaseService extends AbstractCoreAdoService<Case> {
 			}
 		}
 
+		if (lastChangeDate != null) {
+			filter = cb.and(filter, createChangeDateCursorFilter(cb, from, lastChangeDate, lastUuid));
+		}
+
 		cq.where(filter);
-		cq.orderBy(cb.desc(from.get(Case.CHANGE_DATE)));
 		cq.distinct(true);
 
-		return em.createQuery(cq).getResultList();
+		return getChangedResultList(cb, cq, from, batchSize);
 	}
 
 	public List<String> getAllActiveUuids() {
@@ -898,6 +920,9 @@ public class CaseService extends AbstractCoreAdoService<Case> {
 		Predicate filterResponsible = null;
 		Predicate filter = null;
 
+		// access through samples and contacts is looked up in the materialised case access instead of subqueries, if enabled
+		final boolean materializedAccess = caseAccessService.isMaterializationEnabled();
+
 		final JurisdictionLevel jurisdictionLevel = currentUser.getJurisdictionLevel();
 		if (jurisdictionLevel != JurisdictionLevel.NATION && !currentUser.hasAnyUserRole(UserRole.REST_USER, UserRole.REST_EXTERNAL_VISITS_USER)) {
 			// whoever created the case or is assigned to it is allowed to access it
@@ -941,11 +966,15 @@ public class CaseService extends AbstractCoreAdoService<Case> {
 				}
 				break;
 			case LABORATORY:
-				Subquery<Long> sampleCaseSubquery = cq.subquery(Long.class);
-				Root<Sample> sampleRoot = sampleCaseSubquery.from(Sample.class);
-				sampleCaseSubquery.where(sampleService.createUserFilterWithoutCase(cb, new SampleJoins(sampleRoot)));
-				sampleCaseSubquery.select(sampleRoot.get(Sample.ASSOCIATED_CASE).get(Case.ID));
-				filter = CriteriaBuilderHelper.or(cb, filter, cb.in(casePath.get(Case.ID)).value(sampleCaseSubquery));
+				if (materializedAccess) {
+					filter = CriteriaBuilderHelper.or(cb, filter, caseAccessService.createLaboratoryFilter(cb, cq, casePath.get(Case.ID), currentUser));
+				} else {
+					Subquery<Long> sampleCaseSubquery = cq.subquery(Long.class);
+					Root<Sample> sampleRoot = sampleCaseSubquery.from(Sample.class);
+					sampleCaseSubquery.where(sampleService.createUserFilterWithoutCase(cb, new SampleJoins(sampleRoot)));
+					sampleCaseSubquery.select(sampleRoot.get(Sample.ASSOCIATED_CASE).get(Case.ID));
+					filter = CriteriaBuilderHelper.or(cb, filter, cb.in(casePath.get(Case.ID)).value(sampleCaseSubquery));
+				}
 				break;
 			default:
 			}
@@ -954,11 +983,15 @@ public class CaseService extends AbstractCoreAdoService<Case> {
 			if (userFilterCriteria == null
 				|| (!userFilterCriteria.isExcludeCasesFromContacts()
 					&& Boolean.TRUE.equals(userFilterCriteria.getIncludeCasesFromOtherJurisdictions()))) {
-				Subquery<Long> contactCaseSubquery = cq.subquery(Long.class);
-				Root<Contact> contactRoot = contactCaseSubquery.from(Contact.class);
-				contactCaseSubquery.where(contactService.createUserFilterWithoutCase(cb, cq, contactRoot));
-				contactCaseSubquery.select(contactRoot.get(Contact.CAZE).get(Case.ID));
-				filter = CriteriaBuilderHelper.or(cb, filter, cb.in(casePath.get(Case.ID)).value(contactCaseSubquery));
+				if (materializedAccess) {
+					filter = CriteriaBuilderHelper.or(cb, filter, caseAccessService.createContactFilter(cb, cq, casePath.get(Case.ID), currentUser));
+				} else {
+					Subquery<Long> contactCaseSubquery = cq.subquery(Long.class);
+					Root<Contact> contactRoot = contactCaseSubquery.from(Contact.class);
+					contactCaseSubquery.where(contactService.createUserFilterWithoutCase(cb, cq, contactRoot));
+					contactCaseSubquery.select(contactRoot.get(Contact.CAZE).get(Case.ID));
+					filter = CriteriaBuilderHelper.or(cb, filter, cb.in(casePath.get(Case.ID)).value(contactCaseSubquery));
+				}
 			}
 
 			// users can only be assigned to a task when they have also access to the case
@@ -1195,6 +1228,117 @@ public class CaseService extends AbstractCoreAdoService<Case> {
 		em.createQuery(cu).executeUpdate();
 	}
 
+	/**
+	 * @return The blocking key of the duplicate detection for a first or last name: Its Soundex code or, if it does not contain any
+	 *         latin letters, its first character.
+	 */
+	public static String buildDuplicateBlockingKey(String name) {
+
+		if (name == null) {
+			return "";
+		}
+
+		String latinLetters = StringUtils.stripAccents(name).toUpperCase(Locale.ROOT).replaceAll("[^A-Z]", "");
+		if (!latinLetters.isEmpty()) {
+			return SOUNDEX.encode(latinLetters);
+		}
+
+		String trimmedName = name.trim();
+		return trimmedName.isEmpty() ? "" : trimmedName.substring(0, trimmedName.offsetByCodePoints(0, 1)).toUpperCase(Locale.ROOT);
+	}
+
+	public static void updateDuplicateBlockingKeys(Case caze) {
+
+		caze.setDuplicateBlockingKeyFirstName(buildDuplicateBlockingKey(caze.getPerson().getFirstName()));
+		caze.setDuplicateBlockingKeyLastName(buildDuplicateBlockingKey(caze.getPerson().getLastName()));
+	}
+
+	/**
+	 * Duplicate candidates of one {@link DuplicateBlock}. The blocks are queried separately and the results merged, so each query
+	 * only compares a single key and can use the index on the disease and that key.
+	 */
+	public Predicate createDuplicateBlockingKeyFilter(CriteriaBuilder cb, From<?, Case> caze, From<?, Case> caze2, DuplicateBlock block) {
+
+		Path<String> firstNameKey = caze.get(Case.DUPLICATE_BLOCKING_KEY_FIRST_NAME);
+		Path<String> lastNameKey = caze.get(Case.DUPLICATE_BLOCKING_KEY_LAST_NAME);
+		Path<String> firstNameKey2 = caze2.get(Case.DUPLICATE_BLOCKING_KEY_FIRST_NAME);
+		Path<String> lastNameKey2 = caze2.get(Case.DUPLICATE_BLOCKING_KEY_LAST_NAME);
+
+		switch (block) {
+		case LAST_NAME:
+			return cb.equal(lastNameKey, lastNameKey2);
+		case FIRST_NAME:
+			return cb.equal(firstNameKey, firstNameKey2);
+		case FIRST_NAME_LAST_NAME:
+			return cb.equal(firstNameKey, lastNameKey2);
+		case LAST_NAME_FIRST_NAME:
+			return cb.equal(lastNameKey, firstNameKey2);
+		case MISSING_KEYS:
+			return cb.isNull(lastNameKey);
+		case MISSING_KEYS2:
+			return cb.isNull(lastNameKey2);
+		default:
+			throw new IllegalArgumentException(block.toString());
+		}
+	}
+
+	/**
+	 * Updates the duplicate blocking keys of all cases of the person, e.g. after the person has been renamed.
+	 * The change date is not updated because the keys are not synchronized.
+	 */
+	public void updateDuplicateBlockingKeys(Person person) {
+
+		CriteriaBuilder cb = em.getCriteriaBuilder();
+		CriteriaUpdate<Case> cu = cb.createCriteriaUpdate(Case.class);
+		Root<Case> root = cu.from(Case.class);
+
+		cu.set(root.get(Case.DUPLICATE_BLOCKING_KEY_FIRST_NAME), buildDuplicateBlockingKey(person.getFirstName()));
+		cu.set(root.get(Case.DUPLICATE_BLOCKING_KEY_LAST_NAME), buildDuplicateBlockingKey(person.getLastName()));
+		cu.where(cb.equal(root.get(Case.PERSON), person));
+
+		em.createQuery(cu).executeUpdate();
+	}
+
+	/**
+	 * Computes the duplicate blocking keys for up to {@code batchSize} cases that don't have them yet.
+	 * The change date is not updated because the keys are not synchronized.
+	 *
+	 * @return The number of updated cases.
+	 */
+	@TransactionAttribute(TransactionAttributeType.REQUIRES_NEW)
+	public int updateMissingDuplicateBlockingKeys(int batchSize) {
+
+		CriteriaBuilder cb = em.getCriteriaBuilder();
+		CriteriaQuery<Object[]> cq = cb.createQuery(Object[].class);
+		Root<Case> root = cq.from(Case.class);
+		Join<Case, Person> person = root.join(Case.PERSON, JoinType.LEFT);
+
+		cq.multiselect(root.get(Case.ID), person.get(Person.FIRST_NAME), person.get(Person.LAST_NAME));
+		cq.where(cb.isNull(root.get(Case.DUPLICATE_BLOCKING_KEY_LAST_NAME)));
+
+		List<Object[]> cases = em.createQuery(cq).setMaxResults(batchSize).getResultList();
+		Map<String, Map<String, List<Long>>> caseIdsByKeys = cases.stream()
+			.collect(
+				Collectors.groupingBy(
+					c -> buildDuplicateBlockingKey((String) c[1]),
+					Collectors.groupingBy(c -> buildDuplicateBlockingKey((String) c[2]), Collectors.mapping(c -> (Long) c[0], Collectors.toList()))));
+
+		for (Map.Entry<String, Map<String, List<Long>>> caseIdsByFirstNameKey : caseIdsByKeys.entrySet()) {
+			for (Map.Entry<String, List<Long>> caseIds : caseIdsByFirstNameKey.getValue().entrySet()) {
+				CriteriaUpdate<Case> cu = cb.createCriteriaUpdate(Case.class);
+				Root<Case> updateRoot = cu.from(Case.class);
+
+				cu.set(updateRoot.get(Case.DUPLICATE_BLOCKING_KEY_FIRST_NAME), caseIdsByFirstNameKey.getKey());
+				cu.set(updateRoot.get(Case.DUPLICATE_BLOCKING_KEY_LAST_NAME), caseIds.getKey());
+				cu.where(updateRoot.get(Case.ID).in(caseIds.getValue()));
+
+				em.createQuery(cu).executeUpdate();
+			}
+		}
+
+		return cases.size();
+	}
+
 	public boolean isCaseEditAllowed(Case caze) {
 		if (caze.getSormasToSormasOriginInfo() != null) {
 			return caze.getSormasToSormasOriginInfo().isOwnershipHandedOver();
@@ -1227,4 +1371,20 @@ public class CaseService extends AbstractCoreAdoService<Case> {
 
 		return em.createQuery(cq).getResultList();
 	}
+
+	/**
+	 * Duplicate candidates: Cases that have one blocking key in common, in any combination of first and last name to also find
+	 * cases with swapped names. Cases whose keys have not been computed yet are compared with all other cases.
+	 */
+	public enum DuplicateBlock {
+
+		LAST_NAME,
+		FIRST_NAME,
+		FIRST_NAME_LAST_NAME,
+		LAST_NAME_FIRST_NAME,
+		/** The keys of the first case have not been computed yet */
+		MISSING_KEYS,
+		/** The keys of the second case have not been computed yet */
+		MISSING_KEYS2
+	}
 }
@@ -21,11 +21,14 @@ import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
-import java.util.stream.Stream;
 
 import javax.ejb.EJB;
 import javax.ejb.LocalBean;
@@ -33,11 +36,16 @@ import javax.ejb.Stateless;
 import javax.persistence.EntityManager;
 import javax.persistence.PersistenceContext;
 import javax.persistence.Query;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Root;
 
 import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.tuple.ImmutablePair;
 import org.apache.commons.lang3.tuple.Pair;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import de.symeda.sormas.api.AgeGroup;
 import de.symeda.sormas.api.IntegerRange;
@@ -53,32 +61,52 @@ import de.symeda.sormas.api.statistics.StatisticsCaseSubAttribute;
 import de.symeda.sormas.api.statistics.StatisticsGroupingKey;
 import de.symeda.sormas.api.statistics.StatisticsHelper;
 import de.symeda.sormas.api.user.UserDto;
+import de.symeda.sormas.api.utils.DateHelper;
+import de.symeda.sormas.backend.common.AbstractDomainObject;
+import de.symeda.sormas.backend.common.ConfigFacadeEjb.ConfigFacadeEjbLocal;
+import de.symeda.sormas.backend.common.InfrastructureAdo;
 import de.symeda.sormas.backend.facility.Facility;
-import de.symeda.sormas.backend.facility.FacilityFacadeEjb.FacilityFacadeEjbLocal;
+import de.symeda.sormas.backend.facility.FacilityFacadeEjb;
 import de.symeda.sormas.backend.facility.FacilityService;
 import de.symeda.sormas.backend.infrastructure.PopulationData;
 import de.symeda.sormas.backend.location.Location;
 import de.symeda.sormas.backend.person.Person;
 import de.symeda.sormas.backend.region.Community;
-import de.symeda.sormas.backend.region.CommunityFacadeEjb.CommunityFacadeEjbLocal;
+import de.symeda.sormas.backend.region.CommunityFacadeEjb;
 import de.symeda.sormas.backend.region.CommunityService;
 import de.symeda.sormas.backend.region.District;
-import de.symeda.sormas.backend.region.DistrictFacadeEjb.DistrictFacadeEjbLocal;
+import de.symeda.sormas.backend.region.DistrictFacadeEjb;
 import de.symeda.sormas.backend.region.DistrictService;
 import de.symeda.sormas.backend.region.Region;
-import de.symeda.sormas.backend.region.RegionFacadeEjb.RegionFacadeEjbLocal;
+import de.symeda.sormas.backend.region.RegionFacadeEjb;
 import de.symeda.sormas.backend.region.RegionService;
 import de.symeda.sormas.backend.symptoms.Symptoms;
 import de.symeda.sormas.backend.user.User;
+import de.symeda.sormas.backend.util.IterableHelper;
 import de.symeda.sormas.backend.util.ModelConstants;
 import de.symeda.sormas.backend.util.QueryHelper;
 
 @Stateless(name = "CaseStatisticsFacade")
 public class CaseStatisticsFacadeEjb implements CaseStatisticsFacade {
 
+	/**
+	 * Case counts by disease, report day, jurisdiction, age, sex, classification and outcome. Maintained by database triggers on
+	 * the cases and person tables, which add a row with -1 for the old and +1 for the new values of a case whenever one of them
+	 * changes; these rows are summed up by {@link #compactCaseStatistics()}.
+	 */
+	public static final String AGGREGATE_TABLE_NAME = "casestatistics";
+	private static final String AGGREGATE_CASE_COUNT = "casecount";
+	private static final String AGGREGATE_COLUMNS =
+		"disease, reportdate, region_id, district_id, community_id, healthfacility_id, caseage, sex, caseclassification, outcome";
+
+	private final Logger logger = LoggerFactory.getLogger(getClass());
+
 	@PersistenceContext(unitName = ModelConstants.PERSISTENCE_UNIT_NAME)
 	private EntityManager em;
 
+	@EJB
+	private ConfigFacadeEjbLocal configFacade;
+
 	@EJB
 	private RegionService regionService;
 	@EJB
@@ -88,15 +116,6 @@ public class CaseStatisticsFacadeEjb implements CaseStatisticsFacade {
 	@EJB
 	private FacilityService facilityService;
 
-	@EJB
-	private RegionFacadeEjbLocal regionFacade;
-	@EJB
-	private DistrictFacadeEjbLocal districtFacade;
-	@EJB
-	private CommunityFacadeEjbLocal communityFacade;
-	@EJB
-	private FacilityFacadeEjbLocal facilityFacade;
-
 	@SuppressWarnings("unchecked")
 	@Override
 	public List<StatisticsCaseCountDto> queryCaseCount(
@@ -118,12 +137,41 @@ public class CaseStatisticsFacadeEjb implements CaseStatisticsFacade {
 			caseCountQuery.setParameter(i + 1, caseCountQueryAndParams.getValue().get(i));
 		}
 
-		Function<Integer, RegionReferenceDto> regionProvider = id -> regionFacade.getRegionReferenceById(id);
-		Function<Integer, DistrictReferenceDto> districtProvider = id -> districtFacade.getDistrictReferenceById(id);
-		Function<Integer, CommunityReferenceDto> communityProvider = id -> communityFacade.getCommunityReferenceById(id);
-		Function<Integer, FacilityReferenceDto> healthFacilityProvider = id -> facilityFacade.getFacilityReferenceById(id);
+		List<Object[]> caseCountRows = caseCountQuery.getResultList();
+
+		List<Object[]> populationRows = null;
+		if (includePopulation) {
+			Pair<String, List<Object>> populationQueryAndParams =
+				buildPopulationQuery(caseCriteria, rowGrouping, rowSubGrouping, columnGrouping, columnSubGrouping, populationReferenceYear);
+
+			Query populationQuery = em.createNativeQuery(populationQueryAndParams.getKey().toString());
+			for (int i = 0; i < populationQueryAndParams.getValue().size(); i++) {
+				populationQuery.setParameter(i + 1, populationQueryAndParams.getValue().get(i));
+			}
+			populationRows = populationQuery.getResultList();
+		}
+
+		// the infrastructure of all rows is loaded at once, instead of one query per row
+		Set<Integer> regionIds = new HashSet<>();
+		Set<Integer> districtIds = new HashSet<>();
+		Set<Integer> communityIds = new HashSet<>();
+		Set<Integer> facilityIds = new HashSet<>();
+		for (List<Object[]> rows : Arrays.asList(caseCountRows, populationRows)) {
+			if (rows != null) {
+				collectInfrastructureIds(rows, 1, rowSubGrouping, regionIds, districtIds, communityIds, facilityIds);
+				collectInfrastructureIds(rows, 2, columnSubGrouping, regionIds, districtIds, communityIds, facilityIds);
+			}
+		}
+
+		Function<Integer, RegionReferenceDto> regionProvider = getReferencesById(Region.class, regionIds, RegionFacadeEjb::toReferenceDto)::get;
+		Function<Integer, DistrictReferenceDto> districtProvider =
+			getReferencesById(District.class, districtIds, DistrictFacadeEjb::toReferenceDto)::get;
+		Function<Integer, CommunityReferenceDto> communityProvider =
+			getReferencesById(Community.class, communityIds, CommunityFacadeEjb::toReferenceDto)::get;
+		Function<Integer, FacilityReferenceDto> healthFacilityProvider =
+			getReferencesById(Facility.class, facilityIds, FacilityFacadeEjb::toReferenceDto)::get;
 
-		List<StatisticsCaseCountDto> caseCountResults = ((Stream<Object[]>) caseCountQuery.getResultStream()).map(result -> {
+		List<StatisticsCaseCountDto> caseCountResults = caseCountRows.stream().map(result -> {
 			Object rowKey = "".equals(result[1]) ? null : result[1];
 			Object columnKey = "".equals(result[2]) ? null : result[2];
 			return new StatisticsCaseCountDto(
@@ -167,10 +215,12 @@ public class CaseStatisticsFacadeEjb implements CaseStatisticsFacade {
 				allColumnKeys = Arrays.asList((StatisticsGroupingKey) null);
 			}
 
+			// the dtos are equal when their row and column keys are
+			Set<StatisticsCaseCountDto> existingResults = new HashSet<>(caseCountResults);
 			for (StatisticsGroupingKey rowKey : allRowKeys) {
 				for (StatisticsGroupingKey columnKey : allColumnKeys) {
 					StatisticsCaseCountDto zeroDto = new StatisticsCaseCountDto(0, null, rowKey, columnKey);
-					if (!caseCountResults.contains(zeroDto)) {
+					if (existingResults.add(zeroDto)) {
 						caseCountResults.add(zeroDto);
 					}
 				}
@@ -179,15 +229,7 @@ public class CaseStatisticsFacadeEjb implements CaseStatisticsFacade {
 
 		// population
 		if (includePopulation) {
-			Pair<String, List<Object>> populationQueryAndParams =
-				buildPopulationQuery(caseCriteria, rowGrouping, rowSubGrouping, columnGrouping, columnSubGrouping, populationReferenceYear);
-
-			Query populationQuery = em.createNativeQuery(populationQueryAndParams.getKey().toString());
-			for (int i = 0; i < populationQueryAndParams.getValue().size(); i++) {
-				populationQuery.setParameter(i + 1, populationQueryAndParams.getValue().get(i));
-			}
-
-			List<StatisticsCaseCountDto> populationResults = ((Stream<Object[]>) populationQuery.getResultStream()).map(result -> {
+			List<StatisticsCaseCountDto> populationResults = populationRows.stream().map(result -> {
 				Object rowKey = "".equals(result[1]) ? null : result[1];
 				Object columnKey = "".equals(result[2]) ? null : result[2];
 				return new StatisticsCaseCountDto(
@@ -218,6 +260,14 @@ public class CaseStatisticsFacadeEjb implements CaseStatisticsFacade {
 				assert ((populationResults.get(0).getColumnKey() != null) == columnIsPopulation);
 			}
 
+			// hash join: the dtos are equal when their row and column keys are
+			Map<StatisticsCaseCountDto, Integer> populationByKeys = new HashMap<>();
+			for (StatisticsCaseCountDto populationResult : populationResults) {
+				if (!populationByKeys.containsKey(populationResult)) {
+					populationByKeys.put(populationResult, populationResult.getPopulation());
+				}
+			}
+
 			// add the population data to the case counts
 			// when a key is not a population data key, we use null instead
 			StatisticsCaseCountDto searchDto = new StatisticsCaseCountDto(null, null, null, null);
@@ -230,9 +280,8 @@ public class CaseStatisticsFacadeEjb implements CaseStatisticsFacade {
 					searchDto.setColumnKey(caseCountResult.getColumnKey());
 				}
 
-				int index = populationResults.indexOf(searchDto);
-				if (index >= 0) {
-					caseCountResult.setPopulation(populationResults.get(index).getPopulation());
+				if (populationByKeys.containsKey(searchDto)) {
+					caseCountResult.setPopulation(populationByKeys.get(searchDto));
 				}
 			}
 		}
@@ -240,6 +289,106 @@ public class CaseStatisticsFacadeEjb implements CaseStatisticsFacade {
 		return caseCountResults;
 	}
 
+	private void collectInfrastructureIds(
+		List<Object[]> rows,
+		int keyIndex,
+		StatisticsCaseSubAttribute subGrouping,
+		Set<Integer> regionIds,
+		Set<Integer> districtIds,
+		Set<Integer> communityIds,
+		Set<Integer> facilityIds) {
+
+		Set<Integer> ids;
+		if (subGrouping == StatisticsCaseSubAttribute.REGION) {
+			ids = regionIds;
+		} else if (subGrouping == StatisticsCaseSubAttribute.DISTRICT) {
+			ids = districtIds;
+		} else if (subGrouping == StatisticsCaseSubAttribute.COMMUNITY) {
+			ids = communityIds;
+		} else if (subGrouping == StatisticsCaseSubAttribute.FACILITY) {
+			ids = facilityIds;
+		} else {
+			return;
+		}
+
+		for (Object[] row : rows) {
+			if (row[keyIndex] instanceof Number) {
+				ids.add(((Number) row[keyIndex]).intValue());
+			}
+		}
+	}
+
+	private <E extends InfrastructureAdo, R> Map<Integer, R> getReferencesById(Class<E> type, Set<Integer> ids, Function<E, R> toReference) {
+
+		Map<Integer, R> referencesById = new HashMap<>();
+		if (ids.isEmpty()) {
+			return referencesById;
+		}
+
+		List<Long> longIds = ids.stream().map(Integer::longValue).collect(Collectors.toList());
+		IterableHelper.executeBatched(longIds, ModelConstants.PARAMETER_LIMIT, batchedIds -> {
+			CriteriaBuilder cb = em.getCriteriaBuilder();
+			CriteriaQuery<E> cq = cb.createQuery(type);
+			Root<E> root = cq.from(type);
+			cq.where(root.get(AbstractDomainObject.ID).in(batchedIds));
+			for (E entity : em.createQuery(cq).getResultList()) {
+				referencesById.put(entity.getId().intValue(), toReference.apply(entity));
+			}
+		});
+		return referencesById;
+	}
+
+	/**
+	 * Sums up the rows of the aggregate table that have the same values, so it does not grow with each change of a case.
+	 */
+	public void compactCaseStatistics() {
+
+		long startTime = DateHelper.startTime();
+		int rowCount = em
+			.createNativeQuery(
+				"WITH deltas AS (DELETE FROM " + AGGREGATE_TABLE_NAME + " RETURNING *) INSERT INTO " + AGGREGATE_TABLE_NAME + " ("
+					+ AGGREGATE_COLUMNS + ", " + AGGREGATE_CASE_COUNT + ") SELECT " + AGGREGATE_COLUMNS + ", SUM(" + AGGREGATE_CASE_COUNT
+					+ ") FROM deltas GROUP BY " + AGGREGATE_COLUMNS + " HAVING SUM(" + AGGREGATE_CASE_COUNT + ") <> 0")
+			.executeUpdate();
+		logger.info("Compacted the case statistics to {} rows in {} ms", rowCount, DateHelper.durationMillies(startTime));
+	}
+
+	/**
+	 * The aggregate table can only be used when all groupings and filters refer to its columns. Report dates are aggregated by
+	 * day, so a date range has to span whole days.
+	 */
+	private boolean isAnsweredByAggregate(StatisticsCaseCriteria caseCriteria, StatisticsCaseAttribute groupingA, StatisticsCaseAttribute groupingB) {
+
+		if (!configFacade.isCaseStatisticsAggregation()) {
+			return false;
+		}
+
+		for (StatisticsCaseAttribute grouping : Arrays.asList(groupingA, groupingB)) {
+			if (grouping == StatisticsCaseAttribute.ONSET_TIME
+				|| grouping == StatisticsCaseAttribute.OUTCOME_TIME
+				|| grouping == StatisticsCaseAttribute.PLACE_OF_RESIDENCE
+				|| grouping == StatisticsCaseAttribute.REPORTING_USER_ROLE) {
+				return false;
+			}
+		}
+
+		if (caseCriteria.hasOnsetDate()
+			|| caseCriteria.hasOutcomeDate()
+			|| caseCriteria.getPersonRegions() != null
+			|| caseCriteria.getPersonDistricts() != null
+			|| caseCriteria.getPersonCommunities() != null
+			|| caseCriteria.getPersonCity() != null
+			|| caseCriteria.getPersonPostcode() != null
+			|| CollectionUtils.isNotEmpty(caseCriteria.getReportingUserRoles())) {
+			return false;
+		}
+
+		Date reportDateFrom = caseCriteria.getReportDateFrom();
+		Date reportDateTo = caseCriteria.getReportDateTo();
+		return (reportDateFrom == null || reportDateFrom.equals(DateHelper.getStartOfDay(reportDateFrom)))
+			&& (reportDateTo == null || reportDateTo.equals(DateHelper.getEndOfDay(reportDateTo)));
+	}
+
 	/**
 	 * private void replaceIdsWithGroupingKeys(List<StatisticsCaseCountDto> results, StatisticsCaseAttribute groupingA,
 	 * for (StatisticsCaseCountDto result : results) {
@@ -258,6 +407,10 @@ public class CaseStatisticsFacadeEjb implements CaseStatisticsFacade {
 		// 3. Add selected groupings
 		// 4. Retrieve and prepare the results
 
+		// the aggregate table has the columns of the cases table that are needed, plus the sex of the person
+		boolean fromAggregate = isAnsweredByAggregate(caseCriteria, groupingA, groupingB);
+		String sexTableName = fromAggregate ? Case.TABLE_NAME : Person.TABLE_NAME;
+
 		/////////////
 		// 1. Join tables that cases are grouped by or that are used in the caseCriteria
 		/////////////
@@ -327,27 +480,28 @@ public class CaseStatisticsFacadeEjb implements CaseStatisticsFacade {
 				.append(Symptoms.ID);
 		}
 
-		if (groupingA == StatisticsCaseAttribute.SEX
-			|| groupingB == StatisticsCaseAttribute.SEX
-			|| groupingA == StatisticsCaseAttribute.AGE_INTERVAL_1_YEAR
-			|| groupingB == StatisticsCaseAttribute.AGE_INTERVAL_1_YEAR
-			|| groupingA == StatisticsCaseAttribute.AGE_INTERVAL_5_YEARS
-			|| groupingB == StatisticsCaseAttribute.AGE_INTERVAL_5_YEARS
-			|| groupingA == StatisticsCaseAttribute.AGE_INTERVAL_CHILDREN_COARSE
-			|| groupingB == StatisticsCaseAttribute.AGE_INTERVAL_CHILDREN_COARSE
-			|| groupingA == StatisticsCaseAttribute.AGE_INTERVAL_CHILDREN_FINE
-			|| groupingB == StatisticsCaseAttribute.AGE_INTERVAL_CHILDREN_FINE
-			|| groupingA == StatisticsCaseAttribute.AGE_INTERVAL_CHILDREN_MEDIUM
-			|| groupingB == StatisticsCaseAttribute.AGE_INTERVAL_CHILDREN_MEDIUM
-			|| groupingA == StatisticsCaseAttribute.AGE_INTERVAL_BASIC
-			|| groupingB == StatisticsCaseAttribute.AGE_INTERVAL_BASIC
-			|| caseCriteria.getSexes() != null
-			|| caseCriteria.getAgeIntervals() != null
-			|| caseCriteria.getPersonRegions() != null
-			|| caseCriteria.getPersonDistricts() != null
-			|| caseCriteria.getPersonCommunities() != null
-			|| caseCriteria.getPersonCity() != null
-			|| caseCriteria.getPersonPostcode() != null) {
+		if (!fromAggregate
+			&& (groupingA == StatisticsCaseAttribute.SEX
+				|| groupingB == StatisticsCaseAttribute.SEX
+				|| groupingA == StatisticsCaseAttribute.AGE_INTERVAL_1_YEAR
+				|| groupingB == StatisticsCaseAttribute.AGE_INTERVAL_1_YEAR
+				|| groupingA == StatisticsCaseAttribute.AGE_INTERVAL_5_YEARS
+				|| groupingB == StatisticsCaseAttribute.AGE_INTERVAL_5_YEARS
+				|| groupingA == StatisticsCaseAttribute.AGE_INTERVAL_CHILDREN_COARSE
+				|| groupingB == StatisticsCaseAttribute.AGE_INTERVAL_CHILDREN_COARSE
+				|| groupingA == StatisticsCaseAttribute.AGE_INTERVAL_CHILDREN_FINE
+				|| groupingB == StatisticsCaseAttribute.AGE_INTERVAL_CHILDREN_FINE
+				|| groupingA == StatisticsCaseAttribute.AGE_INTERVAL_CHILDREN_MEDIUM
+				|| groupingB == StatisticsCaseAttribute.AGE_INTERVAL_CHILDREN_MEDIUM
+				|| groupingA == StatisticsCaseAttribute.AGE_INTERVAL_BASIC
+				|| groupingB == StatisticsCaseAttribute.AGE_INTERVAL_BASIC
+				|| caseCriteria.getSexes() != null
+				|| caseCriteria.getAgeIntervals() != null
+				|| caseCriteria.getPersonRegions() != null
+				|| caseCriteria.getPersonDistricts() != null
+				|| caseCriteria.getPersonCommunities() != null
+				|| caseCriteria.getPersonCity() != null
+				|| caseCriteria.getPersonPostcode() != null)) {
 			caseJoinBuilder.append(" LEFT JOIN ")
 				.append(Person.TABLE_NAME)
 				.append(" ON ")
@@ -401,10 +555,15 @@ public class CaseStatisticsFacadeEjb implements CaseStatisticsFacade {
 
 		StringBuilder caseFilterBuilder = new StringBuilder(" WHERE ");
 
-		caseFilterBuilder.append("(").append(Case.TABLE_NAME).append(".").append(Case.DELETED).append(" = false");
-		// needed for the full join on population
-		caseFilterBuilder.append(" OR ").append(Case.TABLE_NAME).append(".").append(Case.DELETED).append(" IS NULL ");
-		caseFilterBuilder.append(")");
+		if (fromAggregate) {
+			// deleted cases are not aggregated
+			caseFilterBuilder.append(Case.TABLE_NAME).append(".").append(AGGREGATE_CASE_COUNT).append(" <> 0");
+		} else {
+			caseFilterBuilder.append("(").append(Case.TABLE_NAME).append(".").append(Case.DELETED).append(" = false");
+			// needed for the full join on population
+			caseFilterBuilder.append(" OR ").append(Case.TABLE_NAME).append(".").append(Case.DELETED).append(" IS NULL ");
+			caseFilterBuilder.append(")");
+		}
 		List<Object> filterBuilderParameters = new ArrayList<Object>();
 
 		if (CollectionUtils.isNotEmpty(caseCriteria.getOnsetYears())) {
@@ -705,7 +864,7 @@ public class CaseStatisticsFacadeEjb implements CaseStatisticsFacade {
 				extendFilterBuilderWithSimpleValue(
 					subFilterBuilder,
 					filterBuilderParameters,
-					Person.TABLE_NAME,
+					sexTableName,
 					Person.SEX,
 					caseCriteria.getSexes(),
 					entry -> entry.name());
@@ -715,7 +874,7 @@ public class CaseStatisticsFacadeEjb implements CaseStatisticsFacade {
 				if (subFilterBuilder.length() > 0) {
 					subFilterBuilder.append(" OR ");
 				}
-				subFilterBuilder.append(Person.TABLE_NAME)
+				subFilterBuilder.append(sexTableName)
 					.append(".")
 					.append(Person.SEX)
 					.append(" IS ")
@@ -876,11 +1035,11 @@ public class CaseStatisticsFacadeEjb implements CaseStatisticsFacade {
 			caseGroupByBuilder.append(" GROUP BY ");
 
 			if (groupingA != null) {
-				groupingSelectQueryA = buildCaseGroupingSelectQuery(groupingA, subGroupingA, groupAAlias);
+				groupingSelectQueryA = buildCaseGroupingSelectQuery(groupingA, subGroupingA, groupAAlias, sexTableName);
 				caseGroupByBuilder.append(groupAAlias);
 			}
 			if (groupingB != null) {
-				groupingSelectQueryB = buildCaseGroupingSelectQuery(groupingB, subGroupingB, groupBAlias);
+				groupingSelectQueryB = buildCaseGroupingSelectQuery(groupingB, subGroupingB, groupBAlias, sexTableName);
 				if (groupingA != null) {
 					caseGroupByBuilder.append(",");
 				}
@@ -905,7 +1064,11 @@ public class CaseStatisticsFacadeEjb implements CaseStatisticsFacade {
 
 		StringBuilder queryBuilder = new StringBuilder();
 
-		queryBuilder.append("SELECT COUNT(*) AS casecount ");
+		if (fromAggregate) {
+			queryBuilder.append("SELECT COALESCE(SUM(").append(Case.TABLE_NAME).append(".").append(AGGREGATE_CASE_COUNT).append("), 0) AS casecount ");
+		} else {
+			queryBuilder.append("SELECT COUNT(*) AS casecount ");
+		}
 
 		if (groupingSelectQueryA != null) {
 			queryBuilder.append(", ").append(groupingSelectQueryA);
@@ -918,9 +1081,17 @@ public class CaseStatisticsFacadeEjb implements CaseStatisticsFacade {
 			queryBuilder.append(", null\\:\\:text AS ").append(groupBAlias);
 		}
 
-		queryBuilder.append(" FROM ").append(Case.TABLE_NAME).append(caseJoinBuilder).append(caseFilterBuilder).append(caseGroupByBuilder);
+		queryBuilder.append(" FROM ");
+		if (fromAggregate) {
+			queryBuilder.append(AGGREGATE_TABLE_NAME).append(" AS ");
+		}
+		queryBuilder.append(Case.TABLE_NAME).append(caseJoinBuilder).append(caseFilterBuilder).append(caseGroupByBuilder);
 
 		if (groupingA != null || groupingB != null) {
+			if (fromAggregate) {
+				// groups whose cases have all been changed or deleted
+				queryBuilder.append(" HAVING SUM(").append(Case.TABLE_NAME).append(".").append(AGGREGATE_CASE_COUNT).append(") > 0");
+			}
 			queryBuilder.append(orderByBuilder);
 		}
 
@@ -1340,12 +1511,16 @@ public class CaseStatisticsFacadeEjb implements CaseStatisticsFacade {
 		return QueryHelper.appendInFilterValues(filterBuilder, filterBuilderParameters, values, valueMapper);
 	}
 
-	private String buildCaseGroupingSelectQuery(StatisticsCaseAttribute grouping, StatisticsCaseSubAttribute subGrouping, String groupAlias) {
+	private String buildCaseGroupingSelectQuery(
+		StatisticsCaseAttribute grouping,
+		StatisticsCaseSubAttribute subGrouping,
+		String groupAlias,
+		String sexTableName) {
 
 		StringBuilder groupingSelectPartBuilder = new StringBuilder();
 		switch (grouping) {
 		case SEX:
-			groupingSelectPartBuilder.append(Person.TABLE_NAME).append(".").append(Person.SEX).append(" AS ").append(groupAlias);
+			groupingSelectPartBuilder.append(sexTableName).append(".").append(Person.SEX).append(" AS ").append(groupAlias);
 			break;
 		case DISEASE:
 			groupingSelectPartBuilder.append(Case.TABLE_NAME).append(".").append(Case.DISEASE).append(" AS ").append(groupAlias);
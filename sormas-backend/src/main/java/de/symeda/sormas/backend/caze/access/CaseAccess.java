@@ -0,0 +1,158 @@
+/*******************************************************************************
+ * SORMAS® - Surveillance Outbreak Response Management & Analysis System
+ * Copyright © 2016-2021 Helmholtz-Zentrum für Infektionsforschung GmbH (HZI)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ *******************************************************************************/
+package de.symeda.sormas.backend.caze.access;
+
+import java.io.Serializable;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.SequenceGenerator;
+
+/**
+ * Materialised access to a case that is granted through one of its samples or contacts: Laboratory users can access the
+ * cases of the samples sent to their laboratory, other users the cases of the contacts in their jurisdiction or assigned
+ * to them. There is one entry per sample (with a laboratory) and contact that is associated with a case.
+ * The entries only hold ids, so they don't have to be loaded with their referenced entities.
+ */
+@Entity(name = CaseAccess.TABLE_NAME)
+public class CaseAccess implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	public static final String TABLE_NAME = "caseaccess";
+
+	public static final String ID = "id";
+	public static final String CASE_ID = "caseId";
+	public static final String SAMPLE_ID = "sampleId";
+	public static final String CONTACT_ID = "contactId";
+	public static final String LABORATORY_ID = "laboratoryId";
+	public static final String REGION_ID = "regionId";
+	public static final String DISTRICT_ID = "districtId";
+	public static final String COMMUNITY_ID = "communityId";
+	public static final String REPORTING_USER_ID = "reportingUserId";
+	public static final String CONTACT_OFFICER_ID = "contactOfficerId";
+
+	private static final String SEQ_GEN_NAME = "ENTITY_SEQ_GEN";
+	private static final String SEQ_SQL_NAME = "ENTITY_SEQ";
+
+	private Long id;
+	private Long caseId;
+	private Long sampleId;
+	private Long contactId;
+	private Long laboratoryId;
+	private Long regionId;
+	private Long districtId;
+	private Long communityId;
+	private Long reportingUserId;
+	private Long contactOfficerId;
+
+	@Id
+	@SequenceGenerator(name = SEQ_GEN_NAME, allocationSize = 1, sequenceName = SEQ_SQL_NAME)
+	@GeneratedValue(strategy = GenerationType.SEQUENCE, generator = SEQ_GEN_NAME)
+	public Long getId() {
+		return id;
+	}
+
+	public void setId(Long id) {
+		this.id = id;
+	}
+
+	@Column(name = "caze_id", nullable = false)
+	public Long getCaseId() {
+		return caseId;
+	}
+
+	public void setCaseId(Long caseId) {
+		this.caseId = caseId;
+	}
+
+	@Column(name = "sample_id")
+	public Long getSampleId() {
+		return sampleId;
+	}
+
+	public void setSampleId(Long sampleId) {
+		this.sampleId = sampleId;
+	}
+
+	@Column(name = "contact_id")
+	public Long getContactId() {
+		return contactId;
+	}
+
+	public void setContactId(Long contactId) {
+		this.contactId = contactId;
+	}
+
+	@Column(name = "laboratory_id")
+	public Long getLaboratoryId() {
+		return laboratoryId;
+	}
+
+	public void setLaboratoryId(Long laboratoryId) {
+		this.laboratoryId = laboratoryId;
+	}
+
+	@Column(name = "region_id")
+	public Long getRegionId() {
+		return regionId;
+	}
+
+	public void setRegionId(Long regionId) {
+		this.regionId = regionId;
+	}
+
+	@Column(name = "district_id")
+	public Long getDistrictId() {
+		return districtId;
+	}
+
+	public void setDistrictId(Long districtId) {
+		this.districtId = districtId;
+	}
+
+	@Column(name = "community_id")
+	public Long getCommunityId() {
+		return communityId;
+	}
+
+	public void setCommunityId(Long communityId) {
+		this.communityId = communityId;
+	}
+
+	@Column(name = "reportinguser_id")
+	public Long getReportingUserId() {
+		return reportingUserId;
+	}
+
+	public void setReportingUserId(Long reportingUserId) {
+		this.reportingUserId = reportingUserId;
+	}
+
+	@Column(name = "contactofficer_id")
+	public Long getContactOfficerId() {
+		return contactOfficerId;
+	}
+
+	public void setContactOfficerId(Long contactOfficerId) {
+		this.contactOfficerId = contactOfficerId;
+	}
+}
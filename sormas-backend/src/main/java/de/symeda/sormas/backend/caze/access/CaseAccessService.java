@@ -0,0 +1,176 @@
+/*******************************************************************************
+ * SORMAS® - Surveillance Outbreak Response Management & Analysis System
+ * Copyright © 2016-2021 Helmholtz-Zentrum für Infektionsforschung GmbH (HZI)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ *******************************************************************************/
+package de.symeda.sormas.backend.caze.access;
+
+import java.util.List;
+import java.util.Objects;
+
+import javax.ejb.EJB;
+import javax.ejb.LocalBean;
+import javax.ejb.Stateless;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Expression;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import javax.persistence.criteria.Subquery;
+
+import de.symeda.sormas.api.user.JurisdictionLevel;
+import de.symeda.sormas.backend.common.AbstractDomainObject;
+import de.symeda.sormas.backend.common.ConfigFacadeEjb.ConfigFacadeEjbLocal;
+import de.symeda.sormas.backend.common.CriteriaBuilderHelper;
+import de.symeda.sormas.backend.contact.Contact;
+import de.symeda.sormas.backend.sample.Sample;
+import de.symeda.sormas.backend.user.User;
+import de.symeda.sormas.backend.util.ModelConstants;
+
+/**
+ * Maintains the {@link CaseAccess} entries and builds the case filters that use them instead of subqueries over all samples
+ * and contacts.
+ */
+@Stateless
+@LocalBean
+public class CaseAccessService {
+
+	@PersistenceContext(unitName = ModelConstants.PERSISTENCE_UNIT_NAME)
+	private EntityManager em;
+
+	@EJB
+	private ConfigFacadeEjbLocal configFacade;
+
+	/**
+	 * @return Whether the case filters should use the materialised access. The entries are maintained either way, so the
+	 *         mode can be switched at any time.
+	 */
+	public boolean isMaterializationEnabled() {
+		return configFacade.isCaseAccessMaterialization();
+	}
+
+	public void updateSampleAccess(Sample sample) {
+
+		CaseAccess access = null;
+		if (sample.getAssociatedCase() != null) {
+			access = new CaseAccess();
+			access.setCaseId(sample.getAssociatedCase().getId());
+			access.setSampleId(sample.getId());
+			access.setLaboratoryId(getId(sample.getLab()));
+		}
+
+		updateAccess(CaseAccess.SAMPLE_ID, sample.getId(), access);
+	}
+
+	public void updateContactAccess(Contact contact) {
+
+		CaseAccess access = null;
+		if (contact.getCaze() != null) {
+			access = new CaseAccess();
+			access.setCaseId(contact.getCaze().getId());
+			access.setContactId(contact.getId());
+			access.setRegionId(getId(contact.getRegion()));
+			access.setDistrictId(getId(contact.getDistrict()));
+			access.setCommunityId(getId(contact.getCommunity()));
+			access.setReportingUserId(getId(contact.getReportingUser()));
+			access.setContactOfficerId(getId(contact.getContactOfficer()));
+		}
+
+		updateAccess(CaseAccess.CONTACT_ID, contact.getId(), access);
+	}
+
+	/**
+	 * Same as the case filter through {@code SampleService.createUserFilterWithoutCase} for laboratory users.
+	 */
+	public Predicate createLaboratoryFilter(CriteriaBuilder cb, CriteriaQuery<?> cq, Expression<Long> caseId, User user) {
+
+		Subquery<Long> accessSubquery = cq.subquery(Long.class);
+		Root<CaseAccess> access = accessSubquery.from(CaseAccess.class);
+
+		Predicate filter = cb.isNotNull(access.get(CaseAccess.SAMPLE_ID));
+		if (user.getLaboratory() != null) {
+			filter = cb.and(filter, cb.equal(access.get(CaseAccess.LABORATORY_ID), user.getLaboratory().getId()));
+		}
+
+		accessSubquery.select(access.get(CaseAccess.CASE_ID));
+		accessSubquery.where(cb.equal(access.get(CaseAccess.CASE_ID), caseId), filter);
+		return cb.exists(accessSubquery);
+	}
+
+	/**
+	 * Same as the case filter through {@code ContactService.createUserFilterWithoutCase} for users below the national level.
+	 */
+	public Predicate createContactFilter(CriteriaBuilder cb, CriteriaQuery<?> cq, Expression<Long> caseId, User user) {
+
+		Subquery<Long> accessSubquery = cq.subquery(Long.class);
+		Root<CaseAccess> access = accessSubquery.from(CaseAccess.class);
+
+		// whoever created the contact or is assigned to it
+		Predicate filter = cb.or(
+			cb.equal(access.get(CaseAccess.REPORTING_USER_ID), user.getId()),
+			cb.equal(access.get(CaseAccess.CONTACT_OFFICER_ID), user.getId()));
+
+		final JurisdictionLevel jurisdictionLevel = user.getJurisdictionLevel();
+		if (jurisdictionLevel == JurisdictionLevel.REGION && user.getRegion() != null) {
+			filter = CriteriaBuilderHelper.or(cb, filter, cb.equal(access.get(CaseAccess.REGION_ID), user.getRegion().getId()));
+		} else if (jurisdictionLevel == JurisdictionLevel.DISTRICT && user.getDistrict() != null) {
+			filter = CriteriaBuilderHelper.or(cb, filter, cb.equal(access.get(CaseAccess.DISTRICT_ID), user.getDistrict().getId()));
+		} else if (jurisdictionLevel == JurisdictionLevel.COMMUNITY && user.getCommunity() != null) {
+			filter = CriteriaBuilderHelper.or(cb, filter, cb.equal(access.get(CaseAccess.COMMUNITY_ID), user.getCommunity().getId()));
+		}
+
+		accessSubquery.select(access.get(CaseAccess.CASE_ID));
+		accessSubquery.where(cb.equal(access.get(CaseAccess.CASE_ID), caseId), cb.isNotNull(access.get(CaseAccess.CONTACT_ID)), filter);
+		return cb.exists(accessSubquery);
+	}
+
+	private void updateAccess(String sourceIdAttribute, Long sourceId, CaseAccess access) {
+
+		CriteriaBuilder cb = em.getCriteriaBuilder();
+		CriteriaQuery<CaseAccess> cq = cb.createQuery(CaseAccess.class);
+		Root<CaseAccess> root = cq.from(CaseAccess.class);
+		cq.where(cb.equal(root.get(sourceIdAttribute), sourceId));
+		List<CaseAccess> existingAccesses = em.createQuery(cq).getResultList();
+
+		if (access != null && existingAccesses.size() == 1 && isSameAccess(existingAccesses.get(0), access)) {
+			return;
+		}
+
+		for (CaseAccess existingAccess : existingAccesses) {
+			em.remove(existingAccess);
+		}
+		if (access != null) {
+			em.persist(access);
+		}
+		em.flush();
+	}
+
+	private static boolean isSameAccess(CaseAccess a, CaseAccess b) {
+
+		return Objects.equals(a.getCaseId(), b.getCaseId())
+			&& Objects.equals(a.getLaboratoryId(), b.getLaboratoryId())
+			&& Objects.equals(a.getRegionId(), b.getRegionId())
+			&& Objects.equals(a.getDistrictId(), b.getDistrictId())
+			&& Objects.equals(a.getCommunityId(), b.getCommunityId())
+			&& Objects.equals(a.getReportingUserId(), b.getReportingUserId())
+			&& Objects.equals(a.getContactOfficerId(), b.getContactOfficerId());
+	}
+
+	private static Long getId(AbstractDomainObject ado) {
+		return ado != null ? ado.getId() : null;
+	}
+}
@@ -20,13 +20,23 @@ import java.beans.PropertyDescriptor;
 import java.lang.reflect.InvocationTargetException;
 import java.text.ParseException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 import java.util.function.Function;
+import java.util.function.Supplier;
 
+import javax.annotation.Resource;
 import javax.ejb.EJB;
 import javax.ejb.LocalBean;
 import javax.ejb.Stateless;
+import javax.enterprise.concurrent.ManagedExecutorService;
 import javax.transaction.Transactional;
 
 import org.apache.commons.lang3.StringUtils;
@@ -73,6 +83,8 @@ import de.symeda.sormas.api.utils.DataHelper;
 import de.symeda.sormas.api.utils.DateHelper;
 import de.symeda.sormas.api.utils.ValidationRuntimeException;
 import de.symeda.sormas.backend.caze.CaseFacadeEjb.CaseFacadeEjbLocal;
+import de.symeda.sormas.backend.common.ConfigFacadeEjb;
+import de.symeda.sormas.backend.common.ConfigFacadeEjb.ConfigFacadeEjbLocal;
 import de.symeda.sormas.backend.common.EnumService;
 import de.symeda.sormas.backend.disease.DiseaseVariantFacadeEjb.DiseaseVariantFacadeEjbLocal;
 import de.symeda.sormas.backend.facility.FacilityFacadeEjb.FacilityFacadeEjbLocal;
@@ -134,6 +146,11 @@ public class CaseImportFacadeEjb implements CaseImportFacade {
 	private DiseaseVariantFacadeEjbLocal diseaseVariantFacade;
 	@EJB
 	private CountryFacadeEjbLocal countryFacade;
+	@EJB
+	private ConfigFacadeEjbLocal configFacade;
+
+	@Resource
+	private ManagedExecutorService executorService;
 
 	@Override
 	@Transactional
@@ -150,9 +167,136 @@ public class CaseImportFacadeEjb implements CaseImportFacade {
 			return ImportLineResultDto.errorResult(I18nProperties.getValidationError(Validations.importLineTooLong));
 		}
 
-		final CaseImportEntities entities = new CaseImportEntities(userService.getCurrentUser().toReference());
+		ImportLineResultDto<CaseImportEntities> buildResult = buildAndValidateEntities(
+			values,
+			entityClasses,
+			entityPropertyPaths,
+			ignoreEmptyEntries,
+			userService.getCurrentUser().toReference(),
+			new HashMap<>());
+		if (buildResult.isError()) {
+			return buildResult;
+		}
+
+		return saveIfNotSimilar(buildResult.getImportEntities());
+	}
+
+	/**
+	 * The lines are split into one batch per import worker (see {@link ConfigFacadeEjb#getImportParallelWorkers()}) and the batches
+	 * are built in parallel by the managed executor service.
+	 */
+	@Override
+	public List<ImportLineResultDto<CaseImportEntities>> buildImportEntities(
+		List<String[]> lines,
+		String[] entityClasses,
+		String[] entityProperties,
+		String[][] entityPropertyPaths,
+		boolean ignoreEmptyEntries) {
+
+		// infrastructure data and users are looked up once for all lines
+		Map<List<Object>, List<?>> lookupTable = new ConcurrentHashMap<>();
+		// the current user is request scoped and therefore resolved before the batches are handed to other threads
+		UserReferenceDto currentUserRef = userService.getCurrentUser().toReference();
+
+		int workers = Math.min(configFacade.getImportParallelWorkers(), lines.size());
+		if (workers <= 1) {
+			return buildImportEntities(
+				lines,
+				entityClasses,
+				entityProperties,
+				entityPropertyPaths,
+				ignoreEmptyEntries,
+				currentUserRef,
+				lookupTable);
+		}
+
+		Language language = I18nProperties.getUserLanguage();
+		int batchSize = (lines.size() + workers - 1) / workers;
+		List<Future<List<ImportLineResultDto<CaseImportEntities>>>> batchResults = new ArrayList<>(workers);
+		try {
+			for (int i = 0; i < lines.size(); i += batchSize) {
+				List<String[]> batch = lines.subList(i, Math.min(i + batchSize, lines.size()));
+				batchResults.add(executorService.submit(() -> {
+					// the captions in the import file are in the language of the user
+					I18nProperties.setUserLanguage(language);
+					try {
+						return buildImportEntities(
+							batch,
+							entityClasses,
+							entityProperties,
+							entityPropertyPaths,
+							ignoreEmptyEntries,
+							currentUserRef,
+							lookupTable);
+					} finally {
+						I18nProperties.removeUserLanguage();
+					}
+				}));
+			}
+
+			List<ImportLineResultDto<CaseImportEntities>> results = new ArrayList<>(lines.size());
+			for (Future<List<ImportLineResultDto<CaseImportEntities>>> batchResult : batchResults) {
+				results.addAll(batchResult.get());
+			}
+			return results;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new RuntimeException(e);
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			}
+			throw new RuntimeException(e.getCause());
+		} finally {
+			batchResults.forEach(batchResult -> batchResult.cancel(true));
+		}
+	}
+
+	private List<ImportLineResultDto<CaseImportEntities>> buildImportEntities(
+		List<String[]> lines,
+		String[] entityClasses,
+		String[] entityProperties,
+		String[][] entityPropertyPaths,
+		boolean ignoreEmptyEntries,
+		UserReferenceDto currentUserRef,
+		Map<List<Object>, List<?>> lookupTable) {
+
+		List<ImportLineResultDto<CaseImportEntities>> results = new ArrayList<>(lines.size());
+		for (String[] values : lines) {
+			if (values.length > entityProperties.length) {
+				results.add(ImportLineResultDto.errorResult(I18nProperties.getValidationError(Validations.importLineTooLong)));
+			} else {
+				results.add(
+					buildAndValidateEntities(values, entityClasses, entityPropertyPaths, ignoreEmptyEntries, currentUserRef, lookupTable));
+			}
+		}
+
+		return results;
+	}
+
+	@Override
+	public List<ImportLineResultDto<CaseImportEntities>> saveImportedEntities(List<CaseImportEntities> entities) {
+
+		List<ImportLineResultDto<CaseImportEntities>> results = new ArrayList<>(entities.size());
+		for (CaseImportEntities lineEntities : entities) {
+			// the entities saved before are already visible to the similarity check of the following ones
+			results.add(saveIfNotSimilar(lineEntities));
+		}
+
+		return results;
+	}
+
+	private ImportLineResultDto<CaseImportEntities> buildAndValidateEntities(
+		String[] values,
+		String[] entityClasses,
+		String[][] entityPropertyPaths,
+		boolean ignoreEmptyEntries,
+		UserReferenceDto currentUserRef,
+		Map<List<Object>, List<?>> lookupTable) {
+
+		final CaseImportEntities entities = new CaseImportEntities(currentUserRef);
 		ImportLineResultDto<CaseImportEntities> importResult =
-			buildEntities(values, entityClasses, entityPropertyPaths, ignoreEmptyEntries, entities);
+			buildEntities(values, entityClasses, entityPropertyPaths, ignoreEmptyEntries, entities, currentUserRef, lookupTable);
 		if (importResult.isError()) {
 			return importResult;
 		}
@@ -162,15 +306,16 @@ public class CaseImportFacadeEjb implements CaseImportFacade {
 			return validationResult;
 		}
 
-		PersonDto person = entities.getPerson();
+		return ImportLineResultDto.successResult(entities);
+	}
 
-		if (personFacade.isPersonSimilarToExisting(person)) {
+	private ImportLineResultDto<CaseImportEntities> saveIfNotSimilar(CaseImportEntities entities) {
+
+		if (personFacade.isPersonSimilarToExisting(entities.getPerson())) {
 			return ImportLineResultDto.duplicateResult(entities);
 		}
 
-		ImportLineResultDto<CaseImportEntities> result = saveImportedEntities(entities);
-
-		return result;
+		return saveImportedEntities(entities);
 	}
 
 	@Override
@@ -189,15 +334,17 @@ public class CaseImportFacadeEjb implements CaseImportFacade {
 			person = PersonDto.build();
 		}
 
+		final UserReferenceDto currentUserRef = userService.getCurrentUser().toReference();
 		final CaseDataDto caze;
 		if (caseUuid != null) {
 			caze = caseFacade.getCaseDataByUuid(caseUuid);
 		} else {
-			caze = CaseImportEntities.createCase(person, userService.getCurrentUser().toReference());
+			caze = CaseImportEntities.createCase(person, currentUserRef);
 		}
 
 		CaseImportEntities entities = new CaseImportEntities(person, caze);
-		ImportLineResultDto<CaseImportEntities> importResult = buildEntities(values, entityClasses, entityPropertyPaths, true, entities);
+		ImportLineResultDto<CaseImportEntities> importResult =
+			buildEntities(values, entityClasses, entityPropertyPaths, true, entities, currentUserRef, new HashMap<>());
 
 		if (importResult.isError()) {
 			return importResult;
@@ -265,9 +412,9 @@ public class CaseImportFacadeEjb implements CaseImportFacade {
 		String[] entityClasses,
 		String[][] entityPropertyPaths,
 		boolean ignoreEmptyEntries,
-		CaseImportEntities entities) {
-
-		final UserReferenceDto currentUserRef = userService.getCurrentUser().toReference();
+		CaseImportEntities entities,
+		UserReferenceDto currentUserRef,
+		Map<List<Object>, List<?>> lookupTable) {
 
 		final List<SampleDto> samples = entities.getSamples();
 		final List<PathogenTestDto> pathogenTests = entities.getPathogenTests();
@@ -312,7 +459,8 @@ public class CaseImportFacadeEjb implements CaseImportFacade {
 								samples.get(samples.size() - 1),
 								null,
 								cellData.getValue(),
-								cellData.getEntityPropertyPath());
+								cellData.getEntityPropertyPath(),
+								lookupTable);
 						}
 
 					} else if (DataHelper.equal(cellData.getEntityClass(), DataHelper.getHumanClassName(PathogenTestDto.class))) {
@@ -333,12 +481,13 @@ public class CaseImportFacadeEjb implements CaseImportFacade {
 									null,
 									pathogenTests.get(pathogenTests.size() - 1),
 									cellData.getValue(),
-									cellData.getEntityPropertyPath());
+									cellData.getEntityPropertyPath(),
+									lookupTable);
 							}
 						}
 					} else if (!StringUtils.isEmpty(cellData.getValue())) {
 						// If the cell entry is not empty, try to insert it into the current case or its person
-						insertColumnEntryIntoData(caze, entities.getPerson(), cellData.getValue(), cellData.getEntityPropertyPath());
+						insertColumnEntryIntoData(caze, entities.getPerson(), cellData.getValue(), cellData.getEntityPropertyPath(), lookupTable);
 					}
 				} catch (ImportErrorException | InvalidColumnException e) {
 					return e;
@@ -404,7 +553,12 @@ public class CaseImportFacadeEjb implements CaseImportFacade {
 	/**
 	 * Inserts the entry of a single cell into the case or its person.
 	 */
-	private void insertColumnEntryIntoData(CaseDataDto caze, PersonDto person, String entry, String[] entryHeaderPath)
+	private void insertColumnEntryIntoData(
+		CaseDataDto caze,
+		PersonDto person,
+		String entry,
+		String[] entryHeaderPath,
+		Map<List<Object>, List<?>> lookupTable)
 		throws InvalidColumnException, ImportErrorException {
 
 		Object currentElement = caze;
@@ -432,11 +586,13 @@ public class CaseImportFacadeEjb implements CaseImportFacade {
 
 					// Execute the default invokes specified in the data importer; if none of those were triggered, execute additional invokes
 					// according to the types of the case or person fields
-					if (executeDefaultInvokings(pd, currentElement, entry, entryHeaderPath)) {
+					if (executeDefaultInvokings(pd, currentElement, entry, entryHeaderPath, lookupTable)) {
 						continue;
 					} else if (propertyType.isAssignableFrom(DistrictReferenceDto.class)) {
-						List<DistrictReferenceDto> district = districtFacade
-							.getByName(entry, ImportHelper.getRegionBasedOnDistrict(pd.getName(), caze, null, person, currentElement), false);
+						RegionReferenceDto region = ImportHelper.getRegionBasedOnDistrict(pd.getName(), caze, null, person, currentElement);
+						String districtName = entry;
+						List<DistrictReferenceDto> district =
+							lookup(lookupTable, () -> districtFacade.getByName(districtName, region, false), DistrictReferenceDto.class, entry, region);
 						if (district.isEmpty()) {
 							throw new ImportErrorException(
 								I18nProperties
@@ -448,8 +604,14 @@ public class CaseImportFacadeEjb implements CaseImportFacade {
 							pd.getWriteMethod().invoke(currentElement, district.get(0));
 						}
 					} else if (propertyType.isAssignableFrom(CommunityReferenceDto.class)) {
-						List<CommunityReferenceDto> community = communityFacade
-							.getByName(entry, ImportHelper.getDistrictBasedOnCommunity(pd.getName(), caze, person, currentElement), false);
+						DistrictReferenceDto district = ImportHelper.getDistrictBasedOnCommunity(pd.getName(), caze, person, currentElement);
+						String communityName = entry;
+						List<CommunityReferenceDto> community = lookup(
+							lookupTable,
+							() -> communityFacade.getByName(communityName, district, false),
+							CommunityReferenceDto.class,
+							entry,
+							district);
 						if (community.isEmpty()) {
 							throw new ImportErrorException(
 								I18nProperties.getValidationError(
@@ -474,12 +636,21 @@ public class CaseImportFacadeEjb implements CaseImportFacade {
 							entry = FacilityDto.NO_FACILITY;
 						}
 
-						List<FacilityReferenceDto> facilities = facilityFacade.getByNameAndType(
+						String facilityName = entry;
+						FacilityType facilityType = getTypeOfFacility(pd.getName(), currentElement);
+						List<FacilityReferenceDto> facilities = lookup(
+							lookupTable,
+							() -> facilityFacade.getByNameAndType(
+								facilityName,
+								infrastructureData.getElement0(),
+								infrastructureData.getElement1(),
+								facilityType,
+								false),
+							FacilityReferenceDto.class,
 							entry,
 							infrastructureData.getElement0(),
 							infrastructureData.getElement1(),
-							getTypeOfFacility(pd.getName(), currentElement),
-							false);
+							facilityType);
 
 						if (facilities.isEmpty()) {
 							if (infrastructureData.getElement1() != null) {
@@ -507,7 +678,13 @@ public class CaseImportFacadeEjb implements CaseImportFacade {
 							pd.getWriteMethod().invoke(currentElement, facilities.get(0));
 						}
 					} else if (propertyType.isAssignableFrom(PointOfEntryReferenceDto.class)) {
-						List<PointOfEntryReferenceDto> pointOfEntry = pointOfEntryFacade.getByName(entry, caze.getDistrict(), false);
+						String pointOfEntryName = entry;
+						List<PointOfEntryReferenceDto> pointOfEntry = lookup(
+							lookupTable,
+							() -> pointOfEntryFacade.getByName(pointOfEntryName, caze.getDistrict(), false),
+							PointOfEntryReferenceDto.class,
+							entry,
+							caze.getDistrict());
 						if (pointOfEntry.isEmpty()) {
 							throw new ImportErrorException(
 								I18nProperties.getValidationError(
@@ -524,7 +701,13 @@ public class CaseImportFacadeEjb implements CaseImportFacade {
 							pd.getWriteMethod().invoke(currentElement, pointOfEntry.get(0));
 						}
 					} else if (propertyType.isAssignableFrom(DiseaseVariantReferenceDto.class)) {
-						List<DiseaseVariantReferenceDto> variants = diseaseVariantFacade.getByName(entry, caze.getDisease());
+						String variantName = entry;
+						List<DiseaseVariantReferenceDto> variants = lookup(
+							lookupTable,
+							() -> diseaseVariantFacade.getByName(variantName, caze.getDisease()),
+							DiseaseVariantReferenceDto.class,
+							entry,
+							caze.getDisease());
 						if (variants.isEmpty()) {
 							throw new ImportErrorException(
 								I18nProperties.getValidationError(
@@ -570,7 +753,12 @@ public class CaseImportFacadeEjb implements CaseImportFacade {
 	/**
 	 * Inserts the entry of a single cell into the sample or pathogen test.
 	 */
-	private void insertColumnEntryIntoSampleData(SampleDto sample, PathogenTestDto test, String entry, String[] entryHeaderPath)
+	private void insertColumnEntryIntoSampleData(
+		SampleDto sample,
+		PathogenTestDto test,
+		String entry,
+		String[] entryHeaderPath,
+		Map<List<Object>, List<?>> lookupTable)
 		throws InvalidColumnException, ImportErrorException {
 		Object currentElement = sample != null ? sample : test;
 		for (int i = 0; i < entryHeaderPath.length; i++) {
@@ -585,10 +773,11 @@ public class CaseImportFacadeEjb implements CaseImportFacade {
 
 					// Execute the default invokes specified in the data importer; if none of those were triggered, execute additional invokes
 					// according to the types of the sample or pathogen test fields
-					if (executeDefaultInvokings(pd, currentElement, entry, entryHeaderPath)) {
+					if (executeDefaultInvokings(pd, currentElement, entry, entryHeaderPath, lookupTable)) {
 						continue;
 					} else if (propertyType.isAssignableFrom(FacilityReferenceDto.class)) {
-						List<FacilityReferenceDto> lab = facilityFacade.getLaboratoriesByName(entry, false);
+						List<FacilityReferenceDto> lab =
+							lookup(lookupTable, () -> facilityFacade.getLaboratoriesByName(entry, false), FacilityType.LABORATORY, entry);
 						if (lab.isEmpty()) {
 							throw new ImportErrorException(
 								I18nProperties.getValidationError(Validations.importEntryDoesNotExist, entry, buildEntityProperty(entryHeaderPath)));
@@ -634,7 +823,12 @@ public class CaseImportFacadeEjb implements CaseImportFacade {
 		return (FacilityType) pd.getReadMethod().invoke(currentElement);
 	}
 
-	protected boolean executeDefaultInvokings(PropertyDescriptor pd, Object element, String entry, String[] entryHeaderPath)
+	protected boolean executeDefaultInvokings(
+		PropertyDescriptor pd,
+		Object element,
+		String entry,
+		String[] entryHeaderPath,
+		Map<List<Object>, List<?>> lookupTable)
 		throws InvocationTargetException, IllegalAccessException, ParseException, ImportErrorException, EnumService.InvalidEnumCaptionException {
 		Class<?> propertyType = pd.getPropertyType();
 
@@ -676,7 +870,7 @@ public class CaseImportFacadeEjb implements CaseImportFacade {
 			return true;
 		}
 		if (propertyType.isAssignableFrom(AreaReferenceDto.class)) {
-			List<AreaReferenceDto> areas = areaFacade.getByName(entry, false);
+			List<AreaReferenceDto> areas = lookup(lookupTable, () -> areaFacade.getByName(entry, false), AreaReferenceDto.class, entry);
 			if (areas.isEmpty()) {
 				throw new ImportErrorException(
 					I18nProperties.getValidationError(Validations.importEntryDoesNotExist, entry, buildEntityProperty(entryHeaderPath)));
@@ -689,7 +883,7 @@ public class CaseImportFacadeEjb implements CaseImportFacade {
 			}
 		}
 		if (propertyType.isAssignableFrom(RegionReferenceDto.class)) {
-			List<Region> regions = regionService.getByName(entry, false);
+			List<Region> regions = lookup(lookupTable, () -> regionService.getByName(entry, false), Region.class, entry);
 			if (regions.isEmpty()) {
 				throw new ImportErrorException(
 					I18nProperties.getValidationError(Validations.importEntryDoesNotExist, entry, buildEntityProperty(entryHeaderPath)));
@@ -698,7 +892,8 @@ public class CaseImportFacadeEjb implements CaseImportFacade {
 					I18nProperties.getValidationError(Validations.importRegionNotUnique, entry, buildEntityProperty(entryHeaderPath)));
 			} else {
 				Region region = regions.get(0);
-				CountryReferenceDto serverCountry = countryFacade.getServerCountry();
+				CountryReferenceDto serverCountry =
+					lookup(lookupTable, () -> Collections.singletonList(countryFacade.getServerCountry()), CountryReferenceDto.class).get(0);
 
 				if (region.getCountry() != null && !CountryFacadeEjb.toReferenceDto(region.getCountry()).equals(serverCountry)) {
 					throw new ImportErrorException(
@@ -710,7 +905,7 @@ public class CaseImportFacadeEjb implements CaseImportFacade {
 			}
 		}
 		if (propertyType.isAssignableFrom(UserReferenceDto.class)) {
-			UserDto user = userFacade.getByUserName(entry);
+			UserDto user = lookup(lookupTable, () -> Collections.singletonList(userFacade.getByUserName(entry)), UserDto.class, entry).get(0);
 			if (user != null) {
 				pd.getWriteMethod().invoke(element, user.toReference());
 				return true;
@@ -727,6 +922,14 @@ public class CaseImportFacadeEjb implements CaseImportFacade {
 		return false;
 	}
 
+	/**
+	 * @return The result of the query, which is only executed once for the same key.
+	 */
+	@SuppressWarnings("unchecked")
+	private <T> List<T> lookup(Map<List<Object>, List<?>> lookupTable, Supplier<List<T>> query, Object... key) {
+		return (List<T>) lookupTable.computeIfAbsent(Arrays.asList(key), k -> query.get());
+	}
+
 	protected String buildEntityProperty(String[] entityPropertyPath) {
 		return String.join(".", entityPropertyPath);
 	}
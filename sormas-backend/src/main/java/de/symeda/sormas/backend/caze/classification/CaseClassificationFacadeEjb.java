@@ -19,14 +19,21 @@ package de.symeda.sormas.backend.caze.classification;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.Date;
+import java.util.EnumMap;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 import javax.ejb.EJB;
 import javax.ejb.LocalBean;
 import javax.ejb.Stateless;
+import javax.ejb.TransactionAttribute;
+import javax.ejb.TransactionAttributeType;
 
 import de.symeda.sormas.api.Disease;
 import de.symeda.sormas.api.caze.CaseClassification;
@@ -61,11 +68,17 @@ import de.symeda.sormas.api.sample.PathogenTestDto;
 import de.symeda.sormas.api.sample.PathogenTestType;
 import de.symeda.sormas.api.symptoms.SymptomsDto;
 import de.symeda.sormas.api.utils.DateHelper;
-import de.symeda.sormas.backend.person.PersonFacadeEjb.PersonFacadeEjbLocal;
+import de.symeda.sormas.backend.person.Person;
+import de.symeda.sormas.backend.person.PersonFacadeEjb;
+import de.symeda.sormas.backend.person.PersonService;
+import de.symeda.sormas.backend.sample.PathogenTestFacadeEjb.PathogenTestFacadeEjbLocal;
+import de.symeda.sormas.backend.sample.PathogenTestService;
+import de.symeda.sormas.backend.util.IterableHelper;
+import de.symeda.sormas.backend.util.ModelConstants;
 
 /**
- * Stateless instead of Singleton. It's ok to have multiple instances with an
- * individual cache.
+ * The classification criteria are built once and shared by all instances. The criteria resolve the getters of their
+ * properties on the first evaluation, so later evaluations don't have to look them up again.
  * 
  * @author Martin Wahnschaffe
  */
@@ -73,20 +86,28 @@ import de.symeda.sormas.backend.person.PersonFacadeEjb.PersonFacadeEjbLocal;
 public class CaseClassificationFacadeEjb implements CaseClassificationFacade {
 
 	@EJB
-	private PersonFacadeEjbLocal personFacade;
+	private PersonService personService;
+	@EJB
+	private PathogenTestService pathogenTestService;
+	@EJB
+	private CaseReclassificationService caseReclassificationService;
 
-	/** local cache */
-	private final Map<Disease, DiseaseClassificationCriteriaDto> criteriaMap = new HashMap<>();
+	/** shared cache, immutable once built */
+	private static volatile Map<Disease, DiseaseClassificationCriteriaDto> criteriaMap;
 
 	@Override
 	public CaseClassification getClassification(CaseDataDto caze, List<PathogenTestDto> pathogenTests) {
 
-		if (criteriaMap.isEmpty()) {
-			buildCriteria();
-		}
+		PersonDto person = PersonFacadeEjb.toDto(personService.getByUuid(caze.getPerson().getUuid()));
+		return getClassification(caze, person, pathogenTests);
+	}
+
+	/**
+	 * Classifies the case without loading its person.
+	 */
+	public CaseClassification getClassification(CaseDataDto caze, PersonDto person, List<PathogenTestDto> pathogenTests) {
 
-		PersonDto person = personFacade.getPersonByUuid(caze.getPerson().getUuid());
-		DiseaseClassificationCriteriaDto criteria = criteriaMap.get(caze.getDisease());
+		DiseaseClassificationCriteriaDto criteria = getCriteriaMap().get(caze.getDisease());
 
 		if (criteria != null && criteria.getConfirmedCriteria() != null && criteria.getConfirmedCriteria().eval(caze, person, pathogenTests)) {
 			return CaseClassification.CONFIRMED;
@@ -102,14 +123,57 @@ public class CaseClassificationFacadeEjb implements CaseClassificationFacade {
 	}
 
 	@Override
-	public List<DiseaseClassificationCriteriaDto> getAllSince(Date changeDate) {
+	@TransactionAttribute(TransactionAttributeType.NOT_SUPPORTED)
+	public void reclassifyCases(Disease disease) {
+		caseReclassificationService.reclassifyCases(disease);
+	}
+
+	@Override
+	public List<CaseClassification> getClassifications(List<CaseDataDto> cases) {
 
-		if (criteriaMap.isEmpty()) {
-			buildCriteria();
+		if (cases.isEmpty()) {
+			return Collections.emptyList();
 		}
 
+		Set<String> personUuids = new HashSet<>();
+		List<String> caseUuids = new ArrayList<>(cases.size());
+		for (CaseDataDto caze : cases) {
+			personUuids.add(caze.getPerson().getUuid());
+			caseUuids.add(caze.getUuid());
+		}
+
+		Map<String, PersonDto> persons = new HashMap<>();
+		IterableHelper.executeBatched(new ArrayList<>(personUuids), ModelConstants.PARAMETER_LIMIT, batchedPersonUuids -> {
+			for (Person person : personService.getByUuids(batchedPersonUuids)) {
+				persons.put(person.getUuid(), PersonFacadeEjb.toDto(person));
+			}
+		});
+
+		Map<String, List<PathogenTestDto>> pathogenTestsByCase = new HashMap<>();
+		IterableHelper.executeBatched(caseUuids, ModelConstants.PARAMETER_LIMIT, batchedCaseUuids -> {
+			pathogenTestService.getAllByCaseUuids(batchedCaseUuids)
+				.forEach(
+					(caseUuid, pathogenTests) -> pathogenTestsByCase.put(
+						caseUuid,
+						pathogenTests.stream().map(PathogenTestFacadeEjbLocal::toDto).collect(Collectors.toList())));
+		});
+
+		List<CaseClassification> classifications = new ArrayList<>(cases.size());
+		for (CaseDataDto caze : cases) {
+			classifications.add(
+				getClassification(
+					caze,
+					persons.get(caze.getPerson().getUuid()),
+					pathogenTestsByCase.getOrDefault(caze.getUuid(), Collections.emptyList())));
+		}
+		return classifications;
+	}
+
+	@Override
+	public List<DiseaseClassificationCriteriaDto> getAllSince(Date changeDate) {
+
 		List<DiseaseClassificationCriteriaDto> results = new ArrayList<>();
-		for (DiseaseClassificationCriteriaDto criteria : criteriaMap.values()) {
+		for (DiseaseClassificationCriteriaDto criteria : getCriteriaMap().values()) {
 			if (criteria.getChangeDate().after(changeDate)) {
 				results.add(criteria);
 			}
@@ -121,14 +185,23 @@ public class CaseClassificationFacadeEjb implements CaseClassificationFacade {
 	@Override
 	public DiseaseClassificationCriteriaDto getByDisease(Disease disease) {
 
-		if (criteriaMap.isEmpty()) {
-			buildCriteria();
-		}
+		return getCriteriaMap().getOrDefault(disease, null);
+	}
 
-		return criteriaMap.getOrDefault(disease, null);
+	private Map<Disease, DiseaseClassificationCriteriaDto> getCriteriaMap() {
+
+		// building the criteria more than once when called concurrently is harmless
+		Map<Disease, DiseaseClassificationCriteriaDto> criteria = criteriaMap;
+		if (criteria == null) {
+			criteria = Collections.unmodifiableMap(buildCriteria());
+			criteriaMap = criteria;
+		}
+		return criteria;
 	}
 
-	private void buildCriteria() {
+	private Map<Disease, DiseaseClassificationCriteriaDto> buildCriteria() {
+
+		Map<Disease, DiseaseClassificationCriteriaDto> criteriaMap = new EnumMap<>(Disease.class);
 
 		ClassificationCriteriaDto suspect;
 		ClassificationCriteriaDto probable;
@@ -158,7 +231,7 @@ public class CaseClassificationFacadeEjb implements CaseClassificationFacade {
 			suspect,
 			positiveTestResult(Disease.EVD, PathogenTestType.IGM_SERUM_ANTIBODY, PathogenTestType.PCR_RT_PCR, PathogenTestType.ISOLATION));
 
-		addCriteria(Disease.EVD, DateHelper.getDateZero(2020, 11, 6), suspect, probable, confirmed, extracted(Disease.EVD));
+		addCriteria(criteriaMap, Disease.EVD, DateHelper.getDateZero(2020, 11, 6), suspect, probable, confirmed, extracted(Disease.EVD));
 
 		// CSM
 		suspect = allOf(
@@ -171,7 +244,7 @@ public class CaseClassificationFacadeEjb implements CaseClassificationFacade {
 				symptom(SymptomsDto.BULGING_FONTANELLE)));
 		probable = allOf(caseData(CaseDataDto.OUTCOME, CaseOutcome.DECEASED), suspect, epiData(EpiDataDto.CONTACT_WITH_SOURCE_CASE_KNOWN));
 		confirmed = allOf(suspect, positiveTestResult(Disease.CSM, PathogenTestType.ISOLATION));
-		addCriteria(Disease.CSM, DateHelper.getDateZero(2020, 11, 6), suspect, probable, confirmed, extracted(Disease.CSM));
+		addCriteria(criteriaMap, Disease.CSM, DateHelper.getDateZero(2020, 11, 6), suspect, probable, confirmed, extracted(Disease.CSM));
 
 		// Lassa Fever
 		suspect = allOf(
@@ -194,7 +267,7 @@ public class CaseClassificationFacadeEjb implements CaseClassificationFacade {
 		confirmed = allOf(
 			suspect,
 			positiveTestResult(Disease.LASSA, PathogenTestType.IGM_SERUM_ANTIBODY, PathogenTestType.PCR_RT_PCR, PathogenTestType.ISOLATION));
-		addCriteria(Disease.LASSA, DateHelper.getDateZero(2020, 11, 6), suspect, probable, confirmed, extracted(Disease.LASSA));
+		addCriteria(criteriaMap, Disease.LASSA, DateHelper.getDateZero(2020, 11, 6), suspect, probable, confirmed, extracted(Disease.LASSA));
 
 		// Yellow fever
 		suspect = allOf(symptom(SymptomsDto.FEVER), symptom(SymptomsDto.JAUNDICE));
@@ -229,7 +302,14 @@ public class CaseClassificationFacadeEjb implements CaseClassificationFacade {
 							PathogenTestType.IGM_SERUM_ANTIBODY,
 							PathogenTestType.IGG_SERUM_ANTIBODY }),
 					true)));
-		addCriteria(Disease.YELLOW_FEVER, DateHelper.getDateZero(2020, 11, 6), suspect, probable, confirmed, extracted(Disease.YELLOW_FEVER));
+		addCriteria(
+			criteriaMap,
+			Disease.YELLOW_FEVER,
+			DateHelper.getDateZero(2020, 11, 6),
+			suspect,
+			probable,
+			confirmed,
+			extracted(Disease.YELLOW_FEVER));
 
 		// Dengue fever
 		suspect = allOf(
@@ -261,7 +341,7 @@ public class CaseClassificationFacadeEjb implements CaseClassificationFacade {
 						new PathogenTestType[] {
 							PathogenTestType.IGG_SERUM_ANTIBODY }),
 					true)));
-		addCriteria(Disease.DENGUE, DateHelper.getDateZero(2020, 11, 6), suspect, probable, confirmed, extracted(Disease.DENGUE));
+		addCriteria(criteriaMap, Disease.DENGUE, DateHelper.getDateZero(2020, 11, 6), suspect, probable, confirmed, extracted(Disease.DENGUE));
 
 		// Influenza (new subtype)
 		suspect = allOf(
@@ -288,7 +368,14 @@ public class CaseClassificationFacadeEjb implements CaseClassificationFacade {
 						new PathogenTestType[] {
 							PathogenTestType.IGG_SERUM_ANTIBODY }),
 					true)));
-		addCriteria(Disease.NEW_INFLUENZA, DateHelper.getDateZero(2020, 11, 6), suspect, probable, confirmed, extracted(Disease.NEW_INFLUENZA));
+		addCriteria(
+			criteriaMap,
+			Disease.NEW_INFLUENZA,
+			DateHelper.getDateZero(2020, 11, 6),
+			suspect,
+			probable,
+			confirmed,
+			extracted(Disease.NEW_INFLUENZA));
 
 		// Measles
 		suspect = allOf(
@@ -297,7 +384,7 @@ public class CaseClassificationFacadeEjb implements CaseClassificationFacade {
 			xOf(1, symptom(SymptomsDto.COUGH), symptom(SymptomsDto.RUNNY_NOSE), symptom(SymptomsDto.CONJUNCTIVITIS)));
 		probable = epiData(EpiDataDto.CONTACT_WITH_SOURCE_CASE_KNOWN);
 		confirmed = allOf(suspect, positiveTestResult(Disease.MEASLES, PathogenTestType.IGM_SERUM_ANTIBODY));
-		addCriteria(Disease.MEASLES, DateHelper.getDateZero(2020, 11, 6), suspect, probable, confirmed, extracted(Disease.MEASLES));
+		addCriteria(criteriaMap, Disease.MEASLES, DateHelper.getDateZero(2020, 11, 6), suspect, probable, confirmed, extracted(Disease.MEASLES));
 
 		// Cholera
 		suspect = allOf(
@@ -310,7 +397,7 @@ public class CaseClassificationFacadeEjb implements CaseClassificationFacade {
 					oneOfCompact(caseData(CaseDataDto.OUTCOME, CaseOutcome.DECEASED), exposure(ExposureDto.RISK_AREA, ExposureType.TRAVEL)))));
 		probable = null;
 		confirmed = allOf(suspect, positiveTestResult(Disease.CHOLERA, PathogenTestType.ISOLATION));
-		addCriteria(Disease.CHOLERA, DateHelper.getDateZero(2020, 11, 6), suspect, probable, confirmed, extracted(Disease.CHOLERA));
+		addCriteria(criteriaMap, Disease.CHOLERA, DateHelper.getDateZero(2020, 11, 6), suspect, probable, confirmed, extracted(Disease.CHOLERA));
 
 		// Monkey pox
 		suspect = allOf(symptom(SymptomsDto.FEVER), symptom(SymptomsDto.SKIN_RASH));
@@ -318,7 +405,7 @@ public class CaseClassificationFacadeEjb implements CaseClassificationFacade {
 		confirmed = allOf(
 			suspect,
 			positiveTestResult(Disease.MONKEYPOX, PathogenTestType.IGM_SERUM_ANTIBODY, PathogenTestType.PCR_RT_PCR, PathogenTestType.ISOLATION));
-		addCriteria(Disease.MONKEYPOX, DateHelper.getDateZero(2020, 11, 6), suspect, probable, confirmed, extracted(Disease.MONKEYPOX));
+		addCriteria(criteriaMap, Disease.MONKEYPOX, DateHelper.getDateZero(2020, 11, 6), suspect, probable, confirmed, extracted(Disease.MONKEYPOX));
 
 		// Plague
 		suspect = allOf(
@@ -339,7 +426,7 @@ public class CaseClassificationFacadeEjb implements CaseClassificationFacade {
 			suspect,
 			xOf(1, exposure(ExposureDto.RISK_AREA, ExposureType.TRAVEL), positiveTestResult(Disease.PLAGUE, PathogenTestType.ANTIGEN_DETECTION)));
 		confirmed = allOf(suspect, positiveTestResult(Disease.PLAGUE, PathogenTestType.ISOLATION, PathogenTestType.PCR_RT_PCR));
-		addCriteria(Disease.PLAGUE, DateHelper.getDateZero(2020, 11, 6), suspect, probable, confirmed, extracted(Disease.PLAGUE));
+		addCriteria(criteriaMap, Disease.PLAGUE, DateHelper.getDateZero(2020, 11, 6), suspect, probable, confirmed, extracted(Disease.PLAGUE));
 
 		// Congenital rubella
 		suspect = allOf(
@@ -397,19 +484,23 @@ public class CaseClassificationFacadeEjb implements CaseClassificationFacade {
 				PathogenTestType.IGM_SERUM_ANTIBODY,
 				PathogenTestType.PCR_RT_PCR));
 		addCriteria(
+			criteriaMap,
 			Disease.CONGENITAL_RUBELLA,
 			DateHelper.getDateZero(2020, 11, 6),
 			suspect,
 			probable,
 			confirmed,
 			extracted(Disease.CONGENITAL_RUBELLA));
+
+		return criteriaMap;
 	}
 
 	private ClassificationAllOfCriteriaDto extracted(Disease disease) {
 		return allOf(negativeTestResult(disease), otherPositiveTestResult(disease));
 	}
 
-	private void addCriteria(
+	private static void addCriteria(
+		Map<Disease, DiseaseClassificationCriteriaDto> criteriaMap,
 		Disease disease,
 		Date changeDate,
 		ClassificationCriteriaDto suspect,
@@ -0,0 +1,449 @@
+/*******************************************************************************
+ * SORMAS® - Surveillance Outbreak Response Management & Analysis System
+ * Copyright © 2016-2021 Helmholtz-Zentrum für Infektionsforschung GmbH (HZI)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ *******************************************************************************/
+package de.symeda.sormas.backend.caze.classification;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Collectors;
+
+import javax.annotation.Resource;
+import javax.ejb.AsyncResult;
+import javax.ejb.Asynchronous;
+import javax.ejb.EJB;
+import javax.ejb.LocalBean;
+import javax.ejb.SessionContext;
+import javax.ejb.Stateless;
+import javax.ejb.TransactionAttribute;
+import javax.ejb.TransactionAttributeType;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.CriteriaUpdate;
+import javax.persistence.criteria.JoinType;
+import javax.persistence.criteria.Root;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import de.symeda.sormas.api.Disease;
+import de.symeda.sormas.api.caze.CaseClassification;
+import de.symeda.sormas.api.caze.CaseDataDto;
+import de.symeda.sormas.api.systemevents.SystemEventDto;
+import de.symeda.sormas.api.systemevents.SystemEventStatus;
+import de.symeda.sormas.api.systemevents.SystemEventType;
+import de.symeda.sormas.api.utils.DateHelper;
+import de.symeda.sormas.backend.caze.Case;
+import de.symeda.sormas.backend.caze.CaseFacadeEjb;
+import de.symeda.sormas.backend.caze.classification.CaseClassificationFacadeEjb.CaseClassificationFacadeEjbLocal;
+import de.symeda.sormas.backend.common.AbstractDomainObject;
+import de.symeda.sormas.backend.common.ConfigFacadeEjb.ConfigFacadeEjbLocal;
+import de.symeda.sormas.backend.systemevent.SystemEvent;
+import de.symeda.sormas.backend.systemevent.SystemEventFacadeEjb.SystemEventFacadeEjbLocal;
+import de.symeda.sormas.backend.user.User;
+import de.symeda.sormas.backend.util.ModelConstants;
+
+/**
+ * Reclassifies all cases of a disease, e.g. after the classification criteria have changed.
+ * The cases are read in chunks ordered by id; each chunk is classified and updated in its own transaction and several chunks are
+ * processed in parallel. The id of the last processed case is stored in a {@link SystemEventType#CASE_RECLASSIFICATION} event
+ * after each round, so a job that was interrupted by a restart is resumed from there.
+ * The jobs run asynchronously, so neither the caller nor the timer that resumes them is blocked while the cases are processed.
+ */
+@Stateless
+@LocalBean
+public class CaseReclassificationService {
+
+	/**
+	 * A started job whose progress has not been saved for this long is considered to have been interrupted.
+	 */
+	public static final int INTERRUPTED_AFTER_MINUTES = 15;
+	/**
+	 * How often a running job saves its system event while it waits for its chunks.
+	 */
+	private static final int HEARTBEAT_MINUTES = 1;
+
+	private final Logger logger = LoggerFactory.getLogger(getClass());
+
+	@PersistenceContext(unitName = ModelConstants.PERSISTENCE_UNIT_NAME)
+	private EntityManager em;
+
+	@Resource
+	private SessionContext sessionContext;
+
+	@EJB
+	private CaseClassificationFacadeEjbLocal caseClassificationFacade;
+	@EJB
+	private SystemEventFacadeEjbLocal systemEventFacade;
+	@EJB
+	private ConfigFacadeEjbLocal configFacade;
+
+	/**
+	 * Starts the reclassification of all cases of the disease that have not been classified as no case. Returns as soon as the job
+	 * has been started; the cases are reclassified asynchronously.
+	 */
+	@TransactionAttribute(TransactionAttributeType.NOT_SUPPORTED)
+	public void reclassifyCases(Disease disease) {
+
+		if (!configFacade.isFeatureAutomaticCaseClassification()) {
+			logger.warn("Cases of {} are not reclassified because the automatic case classification is disabled", disease);
+			return;
+		}
+
+		SystemEventDto systemEvent = SystemEventDto.build();
+		systemEvent.setType(SystemEventType.CASE_RECLASSIFICATION);
+		systemEvent.setStatus(SystemEventStatus.STARTED);
+		systemEvent.setStartDate(new Date());
+		systemEvent.setAdditionalInfo(new ReclassificationProgress(disease).toString());
+		systemEventFacade.saveSystemEvent(systemEvent);
+
+		CaseReclassificationService asyncService = getAsyncService();
+		if (asyncService != null) {
+			asyncService.reclassifyCasesAsync(systemEvent);
+		} else {
+			reclassifyCasesAsync(systemEvent);
+		}
+	}
+
+	/**
+	 * Continues all jobs that have been interrupted, e.g. by a restart of the server. Each job is claimed before it is resumed, so
+	 * it is only resumed once, and then runs asynchronously.
+	 */
+	@TransactionAttribute(TransactionAttributeType.NOT_SUPPORTED)
+	public void resumeInterruptedReclassifications() {
+
+		if (!configFacade.isFeatureAutomaticCaseClassification()) {
+			return;
+		}
+
+		CriteriaBuilder cb = em.getCriteriaBuilder();
+		CriteriaQuery<SystemEvent> cq = cb.createQuery(SystemEvent.class);
+		Root<SystemEvent> systemEvent = cq.from(SystemEvent.class);
+		cq.where(
+			cb.equal(systemEvent.get(SystemEvent.TYPE), SystemEventType.CASE_RECLASSIFICATION),
+			cb.equal(systemEvent.get(SystemEvent.STATUS), SystemEventStatus.STARTED),
+			cb.lessThan(systemEvent.get(AbstractDomainObject.CHANGE_DATE), getInterruptedBefore()));
+		cq.orderBy(cb.asc(systemEvent.get(SystemEvent.START_DATE)));
+
+		List<SystemEventDto> interruptedEvents =
+			em.createQuery(cq).getResultList().stream().map(e -> systemEventFacade.toDto(e)).collect(Collectors.toList());
+		CaseReclassificationService asyncService = getAsyncService();
+		for (SystemEventDto interruptedEvent : interruptedEvents) {
+			boolean claimed = asyncService != null
+				? asyncService.claimInterruptedReclassification(interruptedEvent.getUuid())
+				: claimInterruptedReclassification(interruptedEvent.getUuid());
+			if (!claimed) {
+				// resumed in the meantime or still running
+				continue;
+			}
+
+			logger.info("Resuming the reclassification {}", interruptedEvent.getAdditionalInfo());
+			if (asyncService != null) {
+				asyncService.reclassifyCasesAsync(interruptedEvent);
+			} else {
+				reclassifyCasesAsync(interruptedEvent);
+			}
+		}
+	}
+
+	/**
+	 * Marks the interrupted job as running again by updating its change date, unless that has already been done, e.g. by a
+	 * concurrent call or because the job is still running.
+	 *
+	 * @return {@code true} if the job has been claimed and has to be resumed by the caller.
+	 */
+	@TransactionAttribute(TransactionAttributeType.REQUIRES_NEW)
+	public boolean claimInterruptedReclassification(String systemEventUuid) {
+
+		CriteriaBuilder cb = em.getCriteriaBuilder();
+		CriteriaUpdate<SystemEvent> cu = cb.createCriteriaUpdate(SystemEvent.class);
+		Root<SystemEvent> root = cu.from(SystemEvent.class);
+		cu.set(root.get(AbstractDomainObject.CHANGE_DATE), new Timestamp(System.currentTimeMillis()));
+		cu.where(
+			cb.equal(root.get(AbstractDomainObject.UUID), systemEventUuid),
+			cb.equal(root.get(SystemEvent.STATUS), SystemEventStatus.STARTED),
+			cb.lessThan(root.get(AbstractDomainObject.CHANGE_DATE), getInterruptedBefore()));
+
+		return em.createQuery(cu).executeUpdate() == 1;
+	}
+
+	/**
+	 * Runs the job of the system event from the progress stored in it.
+	 */
+	@Asynchronous
+	@TransactionAttribute(TransactionAttributeType.NOT_SUPPORTED)
+	public void reclassifyCasesAsync(SystemEventDto systemEvent) {
+
+		ReclassificationProgress progress = ReclassificationProgress.parse(systemEvent.getAdditionalInfo());
+		if (progress == null) {
+			systemEventFacade.reportError(systemEvent, "Invalid progress: " + systemEvent.getAdditionalInfo(), new Date());
+			return;
+		}
+
+		reclassifyCases(systemEvent, progress);
+	}
+
+	private CaseReclassificationService getAsyncService() {
+		// called through the business object so the calls are actually asynchronous and get their own transactions
+		return sessionContext != null ? sessionContext.getBusinessObject(CaseReclassificationService.class) : null;
+	}
+
+	private static Timestamp getInterruptedBefore() {
+		return new Timestamp(System.currentTimeMillis() - TimeUnit.MINUTES.toMillis(INTERRUPTED_AFTER_MINUTES));
+	}
+
+	private void reclassifyCases(SystemEventDto systemEvent, ReclassificationProgress progress) {
+
+		int chunkSize = Math.max(1, configFacade.getCaseReclassificationChunkSize());
+		int parallelChunks = Math.max(1, configFacade.getCaseReclassificationParallelChunks());
+		CaseReclassificationService asyncService = getAsyncService();
+
+		long startTime = DateHelper.startTime();
+		long processedAtStart = progress.processed;
+
+		try {
+			List<Long> caseIds;
+			while (!(caseIds = getCaseIdsAfter(progress.disease, progress.lastCaseId, chunkSize * parallelChunks)).isEmpty()) {
+				List<List<Long>> chunks = new ArrayList<>();
+				for (int i = 0; i < caseIds.size(); i += chunkSize) {
+					chunks.add(caseIds.subList(i, Math.min(i + chunkSize, caseIds.size())));
+				}
+
+				if (asyncService == null) {
+					for (List<Long> chunk : chunks) {
+						progress.changed += reclassifyChunk(chunk);
+					}
+				} else {
+					List<Future<Integer>> futures = new ArrayList<>(chunks.size());
+					chunks.forEach(chunk -> futures.add(asyncService.reclassifyChunkAsync(new ArrayList<>(chunk))));
+					for (Future<Integer> future : futures) {
+						progress.changed += awaitChunk(future, systemEvent);
+					}
+				}
+
+				progress.processed += caseIds.size();
+				progress.lastCaseId = caseIds.get(caseIds.size() - 1);
+				systemEvent.setAdditionalInfo(progress.toString());
+				systemEvent.setChangeDate(new Date());
+				systemEventFacade.saveSystemEvent(systemEvent);
+
+				long durationMillis = Math.max(1, DateHelper.durationMillies(startTime));
+				logger.info(
+					"Reclassified {} cases of {} ({} changed), {} cases/s",
+					progress.processed,
+					progress.disease,
+					progress.changed,
+					(progress.processed - processedAtStart) * 1000 / durationMillis);
+			}
+
+			systemEventFacade.reportSuccess(systemEvent, progress.toString(), new Date());
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			// keep the event started, so the job is resumed later on
+			logger.warn("Reclassification of the cases of {} interrupted after case id {}", progress.disease, progress.lastCaseId);
+		} catch (ExecutionException | RuntimeException e) {
+			Throwable cause = e instanceof ExecutionException ? e.getCause() : e;
+			logger.error("Reclassification of the cases of {} failed after case id {}", progress.disease, progress.lastCaseId, cause);
+			systemEventFacade.reportError(systemEvent, progress + ";error=" + cause.getMessage(), new Date());
+		}
+	}
+
+	/**
+	 * Waits for the chunk and meanwhile keeps saving the system event, so a slow round is not taken for an interrupted job.
+	 */
+	private int awaitChunk(Future<Integer> future, SystemEventDto systemEvent) throws InterruptedException, ExecutionException {
+
+		while (true) {
+			try {
+				return future.get(HEARTBEAT_MINUTES, TimeUnit.MINUTES);
+			} catch (TimeoutException e) {
+				systemEvent.setChangeDate(new Date());
+				systemEventFacade.saveSystemEvent(systemEvent);
+			}
+		}
+	}
+
+	private List<Long> getCaseIdsAfter(Disease disease, long lastCaseId, int maxResults) {
+
+		CriteriaBuilder cb = em.getCriteriaBuilder();
+		CriteriaQuery<Long> cq = cb.createQuery(Long.class);
+		Root<Case> caze = cq.from(Case.class);
+		cq.select(caze.get(Case.ID));
+		cq.where(
+			cb.equal(caze.get(Case.DISEASE), disease),
+			cb.isFalse(caze.get(Case.DELETED)),
+			cb.notEqual(caze.get(Case.CASE_CLASSIFICATION), CaseClassification.NO_CASE),
+			cb.greaterThan(caze.get(Case.ID), lastCaseId));
+		cq.orderBy(cb.asc(caze.get(Case.ID)));
+
+		return em.createQuery(cq).setMaxResults(maxResults).getResultList();
+	}
+
+	@Asynchronous
+	public Future<Integer> reclassifyChunkAsync(List<Long> caseIds) {
+		return new AsyncResult<>(reclassifyChunk(caseIds));
+	}
+
+	/**
+	 * Classifies the cases and updates the ones whose system classification has changed, like {@code CaseFacadeEjb.onCaseChanged}
+	 * does. No notifications are sent for these changes.
+	 *
+	 * @return The number of cases whose system classification has changed.
+	 */
+	public int reclassifyChunk(List<Long> caseIds) {
+
+		CriteriaBuilder cb = em.getCriteriaBuilder();
+		CriteriaQuery<Case> cq = cb.createQuery(Case.class);
+		Root<Case> caze = cq.from(Case.class);
+		caze.fetch(Case.PERSON);
+		caze.fetch(Case.SYMPTOMS, JoinType.LEFT);
+		caze.fetch(Case.EPI_DATA, JoinType.LEFT);
+		cq.where(caze.get(Case.ID).in(caseIds));
+		List<Case> cases = em.createQuery(cq).getResultList();
+
+		List<CaseDataDto> caseDtos = cases.stream().map(CaseFacadeEjb::toDto).collect(Collectors.toList());
+		List<CaseClassification> classifications = caseClassificationFacade.getClassifications(caseDtos);
+
+		Map<CaseClassification, List<Long>> systemClassificationChanges = new EnumMap<>(CaseClassification.class);
+		Map<CaseClassification, List<Long>> classificationChanges = new EnumMap<>(CaseClassification.class);
+		// completeness counts whether the case is classified
+		List<Long> classifiedCaseIds = new ArrayList<>();
+		List<Long> unclassifiedCaseIds = new ArrayList<>();
+		for (int i = 0; i < cases.size(); i++) {
+			Case changedCase = cases.get(i);
+			CaseClassification classification = classifications.get(i);
+
+			// only update when classification by system changes - user may overwrite this
+			if (classification == changedCase.getSystemCaseClassification()) {
+				continue;
+			}
+			systemClassificationChanges.computeIfAbsent(classification, c -> new ArrayList<>()).add(changedCase.getId());
+
+			// really a change? (user may have already set it)
+			if (classification != changedCase.getCaseClassification()) {
+				classificationChanges.computeIfAbsent(classification, c -> new ArrayList<>()).add(changedCase.getId());
+				if (changedCase.getCaseClassification() == CaseClassification.NOT_CLASSIFIED) {
+					classifiedCaseIds.add(changedCase.getId());
+				} else if (classification == CaseClassification.NOT_CLASSIFIED) {
+					unclassifiedCaseIds.add(changedCase.getId());
+				}
+			}
+		}
+
+		// the loaded cases would be stale after the bulk updates
+		cases.forEach(em::detach);
+
+		Timestamp now = new Timestamp(System.currentTimeMillis());
+		for (Map.Entry<CaseClassification, List<Long>> change : systemClassificationChanges.entrySet()) {
+			CriteriaUpdate<Case> cu = cb.createCriteriaUpdate(Case.class);
+			Root<Case> root = cu.from(Case.class);
+			cu.set(Case.SYSTEM_CASE_CLASSIFICATION, change.getKey());
+			cu.set(Case.CHANGE_DATE, now);
+			cu.where(root.get(Case.ID).in(change.getValue()));
+			em.createQuery(cu).executeUpdate();
+		}
+		for (Map.Entry<CaseClassification, List<Long>> change : classificationChanges.entrySet()) {
+			CriteriaUpdate<Case> cu = cb.createCriteriaUpdate(Case.class);
+			Root<Case> root = cu.from(Case.class);
+			cu.set(Case.CASE_CLASSIFICATION, change.getKey());
+			cu.set(root.<User> get(Case.CLASSIFICATION_USER), cb.nullLiteral(User.class));
+			cu.set(Case.CLASSIFICATION_DATE, now);
+			cu.where(root.get(Case.ID).in(change.getValue()));
+			em.createQuery(cu).executeUpdate();
+		}
+		updateCompleteness(classifiedCaseIds, 0.2f);
+		updateCompleteness(unclassifiedCaseIds, -0.2f);
+
+		return systemClassificationChanges.values().stream().mapToInt(List::size).sum();
+	}
+
+	private void updateCompleteness(List<Long> caseIds, float difference) {
+
+		if (caseIds.isEmpty()) {
+			return;
+		}
+
+		CriteriaBuilder cb = em.getCriteriaBuilder();
+		CriteriaUpdate<Case> cu = cb.createCriteriaUpdate(Case.class);
+		Root<Case> root = cu.from(Case.class);
+		cu.set(root.<Float> get(Case.COMPLETENESS), cb.sum(root.<Float> get(Case.COMPLETENESS), difference));
+		cu.where(root.get(Case.ID).in(caseIds));
+		em.createQuery(cu).executeUpdate();
+	}
+
+	/**
+	 * The state of a job, stored as additional info of its system event.
+	 */
+	static final class ReclassificationProgress {
+
+		private final Disease disease;
+		private long lastCaseId;
+		private long processed;
+		private long changed;
+
+		ReclassificationProgress(Disease disease) {
+			this.disease = disease;
+		}
+
+		static ReclassificationProgress parse(String additionalInfo) {
+
+			if (additionalInfo == null) {
+				return null;
+			}
+
+			try {
+				ReclassificationProgress progress = null;
+				for (String entry : additionalInfo.split(";")) {
+					String[] keyValue = entry.split("=", 2);
+					switch (keyValue[0]) {
+					case "disease":
+						progress = new ReclassificationProgress(Disease.valueOf(keyValue[1]));
+						break;
+					case "lastCaseId":
+						progress.lastCaseId = Long.parseLong(keyValue[1]);
+						break;
+					case "processed":
+						progress.processed = Long.parseLong(keyValue[1]);
+						break;
+					case "changed":
+						progress.changed = Long.parseLong(keyValue[1]);
+						break;
+					default:
+						break;
+					}
+				}
+				return progress;
+			} catch (RuntimeException e) {
+				return null;
+			}
+		}
+
+		@Override
+		public String toString() {
+			return "disease=" + disease + ";lastCaseId=" + lastCaseId + ";processed=" + processed + ";changed=" + changed;
+		}
+	}
+}
@@ -29,6 +29,20 @@ public abstract class AdoServiceWithUserFilter<ADO extends AbstractDomainObject>
 	public abstract Predicate createUserFilter(CriteriaBuilder cb, CriteriaQuery cq, From<?, ADO> from);
 
 	public List<ADO> getAllAfter(Date since, User user) {
+		return getAllAfter(since, user, null, null, null);
+	}
+
+	/**
+	 * Batched variant of {@link #getAllAfter(Date, User)}.
+	 * 
+	 * @param batchSize
+	 *            maximum number of returned entities; {@code null} returns all entities.
+	 * @param lastChangeDate
+	 *            change date of the last entity of the previous batch; {@code null} for the first batch.
+	 * @param lastUuid
+	 *            uuid of the last entity of the previous batch.
+	 */
+	public List<ADO> getAllAfter(Date since, User user, Integer batchSize, Date lastChangeDate, String lastUuid) {
 
 		CriteriaBuilder cb = em.getCriteriaBuilder();
 		CriteriaQuery<ADO> cq = cb.createQuery(getElementClass());
@@ -43,13 +57,15 @@ public abstract class AdoServiceWithUserFilter<ADO extends AbstractDomainObject>
 				filter = dateFilter;
 			}
 		}
+		if (lastChangeDate != null) {
+			filter = CriteriaBuilderHelper.and(cb, filter, createChangeDateCursorFilter(cb, root, lastChangeDate, lastUuid));
+		}
 		if (filter != null) {
 			cq.where(filter);
 		}
-		cq.orderBy(cb.desc(root.get(AbstractDomainObject.CHANGE_DATE)));
 		cq.distinct(true);
 
-		return em.createQuery(cq).getResultList();
+		return getChangedResultList(cb, cq, root, batchSize);
 	}
 
 	public List<String> getAllUuids() {
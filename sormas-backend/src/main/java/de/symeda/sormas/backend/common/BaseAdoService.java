@@ -199,6 +199,67 @@ public class BaseAdoService<ADO extends AbstractDomainObject> implements AdoServ
 		return createChangeDateFilter(cb, from, DateHelper.toTimestampUpper(date));
 	}
 
+	/**
+	 * Keyset cursor for batched synchronisation: Restricts the query to the entities that come after the last synchronized
+	 * entity in the order used by {@link #getChangedResultList(CriteriaBuilder, CriteriaQuery, From, Integer)}.
+	 * The clients only know the change date with millisecond precision, so the exact change date of the last entity is looked up
+	 * by its uuid. If that entity has been changed or deleted in the meantime, all entities changed within the millisecond of
+	 * {@code lastChangeDate} are included again; entities may then be transferred twice, but none are skipped.
+	 *
+	 * @param lastChangeDate
+	 *            change date of the last entity of the previous batch.
+	 * @param lastUuid
+	 *            uuid of the last entity of the previous batch; if {@code null}, all entities changed within the millisecond of
+	 *            {@code lastChangeDate} are excluded.
+	 */
+	public Predicate createChangeDateCursorFilter(CriteriaBuilder cb, From<?, ADO> from, Date lastChangeDate, String lastUuid) {
+
+		Path<Timestamp> changeDate = from.get(AbstractDomainObject.CHANGE_DATE);
+		if (lastUuid == null) {
+			return cb.greaterThan(changeDate, DateHelper.toTimestampUpper(lastChangeDate));
+		}
+
+		Timestamp lastExactChangeDate = getChangeDateByUuid(lastUuid);
+		if (lastExactChangeDate == null || lastExactChangeDate.getTime() != lastChangeDate.getTime()) {
+			return cb.greaterThanOrEqualTo(changeDate, new Timestamp(lastChangeDate.getTime()));
+		}
+
+		return cb.or(
+			cb.greaterThan(changeDate, lastExactChangeDate),
+			cb.and(cb.equal(changeDate, lastExactChangeDate), cb.greaterThan(from.get(AbstractDomainObject.UUID), lastUuid)));
+	}
+
+	private Timestamp getChangeDateByUuid(String uuid) {
+
+		CriteriaBuilder cb = em.getCriteriaBuilder();
+		CriteriaQuery<Timestamp> cq = cb.createQuery(Timestamp.class);
+		Root<ADO> from = cq.from(getElementClass());
+		cq.select(from.get(AbstractDomainObject.CHANGE_DATE));
+		cq.where(cb.equal(from.get(AbstractDomainObject.UUID), uuid));
+
+		return em.createQuery(cq).getResultList().stream().findFirst().orElse(null);
+	}
+
+	/**
+	 * Executes a query for changed entities.
+	 *
+	 * @param batchSize
+	 *            {@code null} to get all entities, latest change first. Otherwise at most {@code batchSize} entities are returned
+	 *            in ascending order of change date and uuid, so the next batch can be requested with
+	 *            {@link #createChangeDateCursorFilter(CriteriaBuilder, From, Date, String)}. Only columns of the selected entity
+	 *            are used for ordering, as required by the {@code DISTINCT} queries of the user filters.
+	 */
+	protected <T> List<T> getChangedResultList(CriteriaBuilder cb, CriteriaQuery<T> cq, From<?, ADO> from, Integer batchSize) {
+
+		if (batchSize == null) {
+			cq.orderBy(cb.desc(from.get(AbstractDomainObject.CHANGE_DATE)));
+			return em.createQuery(cq).getResultList();
+		}
+
+		cq.orderBy(cb.asc(from.get(AbstractDomainObject.CHANGE_DATE)), cb.asc(from.get(AbstractDomainObject.UUID)));
+		return em.createQuery(cq).setMaxResults(batchSize).getResultList();
+	}
+
 	public Predicate recentDateFilter(CriteriaBuilder cb, Date date, Path<Date> datePath, int amountOfDays) {
 		return date != null ? cb.between(datePath, DateHelper.subtractDays(date, amountOfDays), DateHelper.addDays(date, amountOfDays)) : null;
 	}
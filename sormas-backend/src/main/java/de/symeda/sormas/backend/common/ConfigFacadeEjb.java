@@ -81,6 +81,7 @@ public class ConfigFacadeEjb implements ConfigFacade {
 	public static final String CUSTOM_FILES_PATH = "custom.path";
 	public static final String CSV_SEPARATOR = "csv.separator";
 	public static final String RSCRIPT_EXECUTABLE = "rscript.executable";
+	private static final String NETWORK_DIAGRAM_MAX_NODES = "networkDiagramMaxNodes";
 
 	public static final String EMAIL_SENDER_ADDRESS = "email.sender.address";
 	public static final String EMAIL_SENDER_NAME = "email.sender.name";
@@ -117,6 +118,9 @@ public class ConfigFacadeEjb implements ConfigFacade {
 	private static final String GEOCODING_SERVICE_URL_TEMPLATE = "geocodingServiceUrlTemplate";
 	private static final String GEOCODING_LONGITUDE_JSON_PATH = "geocodingLongitudeJsonPath";
 	private static final String GEOCODING_LATITUDE_JSON_PATH = "geocodingLatitudeJsonPath";
+	private static final String GEOCODING_CACHE_SIZE = "geocodingCacheSize";
+	private static final String GEOCODING_CACHE_TTL_HOURS = "geocodingCacheTtlHours";
+	private static final String GEOCODING_MAX_PARALLEL_REQUESTS = "geocodingMaxParallelRequests";
 
 	private static final String SORMAS2SORMAS_FILES_PATH = "sormas2sormas.path";
 	private static final String SORMAS2SORMAS_SERVER_ACCESS_DATA_FILE_NAME = "sormas2sormas.serverAccessDataFileName";
@@ -139,6 +143,20 @@ public class ConfigFacadeEjb implements ConfigFacade {
 
 	private static final String STEP_SIZE_FOR_CSV_EXPORT = "stepSizeForCsvExport";
 
+	private static final String PUSH_CHUNK_SIZE = "pushChunkSize";
+
+	private static final String IMPORT_CHUNK_SIZE = "importChunkSize";
+	public static final String IMPORT_PARALLEL_WORKERS = "importParallelWorkers";
+
+	private static final String DATABASE_EXPORT_PARALLEL_TABLES = "databaseExportParallelTables";
+
+	public static final String CASE_ACCESS_MATERIALIZATION = "caseAccessMaterialization";
+
+	public static final String CASE_STATISTICS_AGGREGATION = "caseStatisticsAggregation";
+
+	private static final String CASE_RECLASSIFICATION_CHUNK_SIZE = "caseReclassificationChunkSize";
+	private static final String CASE_RECLASSIFICATION_PARALLEL_CHUNKS = "caseReclassificationParallelChunks";
+
 	private final Logger logger = LoggerFactory.getLogger(getClass());
 
 	@Resource(lookup = "sormas/Properties")
@@ -327,6 +345,10 @@ public class ConfigFacadeEjb implements ConfigFacade {
 		return getProperty(RSCRIPT_EXECUTABLE, null);
 	}
 
+	public int getNetworkDiagramMaxNodes() {
+		return getInt(NETWORK_DIAGRAM_MAX_NODES, 2000);
+	}
+
 	@Override
 	public boolean isFeatureAutomaticCaseClassification() {
 		return getBoolean(FEATURE_AUTOMATIC_CASE_CLASSIFICATION, true);
@@ -407,6 +429,18 @@ public class ConfigFacadeEjb implements ConfigFacade {
 		return getProperty(GEOCODING_LATITUDE_JSON_PATH, null);
 	}
 
+	public int getGeocodingCacheSize() {
+		return getInt(GEOCODING_CACHE_SIZE, 10000);
+	}
+
+	public int getGeocodingCacheTtlHours() {
+		return getInt(GEOCODING_CACHE_TTL_HOURS, 24);
+	}
+
+	public int getGeocodingMaxParallelRequests() {
+		return getInt(GEOCODING_MAX_PARALLEL_REQUESTS, 4);
+	}
+
 	@Override
 	public SymptomJournalConfig getSymptomJournalConfig() {
 		SymptomJournalConfig config = new SymptomJournalConfig();
@@ -571,6 +605,41 @@ public class ConfigFacadeEjb implements ConfigFacade {
 		return getInt(STEP_SIZE_FOR_CSV_EXPORT, 5000);
 	}
 
+	@Override
+	public int getPushChunkSize() {
+		return getInt(PUSH_CHUNK_SIZE, 100);
+	}
+
+	@Override
+	public int getImportChunkSize() {
+		return getInt(IMPORT_CHUNK_SIZE, 100);
+	}
+
+	@Override
+	public int getImportParallelWorkers() {
+		return getInt(IMPORT_PARALLEL_WORKERS, 4);
+	}
+
+	public int getDatabaseExportParallelTables() {
+		return getInt(DATABASE_EXPORT_PARALLEL_TABLES, 4);
+	}
+
+	public boolean isCaseAccessMaterialization() {
+		return getBoolean(CASE_ACCESS_MATERIALIZATION, false);
+	}
+
+	public boolean isCaseStatisticsAggregation() {
+		return getBoolean(CASE_STATISTICS_AGGREGATION, false);
+	}
+
+	public int getCaseReclassificationChunkSize() {
+		return getInt(CASE_RECLASSIFICATION_CHUNK_SIZE, 500);
+	}
+
+	public int getCaseReclassificationParallelChunks() {
+		return getInt(CASE_RECLASSIFICATION_PARALLEL_CHUNKS, 4);
+	}
+
 	@LocalBean
 	@Stateless
 	public static class ConfigFacadeEjbLocal extends ConfigFacadeEjb {
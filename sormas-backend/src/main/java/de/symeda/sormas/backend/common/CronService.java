@@ -35,7 +35,10 @@ import de.symeda.sormas.api.importexport.ImportExportUtils;
 import de.symeda.sormas.api.task.TaskType;
 import de.symeda.sormas.api.user.UserRole;
 import de.symeda.sormas.backend.caze.CaseFacadeEjb.CaseFacadeEjbLocal;
+import de.symeda.sormas.backend.caze.CaseStatisticsFacadeEjb.CaseStatisticsFacadeEjbLocal;
+import de.symeda.sormas.backend.caze.classification.CaseReclassificationService;
 import de.symeda.sormas.backend.common.ConfigFacadeEjb.ConfigFacadeEjbLocal;
+import de.symeda.sormas.backend.common.messaging.MessagingService;
 import de.symeda.sormas.backend.contact.ContactFacadeEjb.ContactFacadeEjbLocal;
 import de.symeda.sormas.backend.document.DocumentFacadeEjb.DocumentFacadeEjbLocal;
 import de.symeda.sormas.backend.event.EventFacadeEjb.EventFacadeEjbLocal;
@@ -72,6 +75,12 @@ public class CronService {
 	private SystemEventFacadeEjbLocal systemEventFacade;
 	@EJB
 	private LabMessageFacadeEjbLocal labMessageFacade;
+	@EJB
+	private CaseReclassificationService caseReclassificationService;
+	@EJB
+	private CaseStatisticsFacadeEjbLocal caseStatisticsFacade;
+	@EJB
+	private MessagingService messagingService;
 
 	@Schedule(hour = "*", minute = "*/" + TASK_UPDATE_INTERVAL, second = "0", persistent = false)
 	public void sendNewAndDueTaskMessages() {
@@ -132,6 +141,11 @@ public class CronService {
 		}
 	}
 
+	@Schedule(hour = "1", minute = "17", second = "0", persistent = false)
+	public void updateMissingDuplicateBlockingKeys() {
+		caseFacade.updateMissingDuplicateBlockingKeys();
+	}
+
 	@Schedule(hour = "1", minute = "20", second = "0", persistent = false)
 	public void archiveEvents() {
 
@@ -161,4 +175,19 @@ public class CronService {
 		}
 	}
 
+	@Schedule(hour = "1", minute = "40", second = "0", persistent = false)
+	public void compactCaseStatistics() {
+		caseStatisticsFacade.compactCaseStatistics();
+	}
+
+	@Schedule(hour = "*", minute = "*/" + CaseReclassificationService.INTERRUPTED_AFTER_MINUTES, second = "30", persistent = false)
+	public void resumeInterruptedCaseReclassifications() {
+		caseReclassificationService.resumeInterruptedReclassifications();
+	}
+
+	@Schedule(hour = "*", minute = "*", second = "15", persistent = false)
+	public void sendQueuedMessages() {
+		messagingService.sendQueuedMessages();
+	}
+
 }
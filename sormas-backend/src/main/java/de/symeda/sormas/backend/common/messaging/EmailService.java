@@ -18,8 +18,10 @@
 package de.symeda.sormas.backend.common.messaging;
 
 import java.io.UnsupportedEncodingException;
+import java.util.concurrent.Future;
 
 import javax.annotation.Resource;
+import javax.ejb.AsyncResult;
 import javax.ejb.Asynchronous;
 import javax.ejb.EJB;
 import javax.ejb.LocalBean;
@@ -49,8 +51,11 @@ public class EmailService {
 	@EJB
 	private ConfigFacadeEjbLocal configFacade;
 
+	/**
+	 * @return Completes when the email has been handed to the mail server, or fails with the reason why it could not be sent.
+	 */
 	@Asynchronous
-	public void sendEmail(String recipient, String subject, String content) throws AddressException, MessagingException {
+	public Future<Void> sendEmail(String recipient, String subject, String content) throws AddressException, MessagingException {
 
 		Thread.currentThread().setContextClassLoader(getClass().getClassLoader());
 
@@ -73,5 +78,7 @@ public class EmailService {
 
 		Transport.send(message);
 		logger.info("Mail sent to {}.", recipient);
+
+		return new AsyncResult<>(null);
 	}
 }
@@ -19,11 +19,20 @@ package de.symeda.sormas.backend.common.messaging;
 
 import java.io.IOException;
 import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
+import javax.ejb.Asynchronous;
 import javax.ejb.EJB;
 import javax.ejb.LocalBean;
 import javax.ejb.Stateless;
+import javax.ejb.TransactionAttribute;
+import javax.ejb.TransactionAttributeType;
 import javax.mail.MessagingException;
+import javax.mail.internet.AddressException;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -34,6 +43,7 @@ import de.symeda.sormas.api.feature.FeatureType;
 import de.symeda.sormas.api.i18n.I18nProperties;
 import de.symeda.sormas.api.messaging.MessageType;
 import de.symeda.sormas.api.utils.DataHelper;
+import de.symeda.sormas.api.utils.DateHelper;
 import de.symeda.sormas.backend.feature.FeatureConfigurationFacadeEjb;
 import de.symeda.sormas.backend.person.Person;
 import de.symeda.sormas.backend.user.User;
@@ -73,6 +83,19 @@ public class MessagingService {
 	public static final String CONTENT_VISIT_COMPLETED = "notificationVisitCompleted";
 	public static final String CONTENT_DISEASE_CHANGED = "notificationDiseaseChanged";
 
+	/**
+	 * Queued messages delivered per run of {@link #sendQueuedMessages()}, which runs every minute. Limits the rate at which the mail
+	 * server and the SMS gateway are called.
+	 */
+	public static final int MAX_MESSAGES_PER_RUN = 60;
+	public static final int MAX_DELIVERY_ATTEMPTS = 5;
+	private static final int DELIVERY_TIMEOUT_SECONDS = 20;
+	/**
+	 * Claimed messages that have neither been delivered nor rescheduled after this time, e.g. because of a restart, are delivered
+	 * again. Longer than a run that times out on all of its messages.
+	 */
+	private static final int CLAIM_MINUTES = 30;
+
 	private final Logger logger = LoggerFactory.getLogger(getClass());
 
 	@EJB
@@ -84,6 +107,8 @@ public class MessagingService {
 	@EJB
 	private ManualMessageLogService manualMessageLogService;
 	@EJB
+	private QueuedMessageService queuedMessageService;
+	@EJB
 	private FeatureConfigurationFacadeEjb.FeatureConfigurationFacadeEjbLocal featureConfigurationFacade;
 
 	/**
@@ -94,11 +119,7 @@ public class MessagingService {
 		throws NotificationDeliveryFailedException {
 
 		// Don't send notifications if the feature is disabled for the current MessageSubject
-		if ((MessageSubject.TASK_DUE.equals(subject) || MessageSubject.TASK_START.equals(subject))
-			&& !featureConfigurationFacade.isFeatureEnabled(FeatureType.TASK_NOTIFICATIONS)
-			|| !MessageSubject.TASK_DUE.equals(subject)
-				&& !MessageSubject.TASK_START.equals(subject)
-				&& !featureConfigurationFacade.isFeatureEnabled(FeatureType.OTHER_NOTIFICATIONS)) {
+		if (!isNotificationEnabled(subject)) {
 			return;
 		}
 
@@ -119,11 +140,7 @@ public class MessagingService {
 			throws NotificationDeliveryFailedException {
 
 		// Don't send notifications if the feature is disabled for the current MessageSubject
-		if ((MessageSubject.TASK_DUE.equals(subject) || MessageSubject.TASK_START.equals(subject))
-				&& !featureConfigurationFacade.isFeatureEnabled(FeatureType.TASK_NOTIFICATIONS)
-				|| !MessageSubject.TASK_DUE.equals(subject)
-				&& !MessageSubject.TASK_START.equals(subject)
-				&& !featureConfigurationFacade.isFeatureEnabled(FeatureType.OTHER_NOTIFICATIONS)) {
+		if (!isNotificationEnabled(subject)) {
 			return;
 		}
 
@@ -134,6 +151,145 @@ public class MessagingService {
 				messageTypes);
 	}
 
+	private boolean isNotificationEnabled(MessageSubject subject) {
+
+		if (MessageSubject.TASK_DUE.equals(subject) || MessageSubject.TASK_START.equals(subject)) {
+			return featureConfigurationFacade.isFeatureEnabled(FeatureType.TASK_NOTIFICATIONS);
+		} else {
+			return featureConfigurationFacade.isFeatureEnabled(FeatureType.OTHER_NOTIFICATIONS);
+		}
+	}
+
+	/**
+	 * Queues the message for the specified recipient's email address or phone number. It is delivered by
+	 * {@link #sendQueuedMessages()}, which retries failed deliveries. Logs if the email address or phone number is not set.
+	 */
+	public void queueMessage(User recipient, MessageSubject subject, String messageContent, MessageType messageType) {
+
+		// Don't send notifications if the feature is disabled for the current MessageSubject
+		if (!isNotificationEnabled(subject)) {
+			return;
+		}
+		// Don't send notifications to users that initiated an action
+		if (recipient.equals(userService.getCurrentUser()) || !recipient.isActive()) {
+			return;
+		}
+
+		String recipientAddress = messageType == MessageType.EMAIL ? recipient.getUserEmail() : recipient.getPhone();
+		if (DataHelper.isNullOrEmpty(recipientAddress)) {
+			logger.info(
+				String.format(
+					"Tried to send %s to a user without %s (UUID: %s).",
+					messageType == MessageType.EMAIL ? "an email" : "an SMS",
+					messageType == MessageType.EMAIL ? "an email address" : "a phone number",
+					recipient.getUuid()));
+			return;
+		}
+
+		QueuedMessage message = new QueuedMessage();
+		message.setMessageType(messageType);
+		message.setRecipientUuid(recipient.getUuid());
+		message.setRecipientAddress(recipientAddress);
+		if (messageType == MessageType.EMAIL) {
+			message.setSubject(I18nProperties.getEnumCaption(subject));
+		}
+		message.setContent(messageContent);
+		message.setNextAttemptDate(new Date());
+		queuedMessageService.ensurePersisted(message);
+	}
+
+	/**
+	 * Delivers up to {@link #MAX_MESSAGES_PER_RUN} queued messages, one after the other. A message whose delivery failed is
+	 * retried with increasing delays and dropped after {@link #MAX_DELIVERY_ATTEMPTS} attempts or when the address is invalid.
+	 * Logs the delivery latency and the size of the remaining backlog.
+	 */
+	@Asynchronous
+	@TransactionAttribute(TransactionAttributeType.NOT_SUPPORTED)
+	public void sendQueuedMessages() {
+
+		long startTime = DateHelper.startTime();
+
+		List<QueuedMessage> messages = queuedMessageService
+			.claimDueMessages(MAX_MESSAGES_PER_RUN, new Date(System.currentTimeMillis() + TimeUnit.MINUTES.toMillis(CLAIM_MINUTES)));
+
+		int deliveredCount = 0;
+		int failedCount = 0;
+		long latencySum = 0;
+		for (QueuedMessage message : messages) {
+			Throwable error;
+			try {
+				error = deliver(message);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				// the remaining messages are delivered once their claim has expired
+				break;
+			}
+
+			if (error == null) {
+				queuedMessageService.deleteDelivered(message);
+				deliveredCount++;
+				latencySum += System.currentTimeMillis() - message.getCreationDate().getTime();
+				continue;
+			}
+
+			failedCount++;
+			int attempts = message.getAttempts() + 1;
+			if (attempts >= MAX_DELIVERY_ATTEMPTS || error instanceof InvalidPhoneNumberException || error instanceof AddressException) {
+				logger.error(
+					"Giving up to send {} to user with UUID {} after {} attempts: {}",
+					message.getMessageType(),
+					message.getRecipientUuid(),
+					attempts,
+					error.toString());
+				queuedMessageService.deleteDelivered(message);
+			} else {
+				logger.warn(
+					"Failed to send {} to user with UUID {} (attempt {}): {}",
+					message.getMessageType(),
+					message.getRecipientUuid(),
+					attempts,
+					error.toString());
+				long retryDelayMinutes = 1L << (attempts - 1);
+				queuedMessageService
+					.updateFailedAttempt(message, error.toString(), new Date(System.currentTimeMillis() + TimeUnit.MINUTES.toMillis(retryDelayMinutes)));
+			}
+		}
+
+		if (messages.isEmpty()) {
+			return;
+		}
+
+		Object[] backlog = queuedMessageService.getBacklog();
+		Date oldestQueuedDate = (Date) backlog[1];
+		logger.info(
+			"sendQueuedMessages(): {} delivered (average latency {} ms), {} failed, {} remaining (oldest queued {} s ago), {} ms",
+			deliveredCount,
+			deliveredCount > 0 ? latencySum / deliveredCount : 0,
+			failedCount,
+			backlog[0],
+			oldestQueuedDate != null ? (System.currentTimeMillis() - oldestQueuedDate.getTime()) / 1000 : 0,
+			DateHelper.durationMillies(startTime));
+	}
+
+	/**
+	 * @return {@code null} if the message has been delivered, otherwise the reason why it could not be delivered. When the gateway
+	 *         does not answer in time, the message might still have been delivered and might be sent twice.
+	 */
+	private Throwable deliver(QueuedMessage message) throws InterruptedException {
+
+		try {
+			Future<Void> delivery = message.getMessageType() == MessageType.EMAIL
+				? emailService.sendEmail(message.getRecipientAddress(), message.getSubject(), message.getContent())
+				: smsService.sendSms(message.getRecipientAddress(), message.getContent());
+			delivery.get(DELIVERY_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+			return null;
+		} catch (ExecutionException e) {
+			return e.getCause();
+		} catch (TimeoutException | MessagingException | IOException | NexmoClientException | InvalidPhoneNumberException e) {
+			return e;
+		}
+	}
+
 	private void sendMessage(User recipient, String subject, String messageContent, MessageType... messageTypes)
 		throws NotificationDeliveryFailedException {
 		// Don't send notifications to users that initiated an action
@@ -0,0 +1,139 @@
+/*******************************************************************************
+ * SORMAS® - Surveillance Outbreak Response Management & Analysis System
+ * Copyright © 2016-2021 Helmholtz-Zentrum für Infektionsforschung GmbH (HZI)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ *******************************************************************************/
+package de.symeda.sormas.backend.common.messaging;
+
+import static de.symeda.sormas.api.EntityDto.COLUMN_LENGTH_DEFAULT;
+
+import java.util.Date;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
+import javax.persistence.Temporal;
+import javax.persistence.TemporalType;
+
+import de.symeda.sormas.api.messaging.MessageType;
+import de.symeda.sormas.backend.common.AbstractDomainObject;
+
+/**
+ * An email or SMS that waits to be delivered by {@link MessagingService#sendQueuedMessages()}. Deleted once it has been delivered or
+ * could not be delivered after {@link MessagingService#MAX_DELIVERY_ATTEMPTS} attempts.
+ */
+@Entity
+public class QueuedMessage extends AbstractDomainObject {
+
+	private static final long serialVersionUID = -2496587326180459386L;
+
+	public static final String TABLE_NAME = "queuedmessage";
+
+	public static final String MESSAGE_TYPE = "messageType";
+	public static final String RECIPIENT_UUID = "recipientUuid";
+	public static final String RECIPIENT_ADDRESS = "recipientAddress";
+	public static final String SUBJECT = "subject";
+	public static final String CONTENT = "content";
+	public static final String ATTEMPTS = "attempts";
+	public static final String NEXT_ATTEMPT_DATE = "nextAttemptDate";
+	public static final String LAST_ERROR = "lastError";
+
+	private MessageType messageType;
+	private String recipientUuid;
+	private String recipientAddress;
+	private String subject;
+	private String content;
+	private int attempts;
+	private Date nextAttemptDate;
+	private String lastError;
+
+	@Enumerated(EnumType.STRING)
+	@Column(nullable = false)
+	public MessageType getMessageType() {
+		return messageType;
+	}
+
+	public void setMessageType(MessageType messageType) {
+		this.messageType = messageType;
+	}
+
+	@Column(length = 36)
+	public String getRecipientUuid() {
+		return recipientUuid;
+	}
+
+	public void setRecipientUuid(String recipientUuid) {
+		this.recipientUuid = recipientUuid;
+	}
+
+	/**
+	 * The email address or phone number, depending on the message type.
+	 */
+	@Column(length = COLUMN_LENGTH_DEFAULT, nullable = false)
+	public String getRecipientAddress() {
+		return recipientAddress;
+	}
+
+	public void setRecipientAddress(String recipientAddress) {
+		this.recipientAddress = recipientAddress;
+	}
+
+	@Column(length = COLUMN_LENGTH_DEFAULT)
+	public String getSubject() {
+		return subject;
+	}
+
+	public void setSubject(String subject) {
+		this.subject = subject;
+	}
+
+	@Column(columnDefinition = "text", nullable = false)
+	public String getContent() {
+		return content;
+	}
+
+	public void setContent(String content) {
+		this.content = content;
+	}
+
+	@Column(nullable = false)
+	public int getAttempts() {
+		return attempts;
+	}
+
+	public void setAttempts(int attempts) {
+		this.attempts = attempts;
+	}
+
+	@Temporal(TemporalType.TIMESTAMP)
+	@Column(nullable = false)
+	public Date getNextAttemptDate() {
+		return nextAttemptDate;
+	}
+
+	public void setNextAttemptDate(Date nextAttemptDate) {
+		this.nextAttemptDate = nextAttemptDate;
+	}
+
+	@Column(length = COLUMN_LENGTH_DEFAULT)
+	public String getLastError() {
+		return lastError;
+	}
+
+	public void setLastError(String lastError) {
+		this.lastError = lastError;
+	}
+}
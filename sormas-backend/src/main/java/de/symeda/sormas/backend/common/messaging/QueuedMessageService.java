@@ -0,0 +1,109 @@
+/*******************************************************************************
+ * SORMAS® - Surveillance Outbreak Response Management & Analysis System
+ * Copyright © 2016-2021 Helmholtz-Zentrum für Infektionsforschung GmbH (HZI)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ *******************************************************************************/
+package de.symeda.sormas.backend.common.messaging;
+
+import java.sql.Timestamp;
+import java.util.Date;
+import java.util.List;
+
+import javax.ejb.LocalBean;
+import javax.ejb.Stateless;
+import javax.ejb.TransactionAttribute;
+import javax.ejb.TransactionAttributeType;
+import javax.persistence.LockModeType;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaDelete;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.CriteriaUpdate;
+import javax.persistence.criteria.Root;
+
+import org.apache.commons.lang3.StringUtils;
+
+import de.symeda.sormas.api.EntityDto;
+import de.symeda.sormas.backend.common.AbstractDomainObject;
+import de.symeda.sormas.backend.common.BaseAdoService;
+
+@Stateless
+@LocalBean
+public class QueuedMessageService extends BaseAdoService<QueuedMessage> {
+
+	public QueuedMessageService() {
+		super(QueuedMessage.class);
+	}
+
+	/**
+	 * Claims the messages that are due for delivery by postponing their next attempt to {@code claimedUntil}, so concurrent workers
+	 * don't deliver them as well. Messages whose delivery is interrupted are delivered again once the claim has expired.
+	 *
+	 * @return The claimed messages, the ones waiting longest first.
+	 */
+	@TransactionAttribute(TransactionAttributeType.REQUIRES_NEW)
+	public List<QueuedMessage> claimDueMessages(int maxResults, Date claimedUntil) {
+
+		CriteriaBuilder cb = em.getCriteriaBuilder();
+		CriteriaQuery<QueuedMessage> cq = cb.createQuery(QueuedMessage.class);
+		Root<QueuedMessage> root = cq.from(QueuedMessage.class);
+		cq.where(cb.lessThanOrEqualTo(root.get(QueuedMessage.NEXT_ATTEMPT_DATE), new Timestamp(System.currentTimeMillis())));
+		cq.orderBy(cb.asc(root.get(QueuedMessage.NEXT_ATTEMPT_DATE)), cb.asc(root.get(AbstractDomainObject.ID)));
+
+		List<QueuedMessage> messages = em.createQuery(cq).setLockMode(LockModeType.PESSIMISTIC_WRITE).setMaxResults(maxResults).getResultList();
+		messages.forEach(message -> message.setNextAttemptDate(claimedUntil));
+
+		return messages;
+	}
+
+	public void deleteDelivered(QueuedMessage message) {
+
+		CriteriaBuilder cb = em.getCriteriaBuilder();
+		CriteriaDelete<QueuedMessage> cd = cb.createCriteriaDelete(QueuedMessage.class);
+		Root<QueuedMessage> root = cd.from(QueuedMessage.class);
+		cd.where(cb.equal(root.get(AbstractDomainObject.ID), message.getId()));
+
+		em.createQuery(cd).executeUpdate();
+	}
+
+	/**
+	 * Records a failed delivery attempt; the message is delivered again at {@code nextAttemptDate}.
+	 */
+	public void updateFailedAttempt(QueuedMessage message, String error, Date nextAttemptDate) {
+
+		CriteriaBuilder cb = em.getCriteriaBuilder();
+		CriteriaUpdate<QueuedMessage> cu = cb.createCriteriaUpdate(QueuedMessage.class);
+		Root<QueuedMessage> root = cu.from(QueuedMessage.class);
+		cu.set(root.get(QueuedMessage.ATTEMPTS), message.getAttempts() + 1);
+		cu.set(root.get(QueuedMessage.LAST_ERROR), StringUtils.abbreviate(error, EntityDto.COLUMN_LENGTH_DEFAULT));
+		cu.set(root.get(QueuedMessage.NEXT_ATTEMPT_DATE), nextAttemptDate);
+		cu.set(root.get(AbstractDomainObject.CHANGE_DATE), new Timestamp(System.currentTimeMillis()));
+		cu.where(cb.equal(root.get(AbstractDomainObject.ID), message.getId()));
+
+		em.createQuery(cu).executeUpdate();
+	}
+
+	/**
+	 * @return The number of messages waiting for delivery and the creation date of the oldest one ({@code null} if there are none).
+	 */
+	public Object[] getBacklog() {
+
+		CriteriaBuilder cb = em.getCriteriaBuilder();
+		CriteriaQuery<Object[]> cq = cb.createQuery(Object[].class);
+		Root<QueuedMessage> root = cq.from(QueuedMessage.class);
+		cq.multiselect(cb.count(root), cb.least(root.<Date> get(AbstractDomainObject.CREATION_DATE)));
+
+		return em.createQuery(cq).getSingleResult();
+	}
+}
@@ -18,7 +18,9 @@
 package de.symeda.sormas.backend.common.messaging;
 
 import java.io.IOException;
+import java.util.concurrent.Future;
 
+import javax.ejb.AsyncResult;
 import javax.ejb.Asynchronous;
 import javax.ejb.EJB;
 import javax.ejb.LocalBean;
@@ -49,8 +51,11 @@ public class SmsService {
 	@EJB
 	private ConfigFacadeEjbLocal configFacade;
 
+	/**
+	 * @return Completes when the SMS has been accepted by the gateway, or fails with the reason why it could not be sent.
+	 */
 	@Asynchronous
-	public void sendSms(String phoneNumber, String content) throws IOException, NexmoClientException, InvalidPhoneNumberException {
+	public Future<Void> sendSms(String phoneNumber, String content) throws IOException, NexmoClientException, InvalidPhoneNumberException {
 
 		// Remove the initial + that indicates the beginning of the country code to match the Nexmo specification of allowed number formats
 		if (phoneNumber.startsWith("+")) {
@@ -68,16 +73,26 @@ public class SmsService {
 
 		SmsSubmissionResponse response =
 			client.getSmsClient().submitMessage(new TextMessage(configFacade.getSormasInstanceName(), phoneNumber, content));
+		MessageStatus errorStatus = null;
 		for (SmsSubmissionResponseMessage message : response.getMessages()) {
 			if (message.getStatus() == MessageStatus.OK) {
 				logger.info("SMS successfully sent to {}.", phoneNumber);
-			} else if (message.getErrorText() != null) {
-				logger.info(
-					"Error sending SMS to {} with following error: status: {}, text: '{}'.",
-					phoneNumber,
-					message.getStatus(),
-					message.getErrorText());
+			} else {
+				errorStatus = message.getStatus();
+				if (message.getErrorText() != null) {
+					logger.info(
+						"Error sending SMS to {} with following error: status: {}, text: '{}'.",
+						phoneNumber,
+						message.getStatus(),
+						message.getErrorText());
+				}
 			}
 		}
+
+		if (errorStatus != null) {
+			throw new IOException("SMS was not accepted by the gateway: " + errorStatus);
+		}
+
+		return new AsyncResult<>(null);
 	}
 }
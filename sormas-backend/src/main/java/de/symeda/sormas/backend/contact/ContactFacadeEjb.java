@@ -29,10 +29,12 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -58,6 +60,7 @@ import javax.validation.Valid;
 import javax.validation.constraints.NotNull;
 
 import org.apache.commons.collections.CollectionUtils;
+import org.apache.commons.collections4.ListUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -100,9 +103,7 @@ import de.symeda.sormas.api.region.RegionReferenceDto;
 import de.symeda.sormas.api.symptoms.SymptomsDto;
 import de.symeda.sormas.api.symptoms.SymptomsHelper;
 import de.symeda.sormas.api.task.TaskContext;
-import de.symeda.sormas.api.task.TaskCriteria;
 import de.symeda.sormas.api.task.TaskPriority;
-import de.symeda.sormas.api.task.TaskStatus;
 import de.symeda.sormas.api.task.TaskType;
 import de.symeda.sormas.api.user.UserRight;
 import de.symeda.sormas.api.user.UserRole;
@@ -172,6 +173,8 @@ import de.symeda.sormas.backend.visit.VisitService;
 @Stateless(name = "ContactFacade")
 public class ContactFacadeEjb implements ContactFacade {
 
+	private static final int FOLLOW_UP_TASK_BATCH_SIZE = 1000;
+
 	private final Logger logger = LoggerFactory.getLogger(getClass());
 
 	@PersistenceContext(unitName = ModelConstants.PERSISTENCE_UNIT_NAME)
@@ -236,6 +239,11 @@ public class ContactFacadeEjb implements ContactFacade {
 
 	@Override
 	public List<ContactDto> getAllActiveContactsAfter(Date date) {
+		return getAllActiveContactsAfter(date, null, null, null);
+	}
+
+	@Override
+	public List<ContactDto> getAllActiveContactsAfter(Date date, Integer batchSize, Date lastChangeDate, String lastUuid) {
 
 		User user = userService.getCurrentUser();
 
@@ -244,7 +252,10 @@ public class ContactFacadeEjb implements ContactFacade {
 		}
 
 		Pseudonymizer pseudonymizer = Pseudonymizer.getDefault(userService::hasRight);
-		return contactService.getAllActiveContactsAfter(date).stream().map(c -> convertToDto(c, pseudonymizer)).collect(Collectors.toList());
+		return contactService.getAllActiveContactsAfter(date, batchSize, lastChangeDate, lastUuid)
+			.stream()
+			.map(c -> convertToDto(c, pseudonymizer))
+			.collect(Collectors.toList());
 	}
 
 	@Override
@@ -782,20 +793,14 @@ public class ContactFacadeEjb implements ContactFacade {
 			cq.where(filter);
 		}
 
-		cq.select(contactRoot.get(AbstractDomainObject.ID));
-		List<Long> contactIds = em.createQuery(cq).getResultList();
+		// count the rows per contact in the database instead of loading one row per visit
+		Expression<Long> visitCount = cb.count(contactRoot.get(AbstractDomainObject.ID));
+		cq.select(visitCount);
+		cq.groupBy(contactRoot.get(AbstractDomainObject.ID));
+		cq.orderBy(cb.desc(visitCount));
 
-		if (!contactIds.isEmpty()) {
-			return contactIds.stream()
-				.collect(Collectors.groupingBy(Function.identity(), Collectors.counting()))
-				.entrySet()
-				.stream()
-				.max((e1, e2) -> e1.getValue().compareTo(e2.getValue()))
-				.get()
-				.getValue();
-		} else {
-			return 0L;
-		}
+		List<Long> visitCounts = em.createQuery(cq).setMaxResults(1).getResultList();
+		return visitCounts.isEmpty() ? 0L : visitCounts.get(0);
 	}
 
 	@Override
@@ -906,15 +911,12 @@ public class ContactFacadeEjb implements ContactFacade {
 
 			CriteriaQuery<Object[]> visitsCq = cb.createQuery(Object[].class);
 			Root<Contact> visitsCqRoot = visitsCq.from(Contact.class);
-			Join<Contact, Visit> visitsJoin = visitsCqRoot.join(Contact.VISITS, JoinType.LEFT);
+			Join<Contact, Visit> visitsJoin = visitsCqRoot.join(Contact.VISITS);
 			Join<Visit, Symptoms> visitSymptomsJoin = visitsJoin.join(Visit.SYMPTOMS, JoinType.LEFT);
 
 			visitsCq.where(
-				CriteriaBuilderHelper.and(
-					cb,
-					contact.get(AbstractDomainObject.UUID).in(contactUuids),
-					cb.isNotEmpty(visitsCqRoot.get(Contact.VISITS)),
-					cb.between(visitsJoin.get(Visit.VISIT_DATE_TIME), start, end)));
+				visitsCqRoot.get(AbstractDomainObject.UUID).in(contactUuids),
+				cb.between(visitsJoin.get(Visit.VISIT_DATE_TIME), start, end));
 			visitsCq.multiselect(
 				visitsCqRoot.get(Contact.UUID),
 				visitsJoin.get(Visit.VISIT_DATE_TIME),
@@ -929,14 +931,13 @@ public class ContactFacadeEjb implements ContactFacade {
 				resultList.stream().collect(Collectors.toMap(ContactFollowUpDto::getUuid, Function.identity()));
 
 			Pseudonymizer pseudonymizer = Pseudonymizer.getDefault(userService::hasRight, I18nProperties.getCaption(Captions.inaccessibleValue));
-
-			resultMap.values().stream().forEach(contactFollowUpDto -> {
-				contactFollowUpDto.initVisitSize(interval + 1);
-
-				boolean isInJurisdiction = contactJurisdictionChecker.isInJurisdictionOrOwned(contactFollowUpDto.getJurisdiction());
-				pseudonymizer.pseudonymizeDto(ContactFollowUpDto.class, contactFollowUpDto, isInJurisdiction, null);
-			});
-			visits.stream().forEach(v -> {
+			resultList.forEach(contactFollowUpDto -> contactFollowUpDto.initVisitSize(interval + 1));
+			pseudonymizer.pseudonymizeDtoCollection(
+				ContactFollowUpDto.class,
+				resultList,
+				c -> contactJurisdictionChecker.isInJurisdictionOrOwned(c.getJurisdiction()),
+				null);
+			visits.forEach(v -> {
 				int day = DateHelper.getDaysBetween(start, (Date) v[1]);
 				VisitResultDto result = getVisitResult((VisitStatus) v[2], (VisitOrigin) v[3], (boolean) v[4]);
 				resultMap.get(v[0]).getVisitResults()[day - 1] = result;
@@ -1465,51 +1466,50 @@ public class ContactFacadeEjb implements ContactFacade {
 	@TransactionAttribute(TransactionAttributeType.REQUIRES_NEW)
 	public void generateContactFollowUpTasks() {
 
-		// get all contacts that are followed up
+		long startTime = System.currentTimeMillis();
+
+		// get all contacts that are followed up and don't have a follow-up task for today yet
 		LocalDateTime fromDateTime = LocalDate.now().atStartOfDay();
 		LocalDateTime toDateTime = fromDateTime.plusDays(1);
-		List<Contact> contacts = contactService.getFollowUpBetween(DateHelper8.toDate(fromDateTime), DateHelper8.toDate(toDateTime));
-
+		List<Contact> contacts =
+			contactService.getFollowUpWithoutFollowUpTaskBetween(DateHelper8.toDate(fromDateTime), DateHelper8.toDate(toDateTime));
+		Map<Long, Set<Long>> pendingTaskAssigneeIds =
+			taskService.getPendingFollowUpTaskAssigneeIds(contacts.stream().map(Contact::getId).collect(Collectors.toList()));
+
+		Map<District, List<User>> officersByDistrict = new HashMap<>();
+		Map<Region, List<User>> supervisorsByRegion = new HashMap<>();
+		List<Task> tasks = new ArrayList<>();
 		for (Contact contact : contacts) {
-			// Only generate tasks for contacts that are under follow-up
-			if (!(contact.getFollowUpStatus().equals(FollowUpStatus.FOLLOW_UP) || contact.getFollowUpStatus().equals(FollowUpStatus.LOST))) {
-				continue;
-			}
-
 			User assignee;
 			try {
-				assignee = taskService.getTaskAssignee(contact);
+				assignee = taskService.getTaskAssignee(contact, officersByDistrict, supervisorsByRegion);
 			} catch (TaskCreationException e) {
 				logger.warn(e.getMessage());
 				continue;
 			}
 
-			// find already existing tasks
-			TaskCriteria pendingUserTaskCriteria = new TaskCriteria().contact(contact.toReference())
-				.taskType(TaskType.CONTACT_FOLLOW_UP)
-				.assigneeUser(assignee.toReference())
-				.taskStatus(TaskStatus.PENDING);
-			List<Task> pendingUserTasks = taskService.findBy(pendingUserTaskCriteria, true);
-
-			if (!pendingUserTasks.isEmpty()) {
+			if (pendingTaskAssigneeIds.getOrDefault(contact.getId(), Collections.emptySet()).contains(assignee.getId())) {
 				// the user still has a pending task for this contact
 				continue;
 			}
 
-			TaskCriteria dayTaskCriteria = new TaskCriteria().contact(contact.toReference())
-				.taskType(TaskType.CONTACT_FOLLOW_UP)
-				.dueDateBetween(DateHelper8.toDate(fromDateTime), DateHelper8.toDate(toDateTime));
-			List<Task> dayTasks = taskService.findBy(dayTaskCriteria, true);
-
-			if (!dayTasks.isEmpty()) {
-				// there is already a task for the exact day
-				continue;
-			}
+			tasks.add(createContactTask(TaskType.CONTACT_FOLLOW_UP, fromDateTime, toDateTime, contact, assignee));
+		}
 
-			// none found -> create the task
-			Task task = createContactTask(TaskType.CONTACT_FOLLOW_UP, fromDateTime, toDateTime, contact, assignee);
-			taskService.ensurePersisted(task);
+		// persist without flushing every single task, so the inserts are sent in JDBC batches
+		for (List<Task> batch : ListUtils.partition(tasks, FOLLOW_UP_TASK_BATCH_SIZE)) {
+			batch.forEach(taskService::persist);
+			em.flush();
+			em.clear();
 		}
+
+		long duration = Math.max(1, System.currentTimeMillis() - startTime);
+		logger.info(
+			"generateContactFollowUpTasks(): Created {} tasks for {} contacts in {} ms ({} tasks/s)",
+			tasks.size(),
+			contacts.size(),
+			duration,
+			tasks.size() * 1000L / duration);
 	}
 
 	private Task createContactTask(TaskType taskType, LocalDateTime fromDateTime, LocalDateTime toDateTime, Contact contact, User assignee) {
@@ -32,6 +32,7 @@ import java.util.stream.Collectors;
 import javax.ejb.EJB;
 import javax.ejb.LocalBean;
 import javax.ejb.Stateless;
+import javax.persistence.EntityExistsException;
 import javax.persistence.criteria.CriteriaBuilder;
 import javax.persistence.criteria.CriteriaQuery;
 import javax.persistence.criteria.Expression;
@@ -63,6 +64,7 @@ import de.symeda.sormas.api.followup.FollowUpLogic;
 import de.symeda.sormas.api.i18n.I18nProperties;
 import de.symeda.sormas.api.i18n.Strings;
 import de.symeda.sormas.api.task.TaskCriteria;
+import de.symeda.sormas.api.task.TaskType;
 import de.symeda.sormas.api.user.JurisdictionLevel;
 import de.symeda.sormas.api.user.UserRole;
 import de.symeda.sormas.api.utils.DataHelper;
@@ -70,6 +72,7 @@ import de.symeda.sormas.api.utils.DateHelper;
 import de.symeda.sormas.api.visit.VisitStatus;
 import de.symeda.sormas.backend.caze.Case;
 import de.symeda.sormas.backend.caze.CaseService;
+import de.symeda.sormas.backend.caze.access.CaseAccessService;
 import de.symeda.sormas.backend.caze.CaseUserFilterCriteria;
 import de.symeda.sormas.backend.clinicalcourse.HealthConditionsService;
 import de.symeda.sormas.backend.common.AbstractCoreAdoService;
@@ -127,11 +130,20 @@ public class ContactService extends AbstractCoreAdoService<Contact> {
 	private ExposureService exposureService;
 	@EJB
 	private VaccinationInfoService vaccinationInfoService;
+	@EJB
+	private CaseAccessService caseAccessService;
 
 	public ContactService() {
 		super(Contact.class);
 	}
 
+	@Override
+	public void ensurePersisted(Contact contact) throws EntityExistsException {
+
+		super.ensurePersisted(contact);
+		caseAccessService.updateContactAccess(contact);
+	}
+
 	public List<Contact> findBy(ContactCriteria contactCriteria, User user) {
 
 		CriteriaBuilder cb = em.getCriteriaBuilder();
@@ -153,6 +165,10 @@ public class ContactService extends AbstractCoreAdoService<Contact> {
 	}
 
 	public List<Contact> getAllActiveContactsAfter(Date date) {
+		return getAllActiveContactsAfter(date, null, null, null);
+	}
+
+	public List<Contact> getAllActiveContactsAfter(Date date, Integer batchSize, Date lastChangeDate, String lastUuid) {
 
 		CriteriaBuilder cb = em.getCriteriaBuilder();
 		CriteriaQuery<Contact> cq = cb.createQuery(getElementClass());
@@ -170,11 +186,14 @@ public class ContactService extends AbstractCoreAdoService<Contact> {
 			filter = CriteriaBuilderHelper.and(cb, filter, dateFilter);
 		}
 
+		if (lastChangeDate != null) {
+			filter = CriteriaBuilderHelper.and(cb, filter, createChangeDateCursorFilter(cb, from, lastChangeDate, lastUuid));
+		}
+
 		cq.where(filter);
-		cq.orderBy(cb.desc(from.get(Contact.CHANGE_DATE)));
 		cq.distinct(true);
 
-		return em.createQuery(cq).getResultList();
+		return getChangedResultList(cb, cq, from, batchSize);
 	}
 
 	@Override
@@ -241,13 +260,20 @@ public class ContactService extends AbstractCoreAdoService<Contact> {
 		return em.createQuery(cq).getResultList();
 	}
 
-	public List<Contact> getFollowUpBetween(@NotNull Date fromDate, @NotNull Date toDate) {
+	/**
+	 * @return The contacts that are under follow-up in the given period and do not have a contact follow-up task due in it yet.
+	 *         The person with its address and the case are fetched, because they are needed to determine the task assignee.
+	 */
+	public List<Contact> getFollowUpWithoutFollowUpTaskBetween(@NotNull Date fromDate, @NotNull Date toDate) {
 
 		CriteriaBuilder cb = em.getCriteriaBuilder();
 		CriteriaQuery<Contact> cq = cb.createQuery(getElementClass());
 		Root<Contact> from = cq.from(getElementClass());
+		from.fetch(Contact.PERSON).fetch(Person.ADDRESS);
+		from.fetch(Contact.CAZE, JoinType.LEFT);
 
 		Predicate filter = createActiveContactsFilter(cb, from);
+		filter = cb.and(filter, from.get(Contact.FOLLOW_UP_STATUS).in(FollowUpStatus.FOLLOW_UP, FollowUpStatus.LOST));
 		filter = cb.and(filter, cb.isNotNull(from.get(Contact.FOLLOW_UP_UNTIL)));
 		filter = cb.and(filter, cb.greaterThanOrEqualTo(from.get(Contact.FOLLOW_UP_UNTIL), fromDate));
 		filter = cb.and(
@@ -256,6 +282,16 @@ public class ContactService extends AbstractCoreAdoService<Contact> {
 				cb.and(cb.isNotNull(from.get(Contact.LAST_CONTACT_DATE)), cb.lessThan(from.get(Contact.LAST_CONTACT_DATE), toDate)),
 				cb.lessThan(from.get(Contact.REPORT_DATE_TIME), toDate)));
 
+		Subquery<Long> dayTaskSubquery = cq.subquery(Long.class);
+		Root<Task> dayTaskRoot = dayTaskSubquery.from(Task.class);
+		dayTaskSubquery.select(dayTaskRoot.get(Task.ID));
+		dayTaskSubquery.where(
+			cb.equal(dayTaskRoot.get(Task.CONTACT), from),
+			cb.equal(dayTaskRoot.get(Task.TASK_TYPE), TaskType.CONTACT_FOLLOW_UP),
+			cb.greaterThanOrEqualTo(dayTaskRoot.get(Task.DUE_DATE), fromDate),
+			cb.lessThan(dayTaskRoot.get(Task.DUE_DATE), toDate));
+		filter = cb.and(filter, cb.not(cb.exists(dayTaskSubquery)));
+
 		cq.where(filter);
 
 		return em.createQuery(cq).getResultList();
@@ -1,6 +1,7 @@
 package de.symeda.sormas.backend.crypt;
 
 import java.io.IOException;
+import java.io.OutputStream;
 import java.io.UncheckedIOException;
 import java.security.PrivateKey;
 import java.security.cert.Certificate;
@@ -18,11 +19,15 @@ import org.bouncycastle.asn1.x500.X500Name;
 import org.bouncycastle.cert.jcajce.JcaCertStore;
 import org.bouncycastle.cms.CMSEnvelopedData;
 import org.bouncycastle.cms.CMSEnvelopedDataGenerator;
+import org.bouncycastle.cms.CMSEnvelopedDataStreamGenerator;
 import org.bouncycastle.cms.CMSException;
 import org.bouncycastle.cms.CMSProcessableByteArray;
 import org.bouncycastle.cms.CMSSignedData;
 import org.bouncycastle.cms.CMSSignedDataGenerator;
+import org.bouncycastle.cms.CMSSignedDataStreamGenerator;
+import org.bouncycastle.cms.CMSSignedGenerator;
 import org.bouncycastle.cms.CMSTypedData;
+import org.bouncycastle.cms.RecipientInfoGenerator;
 import org.bouncycastle.cms.jcajce.JcaSimpleSignerInfoGeneratorBuilder;
 import org.bouncycastle.cms.jcajce.JceCMSContentEncryptorBuilder;
 import org.bouncycastle.cms.jcajce.JceKeyTransRecipientInfoGenerator;
@@ -106,6 +111,41 @@ public class CmsCreator {
 		return encrypt(signedData, recipientCertificate);
 	}
 
+	/**
+	 * Streaming variant of {@link #signAndEncrypt(byte[], X509Certificate, PrivateKey, X509Certificate, boolean)}: The payload
+	 * written to the returned stream is signed and encrypted into {@code target} on the fly, so neither the plain nor the signed
+	 * payload have to be held in memory as a whole. The result is BER-encoded, which {@link CmsReader} reads like the DER-encoded
+	 * result of the byte array variant.
+	 * <p>
+	 * The created signature is not validated, because that would need the whole signed payload.
+	 * 
+	 * @return The stream to write the plain payload to. It has to be closed to complete the CMS structures; {@code target} is
+	 *         not closed.
+	 */
+	public static OutputStream signAndEncrypt(
+		OutputStream target,
+		X509Certificate signerCertificate,
+		PrivateKey privateKey,
+		X509Certificate recipientCertificate)
+		throws CMSException, IOException {
+
+		BouncyCastleProvider provider = CryptInit.getProvider();
+
+		OutputStream encryptingStream;
+		try {
+			CMSEnvelopedDataStreamGenerator encryptor = new CMSEnvelopedDataStreamGenerator();
+			encryptor.addRecipientInfoGenerator(createRecipient(recipientCertificate, provider));
+			encryptingStream = encryptor.open(target, new JceCMSContentEncryptorBuilder(SYMMETRIC_CRYPT_ALG).setProvider(provider).build());
+		} catch (IllegalArgumentException e) {
+			throw new RuntimeException(e.getMessage(), e);
+		}
+
+		CMSSignedDataStreamGenerator signer = createSigner(new CMSSignedDataStreamGenerator(), signerCertificate, privateKey, provider);
+		OutputStream signingStream = signer.open(encryptingStream, true);
+
+		return new SignAndEncryptOutputStream(signingStream, encryptingStream);
+	}
+
 	static byte[] sign(byte[] plainData, X509Certificate signerCertificate, PrivateKey privateKey, boolean validateSignature) throws CMSException {
 
 		BouncyCastleProvider provider = CryptInit.getProvider();
@@ -133,11 +173,19 @@ public class CmsCreator {
 
 	private static CMSSignedDataGenerator createSigner(X509Certificate signerCertificate, PrivateKey privateKey, BouncyCastleProvider provider)
 		throws CMSException {
+		return createSigner(new CMSSignedDataGenerator(), signerCertificate, privateKey, provider);
+	}
+
+	private static <G extends CMSSignedGenerator> G createSigner(
+		G generator,
+		X509Certificate signerCertificate,
+		PrivateKey privateKey,
+		BouncyCastleProvider provider)
+		throws CMSException {
 
 		ASN1EncodableVector attributes = createAttributes(signerCertificate);
 
 		try {
-			CMSSignedDataGenerator generator = new CMSSignedDataGenerator();
 			generator.addSignerInfoGenerator(
 				new JcaSimpleSignerInfoGeneratorBuilder().setProvider(provider)
 					.setSignedAttributeGenerator(new AttributeTable(attributes))
@@ -169,9 +217,23 @@ public class CmsCreator {
 
 		BouncyCastleProvider provider = CryptInit.getProvider();
 
+		return encrypt(signedData, createRecipient(recipientCertificate, provider), provider);
+	}
+
+	private static RecipientInfoGenerator createRecipient(X509Certificate recipientCertificate, BouncyCastleProvider provider) {
+
+		try {
+			return new JceKeyTransRecipientInfoGenerator(recipientCertificate).setProvider(provider);
+		} catch (CertificateEncodingException | IllegalArgumentException e) {
+			throw new RuntimeException(e.getMessage(), e);
+		}
+	}
+
+	private static byte[] encrypt(byte[] signedData, RecipientInfoGenerator recipient, BouncyCastleProvider provider) {
+
 		try {
 			CMSEnvelopedDataGenerator encryptor = new CMSEnvelopedDataGenerator();
-			encryptor.addRecipientInfoGenerator(new JceKeyTransRecipientInfoGenerator(recipientCertificate).setProvider(provider));
+			encryptor.addRecipientInfoGenerator(recipient);
 
 			/* Encrypt the message */
 			CMSTypedData content = new CMSProcessableByteArray(signedData);
@@ -180,11 +242,53 @@ public class CmsCreator {
 
 			return ed.getEncoded();
 
-		} catch (CertificateEncodingException | IllegalArgumentException | CMSException | IOException e) {
+		} catch (IllegalArgumentException | CMSException | IOException e) {
 			throw new RuntimeException(e.getMessage(), e);
 		}
 	}
 
+	/**
+	 * Writes through the signing stream and completes the signed and then the enveloped structure on close.
+	 */
+	private static final class SignAndEncryptOutputStream extends OutputStream {
+
+		private final OutputStream signingStream;
+		private final OutputStream encryptingStream;
+		private boolean closed;
+
+		private SignAndEncryptOutputStream(OutputStream signingStream, OutputStream encryptingStream) {
+			this.signingStream = signingStream;
+			this.encryptingStream = encryptingStream;
+		}
+
+		@Override
+		public void write(int b) throws IOException {
+			signingStream.write(b);
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException {
+			signingStream.write(b, off, len);
+		}
+
+		@Override
+		public void flush() throws IOException {
+			signingStream.flush();
+		}
+
+		@Override
+		public void close() throws IOException {
+
+			// may be closed by the serializer writing the payload as well as by the caller
+			if (closed) {
+				return;
+			}
+			closed = true;
+			signingStream.close();
+			encryptingStream.close();
+		}
+	}
+
 	public boolean isValidateSignature() {
 		return validateSignature;
 	}
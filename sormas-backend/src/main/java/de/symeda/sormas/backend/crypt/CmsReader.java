@@ -1,5 +1,8 @@
 package de.symeda.sormas.backend.crypt;
 
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
 import java.security.InvalidAlgorithmParameterException;
 import java.security.NoSuchAlgorithmException;
 import java.security.PrivateKey;
@@ -15,14 +18,18 @@ import java.util.List;
 import org.bouncycastle.asn1.pkcs.PKCSObjectIdentifiers;
 import org.bouncycastle.asn1.smime.SMIMECapability;
 import org.bouncycastle.cms.CMSEnvelopedData;
+import org.bouncycastle.cms.CMSEnvelopedDataParser;
 import org.bouncycastle.cms.CMSException;
 import org.bouncycastle.cms.CMSSignedData;
+import org.bouncycastle.cms.CMSSignedDataParser;
+import org.bouncycastle.cms.CMSTypedStream;
 import org.bouncycastle.cms.Recipient;
 import org.bouncycastle.cms.RecipientId;
 import org.bouncycastle.cms.RecipientInformation;
 import org.bouncycastle.cms.RecipientInformationStore;
 import org.bouncycastle.cms.SignerId;
 import org.bouncycastle.cms.SignerInformation;
+import org.bouncycastle.cms.SignerInformationStore;
 import org.bouncycastle.cms.SignerInformationVerifier;
 import org.bouncycastle.cms.jcajce.JcaSignerInfoVerifierBuilder;
 import org.bouncycastle.cms.jcajce.JcaX509CertSelectorConverter;
@@ -54,6 +61,38 @@ public class CmsReader {
 		return verifyAndExtractPayload(decrypted, expectedSignatureCerts);
 	}
 
+	/**
+	 * Streaming variant of {@link #decryptAndVerify(byte[], List, X509Certificate, PrivateKey)}: The payload is decrypted while
+	 * it is read from the returned stream, so neither the signed nor the plain payload have to be held in memory as a whole.
+	 * <p>
+	 * The signature can only be verified once the whole payload has been read. This happens when the returned stream is closed
+	 * (the rest of the payload is read, if necessary), so anything read from it must not be used before it has been closed
+	 * without an exception.
+	 */
+	public static InputStream decryptAndVerify(
+		InputStream encryptedData,
+		List<X509Certificate> expectedSignatureCerts,
+		X509Certificate recipientCertificate,
+		PrivateKey recipientPrivateKey)
+		throws IOException {
+
+		try {
+			CMSEnvelopedDataParser envelopedParser = new CMSEnvelopedDataParser(encryptedData);
+			checkAlgOID("encryption", EXPECTED_ENC_ALG_OID, envelopedParser.getEncryptionAlgOID());
+
+			RecipientInformation recipientInfo = envelopedParser.getRecipientInfos().get(new JceKeyTransRecipientId(recipientCertificate));
+			checkAlgOID("key encryption", EXPECTED_KEY_ENC_ALG_OID, recipientInfo.getKeyEncryptionAlgOID());
+
+			CMSTypedStream decrypted = recipientInfo.getContentStream(new JceKeyTransEnvelopedRecipient(recipientPrivateKey));
+
+			CMSSignedDataParser signedParser = new CMSSignedDataParser(new BcDigestCalculatorProvider(), decrypted.getContentStream());
+			return new VerifyingInputStream(signedParser, signedParser.getSignedContent(), expectedSignatureCerts);
+
+		} catch (CMSException e) {
+			throw new RuntimeException(e);
+		}
+	}
+
 	static byte[] verifyAndExtractPayload(byte[] signedData, Collection<X509Certificate> expectedSignatureCerts) {
 
 		//VERIFY
@@ -102,10 +141,14 @@ public class CmsReader {
 	 * @throws Mail301Exception
 	 */
 	static void verify(CMSSignedData s, Collection<X509Certificate> expectedCerts) {
+		verify(s.getSignerInfos(), expectedCerts);
+	}
+
+	private static void verify(SignerInformationStore signerInfos, Collection<X509Certificate> expectedCerts) {
 
 		CertStore certStore = createCertStore(expectedCerts);
 
-		Iterator<SignerInformation> it = s.getSignerInfos().getSigners().iterator();
+		Iterator<SignerInformation> it = signerInfos.getSigners().iterator();
 
 		if (!it.hasNext()) {
 			throw new RuntimeException("Message has not been signed");
@@ -176,4 +219,43 @@ public class CmsReader {
 
 		return (Collection<X509Certificate>) certStore.getCertificates(selector);
 	}
+
+	/**
+	 * Reads the signed content and verifies the signature on close, when the digests of the whole content are known.
+	 */
+	private static final class VerifyingInputStream extends FilterInputStream {
+
+		private final CMSSignedDataParser signedParser;
+		private final CMSTypedStream signedContent;
+		private final Collection<X509Certificate> expectedSignatureCerts;
+		private boolean closed;
+
+		private VerifyingInputStream(
+			CMSSignedDataParser signedParser,
+			CMSTypedStream signedContent,
+			Collection<X509Certificate> expectedSignatureCerts) {
+
+			super(signedContent.getContentStream());
+			this.signedParser = signedParser;
+			this.signedContent = signedContent;
+			this.expectedSignatureCerts = expectedSignatureCerts;
+		}
+
+		@Override
+		public void close() throws IOException {
+
+			// may be closed by the deserializer reading the payload as well as by the caller
+			if (closed) {
+				return;
+			}
+			closed = true;
+			signedContent.drain();
+
+			try {
+				verify(signedParser.getSignerInfos(), expectedSignatureCerts);
+			} catch (CMSException e) {
+				throw new RuntimeException(e);
+			}
+		}
+	}
 }
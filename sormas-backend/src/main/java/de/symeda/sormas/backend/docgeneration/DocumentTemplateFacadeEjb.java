@@ -22,19 +22,26 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
 
+import javax.annotation.Resource;
 import javax.ejb.EJB;
 import javax.ejb.LocalBean;
 import javax.ejb.Stateless;
+import javax.enterprise.concurrent.ManagedExecutorService;
 
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.FilenameUtils;
@@ -119,7 +126,11 @@ public class DocumentTemplateFacadeEjb implements DocumentTemplateFacade {
 	@EJB
 	private EventParticipantFacadeEjbLocal eventParticipantFacade;
 
-	private TemplateEngine templateEngine = new TemplateEngine();
+	@EJB
+	private TemplateEngine templateEngine;
+
+	@Resource
+	private ManagedExecutorService executorService;
 
 	@Override
 	public byte[] generateDocumentDocxFromEntities(
@@ -171,11 +182,77 @@ public class DocumentTemplateFacadeEjb implements DocumentTemplateFacade {
 		return generateDocumentTxt(templateFile, properties);
 	}
 
+	/**
+	 * Generates a document from the same template for each set of entities and writes it to the zip. The entities are resolved
+	 * one after the other, but the documents are generated in parallel by the managed executor service.
+	 * 
+	 * @param entitiesByFileName
+	 *            The entities of each document by the name of its zip entry
+	 */
+	public void generateDocumentsDocxFromEntities(
+		DocumentWorkflow documentWorkflow,
+		String templateName,
+		Map<String, Map<String, Object>> entitiesByFileName,
+		Properties extraProperties,
+		ZipOutputStream zipOutputStream)
+		throws DocumentTemplateException, IOException {
+		if (!documentWorkflow.isDocx()) {
+			throw new DocumentTemplateException(
+				String.format(I18nProperties.getString(Strings.messageWrongTemplateFileType), documentWorkflow, documentWorkflow.getFileExtension()));
+		}
+
+		File templateFile = getTemplateFile(documentWorkflow, templateName);
+		DocumentVariables documentVariables = getTemplateVariablesDocx(templateFile);
+
+		EntityDtoAccessHelper.IReferenceDtoResolver referenceDtoResolver = getReferenceDtoResolver();
+		List<String> fileNames = new ArrayList<>(entitiesByFileName.keySet());
+		List<Properties> properties = new ArrayList<>(fileNames.size());
+		for (String fileName : fileNames) {
+			properties.add(
+				prepareProperties(documentWorkflow, entitiesByFileName.get(fileName), extraProperties, documentVariables, referenceDtoResolver));
+		}
+
+		// the documents are generated in parallel by the container's managed threads, so the template engine is called with the
+		// context of the caller
+		List<Future<byte[]>> documents = new ArrayList<>(fileNames.size());
+		for (Properties documentProperties : properties) {
+			documents.add(executorService.submit(() -> generateDocumentDocx(templateFile, documentProperties)));
+		}
+
+		try {
+			for (int i = 0; i < fileNames.size(); i++) {
+				byte[] document = documents.get(i).get();
+				zipOutputStream.putNextEntry(new ZipEntry(fileNames.get(i)));
+				zipOutputStream.write(document);
+				zipOutputStream.closeEntry();
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new DocumentTemplateException(I18nProperties.getString(Strings.errorProcessingTemplate));
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof DocumentTemplateException) {
+				throw (DocumentTemplateException) e.getCause();
+			}
+			throw new RuntimeException(e.getCause());
+		} finally {
+			documents.forEach(document -> document.cancel(true));
+		}
+	}
+
 	private Properties prepareProperties(
 		DocumentWorkflow documentWorkflow,
 		Map<String, Object> entities,
 		Properties extraProperties,
 		DocumentVariables documentVariables) {
+		return prepareProperties(documentWorkflow, entities, extraProperties, documentVariables, getReferenceDtoResolver());
+	}
+
+	private Properties prepareProperties(
+		DocumentWorkflow documentWorkflow,
+		Map<String, Object> entities,
+		Properties extraProperties,
+		DocumentVariables documentVariables,
+		EntityDtoAccessHelper.IReferenceDtoResolver referenceDtoResolver) {
 		Properties properties = new Properties();
 
 		// 1. Map template variables to entity data if possible
@@ -184,8 +261,6 @@ public class DocumentTemplateFacadeEjb implements DocumentTemplateFacade {
 		// <CaseDataDto>.quarantineFrom
 		// Generic access as implemented in DataDictionaryGenerator.java
 
-		EntityDtoAccessHelper.IReferenceDtoResolver referenceDtoResolver = getReferenceDtoResolver();
-
 		String propertySeparator = documentWorkflow.isDocx() ? "." : "_";
 		for (String propertyKey : documentVariables.getVariables()) {
 			if (isEntityVariable(documentWorkflow, propertyKey)) {
@@ -249,7 +324,7 @@ public class DocumentTemplateFacadeEjb implements DocumentTemplateFacade {
 		return templateEngine.generateDocumentDocx(properties, templateFile);
 	}
 
-	private String generateDocumentTxt(File templateFile, Properties properties) {
+	private String generateDocumentTxt(File templateFile, Properties properties) throws DocumentTemplateException {
 		return templateEngine.generateDocumentTxt(properties, templateFile);
 	}
 
@@ -310,11 +385,13 @@ public class DocumentTemplateFacadeEjb implements DocumentTemplateFacade {
 		} catch (IOException e) {
 			throw new DocumentTemplateException(I18nProperties.getString(Strings.errorCreatingTemplateDirectory));
 		}
-		try (FileOutputStream fileOutputStream =
-			new FileOutputStream(new File(workflowTemplateDirPath.resolve(FilenameUtils.getName(templateName)).toUri()))) {
+		File templateFile = new File(workflowTemplateDirPath.resolve(FilenameUtils.getName(templateName)).toUri());
+		try (FileOutputStream fileOutputStream = new FileOutputStream(templateFile)) {
 			fileOutputStream.write(document);
 		} catch (IOException e) {
 			throw new DocumentTemplateException(I18nProperties.getString(Strings.errorWritingTemplate));
+		} finally {
+			templateEngine.evictTemplate(templateFile);
 		}
 	}
 
@@ -322,6 +399,7 @@ public class DocumentTemplateFacadeEjb implements DocumentTemplateFacade {
 	public boolean deleteDocumentTemplate(DocumentWorkflow documentWorkflow, String fileName) throws DocumentTemplateException {
 		File templateFile = new File(getWorkflowTemplateDirPath(documentWorkflow).resolve(fileName).toUri());
 		if (templateFile.exists() && templateFile.isFile()) {
+			templateEngine.evictTemplate(templateFile);
 			return templateFile.delete();
 		} else {
 			throw new DocumentTemplateException(String.format(I18nProperties.getString(Strings.errorFileNotFound), fileName));
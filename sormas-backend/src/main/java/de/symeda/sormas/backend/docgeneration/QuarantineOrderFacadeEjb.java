@@ -20,14 +20,23 @@ import static de.symeda.sormas.api.docgeneneration.RootEntityName.ROOT_CONTACT;
 import static de.symeda.sormas.api.docgeneneration.RootEntityName.ROOT_EVENT_PARTICIPANT;
 import static de.symeda.sormas.api.docgeneneration.RootEntityName.ROOT_PERSON;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.zip.ZipOutputStream;
 
 import javax.ejb.EJB;
 import javax.ejb.Stateless;
 
+import org.apache.commons.collections4.ListUtils;
+
+import de.symeda.sormas.api.EntityDto;
 import de.symeda.sormas.api.ReferenceDto;
 import de.symeda.sormas.api.caze.CaseDataDto;
 import de.symeda.sormas.api.caze.CaseReferenceDto;
@@ -42,13 +51,16 @@ import de.symeda.sormas.api.event.EventParticipantDto;
 import de.symeda.sormas.api.event.EventParticipantReferenceDto;
 import de.symeda.sormas.api.i18n.I18nProperties;
 import de.symeda.sormas.api.i18n.Strings;
+import de.symeda.sormas.api.person.PersonDto;
 import de.symeda.sormas.api.sample.PathogenTestReferenceDto;
 import de.symeda.sormas.api.sample.SampleReferenceDto;
+import de.symeda.sormas.api.user.UserDto;
 import de.symeda.sormas.api.user.UserReferenceDto;
 import de.symeda.sormas.backend.caze.CaseFacadeEjb.CaseFacadeEjbLocal;
 import de.symeda.sormas.backend.contact.ContactFacadeEjb.ContactFacadeEjbLocal;
 import de.symeda.sormas.backend.docgeneration.DocumentTemplateFacadeEjb.DocumentTemplateFacadeEjbLocal;
 import de.symeda.sormas.backend.event.EventParticipantFacadeEjb.EventParticipantFacadeEjbLocal;
+import de.symeda.sormas.backend.person.PersonFacadeEjb.PersonFacadeEjbLocal;
 import de.symeda.sormas.backend.sample.PathogenTestFacadeEjb.PathogenTestFacadeEjbLocal;
 import de.symeda.sormas.backend.sample.SampleFacadeEjb.SampleFacadeEjbLocal;
 import de.symeda.sormas.backend.user.UserFacadeEjb.UserFacadeEjbLocal;
@@ -56,6 +68,12 @@ import de.symeda.sormas.backend.user.UserFacadeEjb.UserFacadeEjbLocal;
 @Stateless(name = "QuarantineOrderFacade")
 public class QuarantineOrderFacadeEjb implements QuarantineOrderFacade {
 
+	/**
+	 * Number of root entities loaded (and of documents generated in parallel) at once in
+	 * {@link #getGeneratedDocuments(String, List, UserReferenceDto, Properties)}.
+	 */
+	private static final int DOCUMENT_BATCH_SIZE = 100;
+
 	@EJB
 	private CaseFacadeEjbLocal caseFacade;
 
@@ -74,6 +92,9 @@ public class QuarantineOrderFacadeEjb implements QuarantineOrderFacade {
 	@EJB
 	private PathogenTestFacadeEjbLocal pathogenTestFacade;
 
+	@EJB
+	private PersonFacadeEjbLocal personFacade;
+
 	@EJB
 	private DocumentTemplateFacadeEjbLocal documentTemplateFacade;
 
@@ -127,6 +148,104 @@ public class QuarantineOrderFacadeEjb implements QuarantineOrderFacade {
 			.generateDocumentDocxFromEntities(getDocumentWorkflow(rootEntityReference), templateName, entities, extraProperties);
 	}
 
+	@Override
+	public byte[] getGeneratedDocuments(
+		String templateName,
+		List<ReferenceDto> rootEntityReferences,
+		UserReferenceDto userReference,
+		Properties extraProperties)
+		throws DocumentTemplateException {
+
+		if (rootEntityReferences.isEmpty()) {
+			throw new IllegalArgumentException("No root entities given");
+		}
+		DocumentWorkflow documentWorkflow = getDocumentWorkflow(rootEntityReferences.get(0));
+		for (ReferenceDto rootEntityReference : rootEntityReferences) {
+			if (getDocumentWorkflow(rootEntityReference) != documentWorkflow) {
+				throw new IllegalArgumentException("The root entities have to be of the same type");
+			}
+		}
+
+		UserDto user = userReference != null ? userFacade.getByUuid(userReference.getUuid()) : null;
+
+		ByteArrayOutputStream zipFile = new ByteArrayOutputStream();
+		try (ZipOutputStream zipOutputStream = new ZipOutputStream(zipFile)) {
+			for (List<ReferenceDto> batch : ListUtils.partition(rootEntityReferences, DOCUMENT_BATCH_SIZE)) {
+				Map<String, Map<String, Object>> entitiesByFileName = new LinkedHashMap<>();
+				for (Map<String, Object> entities : loadRootEntities(documentWorkflow, batch)) {
+					if (user != null) {
+						entities.put(RootEntityName.ROOT_USER, user);
+					}
+					String rootEntityName = documentWorkflow.getRootEntityNames().get(0);
+					entitiesByFileName.put(((EntityDto) entities.get(rootEntityName)).getUuid() + "_" + templateName, entities);
+				}
+
+				documentTemplateFacade
+					.generateDocumentsDocxFromEntities(documentWorkflow, templateName, entitiesByFileName, extraProperties, zipOutputStream);
+			}
+		} catch (IOException e) {
+			throw new DocumentTemplateException(String.format(I18nProperties.getString(Strings.errorDocumentGeneration), templateName));
+		}
+
+		return zipFile.toByteArray();
+	}
+
+	/**
+	 * Loads the root entities and their persons with one query per entity type, in the order of the references. Entities that
+	 * do not exist (anymore) are left out.
+	 */
+	private List<Map<String, Object>> loadRootEntities(DocumentWorkflow documentWorkflow, List<ReferenceDto> rootEntityReferences) {
+
+		List<String> uuids = rootEntityReferences.stream().map(ReferenceDto::getUuid).collect(Collectors.toList());
+
+		Map<String, ? extends EntityDto> rootEntities;
+		Map<String, PersonDto> persons;
+		switch (documentWorkflow) {
+		case QUARANTINE_ORDER_CASE:
+			List<CaseDataDto> cases = caseFacade.getByUuids(uuids);
+			rootEntities = cases.stream().collect(Collectors.toMap(CaseDataDto::getUuid, Function.identity()));
+			persons = loadPersons(cases.stream().map(c -> c.getPerson().getUuid()).collect(Collectors.toList()));
+			break;
+		case QUARANTINE_ORDER_CONTACT:
+			List<ContactDto> contacts = contactFacade.getByUuids(uuids);
+			rootEntities = contacts.stream().collect(Collectors.toMap(ContactDto::getUuid, Function.identity()));
+			persons = loadPersons(contacts.stream().map(c -> c.getPerson().getUuid()).collect(Collectors.toList()));
+			break;
+		case QUARANTINE_ORDER_EVENT_PARTICIPANT:
+			List<EventParticipantDto> eventParticipants = eventParticipantFacade.getByUuids(uuids);
+			rootEntities = eventParticipants.stream().collect(Collectors.toMap(EventParticipantDto::getUuid, Function.identity()));
+			// the event participant already contains its person
+			persons = eventParticipants.stream()
+				.map(EventParticipantDto::getPerson)
+				.collect(Collectors.toMap(PersonDto::getUuid, Function.identity(), (p1, p2) -> p1));
+			break;
+		default:
+			throw new IllegalArgumentException(documentWorkflow.name());
+		}
+
+		String rootEntityName = documentWorkflow.getRootEntityNames().get(0);
+		return uuids.stream().map(rootEntities::get).filter(e -> e != null).map(rootEntity -> {
+			Map<String, Object> entities = new HashMap<>();
+			entities.put(rootEntityName, rootEntity);
+			entities.put(ROOT_PERSON, persons.get(getPersonUuid(rootEntity)));
+			return entities;
+		}).collect(Collectors.toList());
+	}
+
+	private Map<String, PersonDto> loadPersons(List<String> personUuids) {
+		return personFacade.getByUuids(personUuids).stream().collect(Collectors.toMap(PersonDto::getUuid, Function.identity()));
+	}
+
+	private String getPersonUuid(EntityDto rootEntity) {
+		if (rootEntity instanceof CaseDataDto) {
+			return ((CaseDataDto) rootEntity).getPerson().getUuid();
+		} else if (rootEntity instanceof ContactDto) {
+			return ((ContactDto) rootEntity).getPerson().getUuid();
+		} else {
+			return ((EventParticipantDto) rootEntity).getPerson().getUuid();
+		}
+	}
+
 	@Override
 	public List<String> getAvailableTemplates(ReferenceDto referenceDto) throws DocumentTemplateException {
 		return documentTemplateFacade.getAvailableTemplates(getDocumentWorkflow(referenceDto));
@@ -27,11 +27,18 @@ import java.io.Reader;
 import java.io.StringWriter;
 import java.nio.charset.StandardCharsets;
 import java.util.HashSet;
+import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
+import javax.ejb.ConcurrencyManagement;
+import javax.ejb.ConcurrencyManagementType;
+import javax.ejb.LocalBean;
+import javax.ejb.Singleton;
+
 import org.apache.commons.io.FilenameUtils;
 import org.apache.velocity.Template;
 import org.apache.velocity.VelocityContext;
@@ -65,6 +72,13 @@ import fr.opensagres.xdocreport.template.ITemplateEngine;
 import fr.opensagres.xdocreport.template.velocity.internal.ExtractVariablesVelocityVisitor;
 import fr.opensagres.xdocreport.template.velocity.internal.VelocityTemplateEngine;
 
+/**
+ * Generates documents from the docx and txt templates. The parsed templates are kept until their file is modified, so a
+ * template is only parsed once for any number of documents.
+ */
+@Singleton
+@LocalBean
+@ConcurrencyManagement(ConcurrencyManagementType.BEAN)
 public class TemplateEngine {
 
 	private static final Pattern VARIABLE_PATTERN = Pattern.compile("([{] *(!)? *([A-Za-z0-9._]+) *[}]| *(!)? *([A-Za-z0-9._]+) *)");
@@ -74,6 +88,11 @@ public class TemplateEngine {
 
 	private final Properties xdocVelocityProperties;
 
+	private final Map<File, CachedTemplate<IXDocReport>> docxTemplates = new ConcurrentHashMap<>();
+	private final Map<File, CachedTemplate<Template>> txtTemplates = new ConcurrentHashMap<>();
+	// one engine per template directory, i.e. per document workflow
+	private final Map<String, VelocityEngine> txtEngines = new ConcurrentHashMap<>();
+
 	public TemplateEngine() {
 		xdocVelocityProperties = new Properties();
 		try {
@@ -88,36 +107,16 @@ public class TemplateEngine {
 	}
 
 	public DocumentVariables extractTemplateVariablesDocx(File templateFile) throws DocumentTemplateException {
-		try {
-			FileInputStream templateInputStream = new FileInputStream(templateFile);
-			IXDocReport report = readXDocReport(templateInputStream);
-
-			FieldsExtractor<FieldExtractor> extractor = FieldsExtractor.create();
-			report.extractFields(extractor);
-
-			return filterExtractedVariables(extractor);
-		} catch (XDocReportException | IOException e) {
-			throw new DocumentTemplateException(String.format(I18nProperties.getString(Strings.errorReadingTemplate), templateFile.getName()));
-		}
+		return getDocxTemplate(templateFile).getVariables();
 	}
 
 	public DocumentVariables extractTemplateVariablesTxt(File templateFile) throws DocumentTemplateException {
-		try {
-			FileReader templateFileReader = new FileReader(templateFile);
-			String templateName = templateFile.getName();
-
-			FieldsExtractor<FieldExtractor> extractor = getFieldExtractorTxt(templateFileReader, templateName);
-
-			return filterExtractedVariables(extractor);
-		} catch (IOException e) {
-			throw new DocumentTemplateException(String.format(I18nProperties.getString(Strings.errorReadingTemplate), templateFile.getName()));
-		}
+		return getTxtTemplate(templateFile).getVariables();
 	}
 
 	public byte[] generateDocumentDocx(Properties properties, File templateFile) throws DocumentTemplateException {
 		try {
-			FileInputStream templateInputStream = new FileInputStream(templateFile);
-			IXDocReport report = readXDocReport(templateInputStream);
+			IXDocReport report = getDocxTemplate(templateFile).getTemplate();
 			IContext context = report.createContext();
 
 			for (Object key : properties.keySet()) {
@@ -137,18 +136,8 @@ public class TemplateEngine {
 		}
 	}
 
-	public String generateDocumentTxt(Properties properties, File templateFile) {
-		VelocityEngine velocityEngine = new VelocityEngine();
-		// Disable Reflection and Classloader related methods
-		velocityEngine.setProperty(RuntimeConstants.UBERSPECT_CLASSNAME, SecureUberspector.class.getCanonicalName());
-		// Disable Includes
-		velocityEngine.setProperty(RuntimeConstants.EVENTHANDLER_INCLUDE, NoIncludesEventHandler.class.getCanonicalName());
-		// Clean Html
-		velocityEngine.setProperty(RuntimeConstants.EVENTHANDLER_REFERENCEINSERTION, CleanHtmlReference.class.getCanonicalName());
-
-		velocityEngine.setProperty(RuntimeConstants.RESOURCE_LOADER, "file");
-		velocityEngine.setProperty(RuntimeConstants.FILE_RESOURCE_LOADER_PATH, FilenameUtils.getFullPathNoEndSeparator(templateFile.getPath()));
-		Template template = velocityEngine.getTemplate(templateFile.getName());
+	public String generateDocumentTxt(Properties properties, File templateFile) throws DocumentTemplateException {
+		Template template = getTxtTemplate(templateFile).getTemplate();
 		VelocityContext velocityContext = new VelocityContext();
 
 		for (Object key : properties.keySet()) {
@@ -168,6 +157,86 @@ public class TemplateEngine {
 		return Jsoup.clean(stringWriter.toString(), "", HTML_TEMPLATE_WHITELIST, outputSettings);
 	}
 
+	/**
+	 * Removes the parsed template, e.g. because the template file has been deleted.
+	 */
+	public void evictTemplate(File templateFile) {
+
+		CachedTemplate<IXDocReport> docxTemplate = docxTemplates.remove(templateFile);
+		if (docxTemplate != null) {
+			XDocReportRegistry.getRegistry().unregisterReport(docxTemplate.getTemplate());
+		}
+		txtTemplates.remove(templateFile);
+	}
+
+	private CachedTemplate<IXDocReport> getDocxTemplate(File templateFile) throws DocumentTemplateException {
+
+		CachedTemplate<IXDocReport> cached = docxTemplates.get(templateFile);
+		if (cached != null && cached.isUpToDate(templateFile)) {
+			return cached;
+		}
+
+		// read before parsing, so a modification while parsing is noticed by the next call
+		long lastModified = templateFile.lastModified();
+		long length = templateFile.length();
+		try (FileInputStream templateInputStream = new FileInputStream(templateFile)) {
+			IXDocReport report = readXDocReport(templateInputStream);
+
+			// also preprocesses the report, so it is not modified anymore when documents are generated in parallel
+			FieldsExtractor<FieldExtractor> extractor = FieldsExtractor.create();
+			report.extractFields(extractor);
+
+			CachedTemplate<IXDocReport> parsed = new CachedTemplate<>(report, filterExtractedVariables(extractor), lastModified, length);
+			CachedTemplate<IXDocReport> replaced = docxTemplates.put(templateFile, parsed);
+			if (replaced != null) {
+				XDocReportRegistry.getRegistry().unregisterReport(replaced.getTemplate());
+			}
+			return parsed;
+		} catch (XDocReportException | IOException e) {
+			throw new DocumentTemplateException(String.format(I18nProperties.getString(Strings.errorReadingTemplate), templateFile.getName()));
+		}
+	}
+
+	private CachedTemplate<Template> getTxtTemplate(File templateFile) throws DocumentTemplateException {
+
+		CachedTemplate<Template> cached = txtTemplates.get(templateFile);
+		if (cached != null && cached.isUpToDate(templateFile)) {
+			return cached;
+		}
+
+		// read before parsing, so a modification while parsing is noticed by the next call
+		long lastModified = templateFile.lastModified();
+		long length = templateFile.length();
+		try (Reader templateFileReader = new FileReader(templateFile)) {
+			DocumentVariables variables = filterExtractedVariables(getFieldExtractorTxt(templateFileReader, templateFile.getName()));
+
+			VelocityEngine velocityEngine =
+				txtEngines.computeIfAbsent(FilenameUtils.getFullPathNoEndSeparator(templateFile.getPath()), this::createTxtVelocityEngine);
+			Template template = velocityEngine.getTemplate(templateFile.getName());
+
+			CachedTemplate<Template> parsed = new CachedTemplate<>(template, variables, lastModified, length);
+			txtTemplates.put(templateFile, parsed);
+			return parsed;
+		} catch (IOException | VelocityException e) {
+			throw new DocumentTemplateException(String.format(I18nProperties.getString(Strings.errorReadingTemplate), templateFile.getName()));
+		}
+	}
+
+	private VelocityEngine createTxtVelocityEngine(String templateDirectory) {
+		VelocityEngine velocityEngine = new VelocityEngine();
+		// Disable Reflection and Classloader related methods
+		velocityEngine.setProperty(RuntimeConstants.UBERSPECT_CLASSNAME, SecureUberspector.class.getCanonicalName());
+		// Disable Includes
+		velocityEngine.setProperty(RuntimeConstants.EVENTHANDLER_INCLUDE, NoIncludesEventHandler.class.getCanonicalName());
+		// Clean Html
+		velocityEngine.setProperty(RuntimeConstants.EVENTHANDLER_REFERENCEINSERTION, CleanHtmlReference.class.getCanonicalName());
+
+		velocityEngine.setProperty(RuntimeConstants.RESOURCE_LOADER, "file");
+		velocityEngine.setProperty(RuntimeConstants.FILE_RESOURCE_LOADER_PATH, templateDirectory);
+		velocityEngine.init();
+		return velocityEngine;
+	}
+
 	public void validateTemplateDocx(InputStream templateInputStream) throws DocumentTemplateException {
 		try {
 			IXDocReport report = readXDocReport(templateInputStream);
@@ -239,4 +308,37 @@ public class TemplateEngine {
 		}
 		return new DocumentVariables(variables, nullableVariables);
 	}
+
+	/**
+	 * A parsed template with its variables, valid as long as the template file is not modified.
+	 */
+	private static final class CachedTemplate<T> {
+
+		private final T template;
+		private final DocumentVariables variables;
+		private final long lastModified;
+		private final long length;
+
+		private CachedTemplate(T template, DocumentVariables variables, long lastModified, long length) {
+			this.template = template;
+			this.variables = variables;
+			this.lastModified = lastModified;
+			this.length = length;
+		}
+
+		private T getTemplate() {
+			return template;
+		}
+
+		/**
+		 * @return A copy, because the callers complete the variables.
+		 */
+		private DocumentVariables getVariables() {
+			return new DocumentVariables(new HashSet<>(variables.getVariables()), new HashSet<>(variables.getNullableVariables()));
+		}
+
+		private boolean isUpToDate(File templateFile) {
+			return templateFile.lastModified() == lastModified && templateFile.length() == length;
+		}
+	}
 }
@@ -133,6 +133,11 @@ public class EventFacadeEjb implements EventFacade {
 
 	@Override
 	public List<EventDto> getAllActiveEventsAfter(Date date) {
+		return getAllActiveEventsAfter(date, null, null, null);
+	}
+
+	@Override
+	public List<EventDto> getAllActiveEventsAfter(Date date, Integer batchSize, Date lastChangeDate, String lastUuid) {
 
 		User user = userService.getCurrentUser();
 		if (user == null) {
@@ -140,7 +145,10 @@ public class EventFacadeEjb implements EventFacade {
 		}
 
 		Pseudonymizer pseudonymizer = Pseudonymizer.getDefault(userService::hasRight);
-		return eventService.getAllActiveEventsAfter(date).stream().map(e -> convertToDto(e, pseudonymizer)).collect(Collectors.toList());
+		return eventService.getAllActiveEventsAfter(date, batchSize, lastChangeDate, lastUuid)
+			.stream()
+			.map(e -> convertToDto(e, pseudonymizer))
+			.collect(Collectors.toList());
 	}
 
 	@Override
@@ -162,6 +162,11 @@ public class EventParticipantFacadeEjb implements EventParticipantFacade {
 
 	@Override
 	public List<EventParticipantDto> getAllActiveEventParticipantsAfter(Date date) {
+		return getAllActiveEventParticipantsAfter(date, null, null, null);
+	}
+
+	@Override
+	public List<EventParticipantDto> getAllActiveEventParticipantsAfter(Date date, Integer batchSize, Date lastChangeDate, String lastUuid) {
 
 		User user = userService.getCurrentUser();
 		if (user == null) {
@@ -169,7 +174,7 @@ public class EventParticipantFacadeEjb implements EventParticipantFacade {
 		}
 
 		Pseudonymizer pseudonymizer = Pseudonymizer.getDefault(userService::hasRight);
-		return eventParticipantService.getAllActiveEventParticipantsAfter(date, user)
+		return eventParticipantService.getAllActiveEventParticipantsAfter(date, user, batchSize, lastChangeDate, lastUuid)
 			.stream()
 			.map(c -> convertToDto(c, pseudonymizer))
 			.collect(Collectors.toList());
@@ -78,6 +78,15 @@ public class EventParticipantService extends AbstractCoreAdoService<EventPartici
 	}
 
 	public List<EventParticipant> getAllActiveEventParticipantsAfter(Date date, User user) {
+		return getAllActiveEventParticipantsAfter(date, user, null, null, null);
+	}
+
+	public List<EventParticipant> getAllActiveEventParticipantsAfter(
+		Date date,
+		User user,
+		Integer batchSize,
+		Date lastChangeDate,
+		String lastUuid) {
 
 		CriteriaBuilder cb = em.getCriteriaBuilder();
 		CriteriaQuery<EventParticipant> cq = cb.createQuery(getElementClass());
@@ -98,12 +107,14 @@ public class EventParticipantService extends AbstractCoreAdoService<EventPartici
 			filter = cb.and(filter, dateFilter);
 		}
 
+		if (lastChangeDate != null) {
+			filter = cb.and(filter, createChangeDateCursorFilter(cb, from, lastChangeDate, lastUuid));
+		}
+
 		cq.where(filter);
-		cq.orderBy(cb.desc(from.get(EventParticipant.CHANGE_DATE)));
 		cq.distinct(true);
 
-		List<EventParticipant> resultList = em.createQuery(cq).getResultList();
-		return resultList;
+		return getChangedResultList(cb, cq, from, batchSize);
 	}
 
 	public List<String> getAllActiveUuids(User user) {
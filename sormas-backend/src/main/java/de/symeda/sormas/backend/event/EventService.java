@@ -101,6 +101,10 @@ public class EventService extends AbstractCoreAdoService<Event> {
 	}
 
 	public List<Event> getAllActiveEventsAfter(Date date) {
+		return getAllActiveEventsAfter(date, null, null, null);
+	}
+
+	public List<Event> getAllActiveEventsAfter(Date date, Integer batchSize, Date lastChangeDate, String lastUuid) {
 
 		CriteriaBuilder cb = em.getCriteriaBuilder();
 		CriteriaQuery<Event> cq = cb.createQuery(getElementClass());
@@ -124,11 +128,14 @@ public class EventService extends AbstractCoreAdoService<Event> {
 			filter = cb.and(filter, dateFilter);
 		}
 
+		if (lastChangeDate != null) {
+			filter = cb.and(filter, createChangeDateCursorFilter(cb, from, lastChangeDate, lastUuid));
+		}
+
 		cq.where(filter);
-		cq.orderBy(cb.desc(from.get(Event.CHANGE_DATE)));
 		cq.distinct(true);
 
-		return em.createQuery(cq).getResultList();
+		return getChangedResultList(cb, cq, from, batchSize);
 	}
 
 	public List<String> getAllActiveUuids() {
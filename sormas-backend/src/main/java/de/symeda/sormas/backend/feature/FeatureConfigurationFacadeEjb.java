@@ -227,15 +227,7 @@ public class FeatureConfigurationFacadeEjb implements FeatureConfigurationFacade
 
 	@Override
 	public boolean isFeatureDisabled(FeatureType featureType) {
-
-		CriteriaBuilder cb = em.getCriteriaBuilder();
-		CriteriaQuery<Long> cq = cb.createQuery(Long.class);
-		Root<FeatureConfiguration> root = cq.from(FeatureConfiguration.class);
-
-		cq.where(cb.and(cb.equal(root.get(FeatureConfiguration.FEATURE_TYPE), featureType), cb.isFalse(root.get(FeatureConfiguration.ENABLED))));
-		cq.select(cb.count(root));
-
-		return em.createQuery(cq).getSingleResult() > 0;
+		return service.isFeatureDisabled(featureType);
 	}
 
 	@Override
@@ -8,12 +8,16 @@ import java.util.stream.Collectors;
 
 import javax.ejb.LocalBean;
 import javax.ejb.Stateless;
+import javax.enterprise.inject.Instance;
+import javax.inject.Inject;
+import javax.persistence.EntityExistsException;
 import javax.persistence.Query;
 import javax.persistence.criteria.CriteriaBuilder;
 import javax.persistence.criteria.CriteriaQuery;
 import javax.persistence.criteria.From;
 import javax.persistence.criteria.JoinType;
 import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
 
 import org.apache.commons.lang3.ArrayUtils;
 
@@ -24,16 +28,58 @@ import de.symeda.sormas.backend.common.AdoServiceWithUserFilter;
 import de.symeda.sormas.backend.common.CriteriaBuilderHelper;
 import de.symeda.sormas.backend.region.District;
 import de.symeda.sormas.backend.region.Region;
+import de.symeda.sormas.backend.user.CurrentUser;
+import de.symeda.sormas.backend.user.CurrentUserQualifier;
 import de.symeda.sormas.backend.user.User;
 
 @Stateless
 @LocalBean
 public class FeatureConfigurationService extends AdoServiceWithUserFilter<FeatureConfiguration> {
 
+	@Inject
+	@CurrentUserQualifier
+	private Instance<CurrentUser> currentUser;
+
 	public FeatureConfigurationService() {
 		super(FeatureConfiguration.class);
 	}
 
+	/**
+	 * The result is kept for the rest of the request, so the user filters of all queries in a request share the same
+	 * feature flags. Changes of feature configurations made through this service discard the kept results.
+	 */
+	public boolean isFeatureDisabled(FeatureType featureType) {
+
+		CurrentUser requestContext = currentUser.get();
+		Boolean disabled = requestContext.getFeatureDisabled(featureType);
+		if (disabled == null) {
+			CriteriaBuilder cb = em.getCriteriaBuilder();
+			CriteriaQuery<Long> cq = cb.createQuery(Long.class);
+			Root<FeatureConfiguration> root = cq.from(FeatureConfiguration.class);
+
+			cq.where(cb.and(cb.equal(root.get(FeatureConfiguration.FEATURE_TYPE), featureType), cb.isFalse(root.get(FeatureConfiguration.ENABLED))));
+			cq.select(cb.count(root));
+
+			disabled = em.createQuery(cq).getSingleResult() > 0;
+			requestContext.setFeatureDisabled(featureType, disabled);
+		}
+		return disabled;
+	}
+
+	@Override
+	public void ensurePersisted(FeatureConfiguration ado) throws EntityExistsException {
+
+		super.ensurePersisted(ado);
+		currentUser.get().clearFeatureFlags();
+	}
+
+	@Override
+	public void delete(FeatureConfiguration deleteme) {
+
+		super.delete(deleteme);
+		currentUser.get().clearFeatureFlags();
+	}
+
 	public List<String> getDeletedUuids(Date since, User user) {
 
 		StringBuilder queryBuilder = new StringBuilder();
@@ -0,0 +1,149 @@
+/*******************************************************************************
+ * SORMAS® - Surveillance Outbreak Response Management & Analysis System
+ * Copyright © 2016-2021 Helmholtz-Zentrum für Infektionsforschung GmbH (HZI)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ *******************************************************************************/
+package de.symeda.sormas.backend.geocoding;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.PreDestroy;
+import javax.ejb.ConcurrencyManagement;
+import javax.ejb.ConcurrencyManagementType;
+import javax.ejb.EJB;
+import javax.ejb.LocalBean;
+import javax.ejb.Singleton;
+import javax.ws.rs.client.Client;
+
+import de.symeda.sormas.api.region.GeoLatLon;
+import de.symeda.sormas.backend.common.ConfigFacadeEjb.ConfigFacadeEjbLocal;
+import de.symeda.sormas.backend.util.ClientHelper;
+
+/**
+ * Holds the state shared by all {@link GeocodingService} instances: The REST client, so its connections are kept alive between
+ * requests, and a bounded cache of the results by query, so addresses that are imported many times are only geocoded once.
+ */
+@Singleton
+@LocalBean
+@ConcurrencyManagement(ConcurrencyManagementType.BEAN)
+public class GeocodingCache {
+
+	@EJB
+	private ConfigFacadeEjbLocal configFacade;
+
+	private final AtomicLong hitCount = new AtomicLong();
+	private final AtomicLong missCount = new AtomicLong();
+
+	private Map<Map<String, String>, CachedLatLon> entries;
+	private Client client;
+
+	/**
+	 * @return {@code null}, if the query is not cached (or has expired). Otherwise the cached result, whose coordinates are
+	 *         {@code null} if the geocoding service did not find the address.
+	 */
+	public CachedLatLon get(Map<String, String> query) {
+
+		CachedLatLon cached;
+		synchronized (this) {
+			cached = getEntries().get(query);
+			if (cached != null && cached.isExpired()) {
+				getEntries().remove(query);
+				cached = null;
+			}
+		}
+
+		if (cached != null) {
+			hitCount.incrementAndGet();
+		} else {
+			missCount.incrementAndGet();
+		}
+		return cached;
+	}
+
+	public void put(Map<String, String> query, GeoLatLon latLon) {
+
+		long expiresAt = System.currentTimeMillis() + TimeUnit.HOURS.toMillis(configFacade.getGeocodingCacheTtlHours());
+		synchronized (this) {
+			getEntries().put(query, new CachedLatLon(latLon, expiresAt));
+		}
+	}
+
+	public synchronized Client getClient() {
+
+		if (client == null) {
+			client = ClientHelper.newBuilderWithProxy().connectTimeout(10, TimeUnit.SECONDS).readTimeout(10, TimeUnit.SECONDS).build();
+		}
+		return client;
+	}
+
+	public long getHitCount() {
+		return hitCount.get();
+	}
+
+	public long getMissCount() {
+		return missCount.get();
+	}
+
+	public synchronized int getSize() {
+		return getEntries().size();
+	}
+
+	private Map<Map<String, String>, CachedLatLon> getEntries() {
+
+		if (entries == null) {
+			int maxSize = configFacade.getGeocodingCacheSize();
+			// access order: the least recently used entry is removed first
+			entries = new LinkedHashMap<Map<String, String>, CachedLatLon>(16, 0.75f, true) {
+
+				@Override
+				protected boolean removeEldestEntry(Map.Entry<Map<String, String>, CachedLatLon> eldest) {
+					return size() > maxSize;
+				}
+			};
+		}
+		return entries;
+	}
+
+	@PreDestroy
+	public synchronized void close() {
+
+		if (client != null) {
+			client.close();
+			client = null;
+		}
+	}
+
+	public static final class CachedLatLon {
+
+		private final GeoLatLon latLon;
+		private final long expiresAt;
+
+		private CachedLatLon(GeoLatLon latLon, long expiresAt) {
+			this.latLon = latLon;
+			this.expiresAt = expiresAt;
+		}
+
+		public GeoLatLon getLatLon() {
+			return latLon;
+		}
+
+		private boolean isExpired() {
+			return System.currentTimeMillis() > expiresAt;
+		}
+	}
+}
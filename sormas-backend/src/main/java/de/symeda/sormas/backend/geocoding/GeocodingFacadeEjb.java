@@ -17,12 +17,16 @@
  *******************************************************************************/
 package de.symeda.sormas.backend.geocoding;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import javax.ejb.EJB;
 import javax.ejb.Stateless;
 
 import org.apache.commons.lang3.StringUtils;
 
 import de.symeda.sormas.api.geocoding.GeocodingFacade;
+import de.symeda.sormas.api.location.LocationDto;
 import de.symeda.sormas.api.region.GeoLatLon;
 
 @Stateless(name = "GeocodingFacade")
@@ -45,4 +49,27 @@ public class GeocodingFacadeEjb implements GeocodingFacade {
 
 		return null;
 	}
+
+	@Override
+	public List<GeoLatLon> getLatLons(List<LocationDto> locations) {
+
+		List<LocationQuery> queries = new ArrayList<>();
+		List<Integer> queryIndexes = new ArrayList<>();
+		for (int i = 0; i < locations.size(); i++) {
+			LocationDto location = locations.get(i);
+			if (StringUtils.isNotBlank(location.getStreet())
+				&& (StringUtils.isNotBlank(location.getCity()) || StringUtils.isNotBlank(location.getPostalCode()))) {
+				queries.add(new LocationQuery(location.getHouseNumber(), location.getStreet(), location.getPostalCode(), location.getCity()));
+				queryIndexes.add(i);
+			}
+		}
+
+		List<GeoLatLon> latLons = new ArrayList<>(locations.size());
+		locations.forEach(l -> latLons.add(null));
+		List<GeoLatLon> queryResults = geocodingService.getLatLons(queries);
+		for (int i = 0; i < queryIndexes.size(); i++) {
+			latLons.set(queryIndexes.get(i), queryResults.get(i));
+		}
+		return latLons;
+	}
 }
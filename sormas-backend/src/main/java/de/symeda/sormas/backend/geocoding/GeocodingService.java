@@ -21,15 +21,22 @@ import java.io.UnsupportedEncodingException;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.URLEncoder;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 
+import javax.annotation.Resource;
+import javax.ejb.AsyncResult;
+import javax.ejb.Asynchronous;
 import javax.ejb.EJB;
 import javax.ejb.LocalBean;
+import javax.ejb.SessionContext;
 import javax.ejb.Stateless;
-import javax.ws.rs.client.Client;
 import javax.ws.rs.client.WebTarget;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
@@ -48,8 +55,8 @@ import com.nimbusds.jose.util.StandardCharset;
 import de.symeda.sormas.api.region.GeoLatLon;
 import de.symeda.sormas.api.utils.DataHelper;
 import de.symeda.sormas.backend.common.ConfigFacadeEjb.ConfigFacadeEjbLocal;
+import de.symeda.sormas.backend.geocoding.GeocodingCache.CachedLatLon;
 import de.symeda.sormas.backend.location.Location;
-import de.symeda.sormas.backend.util.ClientHelper;
 
 @Stateless
 @LocalBean
@@ -64,6 +71,10 @@ public class GeocodingService {
 
 	@EJB
 	private ConfigFacadeEjbLocal configFacade;
+	@EJB
+	private GeocodingCache geocodingCache;
+	@Resource
+	private SessionContext sessionContext;
 
 	public boolean isEnabled() {
 		return configFacade.getGeocodingServiceUrlTemplate() != null;
@@ -71,29 +82,132 @@ public class GeocodingService {
 
 	public GeoLatLon getLatLon(Location location) {
 
+		LocationQuery query = toQuery(location);
+		return query != null ? getLatLon(query) : null;
+	}
+
+	/**
+	 * @return The query for the address of the location or {@code null}, if the address is not complete enough to be geocoded.
+	 */
+	public LocationQuery toQuery(Location location) {
+
 		String street = Objects.toString(location.getStreet(), "");
 		String houseNumber = Objects.toString(location.getHouseNumber(), "");
 		String city = Objects.toString(location.getCity(), "");
 		String postalCode = Objects.toString(location.getPostalCode(), "");
 		if (StringUtils.isNotBlank(street) && (StringUtils.isNotBlank(city) || StringUtils.isNotBlank(postalCode))) {
-			return getLatLon(new LocationQuery(houseNumber, street, postalCode, city));
+			return new LocationQuery(houseNumber, street, postalCode, city);
 		}
 		return null;
 	}
 
 	public GeoLatLon getLatLon(LocationQuery query) {
 
+		String urlTemplate = getUrlTemplate();
+		if (urlTemplate == null) {
+			return null;
+		}
+
+		Map<String, String> cacheKey = buildCacheKey(query);
+		CachedLatLon cached = geocodingCache.get(cacheKey);
+		if (cached != null) {
+			return cached.getLatLon();
+		}
+
+		return getLatLon(query, cacheKey, urlTemplate);
+	}
+
+	@Asynchronous
+	public Future<GeoLatLon> getLatLonAsync(LocationQuery query) {
+		return new AsyncResult<>(getLatLon(query));
+	}
+
+	/**
+	 * Geocodes all queries. Identical addresses are only geocoded once, cached ones not at all and the remaining ones are sent to the
+	 * geocoding service in parallel, limited by the configured number of parallel requests.
+	 *
+	 * @return The coordinates in the order of the queries; {@code null} for the ones that could not be geocoded.
+	 */
+	public List<GeoLatLon> getLatLons(List<LocationQuery> queries) {
+
+		List<GeoLatLon> results = new ArrayList<>(queries.size());
+		if (getUrlTemplate() == null) {
+			queries.forEach(q -> results.add(null));
+			return results;
+		}
+
+		Map<Map<String, String>, GeoLatLon> latLonsByKey = new HashMap<>();
+		Map<Map<String, String>, LocationQuery> uncachedQueries = new LinkedHashMap<>();
+		for (LocationQuery query : queries) {
+			Map<String, String> cacheKey = buildCacheKey(query);
+			if (!latLonsByKey.containsKey(cacheKey) && !uncachedQueries.containsKey(cacheKey)) {
+				CachedLatLon cached = geocodingCache.get(cacheKey);
+				if (cached != null) {
+					latLonsByKey.put(cacheKey, cached.getLatLon());
+				} else {
+					uncachedQueries.put(cacheKey, query);
+				}
+			}
+		}
+
+		// called through the business object so the requests are actually executed asynchronously
+		GeocodingService asyncService = sessionContext != null ? sessionContext.getBusinessObject(GeocodingService.class) : null;
+		int maxParallelRequests = Math.max(1, configFacade.getGeocodingMaxParallelRequests());
+		List<Map.Entry<Map<String, String>, LocationQuery>> pendingQueries = new ArrayList<>(uncachedQueries.entrySet());
+		for (int i = 0; i < pendingQueries.size(); i += maxParallelRequests) {
+			List<Map.Entry<Map<String, String>, LocationQuery>> window =
+				pendingQueries.subList(i, Math.min(i + maxParallelRequests, pendingQueries.size()));
+			if (asyncService == null) {
+				window.forEach(e -> latLonsByKey.put(e.getKey(), getLatLon(e.getValue())));
+				continue;
+			}
+
+			List<Future<GeoLatLon>> futures = new ArrayList<>(window.size());
+			window.forEach(e -> futures.add(asyncService.getLatLonAsync(e.getValue())));
+			for (int j = 0; j < window.size(); j++) {
+				latLonsByKey.put(window.get(j).getKey(), awaitLatLon(window.get(j).getValue(), futures.get(j)));
+			}
+		}
+
+		queries.forEach(q -> results.add(latLonsByKey.get(buildCacheKey(q))));
+
+		logger.info(
+			"Geocoded {} addresses ({} distinct, {} requested); cache hits: {}, misses: {}, size: {}",
+			queries.size(),
+			latLonsByKey.size(),
+			uncachedQueries.size(),
+			geocodingCache.getHitCount(),
+			geocodingCache.getMissCount(),
+			geocodingCache.getSize());
+
+		return results;
+	}
+
+	private GeoLatLon awaitLatLon(LocationQuery query, Future<GeoLatLon> future) {
+
+		try {
+			return future.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return null;
+		} catch (ExecutionException e) {
+			logger.error("geosearch query '{}' failed", query, e.getCause());
+			return null;
+		}
+	}
+
+	private String getUrlTemplate() {
+
 		String urlTemplate = configFacade.getGeocodingServiceUrlTemplate();
 		if (DataHelper.isNullOrEmpty(urlTemplate)
 			|| DataHelper.isNullOrEmpty(configFacade.getGeocodingLatitudeJsonPath())
 			|| DataHelper.isNullOrEmpty(configFacade.getGeocodingLongitudeJsonPath())) {
 			return null;
 		}
-
-		return getLatLon(query, urlTemplate);
+		return urlTemplate;
 	}
 
-	private GeoLatLon getLatLon(LocationQuery query, String urlTemplate) {
+	private GeoLatLon getLatLon(LocationQuery query, Map<String, String> cacheKey, String urlTemplate) {
 
 		StringSubstitutor substitutor = new StringSubstitutor(buildQuerySubstitutions(query));
 		String url = substitutor.replace(urlTemplate);
@@ -105,8 +219,7 @@ public class GeocodingService {
 			throw new IllegalArgumentException(e);
 		}
 
-		Client client = ClientHelper.newBuilderWithProxy().connectTimeout(10, TimeUnit.SECONDS).readTimeout(10, TimeUnit.SECONDS).build();
-		WebTarget target = client.target(targetUrl);
+		WebTarget target = geocodingCache.getClient().target(targetUrl);
 		Response response = target.request(MediaType.APPLICATION_JSON_TYPE).get();
 		String responseText = readResponseAsText(response);
 
@@ -114,21 +227,26 @@ public class GeocodingService {
 			if (logger.isErrorEnabled()) {
 				logger.error("geosearch query '{}' returned {} - {}:\n{}", query, response.getStatus(), response.getStatusInfo(), responseText);
 			}
+			// failed requests are not cached, they might succeed when retried
 			return null;
 		}
 
+		GeoLatLon latLon;
 		try {
 			Double latitude = JsonPath.read(responseText, configFacade.getGeocodingLatitudeJsonPath());
 			Double longitude = JsonPath.read(responseText, configFacade.getGeocodingLongitudeJsonPath());
 
-			return new GeoLatLon(latitude, longitude);
+			latLon = new GeoLatLon(latitude, longitude);
 		} catch (PathNotFoundException e) {
 			if (logger.isDebugEnabled()) {
 				logger.debug("geosearch coordinates not found in '{}'" + responseText);
 			}
 
-			return null;
+			latLon = null;
 		}
+
+		geocodingCache.put(cacheKey, latLon);
+		return latLon;
 	}
 
 	private String readResponseAsText(Response response) {
@@ -149,6 +267,23 @@ public class GeocodingService {
 		return replacement;
 	}
 
+	/**
+	 * Builds the substitutions for the normalized address, so spelling variants in case and whitespace share one cache entry.
+	 */
+	private Map<String, String> buildCacheKey(LocationQuery query) {
+
+		return buildQuerySubstitutions(
+			new LocationQuery(
+				normalizeValue(query.getHouseNumber()),
+				normalizeValue(query.getStreet()),
+				normalizeValue(query.getPostalCode()),
+				normalizeValue(query.getCity())));
+	}
+
+	private String normalizeValue(String value) {
+		return value == null ? null : StringUtils.normalizeSpace(value).toLowerCase();
+	}
+
 	private String encodeValue(String value) {
 		try {
 			return DataHelper.isNullOrEmpty(value) ? "" : URLEncoder.encode(value, StandardCharset.UTF_8.name());
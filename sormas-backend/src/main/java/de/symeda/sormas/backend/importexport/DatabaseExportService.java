@@ -4,17 +4,29 @@ import java.io.IOException;
 import java.io.OutputStreamWriter;
 import java.io.UncheckedIOException;
 import java.io.Writer;
-import java.math.BigInteger;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.sql.SQLException;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipOutputStream;
 
+import javax.annotation.Resource;
+import javax.ejb.AsyncResult;
+import javax.ejb.Asynchronous;
 import javax.ejb.EJB;
 import javax.ejb.LocalBean;
+import javax.ejb.SessionContext;
 import javax.ejb.Stateless;
 import javax.persistence.EntityManager;
 import javax.persistence.PersistenceContext;
@@ -26,6 +38,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import de.symeda.sormas.api.importexport.DatabaseTable;
+import de.symeda.sormas.api.importexport.ImportExportUtils;
 import de.symeda.sormas.backend.caze.Case;
 import de.symeda.sormas.backend.clinicalcourse.ClinicalCourse;
 import de.symeda.sormas.backend.clinicalcourse.ClinicalVisit;
@@ -57,6 +70,7 @@ import de.symeda.sormas.backend.visit.Visit;
 
 /**
  * Exporting data directly from the PostgreSQL database with COPY commands as .csv files.
+ * The COPY output is streamed into the files without being processed by JPA.
  * 
  * @author Stefan Kock
  */
@@ -69,7 +83,8 @@ public class DatabaseExportService {
 		"COPY (SELECT * FROM %s AS root_table INNER JOIN %s AS leaf_table ON (root_table.%s = leaf_table.%s)) TO STDOUT WITH (FORMAT CSV, DELIMITER '%s', HEADER)";
 
 	private static final Map<DatabaseTable, DatabaseExportConfiguration> EXPORT_CONFIGS = new LinkedHashMap<>();
-	public static final String COUNT_TABLE_COLUMNS = "SELECT COUNT(column_name) FROM information_schema.columns WHERE table_name=:tableName";
+	public static final String COUNT_TABLE_COLUMNS =
+		"SELECT table_name, COUNT(column_name) FROM information_schema.columns WHERE table_name IN (:tableNames) GROUP BY table_name";
 
 	static {
 		EXPORT_CONFIGS.put(DatabaseTable.CASES, new DatabaseExportConfiguration(Case.TABLE_NAME));
@@ -114,24 +129,134 @@ public class DatabaseExportService {
 	@EJB
 	private ConfigFacadeEjbLocal configFacade;
 
+	@Resource
+	private SessionContext sessionContext;
+
+	/**
+	 * Exports the tables into temporary .csv files first, several of them in parallel with their own database connections, and then
+	 * copies the files into the zip in the order of {@code databaseTables}.
+	 */
 	public void exportAsCsvFiles(ZipOutputStream zos, List<DatabaseTable> databaseTables) throws IOException {
 
-		//Writer must not be closed so it does not close the zip too early
-		Writer writer = new OutputStreamWriter(zos, StandardCharsets.UTF_8);
+		long startTime = System.currentTimeMillis();
+		Map<String, Integer> columnCounts = getColumnCounts(databaseTables);
+		Path tempDirectory = Paths.get(configFacade.getTempFilesPath());
 
-		// Export all selected tables to .csv files
-		for (DatabaseTable databaseTable : databaseTables) {
-			zos.putNextEntry(new ZipEntry(databaseTable.getFileName() + ".csv"));
-			DatabaseExportConfiguration exportConfig = getConfig(databaseTable);
-			addEntityNamesRow(exportConfig, writer);
-			addDataRows(databaseTable, exportConfig, writer);
-			writer.flush();
-			zos.closeEntry();
+		// called through the business object so the tables are actually exported asynchronously
+		DatabaseExportService asyncService = sessionContext != null ? sessionContext.getBusinessObject(DatabaseExportService.class) : null;
+		int parallelTables = Math.max(1, configFacade.getDatabaseExportParallelTables());
+		long totalRowCount = 0;
+
+		for (int i = 0; i < databaseTables.size(); i += parallelTables) {
+			List<DatabaseTable> window = databaseTables.subList(i, Math.min(i + parallelTables, databaseTables.size()));
+			Map<DatabaseTable, Path> tempFiles = new LinkedHashMap<>();
+			try {
+				for (DatabaseTable databaseTable : window) {
+					tempFiles.put(databaseTable, Files.createTempFile(tempDirectory, ImportExportUtils.TEMP_FILE_PREFIX + "_db_export_", ".csv"));
+				}
+
+				Map<DatabaseTable, Future<Long>> rowCounts = new LinkedHashMap<>();
+				for (Map.Entry<DatabaseTable, Path> tempFile : tempFiles.entrySet()) {
+					rowCounts.put(
+						tempFile.getKey(),
+						asyncService != null
+							? asyncService.exportAsCsvFileAsync(tempFile.getKey(), columnCounts, tempFile.getValue())
+							: new AsyncResult<>(exportAsCsvFile(tempFile.getKey(), columnCounts, tempFile.getValue())));
+				}
+				awaitAll(rowCounts.values());
+
+				for (DatabaseTable databaseTable : window) {
+					zos.putNextEntry(new ZipEntry(databaseTable.getFileName() + ".csv"));
+					Files.copy(tempFiles.get(databaseTable), zos);
+					zos.closeEntry();
+					totalRowCount += getResult(rowCounts.get(databaseTable));
+				}
+			} finally {
+				for (Path tempFile : tempFiles.values()) {
+					Files.deleteIfExists(tempFile);
+				}
+			}
+		}
+
+		logger.info(
+			"exportAsCsvFiles(): Exported {} tables with {} rows in {} ms",
+			databaseTables.size(),
+			totalRowCount,
+			System.currentTimeMillis() - startTime);
+	}
+
+	@Asynchronous
+	public Future<Long> exportAsCsvFileAsync(DatabaseTable databaseTable, Map<String, Integer> columnCounts, Path file) throws IOException {
+		return new AsyncResult<>(exportAsCsvFile(databaseTable, columnCounts, file));
+	}
+
+	/**
+	 * @return The number of exported data rows.
+	 */
+	private long exportAsCsvFile(DatabaseTable databaseTable, Map<String, Integer> columnCounts, Path file) throws IOException {
+
+		long startTime = System.currentTimeMillis();
+		DatabaseExportConfiguration exportConfig = getConfig(databaseTable);
+		long rowCount;
+		try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+			addEntityNamesRow(exportConfig, columnCounts, writer);
+			rowCount = addDataRows(databaseTable, exportConfig, writer);
 		}
+
+		long duration = Math.max(1, System.currentTimeMillis() - startTime);
+		logger.info(
+			"exportAsCsvFiles(): Exported '{}': {} rows, {} KB in {} ms ({} rows/s)",
+			databaseTable.getFileName(),
+			rowCount,
+			Files.size(file) / 1024,
+			duration,
+			rowCount * 1000 / duration);
+		return rowCount;
 	}
 
-	private void addEntityNamesRow(DatabaseExportConfiguration config, Writer writer) throws IOException {
-		final int mainTableColumnCount = getColumnCount(config.getTableName());
+	/**
+	 * Waits for all exports, so none of them is still writing when the temporary files are deleted. The first failure is rethrown.
+	 */
+	private void awaitAll(Collection<Future<Long>> futures) throws IOException {
+
+		IOException ioException = null;
+		RuntimeException runtimeException = null;
+		for (Future<Long> future : futures) {
+			try {
+				getResult(future);
+			} catch (IOException e) {
+				ioException = ioException == null ? e : ioException;
+			} catch (RuntimeException e) {
+				runtimeException = runtimeException == null ? e : runtimeException;
+			}
+		}
+
+		if (runtimeException != null) {
+			throw runtimeException;
+		} else if (ioException != null) {
+			throw ioException;
+		}
+	}
+
+	private long getResult(Future<Long> future) throws IOException {
+
+		try {
+			return future.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new RuntimeException("Interrupted while waiting for the database export", e);
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof IOException) {
+				throw (IOException) e.getCause();
+			} else if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			}
+			throw new RuntimeException(e.getCause());
+		}
+	}
+
+	private void addEntityNamesRow(DatabaseExportConfiguration config, Map<String, Integer> columnCounts, Writer writer) throws IOException {
+		final int mainTableColumnCount = columnCounts.getOrDefault(config.getTableName(), 0);
 		char csvSeparator = configFacade.getCsvSeparator();
 		if (mainTableColumnCount > 0) {
 			writer.write(config.getTableName());
@@ -140,7 +265,7 @@ public class DatabaseExportService {
 			writer.write(csvSeparator + config.getTableName());
 		}
 		if (config.isUseJoinTable()) {
-			final int joinTableColumnCount = getColumnCount(config.getJoinTableName());
+			final int joinTableColumnCount = columnCounts.getOrDefault(config.getJoinTableName(), 0);
 			for (int i = 0; i < joinTableColumnCount; i++) {
 				writer.write(csvSeparator + config.getJoinTableName());
 			}
@@ -148,14 +273,35 @@ public class DatabaseExportService {
 		writer.write('\n');
 	}
 
-	private int getColumnCount(String tableName) {
-		BigInteger bigIntegerResult = (BigInteger) em.createNativeQuery(COUNT_TABLE_COLUMNS)
-				.setParameter("tableName", tableName)
-				.getSingleResult();
-		return bigIntegerResult.intValue();
+	/**
+	 * @return The number of columns by table name for all tables involved in exporting {@code databaseTables}, fetched with a single
+	 *         query.
+	 */
+	@SuppressWarnings("unchecked")
+	private Map<String, Integer> getColumnCounts(List<DatabaseTable> databaseTables) {
+
+		Set<String> tableNames = new HashSet<>();
+		for (DatabaseTable databaseTable : databaseTables) {
+			DatabaseExportConfiguration config = getConfig(databaseTable);
+			tableNames.add(config.getTableName());
+			if (config.isUseJoinTable()) {
+				tableNames.add(config.getJoinTableName());
+			}
+		}
+
+		Map<String, Integer> columnCounts = new HashMap<>();
+		if (tableNames.isEmpty()) {
+			return columnCounts;
+		}
+
+		List<Object[]> results = em.createNativeQuery(COUNT_TABLE_COLUMNS).setParameter("tableNames", tableNames).getResultList();
+		for (Object[] result : results) {
+			columnCounts.put((String) result[0], ((Number) result[1]).intValue());
+		}
+		return columnCounts;
 	}
 
-	private void addDataRows(DatabaseTable databaseTable, DatabaseExportConfiguration config, Writer writer) {
+	private long addDataRows(DatabaseTable databaseTable, DatabaseExportConfiguration config, Writer writer) {
 		long startTime = System.currentTimeMillis();
 		final String sql;
 		if (config.isUseJoinTable()) {
@@ -169,7 +315,7 @@ public class DatabaseExportService {
 		} else {
 			sql = String.format(COPY_SINGLE_TABLE, config.getTableName(), configFacade.getCsvSeparator());
 		}
-		writeCsv(writer, sql, databaseTable.getFileName());
+		long rowCount = writeCsv(writer, sql, databaseTable.getFileName());
 
 		// Be able to check performance for each export query
 		logger.trace(
@@ -177,6 +323,7 @@ public class DatabaseExportService {
 				databaseTable.getFileName(),
 				System.currentTimeMillis() - startTime,
 				sql);
+		return rowCount;
 	}
 
 	/**
@@ -187,18 +334,19 @@ public class DatabaseExportService {
 	 *            Actual native sql command to copy data to CSV.
 	 * @param fileName
 	 *            for debugging purposes: Human readable file name similar to selected entry
+	 * @return The number of copied rows.
 	 */
-	private void writeCsv(Writer writer, String sql, String fileName) {
+	private long writeCsv(Writer writer, String sql, String fileName) {
 		/*
 		 * Here happens the PostgreSQL specific magic, which is not covered by JPA and
 		 * therefore solved with org.postgresql implementations.
 		 */
 		Session session = em.unwrap(Session.class);
-		session.doWork(conn -> {
+		return session.doReturningWork(conn -> {
 			PGConnection pgConn = conn.unwrap(PGConnection.class);
 			CopyManager copyManager = pgConn.getCopyAPI();
 			try {
-				copyManager.copyOut(sql, writer);
+				return copyManager.copyOut(sql, writer);
 			} catch (SQLException e) {
 				throw new RuntimeException(String.format("Failed to export '%s' with COPY operation", fileName), e);
 			} catch (IOException e) {
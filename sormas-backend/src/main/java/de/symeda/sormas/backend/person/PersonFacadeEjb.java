@@ -134,6 +134,8 @@ public class PersonFacadeEjb implements PersonFacade {
 	@EJB
 	private PersonService personService;
 	@EJB
+	private PersonMatchingService personMatchingService;
+	@EJB
 	private CaseService caseService;
 	@EJB
 	private CaseFacadeEjbLocal caseFacade;
@@ -180,7 +182,7 @@ public class PersonFacadeEjb implements PersonFacade {
 			return Collections.emptyList();
 		}
 
-		return new ArrayList<>(personService.getMatchingNameDtos(criteria, null));
+		return new ArrayList<>(personMatchingService.getMatchingNameDtos(criteria, null));
 	}
 
 	@Override
@@ -191,7 +193,7 @@ public class PersonFacadeEjb implements PersonFacade {
 			return false;
 		}
 
-		return personService.getMatchingNameDtos(criteria, 1).size() > 0;
+		return personMatchingService.getMatchingNameDtos(criteria, 1).size() > 0;
 	}
 
 	@Override
@@ -241,11 +243,16 @@ public class PersonFacadeEjb implements PersonFacade {
 
 	@Override
 	public List<PersonDto> getPersonsAfter(Date date) {
+		return getPersonsAfter(date, null, null, null);
+	}
+
+	@Override
+	public List<PersonDto> getPersonsAfter(Date date, Integer batchSize, Date lastChangeDate, String lastUuid) {
 		final User user = userService.getCurrentUser();
 		if (user == null) {
 			return Collections.emptyList();
 		}
-		return toPseudonymizedDtos(personService.getAllAfter(date, user));
+		return toPseudonymizedDtos(personService.getAllAfter(date, user, batchSize, lastChangeDate, lastUuid));
 	}
 
 	@Override
@@ -812,6 +819,13 @@ public class PersonFacadeEjb implements PersonFacade {
 
 	public void onPersonChanged(PersonDto existingPerson, Person newPerson) {
 
+		// Update the duplicate blocking keys of all cases, also the ones not returned below
+		if (existingPerson != null
+			&& (!StringUtils.equals(existingPerson.getFirstName(), newPerson.getFirstName())
+				|| !StringUtils.equals(existingPerson.getLastName(), newPerson.getLastName()))) {
+			caseService.updateDuplicateBlockingKeys(newPerson);
+		}
+
 		List<Case> personCases = caseService.findBy(new CaseCriteria().person(new PersonReferenceDto(newPerson.getUuid())), true);
 		// Call onCaseChanged once for every case to update case classification
 		// Attention: this may lead to infinite recursion when not properly implemented
@@ -0,0 +1,165 @@
+package de.symeda.sormas.backend.person;
+
+import static de.symeda.sormas.backend.common.CriteriaBuilderHelper.and;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.annotation.Resource;
+import javax.ejb.EJB;
+import javax.ejb.LocalBean;
+import javax.ejb.Stateless;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.Query;
+import javax.persistence.TypedQuery;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Join;
+import javax.persistence.criteria.JoinType;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import javax.transaction.TransactionSynchronizationRegistry;
+
+import org.apache.commons.collections4.ListUtils;
+import org.apache.commons.lang3.StringUtils;
+
+import de.symeda.sormas.api.person.PersonNameDto;
+import de.symeda.sormas.api.person.PersonSimilarityCriteria;
+import de.symeda.sormas.backend.caze.Case;
+import de.symeda.sormas.backend.caze.CaseService;
+import de.symeda.sormas.backend.common.ConfigFacadeEjb.ConfigFacadeEjbLocal;
+import de.symeda.sormas.backend.common.CriteriaBuilderHelper;
+import de.symeda.sormas.backend.contact.Contact;
+import de.symeda.sormas.backend.contact.ContactService;
+import de.symeda.sormas.backend.event.EventParticipant;
+import de.symeda.sormas.backend.event.EventParticipantService;
+import de.symeda.sormas.backend.util.ModelConstants;
+
+/**
+ * Looks up the persons with a name similar to the one of a person that is about to be created, among the persons the current
+ * user can access through an active case, contact or event participant.
+ */
+@Stateless
+@LocalBean
+public class PersonMatchingService {
+
+	private static final String SIMILARITY_THRESHOLD_SET = PersonMatchingService.class.getName() + ".similarityThresholdSet";
+
+	@PersistenceContext(unitName = ModelConstants.PERSISTENCE_UNIT_NAME)
+	private EntityManager em;
+
+	@EJB
+	private PersonService personService;
+	@EJB
+	private CaseService caseService;
+	@EJB
+	private ContactService contactService;
+	@EJB
+	private EventParticipantService eventParticipantService;
+	@EJB
+	private ConfigFacadeEjbLocal configFacade;
+	@Resource
+	private TransactionSynchronizationRegistry transactionSynchronizationRegistry;
+
+	/**
+	 * If the criteria contain a name, the persons with a similar name are looked up first (by the trigram index on the full name)
+	 * and only these candidates are checked for access through their cases, contacts and event participants.
+	 */
+	public List<PersonNameDto> getMatchingNameDtos(PersonSimilarityCriteria criteria, Integer limit) {
+
+		setSimilarityThresholdQuery();
+
+		if (StringUtils.isBlank(criteria.getFirstName()) || StringUtils.isBlank(criteria.getLastName())) {
+			return getAccessibleNameDtos(criteria, null, limit);
+		}
+
+		CriteriaBuilder cb = em.getCriteriaBuilder();
+		CriteriaQuery<Long> candidateQuery = cb.createQuery(Long.class);
+		Root<Person> candidateRoot = candidateQuery.from(Person.class);
+		candidateQuery.select(candidateRoot.get(Person.ID));
+		candidateQuery.where(personService.buildSimilarityCriteriaFilter(criteria, cb, candidateRoot));
+		List<Long> candidateIds = em.createQuery(candidateQuery).getResultList();
+
+		List<PersonNameDto> persons = new ArrayList<>();
+		for (List<Long> batchedCandidateIds : ListUtils.partition(candidateIds, ModelConstants.PARAMETER_LIMIT)) {
+			persons.addAll(getAccessibleNameDtos(null, batchedCandidateIds, limit != null ? limit - persons.size() : null));
+			if (limit != null && persons.size() >= limit) {
+				break;
+			}
+		}
+		return persons;
+	}
+
+	/**
+	 * Looks up the persons in a single query, which is used directly when the criteria do not contain a name.
+	 *
+	 * @return The persons matching the criteria or with the given ids that are accessible through an active case, contact or
+	 *         event participant.
+	 */
+	public List<PersonNameDto> getAccessibleNameDtos(PersonSimilarityCriteria criteria, List<Long> personIds, Integer limit) {
+
+		CriteriaBuilder cb = em.getCriteriaBuilder();
+		Predicate caseContactEventParticipantLinkPredicate;
+
+		CriteriaQuery<PersonNameDto> personQuery = cb.createQuery(PersonNameDto.class);
+		Root<Person> personRoot = personQuery.from(Person.class);
+		Join<Person, Case> personCaseJoin = personRoot.join(Person.CASES, JoinType.LEFT);
+		Join<Person, Contact> personContactJoin = personRoot.join(Person.CONTACTS, JoinType.LEFT);
+		Join<Person, EventParticipant> personEventParticipantJoin = personRoot.join(Person.EVENT_PARTICIPANTS, JoinType.LEFT);
+
+		personQuery.multiselect(personRoot.get(Person.FIRST_NAME), personRoot.get(Person.LAST_NAME), personRoot.get(Person.UUID));
+
+		Predicate personFilter = personIds != null
+			? personRoot.get(Person.ID).in(personIds)
+			: personService.buildSimilarityCriteriaFilter(criteria, cb, personRoot);
+
+		// Persons of active cases
+		Predicate activeCasesFilter = caseService.createActiveCasesFilter(cb, personCaseJoin);
+		Predicate caseUserFilter = caseService.createUserFilter(cb, personQuery, personCaseJoin);
+		Predicate personCasePredicate = and(cb, personCaseJoin.get(Case.ID).isNotNull(), activeCasesFilter, caseUserFilter);
+
+		// Persons of active contacts
+		Predicate activeContactsFilter = contactService.createActiveContactsFilter(cb, personContactJoin);
+		Predicate contactUserFilter = contactService.createUserFilter(cb, personQuery, personContactJoin);
+		Predicate personContactPredicate = and(cb, personContactJoin.get(Contact.ID).isNotNull(), contactUserFilter, activeContactsFilter);
+
+		// Persons of event participants in active events
+		Predicate activeEventParticipantsFilter =
+			eventParticipantService.createActiveEventParticipantsFilter(cb, personEventParticipantJoin);
+		Predicate eventParticipantUserFilter = eventParticipantService.createUserFilter(cb, personQuery, personEventParticipantJoin);
+		Predicate personEventParticipantPredicate = and(
+			cb,
+			personEventParticipantJoin.get(EventParticipant.ID).isNotNull(),
+			activeEventParticipantsFilter,
+			eventParticipantUserFilter);
+
+		caseContactEventParticipantLinkPredicate =
+			CriteriaBuilderHelper.or(cb, personCasePredicate, personContactPredicate, personEventParticipantPredicate);
+
+		personQuery.where(and(cb, personFilter, caseContactEventParticipantLinkPredicate));
+		personQuery.distinct(true);
+
+		TypedQuery<PersonNameDto> query = em.createQuery(personQuery);
+		if (limit != null) {
+			query.setMaxResults(limit);
+		}
+		return query.getResultList();
+	}
+
+	/**
+	 * Sets the threshold of the trigram similarity operator. The threshold applies to the database session, which stays the same
+	 * for the whole transaction, so it is only set once per transaction.
+	 */
+	private void setSimilarityThresholdQuery() {
+
+		if (transactionSynchronizationRegistry.getResource(SIMILARITY_THRESHOLD_SET) != null) {
+			return;
+		}
+
+		double nameSimilarityThreshold = configFacade.getNameSimilarityThreshold();
+		Query q = em.createNativeQuery("select set_limit(" + nameSimilarityThreshold + ")");
+		q.getSingleResult();
+		transactionSynchronizationRegistry.putResource(SIMILARITY_THRESHOLD_SET, Boolean.TRUE);
+	}
+}
@@ -17,16 +17,20 @@
  *******************************************************************************/
 package de.symeda.sormas.backend.person;
 
+import static de.symeda.sormas.backend.ExtendedPostgreSQL94Dialect.FULL_NAME;
 import static de.symeda.sormas.backend.ExtendedPostgreSQL94Dialect.SIMILARITY_OPERATOR;
 import static de.symeda.sormas.backend.common.CriteriaBuilderHelper.and;
 import static de.symeda.sormas.backend.common.CriteriaBuilderHelper.andEquals;
 import static de.symeda.sormas.backend.common.CriteriaBuilderHelper.andEqualsReferenceDto;
 
 import java.sql.Timestamp;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.Date;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -35,8 +39,6 @@ import javax.ejb.LocalBean;
 import javax.ejb.Stateless;
 import javax.ejb.TransactionAttribute;
 import javax.ejb.TransactionAttributeType;
-import javax.persistence.Query;
-import javax.persistence.TypedQuery;
 import javax.persistence.criteria.CriteriaBuilder;
 import javax.persistence.criteria.CriteriaQuery;
 import javax.persistence.criteria.Expression;
@@ -55,7 +57,6 @@ import de.symeda.sormas.api.Disease;
 import de.symeda.sormas.api.caze.CaseClassification;
 import de.symeda.sormas.api.person.PersonCriteria;
 import de.symeda.sormas.api.person.PersonDto;
-import de.symeda.sormas.api.person.PersonNameDto;
 import de.symeda.sormas.api.person.PersonSimilarityCriteria;
 import de.symeda.sormas.api.region.GeoLatLon;
 import de.symeda.sormas.api.utils.DataHelper;
@@ -64,7 +65,6 @@ import de.symeda.sormas.backend.caze.Case;
 import de.symeda.sormas.backend.caze.CaseService;
 import de.symeda.sormas.backend.common.AbstractDomainObject;
 import de.symeda.sormas.backend.common.AdoServiceWithUserFilter;
-import de.symeda.sormas.backend.common.ConfigFacadeEjb.ConfigFacadeEjbLocal;
 import de.symeda.sormas.backend.common.CriteriaBuilderHelper;
 import de.symeda.sormas.backend.contact.Contact;
 import de.symeda.sormas.backend.contact.ContactJoins;
@@ -72,11 +72,14 @@ import de.symeda.sormas.backend.contact.ContactService;
 import de.symeda.sormas.backend.event.EventParticipant;
 import de.symeda.sormas.backend.event.EventParticipantService;
 import de.symeda.sormas.backend.geocoding.GeocodingService;
+import de.symeda.sormas.backend.geocoding.LocationQuery;
 import de.symeda.sormas.backend.location.Location;
 import de.symeda.sormas.backend.region.Community;
 import de.symeda.sormas.backend.region.District;
 import de.symeda.sormas.backend.region.Region;
 import de.symeda.sormas.backend.user.User;
+import de.symeda.sormas.backend.util.IterableHelper;
+import de.symeda.sormas.backend.util.ModelConstants;
 import de.symeda.sormas.utils.CaseJoins;
 
 @Stateless
@@ -91,8 +94,6 @@ public class PersonService extends AdoServiceWithUserFilter<Person> {
 	private EventParticipantService eventParticipantService;
 	@EJB
 	private GeocodingService geocodingService;
-	@EJB
-	private ConfigFacadeEjbLocal configFacade;
 
 	public PersonService() {
 		super(Person.class);
@@ -255,92 +256,142 @@ public class PersonService extends AdoServiceWithUserFilter<Person> {
 		return filter;
 	}
 
+	/**
+	 * Collects the ids of the persons to synchronize first, so a person is only loaded once even if it is reachable through
+	 * several cases, contacts and event participants. The persons are then loaded in id-ordered batches, with their address.
+	 * With a {@code batchSize}, only the ids of the next batch are loaded, see {@link #getNextBatchPersonIds}.
+	 */
 	@Override
-	public List<Person> getAllAfter(Date date, User user) {
+	public List<Person> getAllAfter(Date date, User user, Integer batchSize, Date lastChangeDate, String lastUuid) {
 
 		CriteriaBuilder cb = em.getCriteriaBuilder();
+		Timestamp changeDate = date != null ? DateHelper.toTimestampUpper(date) : null;
+		Set<Long> personIds = new HashSet<>();
 
 		// persons by LGA
-		CriteriaQuery<Person> personsQuery = cb.createQuery(Person.class);
-		Root<Person> personsRoot = personsQuery.from(Person.class);
-		Join<Person, Location> address = personsRoot.join(Person.ADDRESS);
+		CriteriaQuery<Long> lgaPersonsQuery = cb.createQuery(Long.class);
+		Root<Person> lgaPersonsRoot = lgaPersonsQuery.from(Person.class);
+		Join<Person, Location> address = lgaPersonsRoot.join(Person.ADDRESS);
 		Predicate lgaFilter = cb.equal(address.get(Location.DISTRICT), user.getDistrict());
 		// date range
-		if (date != null) {
-			Predicate dateFilter = createChangeDateFilter(cb, personsRoot, DateHelper.toTimestampUpper(date));
-			lgaFilter = cb.and(lgaFilter, dateFilter);
+		if (changeDate != null) {
+			lgaFilter = cb.and(lgaFilter, createChangeDateFilter(cb, lgaPersonsRoot, changeDate));
 		}
-		personsQuery.where(lgaFilter);
-		List<Person> lgaResultList = em.createQuery(personsQuery).getResultList();
+		lgaPersonsQuery.select(lgaPersonsRoot.get(Person.ID));
+		lgaPersonsQuery.where(lgaFilter);
+		personIds.addAll(em.createQuery(lgaPersonsQuery).getResultList());
 
 		// persons by case
-		CriteriaQuery<Person> casePersonsQuery = cb.createQuery(Person.class);
+		CriteriaQuery<Long> casePersonsQuery = cb.createQuery(Long.class);
 		Root<Case> casePersonsRoot = casePersonsQuery.from(Case.class);
-		Join<Person, Person> casePersonsSelect = casePersonsRoot.join(Case.PERSON);
-		casePersonsSelect.fetch(Person.ADDRESS);
-		casePersonsQuery.select(casePersonsSelect);
+		Join<Case, Person> casePersonsSelect = casePersonsRoot.join(Case.PERSON);
 		Predicate casePersonsFilter = caseService.createUserFilter(cb, casePersonsQuery, casePersonsRoot);
 		// date range
-		if (date != null) {
-			Predicate dateFilter = createChangeDateFilter(cb, casePersonsSelect, DateHelper.toTimestampUpper(date));
+		if (changeDate != null) {
+			Predicate dateFilter = createChangeDateFilter(cb, casePersonsSelect, changeDate);
 			// include case change dates: When a case is relocated it may become available to another user and this will have to include the person as-well
-			Predicate caseDateFilter = caseService.createChangeDateFilter(cb, casePersonsRoot, DateHelper.toTimestampUpper(date));
-			if (casePersonsFilter != null) {
-				casePersonsFilter = cb.and(casePersonsFilter, cb.or(dateFilter, caseDateFilter));
-			} else {
-				casePersonsFilter = cb.or(dateFilter, caseDateFilter);
-			}
+			Predicate caseDateFilter = caseService.createChangeDateFilter(cb, casePersonsRoot, changeDate);
+			casePersonsFilter = and(cb, casePersonsFilter, cb.or(dateFilter, caseDateFilter));
 		}
-		if (casePersonsFilter != null) {
-			casePersonsQuery.where(casePersonsFilter);
-		}
-		casePersonsQuery.distinct(true);
-		List<Person> casePersonsResultList = em.createQuery(casePersonsQuery).getResultList();
+		personIds.addAll(getPersonIds(casePersonsQuery, casePersonsSelect, casePersonsFilter));
 
 		// persons by contact
-		CriteriaQuery<Person> contactPersonsQuery = cb.createQuery(Person.class);
+		CriteriaQuery<Long> contactPersonsQuery = cb.createQuery(Long.class);
 		Root<Contact> contactPersonsRoot = contactPersonsQuery.from(Contact.class);
-		Join<Person, Person> contactPersonsSelect = contactPersonsRoot.join(Contact.PERSON);
-		contactPersonsSelect.fetch(Person.ADDRESS);
-		contactPersonsQuery.select(contactPersonsSelect);
+		Join<Contact, Person> contactPersonsSelect = contactPersonsRoot.join(Contact.PERSON);
 		Predicate contactPersonsFilter = contactService.createUserFilter(cb, contactPersonsQuery, contactPersonsRoot);
 		// date range
-		if (date != null) {
-			Predicate dateFilter = createChangeDateFilter(cb, contactPersonsSelect, DateHelper.toTimestampUpper(date));
+		if (changeDate != null) {
+			Predicate dateFilter = createChangeDateFilter(cb, contactPersonsSelect, changeDate);
 			Predicate contactDateFilter = contactService.createChangeDateFilter(cb, contactPersonsRoot, date);
 			contactPersonsFilter = and(cb, contactPersonsFilter, cb.or(dateFilter, contactDateFilter));
 		}
-		if (contactPersonsFilter != null) {
-			contactPersonsQuery.where(contactPersonsFilter);
-		}
-		contactPersonsQuery.distinct(true);
-		List<Person> contactPersonsResultList = em.createQuery(contactPersonsQuery).getResultList();
+		personIds.addAll(getPersonIds(contactPersonsQuery, contactPersonsSelect, contactPersonsFilter));
 
 		// persons by event participant
-		CriteriaQuery<Person> eventPersonsQuery = cb.createQuery(Person.class);
+		CriteriaQuery<Long> eventPersonsQuery = cb.createQuery(Long.class);
 		Root<EventParticipant> eventPersonsRoot = eventPersonsQuery.from(EventParticipant.class);
-		Join<Person, Person> eventPersonsSelect = eventPersonsRoot.join(EventParticipant.PERSON);
-		eventPersonsSelect.fetch(Person.ADDRESS);
-		eventPersonsQuery.select(eventPersonsSelect);
+		Join<EventParticipant, Person> eventPersonsSelect = eventPersonsRoot.join(EventParticipant.PERSON);
 		Predicate eventPersonsFilter = eventParticipantService.createUserFilter(cb, eventPersonsQuery, eventPersonsRoot);
 		// date range
-		if (date != null) {
-			Predicate dateFilter = createChangeDateFilter(cb, eventPersonsSelect, DateHelper.toTimestampUpper(date));
-			Predicate eventParticipantDateFilter =
-				eventParticipantService.createChangeDateFilter(cb, eventPersonsRoot, DateHelper.toTimestampUpper(date));
+		if (changeDate != null) {
+			Predicate dateFilter = createChangeDateFilter(cb, eventPersonsSelect, changeDate);
+			Predicate eventParticipantDateFilter = eventParticipantService.createChangeDateFilter(cb, eventPersonsRoot, changeDate);
 			eventPersonsFilter = and(cb, eventPersonsFilter, cb.or(dateFilter, eventParticipantDateFilter));
 		}
-		if (eventPersonsFilter != null) {
-			eventPersonsQuery.where(eventPersonsFilter);
+		personIds.addAll(getPersonIds(eventPersonsQuery, eventPersonsSelect, eventPersonsFilter));
+
+		List<Long> sortedPersonIds =
+			batchSize != null ? getNextBatchPersonIds(personIds, batchSize, lastChangeDate, lastUuid) : new ArrayList<>(personIds);
+		Collections.sort(sortedPersonIds);
+		List<Person> persons = new ArrayList<>(sortedPersonIds.size());
+		IterableHelper.executeBatched(sortedPersonIds, ModelConstants.PARAMETER_LIMIT, batchedPersonIds -> {
+			CriteriaQuery<Person> personsQuery = cb.createQuery(Person.class);
+			Root<Person> personsRoot = personsQuery.from(Person.class);
+			personsRoot.fetch(Person.ADDRESS);
+			personsQuery.where(personsRoot.get(Person.ID).in(batchedPersonIds));
+			personsQuery.orderBy(cb.asc(personsRoot.get(Person.ID)));
+			persons.addAll(em.createQuery(personsQuery).getResultList());
+		});
+
+		persons.sort(Comparator.comparing(Person::getChangeDate).thenComparing(Person::getUuid));
+		return persons;
+	}
+
+	/**
+	 * Applies the keyset cursor of {@link #createChangeDateCursorFilter} in memory, because the persons are collected by several
+	 * queries: Only change date and uuid of the persons are loaded to determine the ids of the next {@code batchSize} persons.
+	 */
+	private List<Long> getNextBatchPersonIds(Set<Long> personIds, int batchSize, Date lastChangeDate, String lastUuid) {
+
+		CriteriaBuilder cb = em.getCriteriaBuilder();
+		List<Object[]> keys = new ArrayList<>(personIds.size());
+		IterableHelper.executeBatched(new ArrayList<>(personIds), ModelConstants.PARAMETER_LIMIT, batchedPersonIds -> {
+			CriteriaQuery<Object[]> cq = cb.createQuery(Object[].class);
+			Root<Person> root = cq.from(Person.class);
+			cq.multiselect(root.get(Person.ID), root.get(Person.CHANGE_DATE), root.get(Person.UUID));
+			cq.where(root.get(Person.ID).in(batchedPersonIds));
+			keys.addAll(em.createQuery(cq).getResultList());
+		});
+
+		Comparator<Object[]> keyOrder = Comparator.comparing((Object[] key) -> (Timestamp) key[1]).thenComparing(key -> (String) key[2]);
+		keys.sort(keyOrder);
+
+		Object[] lastKey = lastUuid != null ? keys.stream().filter(key -> lastUuid.equals(key[2])).findFirst().orElse(null) : null;
+		List<Long> batchPersonIds = new ArrayList<>(batchSize);
+		for (Object[] key : keys) {
+			if (batchPersonIds.size() >= batchSize) {
+				break;
+			}
+
+			long changeDate = ((Timestamp) key[1]).getTime();
+			boolean after;
+			if (lastChangeDate == null) {
+				after = true;
+			} else if (lastUuid == null) {
+				after = changeDate > lastChangeDate.getTime();
+			} else if (lastKey != null && ((Timestamp) lastKey[1]).getTime() == lastChangeDate.getTime()) {
+				after = keyOrder.compare(key, lastKey) > 0;
+			} else {
+				// the last person has been changed in the meantime: continue with the whole millisecond
+				after = changeDate >= lastChangeDate.getTime();
+			}
+			if (after) {
+				batchPersonIds.add((Long) key[0]);
+			}
 		}
-		eventPersonsQuery.distinct(true);
-		List<Person> eventPersonsResultList = em.createQuery(eventPersonsQuery).getResultList();
 
-		return Stream.of(lgaResultList, casePersonsResultList, contactPersonsResultList, eventPersonsResultList)
-			.flatMap(List<Person>::stream)
-			.distinct()
-			.sorted(Comparator.comparing(Person::getChangeDate))
-			.collect(Collectors.toList());
+		return batchPersonIds;
+	}
+
+	private List<Long> getPersonIds(CriteriaQuery<Long> cq, Join<?, Person> person, Predicate filter) {
+
+		cq.select(person.get(Person.ID));
+		if (filter != null) {
+			cq.where(filter);
+		}
+		cq.distinct(true);
+		return em.createQuery(cq).getResultList();
 	}
 
 	public List<Long> getInJurisdictionIDs(final List<Person> selectedPersons) {
@@ -397,57 +448,6 @@ public class PersonService extends AdoServiceWithUserFilter<Person> {
 		return cb.or(isCaseInJurisdiction, isContactInJurisdiction, isEventParticipantInJurisdiction);
 	}
 
-	public List<PersonNameDto> getMatchingNameDtos(PersonSimilarityCriteria criteria, Integer limit) {
-
-		setSimilarityThresholdQuery();
-
-		CriteriaBuilder cb = em.getCriteriaBuilder();
-		Predicate caseContactEventParticipantLinkPredicate;
-
-		CriteriaQuery<PersonNameDto> personQuery = cb.createQuery(PersonNameDto.class);
-		Root<Person> personRoot = personQuery.from(Person.class);
-		Join<Person, Case> personCaseJoin = personRoot.join(Person.CASES, JoinType.LEFT);
-		Join<Person, Contact> personContactJoin = personRoot.join(Person.CONTACTS, JoinType.LEFT);
-		Join<Person, EventParticipant> personEventParticipantJoin = personRoot.join(Person.EVENT_PARTICIPANTS, JoinType.LEFT);
-
-		personQuery.multiselect(personRoot.get(Person.FIRST_NAME), personRoot.get(Person.LAST_NAME), personRoot.get(Person.UUID));
-
-		// Persons of active cases
-		Predicate personSimilarityFilter = buildSimilarityCriteriaFilter(criteria, cb, personRoot);
-		Predicate activeCasesFilter = caseService.createActiveCasesFilter(cb, personCaseJoin);
-		Predicate caseUserFilter = caseService.createUserFilter(cb, personQuery, personCaseJoin);
-		Predicate personCasePredicate = and(cb, personCaseJoin.get(Case.ID).isNotNull(), activeCasesFilter, caseUserFilter);
-
-		// Persons of active contacts
-		Predicate activeContactsFilter = contactService.createActiveContactsFilter(cb, personContactJoin);
-		Predicate contactUserFilter = contactService.createUserFilter(cb, personQuery, personContactJoin);
-		Predicate personContactPredicate = and(cb, personContactJoin.get(Contact.ID).isNotNull(), contactUserFilter, activeContactsFilter);
-
-		// Persons of event participants in active events
-		Predicate activeEventParticipantsFilter = eventParticipantService.createActiveEventParticipantsFilter(cb, personEventParticipantJoin);
-		Predicate eventParticipantUserFilter = eventParticipantService.createUserFilter(cb, personQuery, personEventParticipantJoin);
-		Predicate personEventParticipantPredicate =
-			and(cb, personEventParticipantJoin.get(EventParticipant.ID).isNotNull(), activeEventParticipantsFilter, eventParticipantUserFilter);
-
-		caseContactEventParticipantLinkPredicate =
-			CriteriaBuilderHelper.or(cb, personCasePredicate, personContactPredicate, personEventParticipantPredicate);
-
-		personQuery.where(and(cb, personSimilarityFilter, caseContactEventParticipantLinkPredicate));
-		personQuery.distinct(true);
-
-		TypedQuery<PersonNameDto> query = em.createQuery(personQuery);
-		if (limit != null) {
-			query.setMaxResults(limit);
-		}
-		return query.getResultList();
-	}
-
-	public void setSimilarityThresholdQuery() {
-		double nameSimilarityThreshold = configFacade.getNameSimilarityThreshold();
-		Query q = em.createNativeQuery("select set_limit(" + nameSimilarityThreshold + ")");
-		q.getSingleResult();
-	}
-
 	public List<Person> getDeathsBetween(Date fromDate, Date toDate, District district, Disease disease, User user) {
 
 		CriteriaBuilder cb = em.getCriteriaBuilder();
@@ -509,8 +509,9 @@ public class PersonService extends AdoServiceWithUserFilter<Person> {
 		Predicate filter = null;
 
 		if (!StringUtils.isBlank(criteria.getFirstName()) && !StringUtils.isBlank(criteria.getLastName())) {
-			Expression<String> nameExpr = cb.concat(personFrom.get(Person.FIRST_NAME), " ");
-			nameExpr = cb.concat(nameExpr, personFrom.get(Person.LAST_NAME));
+			// rendered like the expression of the trigram index on person, so the index can be used
+			Expression<String> nameExpr =
+				cb.function(FULL_NAME, String.class, personFrom.get(Person.FIRST_NAME), personFrom.get(Person.LAST_NAME));
 
 			String name = criteria.getFirstName() + " " + criteria.getLastName();
 
@@ -578,10 +579,28 @@ public class PersonService extends AdoServiceWithUserFilter<Person> {
 	@TransactionAttribute(TransactionAttributeType.REQUIRES_NEW)
 	public long updateGeoLocation(List<String> personUuids, boolean overwriteExistingCoordinates) {
 
+		List<Person> persons = new ArrayList<>();
+		List<LocationQuery> queries = new ArrayList<>();
+		for (Person person : getByUuids(personUuids)) {
+			if (person.getAddress() != null
+				&& (overwriteExistingCoordinates || (person.getAddress().getLatitude() == null || person.getAddress().getLongitude() == null))) {
+				LocationQuery query = geocodingService.toQuery(person.getAddress());
+				if (query != null) {
+					persons.add(person);
+					queries.add(query);
+				}
+			}
+		}
+
 		long updatedCount = 0;
-		List<Person> persons = getByUuids(personUuids);
-		for (Person person : persons) {
-			if (updateGeoLocation(person, overwriteExistingCoordinates)) {
+		List<GeoLatLon> latLons = geocodingService.getLatLons(queries);
+		for (int i = 0; i < persons.size(); i++) {
+			GeoLatLon latLon = latLons.get(i);
+			if (latLon != null) {
+				Person person = persons.get(i);
+				person.getAddress().setLatitude(latLon.getLat());
+				person.getAddress().setLongitude(latLon.getLon());
+				ensurePersisted(person);
 				updatedCount++;
 			}
 		}
@@ -0,0 +1,85 @@
+/*******************************************************************************
+ * SORMAS® - Surveillance Outbreak Response Management & Analysis System
+ * Copyright © 2016-2021 Helmholtz-Zentrum für Infektionsforschung GmbH (HZI)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ *******************************************************************************/
+package de.symeda.sormas.backend.region;
+
+import java.util.List;
+import java.util.Map;
+
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.geom.MultiPolygon;
+import org.locationtech.jts.geom.Point;
+import org.locationtech.jts.geom.prep.PreparedGeometry;
+import org.locationtech.jts.geom.prep.PreparedGeometryFactory;
+import org.locationtech.jts.index.strtree.STRtree;
+
+import de.symeda.sormas.api.region.GeoLatLon;
+
+/**
+ * Spatial index for the shapes of regions or districts.
+ * The envelopes of all shapes are stored in an STR-tree, so a lookup only tests the few shapes whose envelope contains the
+ * coordinate. These are tested with prepared geometries, which are much faster for repeated point-in-polygon checks.
+ * The index is immutable once built.
+ *
+ * @param <T>
+ *            Either RegionReferenceDto or DistrictReferenceDto.
+ */
+public class GeoShapeIndex<T> {
+
+	private final STRtree tree = new STRtree();
+	private final GeometryFactory geometryFactory = new GeometryFactory();
+
+	public GeoShapeIndex(Map<T, MultiPolygon> multiPolygons) {
+
+		for (Map.Entry<T, MultiPolygon> multiPolygon : multiPolygons.entrySet()) {
+			tree.insert(
+				multiPolygon.getValue().getEnvelopeInternal(),
+				new IndexedShape<>(multiPolygon.getKey(), PreparedGeometryFactory.prepare(multiPolygon.getValue())));
+		}
+		tree.build();
+	}
+
+	/**
+	 * @return The infrastructure whose shape contains the coordinate or {@code null}, if there is none.
+	 */
+	@SuppressWarnings("unchecked")
+	public T getByCoord(GeoLatLon latLon) {
+
+		Coordinate coordinate = new Coordinate(latLon.getLon(), latLon.getLat());
+		Point point = geometryFactory.createPoint(coordinate);
+
+		for (IndexedShape<T> candidate : (List<IndexedShape<T>>) tree.query(new Envelope(coordinate))) {
+			if (candidate.geometry.contains(point)) {
+				return candidate.infrastructure;
+			}
+		}
+		return null;
+	}
+
+	private static final class IndexedShape<T> {
+
+		private final T infrastructure;
+		private final PreparedGeometry geometry;
+
+		private IndexedShape(T infrastructure, PreparedGeometry geometry) {
+			this.infrastructure = infrastructure;
+			this.geometry = geometry;
+		}
+	}
+}
@@ -21,7 +21,6 @@ import java.net.URL;
 import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.util.*;
-import java.util.Map.Entry;
 
 import javax.annotation.PostConstruct;
 import javax.ejb.EJB;
@@ -67,11 +66,13 @@ public class GeoShapeProviderEjb implements GeoShapeProvider {
 
 	private Map<RegionReferenceDto, MultiPolygon> regionMultiPolygons = new HashMap<>();
 	private Map<RegionReferenceDto, GeoLatLon[][]> regionShapes = new HashMap<>();
+	private GeoShapeIndex<RegionReferenceDto> regionIndex = new GeoShapeIndex<>(Collections.emptyMap());
 
 	private GeoLatLon regionsCenter;
 
 	private Map<DistrictReferenceDto, MultiPolygon> districtMultiPolygons = new HashMap<>();
 	private Map<DistrictReferenceDto, GeoLatLon[][]> districtShapes = new HashMap<>();
+	private GeoShapeIndex<DistrictReferenceDto> districtIndex = new GeoShapeIndex<>(Collections.emptyMap());
 
 	private GeoLatLon[][] countryShape;
 
@@ -87,15 +88,7 @@ public class GeoShapeProviderEjb implements GeoShapeProvider {
 
 	@Override
 	public RegionReferenceDto getRegionByCoord(GeoLatLon latLon) {
-
-		for (Entry<RegionReferenceDto, MultiPolygon> regionMultiPolygon : regionMultiPolygons.entrySet()) {
-			if (regionMultiPolygon.getValue()
-				.contains(
-					GeometryFactory.createPointFromInternalCoord(new Coordinate(latLon.getLon(), latLon.getLat()), regionMultiPolygon.getValue()))) {
-				return regionMultiPolygon.getKey();
-			}
-		}
-		return null;
+		return regionIndex.getByCoord(latLon);
 	}
 
 	@Override
@@ -143,16 +136,17 @@ public class GeoShapeProviderEjb implements GeoShapeProvider {
 
 	@Override
 	public DistrictReferenceDto getDistrictByCoord(GeoLatLon latLon) {
+		return districtIndex.getByCoord(latLon);
+	}
 
-		for (Entry<DistrictReferenceDto, MultiPolygon> districtMultiPolygon : districtMultiPolygons.entrySet()) {
-			if (districtMultiPolygon.getValue()
-				.contains(
-					GeometryFactory
-						.createPointFromInternalCoord(new Coordinate(latLon.getLon(), latLon.getLat()), districtMultiPolygon.getValue()))) {
-				return districtMultiPolygon.getKey();
-			}
+	@Override
+	public List<DistrictReferenceDto> getDistrictsByCoords(List<GeoLatLon> latLons) {
+
+		List<DistrictReferenceDto> districts = new ArrayList<>(latLons.size());
+		for (GeoLatLon latLon : latLons) {
+			districts.add(latLon != null ? districtIndex.getByCoord(latLon) : null);
 		}
-		return null;
+		return districts;
 	}
 
 	@Override
@@ -175,6 +169,8 @@ public class GeoShapeProviderEjb implements GeoShapeProvider {
 			loadRegionData(countryName);
 			loadDistrictData(countryName);
 		}
+		regionIndex = new GeoShapeIndex<>(regionMultiPolygons);
+		districtIndex = new GeoShapeIndex<>(districtMultiPolygons);
 		buildCountryShape();
 	}
 
@@ -17,8 +17,11 @@
  *******************************************************************************/
 package de.symeda.sormas.backend.sample;
 
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import javax.ejb.EJB;
 import javax.ejb.LocalBean;
@@ -144,6 +147,28 @@ public class PathogenTestService extends AbstractCoreAdoService<PathogenTest> {
 		return em.createQuery(cq).getResultList();
 	}
 
+	/**
+	 * @return The pathogen tests of the cases by case uuid, the latest test first like {@link #getAllByCase(Case)}.
+	 */
+	public Map<String, List<PathogenTest>> getAllByCaseUuids(List<String> caseUuids) {
+
+		CriteriaBuilder cb = em.getCriteriaBuilder();
+		CriteriaQuery<Object[]> cq = cb.createQuery(Object[].class);
+		Root<PathogenTest> from = cq.from(getElementClass());
+		Join<PathogenTest, Sample> sampleJoin = from.join(PathogenTest.SAMPLE);
+		Join<Sample, Case> caseJoin = sampleJoin.join(Sample.ASSOCIATED_CASE);
+
+		cq.multiselect(caseJoin.get(Case.UUID), from);
+		cq.where(createDefaultFilter(cb, from), caseJoin.get(Case.UUID).in(caseUuids));
+		cq.orderBy(cb.desc(from.get(PathogenTest.TEST_DATE_TIME)));
+
+		Map<String, List<PathogenTest>> pathogenTests = new HashMap<>();
+		for (Object[] result : em.createQuery(cq).getResultList()) {
+			pathogenTests.computeIfAbsent((String) result[0], k -> new ArrayList<>()).add((PathogenTest) result[1]);
+		}
+		return pathogenTests;
+	}
+
 	public List<PathogenTest> getBySampleUuids(List<String> sampleUuids) {
 
 		CriteriaBuilder cb = em.getCriteriaBuilder();
@@ -194,6 +194,11 @@ public class SampleFacadeEjb implements SampleFacade {
 
 	@Override
 	public List<SampleDto> getAllActiveSamplesAfter(Date date) {
+		return getAllActiveSamplesAfter(date, null, null, null);
+	}
+
+	@Override
+	public List<SampleDto> getAllActiveSamplesAfter(Date date, Integer batchSize, Date lastChangeDate, String lastUuid) {
 
 		User user = userService.getCurrentUser();
 		if (user == null) {
@@ -201,7 +206,10 @@ public class SampleFacadeEjb implements SampleFacade {
 		}
 
 		Pseudonymizer pseudonymizer = Pseudonymizer.getDefault(userService::hasRight);
-		return sampleService.getAllActiveSamplesAfter(date, user).stream().map(e -> convertToDto(e, pseudonymizer)).collect(Collectors.toList());
+		return sampleService.getAllActiveSamplesAfter(date, user, batchSize, lastChangeDate, lastUuid)
+			.stream()
+			.map(e -> convertToDto(e, pseudonymizer))
+			.collect(Collectors.toList());
 	}
 
 	@Override
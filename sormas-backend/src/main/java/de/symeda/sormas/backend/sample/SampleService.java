@@ -28,6 +28,7 @@ import java.util.stream.Collectors;
 import javax.ejb.EJB;
 import javax.ejb.LocalBean;
 import javax.ejb.Stateless;
+import javax.persistence.EntityExistsException;
 import javax.persistence.NoResultException;
 import javax.persistence.Query;
 import javax.persistence.criteria.CriteriaBuilder;
@@ -50,6 +51,7 @@ import de.symeda.sormas.api.user.JurisdictionLevel;
 import de.symeda.sormas.api.utils.DataHelper;
 import de.symeda.sormas.backend.caze.Case;
 import de.symeda.sormas.backend.caze.CaseService;
+import de.symeda.sormas.backend.caze.access.CaseAccessService;
 import de.symeda.sormas.backend.common.AbstractCoreAdoService;
 import de.symeda.sormas.backend.common.AbstractDomainObject;
 import de.symeda.sormas.backend.common.CoreAdo;
@@ -81,11 +83,20 @@ public class SampleService extends AbstractCoreAdoService<Sample> {
 	private PathogenTestService pathogenTestService;
 	@EJB
 	private AdditionalTestService additionalTestService;
+	@EJB
+	private CaseAccessService caseAccessService;
 
 	public SampleService() {
 		super(Sample.class);
 	}
 
+	@Override
+	public void ensurePersisted(Sample sample) throws EntityExistsException {
+
+		super.ensurePersisted(sample);
+		caseAccessService.updateSampleAccess(sample);
+	}
+
 	public List<Sample> findBy(SampleCriteria criteria, User user, String sortProperty, boolean ascending) {
 
 		CriteriaBuilder cb = em.getCriteriaBuilder();
@@ -116,6 +127,10 @@ public class SampleService extends AbstractCoreAdoService<Sample> {
 	}
 
 	public List<Sample> getAllActiveSamplesAfter(Date date, User user) {
+		return getAllActiveSamplesAfter(date, user, null, null, null);
+	}
+
+	public List<Sample> getAllActiveSamplesAfter(Date date, User user, Integer batchSize, Date lastChangeDate, String lastUuid) {
 
 		CriteriaBuilder cb = em.getCriteriaBuilder();
 		CriteriaQuery<Sample> cq = cb.createQuery(getElementClass());
@@ -133,11 +148,14 @@ public class SampleService extends AbstractCoreAdoService<Sample> {
 			filter = CriteriaBuilderHelper.and(cb, filter, dateFilter);
 		}
 
+		if (lastChangeDate != null) {
+			filter = CriteriaBuilderHelper.and(cb, filter, createChangeDateCursorFilter(cb, from, lastChangeDate, lastUuid));
+		}
+
 		cq.where(filter);
-		cq.orderBy(cb.desc(from.get(Sample.CHANGE_DATE)));
 		cq.distinct(true);
 
-		return em.createQuery(cq).getResultList();
+		return getChangedResultList(cb, cq, from, batchSize);
 	}
 
 	public List<String> getAllActiveUuids(User user) {
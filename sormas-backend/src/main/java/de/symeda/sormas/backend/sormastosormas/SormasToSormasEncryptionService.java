@@ -14,15 +14,14 @@
  */
 package de.symeda.sormas.backend.sormastosormas;
 
-import java.io.FileInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.security.KeyStore;
-import java.security.KeyStoreException;
-import java.security.NoSuchAlgorithmException;
 import java.security.PrivateKey;
-import java.security.cert.CertificateException;
 import java.security.cert.X509Certificate;
 
 import javax.ejb.EJB;
@@ -52,23 +51,22 @@ public class SormasToSormasEncryptionService {
 	protected SormasToSormasConfig sormasToSormasConfig;
 	@EJB
 	protected ServerAccessDataService serverAccessDataService;
+	@EJB
+	private SormasToSormasKeyStoreCache keyStoreCache;
 
 	public byte[] encrypt(byte[] data, String instanceID) throws SormasToSormasException {
 		try {
 			String filePath = sormasToSormasConfig.getPath();
-			String keystoreName = sormasToSormasConfig.getKeystoreName();
-			Path keystorePath = Paths.get(filePath, keystoreName);
+			Path keystorePath = Paths.get(filePath, sormasToSormasConfig.getKeystoreName());
 			String keystorePass = sormasToSormasConfig.getKeystorePass();
 
-			KeyStore keystore = getKeyStore(keystorePath, keystorePass);
 			String organizationId = getOrganizationId();
-
-			X509Certificate signerCertificate = (X509Certificate) keystore.getCertificate(organizationId);
-			PrivateKey privateKey = (PrivateKey) keystore.getKey(organizationId, keystorePass.toCharArray());
+			X509Certificate signerCertificate = keyStoreCache.getCertificate(keystorePath, keystorePass, organizationId);
+			PrivateKey privateKey = keyStoreCache.getPrivateKey(keystorePath, keystorePass, organizationId);
 
 			Path truststorePath = Paths.get(filePath, sormasToSormasConfig.getTruststoreName());
-			KeyStore truststore = getKeyStore(truststorePath, sormasToSormasConfig.getTruststorePass());
-			X509Certificate recipientCertificate = (X509Certificate) truststore.getCertificate(instanceID);
+			X509Certificate recipientCertificate =
+				keyStoreCache.getCertificate(truststorePath, sormasToSormasConfig.getTruststorePass(), instanceID);
 
 			return CmsCreator.signAndEncrypt(data, signerCertificate, privateKey, recipientCertificate, true);
 		} catch (Exception e) {
@@ -77,34 +75,81 @@ public class SormasToSormasEncryptionService {
 		}
 	}
 
-	public byte[] decrypt(byte[] data, String instanceID) throws SormasToSormasException {
+	/**
+	 * Signs and encrypts the payload while it is written, so it does not have to be serialized to a byte array first.
+	 */
+	public byte[] encrypt(PayloadWriter payload, String instanceID) throws SormasToSormasException {
 		try {
 			String filePath = sormasToSormasConfig.getPath();
-
 			Path keystorePath = Paths.get(filePath, sormasToSormasConfig.getKeystoreName());
 			String keystorePass = sormasToSormasConfig.getKeystorePass();
-			KeyStore keystore = getKeyStore(keystorePath, keystorePass);
 
 			String organizationId = getOrganizationId();
-			X509Certificate recipientCertificate = (X509Certificate) keystore.getCertificate(organizationId);
-			PrivateKey recipientPrivateKey = (PrivateKey) keystore.getKey(organizationId, keystorePass.toCharArray());
+			X509Certificate signerCertificate = keyStoreCache.getCertificate(keystorePath, keystorePass, organizationId);
+			PrivateKey privateKey = keyStoreCache.getPrivateKey(keystorePath, keystorePass, organizationId);
 
 			Path truststorePath = Paths.get(filePath, sormasToSormasConfig.getTruststoreName());
-			KeyStore truststore = getKeyStore(truststorePath, sormasToSormasConfig.getTruststorePass());
-			X509Certificate singatureCert = (X509Certificate) truststore.getCertificate(instanceID);
+			X509Certificate recipientCertificate =
+				keyStoreCache.getCertificate(truststorePath, sormasToSormasConfig.getTruststorePass(), instanceID);
+
+			ByteArrayOutputStream encrypted = new ByteArrayOutputStream();
+			try (OutputStream plain = CmsCreator.signAndEncrypt(encrypted, signerCertificate, privateKey, recipientCertificate)) {
+				payload.write(plain);
+			}
+			return encrypted.toByteArray();
+		} catch (Exception e) {
+			LOGGER.error("Couldn't encrypt data", e);
+			throw new SormasToSormasException(I18nProperties.getString(Strings.errorSormasToSormasEncrypt));
+		}
+	}
 
-			return CmsReader.decryptAndVerify(data, Lists.newArrayList(singatureCert), recipientCertificate, recipientPrivateKey);
+	/**
+	 * Decrypts the payload while it is read, so the plain payload does not have to be held as a byte array. The result is
+	 * only returned after the signature has been verified.
+	 */
+	public <T> T decrypt(byte[] data, String instanceID, PayloadReader<T> payload) throws SormasToSormasException {
+		try {
+			String filePath = sormasToSormasConfig.getPath();
+			Path keystorePath = Paths.get(filePath, sormasToSormasConfig.getKeystoreName());
+			String keystorePass = sormasToSormasConfig.getKeystorePass();
+
+			String organizationId = getOrganizationId();
+			X509Certificate recipientCertificate = keyStoreCache.getCertificate(keystorePath, keystorePass, organizationId);
+			PrivateKey recipientPrivateKey = keyStoreCache.getPrivateKey(keystorePath, keystorePass, organizationId);
+
+			Path truststorePath = Paths.get(filePath, sormasToSormasConfig.getTruststoreName());
+			X509Certificate singatureCert = keyStoreCache.getCertificate(truststorePath, sormasToSormasConfig.getTruststorePass(), instanceID);
+
+			T result;
+			try (InputStream plain = CmsReader
+				.decryptAndVerify(new ByteArrayInputStream(data), Lists.newArrayList(singatureCert), recipientCertificate, recipientPrivateKey)) {
+				result = payload.read(plain);
+			}
+			return result;
 		} catch (Exception e) {
 			LOGGER.error("Couldn't decrypt data", e);
 			throw new SormasToSormasException(I18nProperties.getString(Strings.errorSormasToSormasDecrypt));
 		}
 	}
 
-	private KeyStore getKeyStore(Path keystorePath, String keystorePass)
-		throws KeyStoreException, IOException, NoSuchAlgorithmException, CertificateException {
-		KeyStore keystore = KeyStore.getInstance("pkcs12");
-		keystore.load(new FileInputStream(keystorePath.toFile()), keystorePass.toCharArray());
-		return keystore;
+	public byte[] decrypt(byte[] data, String instanceID) throws SormasToSormasException {
+		try {
+			String filePath = sormasToSormasConfig.getPath();
+			Path keystorePath = Paths.get(filePath, sormasToSormasConfig.getKeystoreName());
+			String keystorePass = sormasToSormasConfig.getKeystorePass();
+
+			String organizationId = getOrganizationId();
+			X509Certificate recipientCertificate = keyStoreCache.getCertificate(keystorePath, keystorePass, organizationId);
+			PrivateKey recipientPrivateKey = keyStoreCache.getPrivateKey(keystorePath, keystorePass, organizationId);
+
+			Path truststorePath = Paths.get(filePath, sormasToSormasConfig.getTruststoreName());
+			X509Certificate singatureCert = keyStoreCache.getCertificate(truststorePath, sormasToSormasConfig.getTruststorePass(), instanceID);
+
+			return CmsReader.decryptAndVerify(data, Lists.newArrayList(singatureCert), recipientCertificate, recipientPrivateKey);
+		} catch (Exception e) {
+			LOGGER.error("Couldn't decrypt data", e);
+			throw new SormasToSormasException(I18nProperties.getString(Strings.errorSormasToSormasDecrypt));
+		}
 	}
 
 	private String getOrganizationId() throws SormasToSormasException {
@@ -112,4 +157,14 @@ public class SormasToSormasEncryptionService {
 			.orElseThrow(() -> new SormasToSormasException(I18nProperties.getString(Strings.errorSormasToSormasCertNotGenerated)))
 			.getId();
 	}
+
+	public interface PayloadWriter {
+
+		void write(OutputStream out) throws IOException;
+	}
+
+	public interface PayloadReader<T> {
+
+		T read(InputStream in) throws IOException;
+	}
 }
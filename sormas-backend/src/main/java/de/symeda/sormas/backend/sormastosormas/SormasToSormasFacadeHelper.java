@@ -77,7 +77,7 @@ public class SormasToSormasFacadeHelper {
 
 		Response response;
 		try {
-			byte[] encryptedEntities = encryptionService.encrypt(objectMapper.writeValueAsBytes(entities), targetServerAccessData.getId());
+			byte[] encryptedEntities = encryptionService.encrypt(out -> objectMapper.writeValue(out, entities), targetServerAccessData.getId());
 			response = restCall.call(
 				targetServerAccessData.getHostName(),
 				"Basic " + new String(Base64.getEncoder().encode(userCredentials.getBytes(StandardCharsets.UTF_8)), StandardCharsets.UTF_8),
@@ -122,14 +122,7 @@ public class SormasToSormasFacadeHelper {
 	}
 
 	public <T> T[] decryptSharedData(SormasToSormasEncryptedDataDto encryptedData, Class<T[]> dataType) throws SormasToSormasException {
-		try {
-			byte[] decryptedData = encryptionService.decrypt(encryptedData.getData(), encryptedData.getOrganizationId());
-
-			return objectMapper.readValue(decryptedData, dataType);
-		} catch (IOException e) {
-			LOGGER.error("Can't parse shared data", e);
-			throw new SormasToSormasException(I18nProperties.getString(Strings.errorSormasToSormasDecrypt));
-		}
+		return encryptionService.decrypt(encryptedData.getData(), encryptedData.getOrganizationId(), in -> objectMapper.readValue(in, dataType));
 	}
 
 	public Optional<OrganizationServerAccessData> getOrganizationServerAccessData(String id) {
@@ -0,0 +1,106 @@
+/*
+ * SORMAS® - Surveillance Outbreak Response Management & Analysis System
+ * Copyright © 2016-2021 Helmholtz-Zentrum für Infektionsforschung GmbH (HZI)
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package de.symeda.sormas.backend.sormastosormas;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.GeneralSecurityException;
+import java.security.KeyStore;
+import java.security.PrivateKey;
+import java.security.cert.X509Certificate;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.ejb.ConcurrencyManagement;
+import javax.ejb.ConcurrencyManagementType;
+import javax.ejb.LocalBean;
+import javax.ejb.Singleton;
+
+/**
+ * Holds the key- and truststores of SORMAS to SORMAS, so they are not read and their keys are not decrypted again for every
+ * share. A store is reloaded as soon as its file has been modified, e.g. because the certificates have been renewed.
+ */
+@Singleton
+@LocalBean
+@ConcurrencyManagement(ConcurrencyManagementType.BEAN)
+public class SormasToSormasKeyStoreCache {
+
+	private final Map<Path, CachedKeyStore> keyStores = new ConcurrentHashMap<>();
+
+	public X509Certificate getCertificate(Path keyStorePath, String password, String alias) throws GeneralSecurityException, IOException {
+		return getKeyStore(keyStorePath, password).getCertificate(alias);
+	}
+
+	public PrivateKey getPrivateKey(Path keyStorePath, String password, String alias) throws GeneralSecurityException, IOException {
+		return getKeyStore(keyStorePath, password).getPrivateKey(alias);
+	}
+
+	private CachedKeyStore getKeyStore(Path keyStorePath, String password) throws GeneralSecurityException, IOException {
+
+		long lastModified = Files.getLastModifiedTime(keyStorePath).toMillis();
+		CachedKeyStore cached = keyStores.get(keyStorePath);
+		if (cached == null || cached.lastModified != lastModified || !cached.password.equals(password)) {
+			KeyStore keyStore = KeyStore.getInstance("pkcs12");
+			try (InputStream inputStream = Files.newInputStream(keyStorePath)) {
+				keyStore.load(inputStream, password.toCharArray());
+			}
+			cached = new CachedKeyStore(keyStore, lastModified, password);
+			keyStores.put(keyStorePath, cached);
+		}
+		return cached;
+	}
+
+	private static final class CachedKeyStore {
+
+		private final KeyStore keyStore;
+		private final long lastModified;
+		private final String password;
+		private final Map<String, X509Certificate> certificates = new HashMap<>();
+		private final Map<String, PrivateKey> privateKeys = new HashMap<>();
+
+		private CachedKeyStore(KeyStore keyStore, long lastModified, String password) {
+			this.keyStore = keyStore;
+			this.lastModified = lastModified;
+			this.password = password;
+		}
+
+		private synchronized X509Certificate getCertificate(String alias) throws GeneralSecurityException {
+
+			X509Certificate certificate = certificates.get(alias);
+			if (certificate == null) {
+				certificate = (X509Certificate) keyStore.getCertificate(alias);
+				if (certificate != null) {
+					certificates.put(alias, certificate);
+				}
+			}
+			return certificate;
+		}
+
+		private synchronized PrivateKey getPrivateKey(String alias) throws GeneralSecurityException {
+
+			PrivateKey privateKey = privateKeys.get(alias);
+			if (privateKey == null) {
+				privateKey = (PrivateKey) keyStore.getKey(alias, password.toCharArray());
+				if (privateKey != null) {
+					privateKeys.put(alias, privateKey);
+				}
+			}
+			return privateKey;
+		}
+	}
+}
@@ -49,7 +49,9 @@ public class SystemEventFacadeEjb implements SystemEventFacade {
 		CriteriaQuery<SystemEvent> cq = cb.createQuery(SystemEvent.class);
 		Root<SystemEvent> systemEventRoot = cq.from(SystemEvent.class);
 
-		cq.where(cb.equal(systemEventRoot.get(SystemEvent.STATUS), SystemEventStatus.SUCCESS));
+		cq.where(
+			cb.equal(systemEventRoot.get(SystemEvent.TYPE), type),
+			cb.equal(systemEventRoot.get(SystemEvent.STATUS), SystemEventStatus.SUCCESS));
 		cq.orderBy(cb.desc(systemEventRoot.get(SystemEvent.START_DATE)));
 
 		try {
@@ -22,6 +22,7 @@ import java.util.Calendar;
 import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
@@ -54,6 +55,7 @@ import de.symeda.sormas.api.event.EventJurisdictionDto;
 import de.symeda.sormas.api.event.EventReferenceDto;
 import de.symeda.sormas.api.i18n.Captions;
 import de.symeda.sormas.api.i18n.I18nProperties;
+import de.symeda.sormas.api.i18n.Strings;
 import de.symeda.sormas.api.i18n.Validations;
 import de.symeda.sormas.api.messaging.MessageType;
 import de.symeda.sormas.api.task.TaskContext;
@@ -74,7 +76,6 @@ import de.symeda.sormas.backend.caze.CaseFacadeEjb;
 import de.symeda.sormas.backend.caze.CaseFacadeEjb.CaseFacadeEjbLocal;
 import de.symeda.sormas.backend.caze.CaseJurisdictionChecker;
 import de.symeda.sormas.backend.caze.CaseService;
-import de.symeda.sormas.backend.common.AbstractDomainObject;
 import de.symeda.sormas.backend.common.CriteriaBuilderHelper;
 import de.symeda.sormas.backend.common.CronService;
 import de.symeda.sormas.backend.common.messaging.MessageSubject;
@@ -106,6 +107,8 @@ import de.symeda.sormas.backend.util.Pseudonymizer;
 @Stateless(name = "TaskFacade")
 public class TaskFacadeEjb implements TaskFacade {
 
+	static final int SMS_DIGEST_MAX_TASKS = 3;
+
 	private final Logger logger = LoggerFactory.getLogger(getClass());
 
 	@PersistenceContext(unitName = ModelConstants.PERSISTENCE_UNIT_NAME)
@@ -322,6 +325,11 @@ public class TaskFacadeEjb implements TaskFacade {
 
 	@Override
 	public List<TaskDto> getAllActiveTasksAfter(Date date) {
+		return getAllActiveTasksAfter(date, null, null, null);
+	}
+
+	@Override
+	public List<TaskDto> getAllActiveTasksAfter(Date date, Integer batchSize, Date lastChangeDate, String lastUuid) {
 
 		User user = userService.getCurrentUser();
 		if (user == null) {
@@ -329,7 +337,10 @@ public class TaskFacadeEjb implements TaskFacade {
 		}
 
 		Pseudonymizer pseudonymizer = Pseudonymizer.getDefault(userService::hasRight);
-		return taskService.getAllActiveTasksAfter(date, user).stream().map(c -> toDto(c, pseudonymizer)).collect(Collectors.toList());
+		return taskService.getAllActiveTasksAfter(date, user, batchSize, lastChangeDate, lastUuid)
+			.stream()
+			.map(c -> toDto(c, pseudonymizer))
+			.collect(Collectors.toList());
 	}
 
 	@Override
@@ -679,67 +690,65 @@ public class TaskFacadeEjb implements TaskFacade {
 		calendar.add(Calendar.MINUTE, CronService.TASK_UPDATE_INTERVAL * -1);
 		Date before = calendar.getTime();
 
-		List<Task> startingTasks = taskService.findBy(new TaskCriteria().taskStatus(TaskStatus.PENDING).startDateBetween(before, now), true);
-		for (Task task : startingTasks) {
+		long startTime = System.currentTimeMillis();
+		int startingTaskCount = sendTaskMessages(
+			taskService.getPendingTaskNotifications(Task.SUGGESTED_START, before, now),
+			MessageSubject.TASK_START,
+			MessagingService.CONTENT_TASK_START_GENERAL,
+			MessagingService.CONTENT_TASK_START_SPECIFIC);
+		int dueTaskCount = sendTaskMessages(
+			taskService.getPendingTaskNotifications(Task.DUE_DATE, before, now),
+			MessageSubject.TASK_DUE,
+			MessagingService.CONTENT_TASK_DUE_GENERAL,
+			MessagingService.CONTENT_TASK_DUE_SPECIFIC);
+
+		logger.info(
+			"sendNewAndDueTaskMessages(): Notified about {} starting and {} due tasks in {} ms",
+			startingTaskCount,
+			dueTaskCount,
+			System.currentTimeMillis() - startTime);
+	}
+
+	/**
+	 * Sends one message per assignee that lists all of the assignee's tasks, instead of one message per task.
+	 * 
+	 * @return The number of tasks the assignees were notified about.
+	 */
+	private int sendTaskMessages(List<TaskNotification> tasks, MessageSubject subject, String generalContentKey, String specificContentKey) {
+
+		Map<String, List<String>> contentsByAssignee = new LinkedHashMap<>();
+		for (TaskNotification task : tasks) {
 			TaskContext context = task.getTaskContext();
-			AbstractDomainObject associatedEntity = context == TaskContext.CASE
-				? task.getCaze()
-				: context == TaskContext.CONTACT ? task.getContact() : context == TaskContext.EVENT ? task.getEvent() : null;
-			if (task.getAssigneeUser() != null) {
-				try {
-					String content = context == TaskContext.GENERAL
-						? String.format(I18nProperties.getString(MessagingService.CONTENT_TASK_START_GENERAL), task.getTaskType().toString())
-						: String.format(
-							I18nProperties.getString(MessagingService.CONTENT_TASK_START_SPECIFIC),
-							task.getTaskType().toString(),
-							context.toString() + " " + DataHelper.getShortUuid(associatedEntity.getUuid()));
-
-					messagingService.sendMessage(
-						userService.getByUuid(task.getAssigneeUser().getUuid()),
-						MessageSubject.TASK_START,
-						content,
-						MessageType.EMAIL,
-						MessageType.SMS);
-				} catch (NotificationDeliveryFailedException e) {
-					logger.error(
-						String.format(
-							"EmailDeliveryFailedException when trying to notify a user about a starting task. " + "Failed to send "
-								+ e.getMessageType() + " to user with UUID %s.",
-							task.getAssigneeUser().getUuid()));
-				}
-			}
+			String content = context == TaskContext.GENERAL
+				? String.format(I18nProperties.getString(generalContentKey), task.getTaskType().toString())
+				: String.format(
+					I18nProperties.getString(specificContentKey),
+					task.getTaskType().toString(),
+					context.toString() + (task.getAssociatedEntityUuid() != null ? (" " + DataHelper.getShortUuid(task.getAssociatedEntityUuid())) : ""));
+			contentsByAssignee.computeIfAbsent(task.getAssigneeUuid(), a -> new ArrayList<>()).add(content);
 		}
 
-		List<Task> dueTasks = taskService.findBy(new TaskCriteria().taskStatus(TaskStatus.PENDING).dueDateBetween(before, now), true);
-		for (Task task : dueTasks) {
-			TaskContext context = task.getTaskContext();
-			AbstractDomainObject associatedEntity = context == TaskContext.CASE
-				? task.getCaze()
-				: context == TaskContext.CONTACT ? task.getContact() : context == TaskContext.EVENT ? task.getEvent() : null;
-			if (task.getAssigneeUser() != null) {
-				try {
-					String content = context == TaskContext.GENERAL
-						? String.format(I18nProperties.getString(MessagingService.CONTENT_TASK_DUE_GENERAL), task.getTaskType().toString())
-						: String.format(
-							I18nProperties.getString(MessagingService.CONTENT_TASK_DUE_SPECIFIC),
-							task.getTaskType().toString(),
-							context.toString() + (associatedEntity != null ? (" " + DataHelper.getShortUuid(associatedEntity.getUuid())) : ""));
-
-					messagingService.sendMessage(
-						userService.getByUuid(task.getAssigneeUser().getUuid()),
-						MessageSubject.TASK_DUE,
-						content,
-						MessageType.EMAIL,
-						MessageType.SMS);
-				} catch (NotificationDeliveryFailedException e) {
-					logger.error(
-						String.format(
-							"EmailDeliveryFailedException when trying to notify a user about a due task. " + "Failed to send " + e.getMessageType()
-								+ " to user with UUID %s.",
-							task.getAssigneeUser().getUuid()));
-				}
+		IterableHelper.executeBatched(new ArrayList<>(contentsByAssignee.keySet()), ModelConstants.PARAMETER_LIMIT, assigneeUuids -> {
+			for (User assignee : userService.getByUuids(assigneeUuids)) {
+				List<String> contents = contentsByAssignee.get(assignee.getUuid());
+				messagingService.queueMessage(assignee, subject, String.join("\n", contents), MessageType.EMAIL);
+				messagingService.queueMessage(assignee, subject, buildSmsDigest(contents), MessageType.SMS);
 			}
+		});
+		return tasks.size();
+	}
+
+	/**
+	 * Lists the first {@link #SMS_DIGEST_MAX_TASKS} tasks and only counts the remaining ones to keep the SMS short.
+	 */
+	static String buildSmsDigest(List<String> contents) {
+
+		if (contents.size() <= SMS_DIGEST_MAX_TASKS) {
+			return String.join("\n", contents);
 		}
+
+		return String.join("\n", contents.subList(0, SMS_DIGEST_MAX_TASKS)) + "\n"
+			+ String.format(I18nProperties.getString(Strings.notificationTaskDigestMore), contents.size() - SMS_DIGEST_MAX_TASKS);
 	}
 
 	private void validate(TaskDto task) throws ValidationRuntimeException {
@@ -0,0 +1,61 @@
+/*
+ * SORMAS® - Surveillance Outbreak Response Management & Analysis System
+ * Copyright © 2016-2021 Helmholtz-Zentrum für Infektionsforschung GmbH (HZI)
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package de.symeda.sormas.backend.task;
+
+import de.symeda.sormas.api.task.TaskContext;
+import de.symeda.sormas.api.task.TaskType;
+
+/**
+ * The data of a task that is needed to notify its assignee about it, without loading the task and its associated entities.
+ */
+public class TaskNotification {
+
+	private final TaskType taskType;
+	private final TaskContext taskContext;
+	private final String assigneeUuid;
+	private final String associatedEntityUuid;
+
+	public TaskNotification(
+		TaskType taskType,
+		TaskContext taskContext,
+		String assigneeUuid,
+		String caseUuid,
+		String contactUuid,
+		String eventUuid) {
+
+		this.taskType = taskType;
+		this.taskContext = taskContext;
+		this.assigneeUuid = assigneeUuid;
+		this.associatedEntityUuid = taskContext == TaskContext.CASE
+			? caseUuid
+			: taskContext == TaskContext.CONTACT ? contactUuid : taskContext == TaskContext.EVENT ? eventUuid : null;
+	}
+
+	public TaskType getTaskType() {
+		return taskType;
+	}
+
+	public TaskContext getTaskContext() {
+		return taskContext;
+	}
+
+	public String getAssigneeUuid() {
+		return assigneeUuid;
+	}
+
+	public String getAssociatedEntityUuid() {
+		return associatedEntityUuid;
+	}
+}
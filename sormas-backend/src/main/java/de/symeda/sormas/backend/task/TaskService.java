@@ -19,8 +19,13 @@ package de.symeda.sormas.backend.task;
 
 import java.util.ArrayList;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Random;
+import java.util.Set;
+import java.util.function.Function;
 
 import javax.ejb.EJB;
 import javax.ejb.LocalBean;
@@ -39,6 +44,7 @@ import de.symeda.sormas.api.task.TaskContext;
 import de.symeda.sormas.api.task.TaskCriteria;
 import de.symeda.sormas.api.task.TaskPriority;
 import de.symeda.sormas.api.task.TaskStatus;
+import de.symeda.sormas.api.task.TaskType;
 import de.symeda.sormas.api.user.JurisdictionLevel;
 import de.symeda.sormas.api.user.UserRole;
 import de.symeda.sormas.api.utils.DataHelper;
@@ -56,6 +62,8 @@ import de.symeda.sormas.backend.region.District;
 import de.symeda.sormas.backend.region.Region;
 import de.symeda.sormas.backend.user.User;
 import de.symeda.sormas.backend.user.UserService;
+import de.symeda.sormas.backend.util.IterableHelper;
+import de.symeda.sormas.backend.util.ModelConstants;
 
 @Stateless
 @LocalBean
@@ -75,6 +83,10 @@ public class TaskService extends AdoServiceWithUserFilter<Task> {
 	}
 
 	public List<Task> getAllActiveTasksAfter(Date date, User user) {
+		return getAllActiveTasksAfter(date, user, null, null, null);
+	}
+
+	public List<Task> getAllActiveTasksAfter(Date date, User user, Integer batchSize, Date lastChangeDate, String lastUuid) {
 
 		CriteriaBuilder cb = em.getCriteriaBuilder();
 		CriteriaQuery<Task> cq = cb.createQuery(getElementClass());
@@ -92,11 +104,14 @@ public class TaskService extends AdoServiceWithUserFilter<Task> {
 			filter = CriteriaBuilderHelper.and(cb, filter, dateFilter);
 		}
 
+		if (lastChangeDate != null) {
+			filter = CriteriaBuilderHelper.and(cb, filter, createChangeDateCursorFilter(cb, from, lastChangeDate, lastUuid));
+		}
+
 		cq.where(filter);
-		cq.orderBy(cb.desc(from.get(Task.CHANGE_DATE)));
 		cq.distinct(true);
 
-		return em.createQuery(cq).getResultList();
+		return getChangedResultList(cb, cq, from, batchSize);
 	}
 
 	public List<String> getAllActiveUuids(User user) {
@@ -352,7 +367,75 @@ public class TaskService extends AdoServiceWithUserFilter<Task> {
 		return task;
 	}
 
+	/**
+	 * @return For each of the given contacts, the ids of the users that have a pending contact follow-up task for it.
+	 */
+	public Map<Long, Set<Long>> getPendingFollowUpTaskAssigneeIds(List<Long> contactIds) {
+
+		Map<Long, Set<Long>> assigneeIds = new HashMap<>();
+		IterableHelper.executeBatched(contactIds, ModelConstants.PARAMETER_LIMIT, batchedContactIds -> {
+			CriteriaBuilder cb = em.getCriteriaBuilder();
+			CriteriaQuery<Object[]> cq = cb.createQuery(Object[].class);
+			Root<Task> from = cq.from(getElementClass());
+			Join<Task, Contact> contact = from.join(Task.CONTACT);
+			Join<Task, User> assignee = from.join(Task.ASSIGNEE_USER);
+
+			cq.multiselect(contact.get(Contact.ID), assignee.get(User.ID));
+			cq.where(
+				contact.get(Contact.ID).in(batchedContactIds),
+				cb.equal(from.get(Task.TASK_TYPE), TaskType.CONTACT_FOLLOW_UP),
+				cb.equal(from.get(Task.TASK_STATUS), TaskStatus.PENDING));
+
+			for (Object[] result : em.createQuery(cq).getResultList()) {
+				assigneeIds.computeIfAbsent((Long) result[0], c -> new HashSet<>()).add((Long) result[1]);
+			}
+		});
+		return assigneeIds;
+	}
+
+	/**
+	 * @param dateProperty
+	 *            {@link Task#SUGGESTED_START} or {@link Task#DUE_DATE}
+	 * @return The notifications for the pending tasks with an assignee whose date property is in the given period.
+	 */
+	public List<TaskNotification> getPendingTaskNotifications(String dateProperty, Date fromDate, Date toDate) {
+
+		CriteriaBuilder cb = em.getCriteriaBuilder();
+		CriteriaQuery<TaskNotification> cq = cb.createQuery(TaskNotification.class);
+		Root<Task> from = cq.from(getElementClass());
+		Join<Task, User> assignee = from.join(Task.ASSIGNEE_USER);
+		Join<Task, Case> caze = from.join(Task.CAZE, JoinType.LEFT);
+		Join<Task, Contact> contact = from.join(Task.CONTACT, JoinType.LEFT);
+		Join<Task, Event> event = from.join(Task.EVENT, JoinType.LEFT);
+
+		cq.select(
+			cb.construct(
+				TaskNotification.class,
+				from.get(Task.TASK_TYPE),
+				from.get(Task.TASK_CONTEXT),
+				assignee.get(User.UUID),
+				caze.get(Case.UUID),
+				contact.get(Contact.UUID),
+				event.get(Event.UUID)));
+		cq.where(
+			cb.equal(from.get(Task.TASK_STATUS), TaskStatus.PENDING),
+			cb.greaterThanOrEqualTo(from.get(dateProperty), fromDate),
+			cb.lessThan(from.get(dateProperty), toDate));
+		cq.orderBy(cb.asc(from.get(dateProperty)));
+
+		return em.createQuery(cq).getResultList();
+	}
+
 	public User getTaskAssignee(Contact contact) throws TaskCreationException {
+		return getTaskAssignee(contact, new HashMap<>(), new HashMap<>());
+	}
+
+	/**
+	 * Variant of {@link #getTaskAssignee(Contact)} that remembers the contact officers and supervisors it loaded in the given
+	 * maps, so they are only loaded once per district and region when assignees for many contacts are needed.
+	 */
+	public User getTaskAssignee(Contact contact, Map<District, List<User>> officersByDistrict, Map<Region, List<User>> supervisorsByRegion)
+		throws TaskCreationException {
 		User assignee = null;
 
 		if (contact.getContactOfficer() != null) {
@@ -360,15 +443,17 @@ public class TaskService extends AdoServiceWithUserFilter<Task> {
 			assignee = contact.getContactOfficer();
 		} else {
 			// 2) A random contact officer from the contact's, contact person's or contact case's district
+			Function<District, List<User>> getOfficers =
+				district -> officersByDistrict.computeIfAbsent(district, d -> userService.getAllByDistrict(d, false, UserRole.CONTACT_OFFICER));
 			List<User> officers = new ArrayList<>();
 			if (contact.getDistrict() != null) {
-				officers = userService.getAllByDistrict(contact.getDistrict(), false, UserRole.CONTACT_OFFICER);
+				officers = getOfficers.apply(contact.getDistrict());
 			}
 			if (officers.isEmpty() && contact.getPerson().getAddress().getDistrict() != null) {
-				officers = userService.getAllByDistrict(contact.getPerson().getAddress().getDistrict(), false, UserRole.CONTACT_OFFICER);
+				officers = getOfficers.apply(contact.getPerson().getAddress().getDistrict());
 			}
 			if (officers.isEmpty() && contact.getCaze() != null && contact.getCaze().getDistrict() != null) {
-				officers = userService.getAllByDistrict(contact.getCaze().getDistrict(), false, UserRole.CONTACT_OFFICER);
+				officers = getOfficers.apply(contact.getCaze().getDistrict());
 			}
 			if (!officers.isEmpty()) {
 				Random rand = new Random();
@@ -378,15 +463,17 @@ public class TaskService extends AdoServiceWithUserFilter<Task> {
 
 		if (assignee == null) {
 			// 3) Assign a random contact supervisor from the contact's, contact person's or contact case's region
+			Function<Region, List<User>> getSupervisors =
+				region -> supervisorsByRegion.computeIfAbsent(region, r -> userService.getAllByRegionAndUserRoles(r, UserRole.CONTACT_SUPERVISOR));
 			List<User> supervisors = new ArrayList<>();
 			if (contact.getRegion() != null) {
-				supervisors = userService.getAllByRegionAndUserRoles(contact.getRegion(), UserRole.CONTACT_SUPERVISOR);
+				supervisors = getSupervisors.apply(contact.getRegion());
 			}
 			if (supervisors.isEmpty() && contact.getPerson().getAddress().getRegion() != null) {
-				supervisors = userService.getAllByRegionAndUserRoles(contact.getPerson().getAddress().getRegion(), UserRole.CONTACT_SUPERVISOR);
+				supervisors = getSupervisors.apply(contact.getPerson().getAddress().getRegion());
 			}
 			if (supervisors.isEmpty() && contact.getCaze() != null && contact.getCaze().getDistrict() != null) {
-				supervisors = userService.getAllByRegionAndUserRoles(contact.getCaze().getRegion(), UserRole.CONTACT_SUPERVISOR);
+				supervisors = getSupervisors.apply(contact.getCaze().getRegion());
 			}
 			if (!supervisors.isEmpty()) {
 				Random rand = new Random();
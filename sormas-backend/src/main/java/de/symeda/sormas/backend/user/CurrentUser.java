@@ -1,9 +1,13 @@
 package de.symeda.sormas.backend.user;
 
 import java.io.Serializable;
+import java.util.EnumMap;
+import java.util.Map;
 
 import javax.enterprise.context.RequestScoped;
 
+import de.symeda.sormas.api.feature.FeatureType;
+
 @RequestScoped
 // FIXME @TransactionScoped would be better for performance, but is not support by novatec.bean-test (see their github #4)
 public class CurrentUser implements Serializable {
@@ -12,6 +16,12 @@ public class CurrentUser implements Serializable {
 
 	private User user;
 
+	/**
+	 * The feature flags that have been looked up during this request, so the user filters of all queries of the request
+	 * share one snapshot instead of querying the feature configurations again.
+	 */
+	private final Map<FeatureType, Boolean> disabledFeatures = new EnumMap<>(FeatureType.class);
+
 	public CurrentUser() {
 	}
 
@@ -22,4 +32,19 @@ public class CurrentUser implements Serializable {
 	public User getUser() {
 		return user;
 	}
+
+	/**
+	 * @return {@code null}, if the feature has not been looked up during this request.
+	 */
+	public synchronized Boolean getFeatureDisabled(FeatureType featureType) {
+		return disabledFeatures.get(featureType);
+	}
+
+	public synchronized void setFeatureDisabled(FeatureType featureType, boolean disabled) {
+		disabledFeatures.put(featureType, disabled);
+	}
+
+	public synchronized void clearFeatureFlags() {
+		disabledFeatures.clear();
+	}
 }
@@ -1,5 +1,8 @@
 package de.symeda.sormas.backend.user;
 
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
 import javax.annotation.Resource;
 import javax.ejb.LocalBean;
 import javax.ejb.SessionContext;
@@ -24,6 +27,12 @@ import de.symeda.sormas.backend.util.ModelConstants;
 @LocalBean
 public class CurrentUserService {
 
+	/**
+	 * Ids of the users by their lower case user name, so the user of each request can be loaded by its primary key.
+	 * An entry is validated against the loaded user and dropped when the user was deleted or renamed.
+	 */
+	private static final Map<String, Long> USER_IDS = new ConcurrentHashMap<>();
+
 	@Resource
 	private SessionContext context;
 
@@ -47,23 +56,41 @@ public class CurrentUserService {
 			return new CurrentUser(null);
 		}
 
+		final User user = getUserByName(userName.toLowerCase());
+
+		if (user != null) {
+			user.getUserRoles().size();
+			// TODO
+			user.getAddress().getAddressType();
+			return new CurrentUser(user);
+		} else {
+			return new CurrentUser(null);
+		}
+	}
+
+	private User getUserByName(String lowerCaseUserName) {
+
+		Long userId = USER_IDS.get(lowerCaseUserName);
+		if (userId != null) {
+			User user = em.find(User.class, userId);
+			if (user != null && lowerCaseUserName.equalsIgnoreCase(user.getUserName())) {
+				return user;
+			}
+			USER_IDS.remove(lowerCaseUserName, userId);
+		}
+
 		final CriteriaBuilder cb = em.getCriteriaBuilder();
 		final ParameterExpression<String> userNameParam = cb.parameter(String.class, User.USER_NAME);
 		final CriteriaQuery<User> cq = cb.createQuery(User.class);
 		final Root<User> from = cq.from(User.class);
 		cq.where(cb.equal(cb.lower(from.get(User.USER_NAME)), userNameParam));
 
-		final TypedQuery<User> q = em.createQuery(cq).setParameter(userNameParam, userName.toLowerCase());
+		final TypedQuery<User> q = em.createQuery(cq).setParameter(userNameParam, lowerCaseUserName);
 
 		final User user = q.getResultList().stream().findFirst().orElse(null);
-
 		if (user != null) {
-			user.getUserRoles().size();
-			// TODO
-			user.getAddress().getAddressType();
-			return new CurrentUser(user);
-		} else {
-			return new CurrentUser(null);
+			USER_IDS.put(lowerCaseUserName, user.getId());
 		}
+		return user;
 	}
 }
@@ -0,0 +1,141 @@
+/*
+ * SORMAS® - Surveillance Outbreak Response Management & Analysis System
+ * Copyright © 2016-2021 Helmholtz-Zentrum für Infektionsforschung GmbH (HZI)
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package de.symeda.sormas.backend.visualization;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The persons of a network diagram, linked by the contacts between them. Persons that are linked directly or indirectly
+ * form a transmission chain.
+ */
+class TransmissionChainGraph {
+
+	/**
+	 * For each contact the persons it links: the person of the source case (if any) and the contact person.
+	 */
+	private final Map<Long, long[]> contactPersons = new LinkedHashMap<>();
+	/**
+	 * Union-find forest of the persons; each chain is represented by one of its persons.
+	 */
+	private final Map<Long, Long> parents = new HashMap<>();
+
+	public void addContact(long contactId, Long casePersonId, long contactPersonId) {
+
+		long[] persons = casePersonId != null
+			? new long[] {
+				casePersonId,
+				contactPersonId }
+			: new long[] {
+				contactPersonId };
+		contactPersons.put(contactId, persons);
+
+		for (long person : persons) {
+			parents.putIfAbsent(person, person);
+		}
+		if (persons.length > 1) {
+			parents.put(find(persons[0]), find(persons[1]));
+		}
+	}
+
+	public int getPersonCount() {
+		return parents.size();
+	}
+
+	public int getContactCount() {
+		return contactPersons.size();
+	}
+
+	/**
+	 * @return The contacts of the largest transmission chains that have no more than {@code maxPersons} persons in total.
+	 *         If the largest chain alone is too large, it is cut off after the contacts that fit.
+	 */
+	public Collection<Long> getContactIdsOfLargestChains(int maxPersons) {
+
+		if (getPersonCount() <= maxPersons) {
+			return new ArrayList<>(contactPersons.keySet());
+		}
+
+		Map<Long, List<Long>> contactsByChain = new LinkedHashMap<>();
+		Map<Long, Integer> personCountByChain = new HashMap<>();
+		for (Map.Entry<Long, long[]> contact : contactPersons.entrySet()) {
+			contactsByChain.computeIfAbsent(find(contact.getValue()[0]), c -> new ArrayList<>()).add(contact.getKey());
+		}
+		for (Long person : parents.keySet()) {
+			personCountByChain.merge(find(person), 1, Integer::sum);
+		}
+
+		List<Long> chains = new ArrayList<>(contactsByChain.keySet());
+		// stable sort: chains of the same size keep the order of their first contact
+		chains.sort(Comparator.comparing(personCountByChain::get, Comparator.reverseOrder()));
+
+		List<Long> contactIds = new ArrayList<>();
+		int personCount = 0;
+		for (Long chain : chains) {
+			int chainPersonCount = personCountByChain.get(chain);
+			if (personCount + chainPersonCount <= maxPersons) {
+				contactIds.addAll(contactsByChain.get(chain));
+				personCount += chainPersonCount;
+			} else if (personCount == 0) {
+				contactIds.addAll(cutOff(contactsByChain.get(chain), maxPersons));
+				break;
+			}
+		}
+		return contactIds;
+	}
+
+	private List<Long> cutOff(List<Long> contactIds, int maxPersons) {
+
+		List<Long> includedContactIds = new ArrayList<>();
+		Set<Long> includedPersons = new HashSet<>();
+		for (Long contactId : contactIds) {
+			Set<Long> newPersons = new HashSet<>();
+			for (long person : contactPersons.get(contactId)) {
+				if (!includedPersons.contains(person)) {
+					newPersons.add(person);
+				}
+			}
+			if (includedPersons.size() + newPersons.size() > maxPersons) {
+				continue;
+			}
+			includedPersons.addAll(newPersons);
+			includedContactIds.add(contactId);
+		}
+		return includedContactIds;
+	}
+
+	private long find(long person) {
+
+		long root = person;
+		while (parents.get(root) != root) {
+			root = parents.get(root);
+		}
+		// path compression
+		long current = person;
+		while (current != root) {
+			long next = parents.get(current);
+			parents.put(current, root);
+			current = next;
+		}
+		return root;
+	}
+}
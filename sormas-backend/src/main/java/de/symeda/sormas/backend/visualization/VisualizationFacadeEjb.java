@@ -88,6 +88,8 @@ public class VisualizationFacadeEjb implements VisualizationFacade {
 		"encodeGraphic.R",
 		"networkFunction.R" };
 
+	private static final Logger logger = LoggerFactory.getLogger(VisualizationFacadeEjb.class);
+
 	@PersistenceContext(unitName = ModelConstants.PERSISTENCE_UNIT_NAME)
 	private EntityManager em;
 
@@ -113,12 +115,23 @@ public class VisualizationFacadeEjb implements VisualizationFacade {
 		}
 		Path tempBasePath = new File(configFacade.getTempFilesPath()).toPath();
 
-		Collection<Long> contactIds = getContactIds(fromDate, toDate, region, district, diseases);
+		TransmissionChainGraph graph = getTransmissionChainGraph(fromDate, toDate, region, district, diseases);
 
-		if (contactIds.isEmpty()) {
+		if (graph.getContactCount() == 0) {
 			return null;
 		}
 
+		int maxNodes = configFacade.getNetworkDiagramMaxNodes();
+		Collection<Long> contactIds = graph.getContactIdsOfLargestChains(maxNodes);
+		if (contactIds.size() < graph.getContactCount()) {
+			logger.info(
+				"Network diagram limited to {} of {} contacts, because it would show {} persons (max {})",
+				contactIds.size(),
+				graph.getContactCount(),
+				graph.getPersonCount(),
+				maxNodes);
+		}
+
 		//working dir is the config directory of the domain
 		Path domainXmlPath = Paths.get("domain.xml");
 
@@ -139,7 +152,10 @@ public class VisualizationFacadeEjb implements VisualizationFacade {
 		return em.createQuery(cq).getSingleResult();
 	}
 
-	private Collection<Long> getContactIds(
+	/**
+	 * Loads only the ids of the contacts and of the persons they link, not the entities.
+	 */
+	private TransmissionChainGraph getTransmissionChainGraph(
 		Date fromDate,
 		Date toDate,
 		RegionReferenceDto region,
@@ -147,26 +163,47 @@ public class VisualizationFacadeEjb implements VisualizationFacade {
 		Collection<Disease> diseases) {
 
 		CriteriaBuilder cb = em.getCriteriaBuilder();
-		CriteriaQuery<Long> cq = cb.createQuery(Long.class);
+		CriteriaQuery<Object[]> cq = cb.createQuery(Object[].class);
 		Root<Contact> root = cq.from(Contact.class);
+		Join<Contact, Case> caze = root.join(Contact.CAZE, JoinType.LEFT);
 
-		cq.where(buildContactFilters(cb, cq, root, fromDate, toDate, region, district, diseases));
+		cq.where(buildContactFilters(cb, cq, root, caze, fromDate, toDate, region, district, diseases));
 
-		cq.select(root.get(AbstractDomainObject.ID));
+		cq.multiselect(
+			root.get(AbstractDomainObject.ID),
+			caze.join(Case.PERSON, JoinType.LEFT).get(AbstractDomainObject.ID),
+			root.join(Contact.PERSON).get(AbstractDomainObject.ID));
+		cq.orderBy(cb.asc(root.get(AbstractDomainObject.ID)));
 
-		return em.createQuery(cq).getResultList();
+		TransmissionChainGraph graph = new TransmissionChainGraph();
+		for (Object[] row : em.createQuery(cq).getResultList()) {
+			graph.addContact((Long) row[0], (Long) row[1], (Long) row[2]);
+		}
+		return graph;
 	}
 
 	private Predicate buildContactFilters(
 		CriteriaBuilder cb,
-		CriteriaQuery<Long> cq,
+		CriteriaQuery<?> cq,
 		Root<Contact> root,
 		Date fromDate,
 		Date toDate,
 		RegionReferenceDto region,
 		DistrictReferenceDto district,
 		Collection<Disease> diseases) {
-		Join<Contact, Case> caze = root.join(Contact.CAZE, JoinType.LEFT);
+		return buildContactFilters(cb, cq, root, root.join(Contact.CAZE, JoinType.LEFT), fromDate, toDate, region, district, diseases);
+	}
+
+	private Predicate buildContactFilters(
+		CriteriaBuilder cb,
+		CriteriaQuery<?> cq,
+		Root<Contact> root,
+		Join<Contact, Case> caze,
+		Date fromDate,
+		Date toDate,
+		RegionReferenceDto region,
+		DistrictReferenceDto district,
+		Collection<Disease> diseases) {
 
 		return CriteriaBuilderHelper.and(
 			cb,
@@ -191,7 +228,7 @@ public class VisualizationFacadeEjb implements VisualizationFacade {
 		DB_NAME("databaseName"),
 		DB_HOST("serverName"),
 		DB_PORT("portNumber"),
-		CONTACT_IDS,
+		CONTACT_IDS_FILE,
 		HIERARCHICAL,
 		OUTFILE;
 
@@ -271,19 +308,11 @@ public class VisualizationFacadeEjb implements VisualizationFacade {
 				EnvParam.DB_HOST.putFrom(env, poolProperties);
 				EnvParam.DB_PORT.putFrom(env, poolProperties);
 
-				String contactIdStr;
-				if (contactIds.isEmpty()) {
-					contactIdStr = "NULL";
-				} else {
-					StringBuilder sb = new StringBuilder(contactIds.size() * 6);
-					contactIds.forEach(l -> {
-						sb.append(l);
-						sb.append(',');
-					});
-					contactIdStr = sb.substring(0, sb.length() - 1);
-				}
+				// passed as a file, because the environment is limited in size
+				Path contactIdsFile = tempDir.resolve("contact_ids.txt");
+				Files.write(contactIdsFile, contactIds.stream().map(String::valueOf).collect(Collectors.toList()));
 
-				EnvParam.CONTACT_IDS.put(env, contactIdStr);
+				EnvParam.CONTACT_IDS_FILE.put(env, contactIdsFile.toString());
 				EnvParam.OUTFILE.put(env, outputFile.toString());
 
 				File outFile = tempDir.resolve("console.log").toFile();
@@ -297,7 +326,6 @@ public class VisualizationFacadeEjb implements VisualizationFacade {
 					String html = new String(Files.readAllBytes(outputFile));
 					return extractJson(html, language);
 				} else {
-					Logger logger = LoggerFactory.getLogger(VisualizationFacadeEjb.class);
 					logger.warn("R failed with code {} : {}", exitCode, pb.command().stream().collect(Collectors.joining(" ")));
 					if (logger.isDebugEnabled() && outFile.length() > 0) {
 						try (Stream<String> lines = Files.lines(outFile.toPath(), Charset.defaultCharset())) {
@@ -319,7 +347,6 @@ public class VisualizationFacadeEjb implements VisualizationFacade {
 			try {
 				FileUtils.deleteDirectory(tempDir.toFile());
 			} catch (IOException e) {
-				Logger logger = LoggerFactory.getLogger(VisualizationFacadeEjb.class);
 				logger.warn(e.getMessage(), e);
 			}
 		}
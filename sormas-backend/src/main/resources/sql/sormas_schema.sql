@@ -7101,4 +7101,167 @@ ALTER TABLE location_history ADD COLUMN subcontinent_id BIGINT;
 
 INSERT INTO schema_version (version_number, comment) VALUES (356, '2020-03-19 Add continent and subcontinent to location #4777');
 
+-- 2021-03-24 Blocking key for the duplicate case detection
+ALTER TABLE cases ADD COLUMN duplicateblockingkey varchar(512);
+ALTER TABLE cases_history ADD COLUMN duplicateblockingkey varchar(512);
+CREATE INDEX IF NOT EXISTS idx_cases_disease_duplicateblockingkey ON cases (disease, duplicateblockingkey);
+
+INSERT INTO schema_version (version_number, comment) VALUES (357, 'Blocking key for the duplicate case detection');
+
+-- 2021-03-26 Materialised case access through samples and contacts
+CREATE TABLE caseaccess (
+    id bigint NOT NULL,
+    caze_id bigint NOT NULL,
+    sample_id bigint,
+    contact_id bigint,
+    laboratory_id bigint,
+    region_id bigint,
+    district_id bigint,
+    community_id bigint,
+    reportinguser_id bigint,
+    contactofficer_id bigint,
+    primary key(id)
+);
+
+ALTER TABLE caseaccess OWNER TO sormas_user;
+ALTER TABLE caseaccess ADD CONSTRAINT fk_caseaccess_caze_id FOREIGN KEY (caze_id) REFERENCES cases (id) ON UPDATE NO ACTION ON DELETE CASCADE;
+ALTER TABLE caseaccess ADD CONSTRAINT fk_caseaccess_sample_id FOREIGN KEY (sample_id) REFERENCES samples (id) ON UPDATE NO ACTION ON DELETE CASCADE;
+ALTER TABLE caseaccess ADD CONSTRAINT fk_caseaccess_contact_id FOREIGN KEY (contact_id) REFERENCES contact (id) ON UPDATE NO ACTION ON DELETE CASCADE;
+CREATE INDEX idx_caseaccess_caze_id ON caseaccess (caze_id);
+CREATE INDEX idx_caseaccess_laboratory_id ON caseaccess (laboratory_id, caze_id);
+CREATE INDEX idx_caseaccess_sample_id ON caseaccess (sample_id);
+CREATE INDEX idx_caseaccess_contact_id ON caseaccess (contact_id);
+
+INSERT INTO caseaccess (id, caze_id, sample_id, laboratory_id)
+    SELECT nextval('entity_seq'), associatedcase_id, id, lab_id FROM samples WHERE associatedcase_id IS NOT NULL;
+INSERT INTO caseaccess (id, caze_id, contact_id, region_id, district_id, community_id, reportinguser_id, contactofficer_id)
+    SELECT nextval('entity_seq'), caze_id, id, region_id, district_id, community_id, reportinguser_id, contactofficer_id FROM contact WHERE caze_id IS NOT NULL;
+
+INSERT INTO schema_version (version_number, comment) VALUES (358, 'Materialised case access through samples and contacts');
+
+-- 2021-03-29 Aggregated case counts for the case statistics
+CREATE TABLE casestatistics (
+    disease varchar(255),
+    reportdate timestamp,
+    region_id bigint,
+    district_id bigint,
+    community_id bigint,
+    healthfacility_id bigint,
+    caseage integer,
+    sex varchar(255),
+    caseclassification varchar(255),
+    outcome varchar(255),
+    casecount integer NOT NULL
+);
+
+ALTER TABLE casestatistics OWNER TO sormas_user;
+CREATE INDEX idx_casestatistics_disease_reportdate ON casestatistics (disease, reportdate);
+
+/** adds -1 for the old and +1 for the new values of a case, if any of the aggregated values has changed **/
+CREATE OR REPLACE FUNCTION update_casestatistics()
+    RETURNS trigger
+    LANGUAGE plpgsql
+AS $BODY$
+BEGIN
+    IF (TG_OP = 'UPDATE'
+        AND OLD.deleted IS NOT DISTINCT FROM NEW.deleted
+        AND OLD.disease IS NOT DISTINCT FROM NEW.disease
+        AND date_trunc('day', OLD.reportdate) IS NOT DISTINCT FROM date_trunc('day', NEW.reportdate)
+        AND OLD.region_id IS NOT DISTINCT FROM NEW.region_id
+        AND OLD.district_id IS NOT DISTINCT FROM NEW.district_id
+        AND OLD.community_id IS NOT DISTINCT FROM NEW.community_id
+        AND OLD.healthfacility_id IS NOT DISTINCT FROM NEW.healthfacility_id
+        AND OLD.caseage IS NOT DISTINCT FROM NEW.caseage
+        AND OLD.caseclassification IS NOT DISTINCT FROM NEW.caseclassification
+        AND OLD.outcome IS NOT DISTINCT FROM NEW.outcome
+        AND OLD.person_id IS NOT DISTINCT FROM NEW.person_id) THEN
+        RETURN NULL;
+    END IF;
+
+    IF (TG_OP <> 'INSERT' AND OLD.deleted IS NOT TRUE) THEN
+        INSERT INTO casestatistics (disease, reportdate, region_id, district_id, community_id, healthfacility_id, caseage, sex, caseclassification, outcome, casecount)
+            VALUES (OLD.disease, date_trunc('day', OLD.reportdate), OLD.region_id, OLD.district_id, OLD.community_id, OLD.healthfacility_id, OLD.caseage,
+                (SELECT sex FROM person WHERE id = OLD.person_id), OLD.caseclassification, OLD.outcome, -1);
+    END IF;
+    IF (TG_OP <> 'DELETE' AND NEW.deleted IS NOT TRUE) THEN
+        INSERT INTO casestatistics (disease, reportdate, region_id, district_id, community_id, healthfacility_id, caseage, sex, caseclassification, outcome, casecount)
+            VALUES (NEW.disease, date_trunc('day', NEW.reportdate), NEW.region_id, NEW.district_id, NEW.community_id, NEW.healthfacility_id, NEW.caseage,
+                (SELECT sex FROM person WHERE id = NEW.person_id), NEW.caseclassification, NEW.outcome, 1);
+    END IF;
+    RETURN NULL;
+END;
+$BODY$;
+
+/** moves the cases of a person to the new sex **/
+CREATE OR REPLACE FUNCTION update_casestatistics_sex()
+    RETURNS trigger
+    LANGUAGE plpgsql
+AS $BODY$
+BEGIN
+    IF (OLD.sex IS DISTINCT FROM NEW.sex) THEN
+        INSERT INTO casestatistics (disease, reportdate, region_id, district_id, community_id, healthfacility_id, caseage, sex, caseclassification, outcome, casecount)
+            SELECT disease, date_trunc('day', reportdate), region_id, district_id, community_id, healthfacility_id, caseage, OLD.sex, caseclassification, outcome, -1
+            FROM cases WHERE person_id = NEW.id AND deleted IS NOT TRUE;
+        INSERT INTO casestatistics (disease, reportdate, region_id, district_id, community_id, healthfacility_id, caseage, sex, caseclassification, outcome, casecount)
+            SELECT disease, date_trunc('day', reportdate), region_id, district_id, community_id, healthfacility_id, caseage, NEW.sex, caseclassification, outcome, 1
+            FROM cases WHERE person_id = NEW.id AND deleted IS NOT TRUE;
+    END IF;
+    RETURN NULL;
+END;
+$BODY$;
+
+CREATE TRIGGER casestatistics_trigger AFTER INSERT OR UPDATE OR DELETE ON cases
+    FOR EACH ROW EXECUTE PROCEDURE update_casestatistics();
+CREATE TRIGGER casestatistics_sex_trigger AFTER UPDATE OF sex ON person
+    FOR EACH ROW EXECUTE PROCEDURE update_casestatistics_sex();
+
+INSERT INTO casestatistics (disease, reportdate, region_id, district_id, community_id, healthfacility_id, caseage, sex, caseclassification, outcome, casecount)
+    SELECT cases.disease, date_trunc('day', cases.reportdate), cases.region_id, cases.district_id, cases.community_id, cases.healthfacility_id, cases.caseage,
+        person.sex, cases.caseclassification, cases.outcome, COUNT(*)
+    FROM cases LEFT JOIN person ON cases.person_id = person.id
+    WHERE cases.deleted IS NOT TRUE
+    GROUP BY cases.disease, date_trunc('day', cases.reportdate), cases.region_id, cases.district_id, cases.community_id, cases.healthfacility_id, cases.caseage,
+        person.sex, cases.caseclassification, cases.outcome;
+
+INSERT INTO schema_version (version_number, comment) VALUES (359, 'Aggregated case counts for the case statistics');
+
+-- 2021-03-31 GIN trigram index for the person similarity lookup
+DROP INDEX IF EXISTS similarity_index;
+CREATE INDEX IF NOT EXISTS idx_person_full_name_trgm ON person USING gin ((firstName || ' ' || lastName) gin_trgm_ops);
+
+INSERT INTO schema_version (version_number, comment) VALUES (360, 'GIN trigram index for the person similarity lookup');
+
+-- 2021-04-12 Order independent blocking keys for the duplicate case detection
+ALTER TABLE cases DROP COLUMN duplicateblockingkey;
+ALTER TABLE cases_history DROP COLUMN duplicateblockingkey;
+ALTER TABLE cases ADD COLUMN duplicateblockingkeyfirstname varchar(512);
+ALTER TABLE cases ADD COLUMN duplicateblockingkeylastname varchar(512);
+ALTER TABLE cases_history ADD COLUMN duplicateblockingkeyfirstname varchar(512);
+ALTER TABLE cases_history ADD COLUMN duplicateblockingkeylastname varchar(512);
+CREATE INDEX IF NOT EXISTS idx_cases_disease_duplicateblockingkeyfirstname ON cases (disease, duplicateblockingkeyfirstname);
+CREATE INDEX IF NOT EXISTS idx_cases_disease_duplicateblockingkeylastname ON cases (disease, duplicateblockingkeylastname);
+
+INSERT INTO schema_version (version_number, comment) VALUES (361, 'Order independent blocking keys for the duplicate case detection');
+
+-- 2021-04-13 Queue for task notification delivery with retries
+CREATE TABLE queuedmessage (
+    id bigint NOT NULL,
+    uuid varchar(36) NOT NULL UNIQUE,
+    changedate timestamp NOT NULL,
+    creationdate timestamp NOT NULL,
+    messagetype varchar(255) NOT NULL,
+    recipientuuid varchar(36),
+    recipientaddress varchar(512) NOT NULL,
+    subject varchar(512),
+    content text NOT NULL,
+    attempts integer NOT NULL,
+    nextattemptdate timestamp NOT NULL,
+    lasterror varchar(512),
+    PRIMARY KEY (id)
+);
+ALTER TABLE queuedmessage OWNER TO sormas_user;
+CREATE INDEX IF NOT EXISTS idx_queuedmessage_nextattemptdate ON queuedmessage (nextattemptdate);
+
+INSERT INTO schema_version (version_number, comment) VALUES (362, 'Queue for task notification delivery with retries');
+
 -- *** Insert new sql commands BEFORE this line ***
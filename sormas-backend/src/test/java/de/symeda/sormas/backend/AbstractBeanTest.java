@@ -133,6 +133,7 @@ import de.symeda.sormas.backend.infrastructure.PopulationDataFacadeEjb.Populatio
 import de.symeda.sormas.backend.labmessage.LabMessageFacadeEjb.LabMessageFacadeEjbLocal;
 import de.symeda.sormas.backend.outbreak.OutbreakFacadeEjb.OutbreakFacadeEjbLocal;
 import de.symeda.sormas.backend.person.PersonFacadeEjb.PersonFacadeEjbLocal;
+import de.symeda.sormas.backend.person.PersonMatchingService;
 import de.symeda.sormas.backend.person.PersonService;
 import de.symeda.sormas.backend.region.CommunityFacadeEjb.CommunityFacadeEjbLocal;
 import de.symeda.sormas.backend.region.CommunityService;
@@ -297,6 +298,10 @@ public class AbstractBeanTest extends BaseBeanTest {
 		return getBean(PersonService.class);
 	}
 
+	public PersonMatchingService getPersonMatchingService() {
+		return getBean(PersonMatchingService.class);
+	}
+
 	public TaskFacade getTaskFacade() {
 		return getBean(TaskFacadeEjbLocal.class);
 	}
@@ -3,7 +3,9 @@ package de.symeda.sormas.backend;
 import java.sql.Types;
 
 import org.hibernate.dialect.H2Dialect;
+import org.hibernate.dialect.function.SQLFunctionTemplate;
 import org.hibernate.dialect.function.StandardSQLFunction;
+import org.hibernate.type.StandardBasicTypes;
 
 import com.vladmihalcea.hibernate.type.json.JsonBinaryType;
 
@@ -11,6 +13,7 @@ public class ExtendedH2Dialect extends H2Dialect {
 
 	public final static String ARRAY_TO_STRING = "array_to_string";
 	public final static String ARRAY_AGG = "array_agg";
+	public final static String FULL_NAME = "full_name";
 
 	public ExtendedH2Dialect() {
 		super();
@@ -18,6 +21,7 @@ public class ExtendedH2Dialect extends H2Dialect {
 		registerFunction("regexp_replace", new StandardSQLFunction("regexp_replace"));
 		registerFunction(ARRAY_TO_STRING, new StandardSQLFunction(ARRAY_TO_STRING));
 		registerFunction(ARRAY_AGG, new StandardSQLFunction(ARRAY_AGG));
+		registerFunction(FULL_NAME, new SQLFunctionTemplate(StandardBasicTypes.STRING, "(?1 || ' ' || ?2)"));
 		registerHibernateType(Types.OTHER, JsonBinaryType.class.getName());
 	}
 }
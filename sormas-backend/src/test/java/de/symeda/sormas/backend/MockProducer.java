@@ -17,6 +17,7 @@
  *******************************************************************************/
 package de.symeda.sormas.backend;
 
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.reset;
 import static org.mockito.Mockito.spy;
@@ -25,15 +26,19 @@ import static org.mockito.Mockito.when;
 import java.lang.reflect.Field;
 import java.security.Principal;
 import java.util.Properties;
+import java.util.concurrent.Callable;
+import java.util.concurrent.FutureTask;
 
 import javax.ejb.SessionContext;
 import javax.ejb.TimerService;
+import javax.enterprise.concurrent.ManagedExecutorService;
 import javax.enterprise.concurrent.ManagedScheduledExecutorService;
 import javax.enterprise.inject.Produces;
 import javax.enterprise.inject.Specializes;
 import javax.jms.ConnectionFactory;
 import javax.jms.Topic;
 import javax.mail.Session;
+import javax.transaction.TransactionSynchronizationRegistry;
 import javax.transaction.UserTransaction;
 
 import de.symeda.sormas.api.utils.InfoProvider;
@@ -55,8 +60,10 @@ public class MockProducer {
 	private static final TimerService timerService = mock(TimerService.class);
 	public static final Properties properties = new Properties();
 	private static final UserTransaction userTransaction = mock(UserTransaction.class);
+	private static final TransactionSynchronizationRegistry transactionSynchronizationRegistry = mock(TransactionSynchronizationRegistry.class);
 	private static final SormasToSormasRestClient SORMAS_TO_SORMAS_REST_CLIENT = mock(SormasToSormasRestClient.class);
 	private static final ManagedScheduledExecutorService managedScheduledExecutorService = mock(ManagedScheduledExecutorService.class);
+	private static final ManagedExecutorService managedExecutorService = mock(ManagedExecutorService.class);
 
 	// Receiving e-mail server is mocked: org. jvnet. mock_javamail. mailbox
 	private static Session mailSession;
@@ -90,14 +97,23 @@ public class MockProducer {
 			connectionFactory,
 			timerService,
 			userTransaction,
+			transactionSynchronizationRegistry,
 			SORMAS_TO_SORMAS_REST_CLIENT,
-			managedScheduledExecutorService);
+			managedScheduledExecutorService,
+			managedExecutorService);
 		wireMocks();
 	}
 
 	public static void wireMocks() {
 
 		when(sessionContext.getCallerPrincipal()).thenReturn(getPrincipal());
+		// submitted tasks are run right away on the test thread
+		when(managedExecutorService.submit(any(Callable.class))).thenAnswer(invocation -> {
+			Callable<?> callable = invocation.getArgument(0);
+			FutureTask<?> task = new FutureTask<>(callable);
+			task.run();
+			return task;
+		});
 	}
 
 	@Produces
@@ -135,6 +151,11 @@ public class MockProducer {
 		return userTransaction;
 	}
 
+	@Produces
+	public static TransactionSynchronizationRegistry getTransactionSynchronizationRegistry() {
+		return transactionSynchronizationRegistry;
+	}
+
 	@Produces
 	public static Principal getPrincipal() {
 		return principal;
@@ -158,4 +179,9 @@ public class MockProducer {
 	public static ManagedScheduledExecutorService getManagedScheduledExecutorService() {
 		return managedScheduledExecutorService;
 	}
+
+	@Produces
+	public static ManagedExecutorService getManagedExecutorService() {
+		return managedExecutorService;
+	}
 }
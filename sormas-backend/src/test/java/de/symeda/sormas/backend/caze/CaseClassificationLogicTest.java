@@ -18,6 +18,7 @@
 package de.symeda.sormas.backend.caze;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
 
 import java.lang.reflect.Method;
 import java.util.Arrays;
@@ -44,6 +45,8 @@ import de.symeda.sormas.api.sample.PathogenTestResultType;
 import de.symeda.sormas.api.sample.PathogenTestType;
 import de.symeda.sormas.api.symptoms.SymptomState;
 import de.symeda.sormas.api.symptoms.SymptomsDto;
+import de.symeda.sormas.api.systemevents.SystemEventDto;
+import de.symeda.sormas.api.systemevents.SystemEventType;
 import de.symeda.sormas.api.utils.DateHelper;
 import de.symeda.sormas.api.utils.YesNoUnknown;
 import de.symeda.sormas.backend.AbstractBeanTest;
@@ -1072,6 +1075,53 @@ public class CaseClassificationLogicTest extends AbstractBeanTest {
 		}
 	}
 
+	@Test
+	public void testGetClassifications() {
+
+		CaseDataDto suspectCase = getCaseFacade().saveCase(buildSuspectCase(Disease.EVD));
+		CaseDataDto confirmedCase = getCaseFacade().saveCase(buildSuspectCase(Disease.EVD));
+		creator.createPathogenTest(confirmedCase, Disease.EVD, PathogenTestType.PCR_RT_PCR, PathogenTestResultType.POSITIVE);
+		CaseDataDto notClassifiedCase = getCaseFacade().saveCase(buildSuspectCaseBasis(Disease.EVD));
+
+		List<CaseClassification> classifications = getCaseClassificationLogic().getClassifications(
+			Arrays.asList(
+				getCaseFacade().getCaseDataByUuid(suspectCase.getUuid()),
+				getCaseFacade().getCaseDataByUuid(confirmedCase.getUuid()),
+				getCaseFacade().getCaseDataByUuid(notClassifiedCase.getUuid())));
+
+		assertEquals(Arrays.asList(CaseClassification.SUSPECT, CaseClassification.CONFIRMED, CaseClassification.NOT_CLASSIFIED), classifications);
+	}
+
+	@Test
+	public void testReclassifyCases() {
+
+		CaseDataDto suspectCase;
+		CaseDataDto notClassifiedCase;
+		CaseDataDto otherDiseaseCase;
+		MockProducer.getProperties().setProperty(ConfigFacadeEjb.FEATURE_AUTOMATIC_CASE_CLASSIFICATION, "false");
+		try {
+			suspectCase = getCaseFacade().saveCase(buildSuspectCase(Disease.EVD));
+			notClassifiedCase = getCaseFacade().saveCase(buildSuspectCaseBasis(Disease.EVD));
+			otherDiseaseCase = getCaseFacade().saveCase(buildSuspectCase(Disease.CSM));
+		} finally {
+			MockProducer.getProperties().setProperty(ConfigFacadeEjb.FEATURE_AUTOMATIC_CASE_CLASSIFICATION, "true");
+		}
+		assertEquals(CaseClassification.NOT_CLASSIFIED, suspectCase.getCaseClassification());
+
+		getCaseClassificationLogic().reclassifyCases(Disease.EVD);
+
+		suspectCase = getCaseFacade().getCaseDataByUuid(suspectCase.getUuid());
+		assertEquals(CaseClassification.SUSPECT, suspectCase.getCaseClassification());
+		assertEquals(CaseClassification.SUSPECT, getCaseService().getByUuid(suspectCase.getUuid()).getSystemCaseClassification());
+		assertNull(suspectCase.getClassificationUser());
+		assertEquals(CaseClassification.NOT_CLASSIFIED, getCaseFacade().getCaseDataByUuid(notClassifiedCase.getUuid()).getCaseClassification());
+		assertEquals(CaseClassification.NOT_CLASSIFIED, getCaseFacade().getCaseDataByUuid(otherDiseaseCase.getUuid()).getCaseClassification());
+
+		SystemEventDto systemEvent = getSystemEventFacade().getLatestSuccessByType(SystemEventType.CASE_RECLASSIFICATION);
+		Long lastCaseId = getCaseService().getByUuid(notClassifiedCase.getUuid()).getId();
+		assertEquals("disease=EVD;lastCaseId=" + lastCaseId + ";processed=2;changed=1", systemEvent.getAdditionalInfo());
+	}
+
 	/**
 	 * Builds a case for the specified disease that meets all requirements that are needed for
 	 * every suspect classification scenario, but that can not be classified as suspect yet
@@ -17,6 +17,7 @@
  *******************************************************************************/
 package de.symeda.sormas.backend.caze;
 
+import static org.hamcrest.Matchers.empty;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
@@ -29,6 +30,7 @@ import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.when;
 
 import java.sql.Timestamp;
 import java.time.LocalDate;
@@ -37,9 +39,13 @@ import java.util.Arrays;
 import java.util.Calendar;
 import java.util.Collections;
 import java.util.Date;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.stream.Collectors;
 
+import javax.persistence.EntityManager;
+
 import org.apache.commons.lang3.time.DateUtils;
 import org.hamcrest.MatcherAssert;
 import org.hibernate.internal.SessionImpl;
@@ -121,9 +127,12 @@ import de.symeda.sormas.api.visit.VisitDto;
 import de.symeda.sormas.api.visit.VisitIndexDto;
 import de.symeda.sormas.api.visit.VisitStatus;
 import de.symeda.sormas.backend.AbstractBeanTest;
+import de.symeda.sormas.backend.MockProducer;
 import de.symeda.sormas.backend.TestDataCreator.RDCF;
 import de.symeda.sormas.backend.TestDataCreator.RDCFEntities;
 import de.symeda.sormas.backend.caze.CaseFacadeEjb.CaseFacadeEjbLocal;
+import de.symeda.sormas.backend.common.ConfigFacadeEjb;
+import de.symeda.sormas.backend.facility.Facility;
 import de.symeda.sormas.backend.region.District;
 import de.symeda.sormas.backend.region.Region;
 import de.symeda.sormas.backend.util.DateHelper8;
@@ -279,6 +288,127 @@ public class CaseFacadeEjbTest extends AbstractBeanTest {
 			getCaseFacade().getCasesForDuplicateMerging(new CaseCriteria().creationDateFrom(today).creationDateTo(today), true).size());
 	}
 
+	@Test
+	public void testGetDuplicateCasesWithMissingBlockingKeys() {
+
+		final Date today = new Date();
+
+		RDCFEntities rdcf = creator.createRDCFEntities("Region", "District", "Community", "Facility");
+		UserDto user = creator
+			.createUser(rdcf.region.getUuid(), rdcf.district.getUuid(), rdcf.facility.getUuid(), "Surv", "Sup", UserRole.SURVEILLANCE_SUPERVISOR);
+		PersonDto cazePerson = creator.createPerson("Case", "Person", Sex.MALE, 1980, 1, 1);
+		CaseDataDto caze = creator.createCase(
+			user.toReference(),
+			cazePerson.toReference(),
+			Disease.EVD,
+			CaseClassification.PROBABLE,
+			InvestigationStatus.PENDING,
+			today,
+			rdcf);
+
+		PersonDto cazePerson2 = creator.createPerson("Case", "Person", Sex.MALE, 1980, 1, 1);
+		CaseDataDto caze2 = creator.createCase(
+			user.toReference(),
+			cazePerson2.toReference(),
+			Disease.EVD,
+			CaseClassification.PROBABLE,
+			InvestigationStatus.PENDING,
+			DateUtils.addMinutes(today, -3),
+			rdcf);
+
+		// cases that have not been saved since the key was introduced
+		EntityManager em = getEntityManager();
+		em.getTransaction().begin();
+		em.createNativeQuery("UPDATE cases SET duplicateblockingkeyfirstname = NULL, duplicateblockingkeylastname = NULL").executeUpdate();
+		em.getTransaction().commit();
+		em.clear();
+
+		// cases without keys are compared with all other cases
+		Assert.assertEquals(
+			1,
+			getCaseFacade().getCasesForDuplicateMerging(new CaseCriteria().creationDateFrom(today).creationDateTo(today), true).size());
+
+		getBean(CaseFacadeEjbLocal.class).updateMissingDuplicateBlockingKeys();
+
+		Assert.assertEquals(
+			1,
+			getCaseFacade().getCasesForDuplicateMerging(new CaseCriteria().creationDateFrom(today).creationDateTo(today), true).size());
+
+		// only the keys of one of the cases are missing
+		for (String caseUuid : Arrays.asList(caze.getUuid(), caze2.getUuid())) {
+			em.getTransaction().begin();
+			em.createNativeQuery(
+				"UPDATE cases SET duplicateblockingkeyfirstname = NULL, duplicateblockingkeylastname = NULL WHERE uuid = ?1")
+				.setParameter(1, caseUuid)
+				.executeUpdate();
+			em.getTransaction().commit();
+			em.clear();
+
+			Assert.assertEquals(
+				1,
+				getCaseFacade().getCasesForDuplicateMerging(new CaseCriteria().creationDateFrom(today).creationDateTo(today), true).size());
+
+			getBean(CaseFacadeEjbLocal.class).updateMissingDuplicateBlockingKeys();
+		}
+	}
+
+	@Test
+	public void testDuplicateBlockingKeysWithSwappedOrRenamedPersons() {
+
+		RDCFEntities rdcf = creator.createRDCFEntities("Region", "District", "Community", "Facility");
+		UserDto user = creator
+			.createUser(rdcf.region.getUuid(), rdcf.district.getUuid(), rdcf.facility.getUuid(), "Surv", "Sup", UserRole.SURVEILLANCE_SUPERVISOR);
+		PersonDto cazePerson = creator.createPerson("Anna", "Berg", Sex.FEMALE, 1980, 1, 1);
+		CaseDataDto caze = creator.createCase(
+			user.toReference(),
+			cazePerson.toReference(),
+			Disease.EVD,
+			CaseClassification.PROBABLE,
+			InvestigationStatus.PENDING,
+			new Date(),
+			rdcf);
+
+		PersonDto cazePerson2 = creator.createPerson("Berg", "Anna", Sex.FEMALE, 1980, 1, 1);
+		CaseDataDto caze2 = creator.createCase(
+			user.toReference(),
+			cazePerson2.toReference(),
+			Disease.EVD,
+			CaseClassification.PROBABLE,
+			InvestigationStatus.PENDING,
+			new Date(),
+			rdcf);
+
+		// swapped first and last names share their blocking keys
+		CaseService caseService = getCaseService();
+		assertEquals(
+			caseService.getByUuid(caze.getUuid()).getDuplicateBlockingKeyFirstName(),
+			caseService.getByUuid(caze2.getUuid()).getDuplicateBlockingKeyLastName());
+		assertEquals(
+			caseService.getByUuid(caze.getUuid()).getDuplicateBlockingKeyLastName(),
+			caseService.getByUuid(caze2.getUuid()).getDuplicateBlockingKeyFirstName());
+
+		// renaming the person updates the keys of its cases
+		cazePerson2 = getPersonFacade().getPersonByUuid(cazePerson2.getUuid());
+		cazePerson2.setFirstName("Zora");
+		cazePerson2.setLastName("Xaver");
+		getPersonFacade().savePerson(cazePerson2);
+		getEntityManager().clear();
+
+		Case renamedCase = caseService.getByUuid(caze2.getUuid());
+		assertEquals(CaseService.buildDuplicateBlockingKey("Zora"), renamedCase.getDuplicateBlockingKeyFirstName());
+		assertEquals(CaseService.buildDuplicateBlockingKey("Xaver"), renamedCase.getDuplicateBlockingKeyLastName());
+	}
+
+	@Test
+	public void testBuildDuplicateBlockingKey() {
+
+		assertEquals(CaseService.buildDuplicateBlockingKey("Meyer"), CaseService.buildDuplicateBlockingKey("Maier"));
+		assertEquals(CaseService.buildDuplicateBlockingKey("Müller"), CaseService.buildDuplicateBlockingKey(" muller "));
+		assertEquals("Б", CaseService.buildDuplicateBlockingKey("бондаренко"));
+		assertEquals("", CaseService.buildDuplicateBlockingKey(null));
+		assertEquals("", CaseService.buildDuplicateBlockingKey(" "));
+	}
+
 	@Test
 	public void testDiseaseChangeUpdatesContacts() {
 
@@ -992,6 +1122,92 @@ public class CaseFacadeEjbTest extends AbstractBeanTest {
 		assertEquals(0, getCaseFacade().getArchivedUuidsSince(testStartDate).size());
 	}
 
+	@Test
+	public void testGetAllActiveCasesInBatches() {
+
+		RDCFEntities rdcf = creator.createRDCFEntities("Region", "District", "Community", "Facility");
+		UserDto user = creator
+			.createUser(rdcf.region.getUuid(), rdcf.district.getUuid(), rdcf.facility.getUuid(), "Surv", "Sup", UserRole.SURVEILLANCE_SUPERVISOR);
+		for (int i = 0; i < 3; i++) {
+			PersonDto cazePerson = creator.createPerson("Case", "Person" + i);
+			creator.createCase(
+				user.toReference(),
+				cazePerson.toReference(),
+				Disease.EVD,
+				CaseClassification.PROBABLE,
+				InvestigationStatus.PENDING,
+				new Date(),
+				rdcf);
+		}
+
+		List<CaseDataDto> firstBatch = getCaseFacade().getAllActiveCasesAfter(null, 2, null, null);
+		assertEquals(2, firstBatch.size());
+
+		CaseDataDto last = firstBatch.get(1);
+		List<CaseDataDto> secondBatch = getCaseFacade().getAllActiveCasesAfter(null, 2, last.getChangeDate(), last.getUuid());
+		assertEquals(1, secondBatch.size());
+
+		Set<String> uuids = new HashSet<>();
+		firstBatch.forEach(c -> uuids.add(c.getUuid()));
+		secondBatch.forEach(c -> uuids.add(c.getUuid()));
+		assertEquals(3, uuids.size());
+
+		CaseDataDto lastOfAll = secondBatch.get(0);
+		assertEquals(0, getCaseFacade().getAllActiveCasesAfter(null, 2, lastOfAll.getChangeDate(), lastOfAll.getUuid()).size());
+	}
+
+	@Test
+	public void testGetAllActiveCasesInBatchesChangedWithinSameMillisecond() {
+
+		RDCFEntities rdcf = creator.createRDCFEntities("Region", "District", "Community", "Facility");
+		UserDto user = creator
+			.createUser(rdcf.region.getUuid(), rdcf.district.getUuid(), rdcf.facility.getUuid(), "Surv", "Sup", UserRole.SURVEILLANCE_SUPERVISOR);
+		List<String> caseUuids = new ArrayList<>();
+		for (int i = 0; i < 2; i++) {
+			PersonDto cazePerson = creator.createPerson("Case", "Person" + i);
+			caseUuids.add(
+				creator
+					.createCase(
+						user.toReference(),
+						cazePerson.toReference(),
+						Disease.EVD,
+						CaseClassification.PROBABLE,
+						InvestigationStatus.PENDING,
+						new Date(),
+						rdcf)
+					.getUuid());
+		}
+		Collections.sort(caseUuids);
+
+		// e.g. changed by SQL now(): same millisecond, but the case with the greater uuid is changed a microsecond earlier
+		Timestamp changeDate = Timestamp.valueOf("2021-03-01 10:00:00.123001");
+		Timestamp laterChangeDate = Timestamp.valueOf("2021-03-01 10:00:00.123002");
+		EntityManager em = getEntityManager();
+		em.getTransaction().begin();
+		em.createNativeQuery("UPDATE cases SET changedate = ?1 WHERE uuid = ?2")
+			.setParameter(1, changeDate)
+			.setParameter(2, caseUuids.get(1))
+			.executeUpdate();
+		em.createNativeQuery("UPDATE cases SET changedate = ?1 WHERE uuid = ?2")
+			.setParameter(1, laterChangeDate)
+			.setParameter(2, caseUuids.get(0))
+			.executeUpdate();
+		em.getTransaction().commit();
+		em.clear();
+
+		// the queries select distinct cases, so they must only be ordered by columns of the case (enforced by H2 and PostgreSQL)
+		List<CaseDataDto> firstBatch = getCaseFacade().getAllActiveCasesAfter(null, 1, null, null);
+		assertThat(firstBatch.get(0).getUuid(), is(caseUuids.get(1)));
+		assertThat(firstBatch.get(0).getChangeDate().getTime(), is(changeDate.getTime()));
+
+		CaseDataDto last = firstBatch.get(0);
+		List<CaseDataDto> secondBatch = getCaseFacade().getAllActiveCasesAfter(null, 1, last.getChangeDate(), last.getUuid());
+		assertThat(secondBatch.get(0).getUuid(), is(caseUuids.get(0)));
+
+		last = secondBatch.get(0);
+		assertThat(getCaseFacade().getAllActiveCasesAfter(null, 1, last.getChangeDate(), last.getUuid()), is(empty()));
+	}
+
 	@Test
 	public void testGetAllActiveCasesIncludeExtendedChangeDateFiltersSample() throws InterruptedException {
 
@@ -1697,4 +1913,49 @@ public class CaseFacadeEjbTest extends AbstractBeanTest {
 		assertEquals(case1.getUuid(), casesByPerson.get(0).getUuid());
 		assertEquals(case2.getUuid(), casesByPerson.get(1).getUuid());
 	}
+
+	@Test
+	public void testCaseAccessThroughSamplesAndContacts() {
+
+		RDCFEntities rdcf = creator.createRDCFEntities("Region", "District", "Community", "Facility");
+		RDCFEntities otherRdcf = creator.createRDCFEntities("Region2", "District2", "Community2", "Facility2");
+		UserReferenceDto reportingUser = creator
+			.createUser(otherRdcf.region.getUuid(), otherRdcf.district.getUuid(), otherRdcf.facility.getUuid(), "Surv", "Sup", UserRole.SURVEILLANCE_SUPERVISOR)
+			.toReference();
+
+		Facility lab = creator.createFacility("Lab", FacilityType.LABORATORY, rdcf.region, rdcf.district, rdcf.community);
+		UserDto labUser = creator.createUser(rdcf.region.getUuid(), rdcf.district.getUuid(), null, "Lab", "Off", UserRole.LAB_USER);
+		labUser.setLaboratory(new FacilityReferenceDto(lab.getUuid(), null, null));
+		getUserFacade().saveUser(labUser);
+		UserDto districtUser =
+			creator.createUser(rdcf.region.getUuid(), rdcf.district.getUuid(), rdcf.facility.getUuid(), "Surv", "Off", UserRole.SURVEILLANCE_OFFICER);
+
+		// cases outside of the jurisdiction of both users, one with a sample in the lab and one with a contact in the district
+		CaseDataDto caseWithSample = creator.createCase(reportingUser, creator.createPerson().toReference(), otherRdcf);
+		creator.createSample(caseWithSample.toReference(), reportingUser, lab);
+		CaseDataDto caseWithContact = creator.createCase(reportingUser, creator.createPerson().toReference(), otherRdcf);
+		creator.createContact(reportingUser, null, creator.createPerson().toReference(), caseWithContact, new Date(), null, null, null, c -> {
+			c.setRegion(new RegionReferenceDto(rdcf.region.getUuid()));
+			c.setDistrict(new DistrictReferenceDto(rdcf.district.getUuid()));
+		});
+		creator.createCase(reportingUser, creator.createPerson().toReference(), otherRdcf);
+
+		try {
+			for (String materialization : Arrays.asList("false", "true")) {
+				MockProducer.getProperties().setProperty(ConfigFacadeEjb.CASE_ACCESS_MATERIALIZATION, materialization);
+
+				when(MockProducer.getPrincipal().getName()).thenReturn(labUser.getUserName());
+				List<CaseIndexDto> labCases = getCaseFacade().getIndexList(new CaseCriteria(), null, null, null);
+				assertEquals(1, labCases.size());
+				assertEquals(caseWithSample.getUuid(), labCases.get(0).getUuid());
+
+				when(MockProducer.getPrincipal().getName()).thenReturn(districtUser.getUserName());
+				List<CaseIndexDto> districtCases = getCaseFacade().getIndexList(new CaseCriteria(), null, null, null);
+				assertEquals(1, districtCases.size());
+				assertEquals(caseWithContact.getUuid(), districtCases.get(0).getUuid());
+			}
+		} finally {
+			MockProducer.getProperties().remove(ConfigFacadeEjb.CASE_ACCESS_MATERIALIZATION);
+		}
+	}
 }
@@ -1,7 +1,9 @@
 package de.symeda.sormas.backend.caze;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 
 import java.time.LocalDate;
 import java.util.Arrays;
@@ -20,6 +22,7 @@ import de.symeda.sormas.api.infrastructure.PopulationDataDto;
 import de.symeda.sormas.api.person.ApproximateAgeType;
 import de.symeda.sormas.api.person.PersonDto;
 import de.symeda.sormas.api.person.Sex;
+import de.symeda.sormas.api.region.CommunityReferenceDto;
 import de.symeda.sormas.api.region.RegionDto;
 import de.symeda.sormas.api.region.RegionReferenceDto;
 import de.symeda.sormas.api.statistics.StatisticsCaseAttribute;
@@ -28,8 +31,13 @@ import de.symeda.sormas.api.statistics.StatisticsCaseCriteria;
 import de.symeda.sormas.api.statistics.StatisticsCaseSubAttribute;
 import de.symeda.sormas.api.user.UserDto;
 import de.symeda.sormas.api.user.UserRole;
+import de.symeda.sormas.api.utils.DateHelper;
 import de.symeda.sormas.backend.AbstractBeanTest;
+import de.symeda.sormas.backend.MockProducer;
 import de.symeda.sormas.backend.TestDataCreator.RDCF;
+import de.symeda.sormas.backend.caze.CaseStatisticsFacadeEjb.CaseStatisticsFacadeEjbLocal;
+import de.symeda.sormas.backend.common.ConfigFacadeEjb;
+import de.symeda.sormas.backend.person.Person;
 import de.symeda.sormas.backend.util.DateHelper8;
 
 public class CaseStatisticsFacadeEjbTest extends AbstractBeanTest {
@@ -114,6 +122,42 @@ public class CaseStatisticsFacadeEjbTest extends AbstractBeanTest {
 		assertEquals(Sex.values().length + 1, results.size());
 	}
 
+	@Test
+	public void testQueryCaseCountByCommunity() {
+
+		RDCF rdcf = creator.createRDCF("Region", "District", "Community", "Facility");
+		CommunityReferenceDto otherCommunity = creator.createCommunity("Other community", rdcf.district).toReference();
+		UserDto user = creator
+			.createUser(rdcf.region.getUuid(), rdcf.district.getUuid(), rdcf.facility.getUuid(), "Surv", "Sup", UserRole.SURVEILLANCE_SUPERVISOR);
+		PersonDto cazePerson = creator.createPerson("Case", "Person");
+		creator.createCase(
+			user.toReference(),
+			cazePerson.toReference(),
+			Disease.EVD,
+			CaseClassification.PROBABLE,
+			InvestigationStatus.PENDING,
+			new Date(),
+			rdcf);
+
+		StatisticsCaseCriteria criteria = new StatisticsCaseCriteria();
+		criteria.communities(Arrays.asList(rdcf.community, otherCommunity));
+
+		List<StatisticsCaseCountDto> results = getCaseStatisticsFacade()
+			.queryCaseCount(criteria, StatisticsCaseAttribute.JURISDICTION, StatisticsCaseSubAttribute.COMMUNITY, null, null, false, true, null);
+
+		// one entry with the case and one zero value
+		assertEquals(2, results.size());
+		for (StatisticsCaseCountDto result : results) {
+			if (rdcf.community.equals(result.getRowKey())) {
+				assertEquals(Integer.valueOf(1), result.getCaseCount());
+				assertEquals("Community", ((CommunityReferenceDto) result.getRowKey()).getCaption());
+			} else {
+				assertEquals(otherCommunity, result.getRowKey());
+				assertEquals(Integer.valueOf(0), result.getCaseCount());
+			}
+		}
+	}
+
 	@Test
 	public void testQueryCaseCountPopulation() {
 
@@ -162,4 +206,39 @@ public class CaseStatisticsFacadeEjbTest extends AbstractBeanTest {
 		// List should have one entry
 		assertEquals(Integer.valueOf(12214), results.get(0).getPopulation());
 	}
+
+	@Test
+	public void testBuildCaseCountQueryFromAggregate() {
+
+		CaseStatisticsFacadeEjbLocal caseStatisticsFacade = getBean(CaseStatisticsFacadeEjbLocal.class);
+		StatisticsCaseCriteria criteria = new StatisticsCaseCriteria();
+		criteria.sexes(Arrays.asList(Sex.FEMALE));
+
+		String query = caseStatisticsFacade
+			.buildCaseCountQuery(criteria, StatisticsCaseAttribute.REPORT_TIME, StatisticsCaseSubAttribute.EPI_WEEK, StatisticsCaseAttribute.SEX, null)
+			.getKey();
+		assertFalse(query.contains(CaseStatisticsFacadeEjb.AGGREGATE_TABLE_NAME));
+
+		MockProducer.getProperties().setProperty(ConfigFacadeEjb.CASE_STATISTICS_AGGREGATION, "true");
+		try {
+			query = caseStatisticsFacade
+				.buildCaseCountQuery(criteria, StatisticsCaseAttribute.REPORT_TIME, StatisticsCaseSubAttribute.EPI_WEEK, StatisticsCaseAttribute.SEX, null)
+				.getKey();
+			assertTrue(query.contains(" FROM " + CaseStatisticsFacadeEjb.AGGREGATE_TABLE_NAME + " AS " + Case.TABLE_NAME));
+			assertFalse(query.contains(Person.TABLE_NAME + "."));
+
+			// onset dates are not aggregated
+			query = caseStatisticsFacade
+				.buildCaseCountQuery(criteria, StatisticsCaseAttribute.ONSET_TIME, StatisticsCaseSubAttribute.EPI_WEEK, StatisticsCaseAttribute.SEX, null)
+				.getKey();
+			assertFalse(query.contains(CaseStatisticsFacadeEjb.AGGREGATE_TABLE_NAME));
+
+			// neither are the times of day
+			criteria.dateRange(DateHelper.getStartOfDay(new Date()), new Date(), StatisticsCaseAttribute.REPORT_TIME);
+			query = caseStatisticsFacade.buildCaseCountQuery(criteria, StatisticsCaseAttribute.SEX, null, null, null).getKey();
+			assertFalse(query.contains(CaseStatisticsFacadeEjb.AGGREGATE_TABLE_NAME));
+		} finally {
+			MockProducer.getProperties().remove(ConfigFacadeEjb.CASE_STATISTICS_AGGREGATION);
+		}
+	}
 }
@@ -1,8 +1,13 @@
 package de.symeda.sormas.backend.crypt;
 
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.nio.charset.StandardCharsets;
 import java.security.KeyStore;
 import java.security.KeyStoreException;
@@ -93,4 +98,59 @@ public class CmsReaderTest {
 
 	}
 
+	@Test
+	public void testStreamingDecryptAndVerify() throws Exception {
+
+		byte[] payload = new byte[100_000];
+		for (int i = 0; i < payload.length; i++) {
+			payload[i] = (byte) i;
+		}
+		PrivateKey aliceKey = (PrivateKey) aliceKs.getKey(ALICE_ALIAS, PASSWORD.toCharArray());
+		PrivateKey bobKey = (PrivateKey) bobKs.getKey(BOB_ALIAS, PASSWORD.toCharArray());
+
+		ByteArrayOutputStream signedAndEncrypted = new ByteArrayOutputStream();
+		try (OutputStream plain = CmsCreator.signAndEncrypt(signedAndEncrypted, aliceCert, aliceKey, bobCert)) {
+			plain.write(payload, 0, 1000);
+			plain.write(payload, 1000, payload.length - 1000);
+		}
+
+		// readable by the byte array variant, too
+		assertArrayEquals(payload, CmsReader.decryptAndVerify(signedAndEncrypted.toByteArray(), Arrays.asList(aliceCert), bobCert, bobKey));
+
+		ByteArrayOutputStream decrypted = new ByteArrayOutputStream();
+		try (InputStream plain =
+			CmsReader.decryptAndVerify(new ByteArrayInputStream(signedAndEncrypted.toByteArray()), Arrays.asList(aliceCert), bobCert, bobKey)) {
+			byte[] buffer = new byte[4096];
+			int read;
+			while ((read = plain.read(buffer)) != -1) {
+				decrypted.write(buffer, 0, read);
+			}
+		}
+		assertArrayEquals(payload, decrypted.toByteArray());
+
+		// the byte array variant is readable by the streaming one
+		byte[] notStreamed = CmsCreator.signAndEncrypt(payload, aliceCert, aliceKey, bobCert, false);
+		try (InputStream plain = CmsReader.decryptAndVerify(new ByteArrayInputStream(notStreamed), Arrays.asList(aliceCert), bobCert, bobKey)) {
+			assertEquals(payload[0], (byte) plain.read());
+		}
+	}
+
+	@Test(expected = RuntimeException.class)
+	public void testStreamingVerifyFailsOnClose() throws Exception {
+
+		ByteArrayOutputStream signedAndEncrypted = new ByteArrayOutputStream();
+		try (OutputStream plain =
+			CmsCreator.signAndEncrypt(signedAndEncrypted, aliceCert, (PrivateKey) aliceKs.getKey(ALICE_ALIAS, PASSWORD.toCharArray()), bobCert)) {
+			plain.write("Hello World!".getBytes(StandardCharsets.UTF_8));
+		}
+
+		// bob is not the expected signer
+		InputStream plain = CmsReader.decryptAndVerify(
+			new ByteArrayInputStream(signedAndEncrypted.toByteArray()),
+			Arrays.asList(bobCert),
+			bobCert,
+			(PrivateKey) bobKs.getKey(BOB_ALIAS, PASSWORD.toCharArray()));
+		plain.read();
+		plain.close();
+	}
 }
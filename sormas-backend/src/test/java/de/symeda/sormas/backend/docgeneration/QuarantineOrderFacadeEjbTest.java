@@ -25,9 +25,14 @@ import java.io.IOException;
 import java.io.StringWriter;
 import java.net.URISyntaxException;
 import java.text.ParseException;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Properties;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
 
 import org.apache.commons.io.IOUtils;
 import org.apache.poi.xwpf.extractor.XWPFWordExtractor;
@@ -232,6 +237,40 @@ public class QuarantineOrderFacadeEjbTest extends AbstractDocGenerationTest {
 		assertEquals(expected, docxText);
 	}
 
+	@Test
+	public void generateQuarantineOrdersTest() throws IOException, DocumentTemplateException {
+		ContactDto otherContactDto = creator.createContact(userDto.toReference(), contactDto.getPerson());
+
+		Properties properties = new Properties();
+		properties.setProperty("extraremark1", "the first remark");
+		properties.setProperty("extra.remark.no3", "the third remark");
+
+		byte[] zipFile = quarantineOrderFacadeEjb.getGeneratedDocuments(
+			"Quarantine.docx",
+			Arrays.asList(contactDto.toReference(), otherContactDto.toReference()),
+			userDto.toReference(),
+			properties);
+
+		Map<String, String> documents = new LinkedHashMap<>();
+		try (ZipInputStream zipInputStream = new ZipInputStream(new ByteArrayInputStream(zipFile))) {
+			ZipEntry entry;
+			while ((entry = zipInputStream.getNextEntry()) != null) {
+				XWPFWordExtractor xwpfWordExtractor =
+					new XWPFWordExtractor(new XWPFDocument(new ByteArrayInputStream(IOUtils.toByteArray(zipInputStream))));
+				documents.put(entry.getName(), cleanLineSeparators(xwpfWordExtractor.getText()));
+				xwpfWordExtractor.close();
+			}
+		}
+
+		assertEquals(
+			Arrays.asList(contactDto.getUuid() + "_Quarantine.docx", otherContactDto.getUuid() + "_Quarantine.docx"),
+			new ArrayList<>(documents.keySet()));
+
+		StringWriter writer = new StringWriter();
+		IOUtils.copy(getClass().getResourceAsStream("/docgeneration/quarantineContact/QuarantineContact.cmp"), writer, "UTF-8");
+		assertEquals(cleanLineSeparators(writer.toString()), documents.get(contactDto.getUuid() + "_Quarantine.docx"));
+	}
+
 	@Test
 	public void getAvailableTemplatesTest() throws URISyntaxException, DocumentTemplateException {
 		List<String> availableTemplates = quarantineOrderFacadeEjb.getAvailableTemplates(new CaseReferenceDto());
@@ -28,11 +28,14 @@ import java.io.InputStream;
 import java.io.StringWriter;
 import java.net.URISyntaxException;
 import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.util.Properties;
 import java.util.Set;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
+import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.FilenameUtils;
 import org.apache.commons.io.IOUtils;
 import org.apache.poi.xwpf.extractor.XWPFWordExtractor;
@@ -69,6 +72,29 @@ public class TemplateEngineTest {
 		genericTestCases(getTestCaseRunnerTxt());
 	}
 
+	@Test
+	public void modifiedTemplateTxtTest() throws IOException, DocumentTemplateException {
+		File templateDir = Files.createTempDirectory("templates").toFile();
+		try {
+			File templateFile = new File(templateDir, "Modified.txt");
+			FileUtils.writeStringToFile(templateFile, "first $name", StandardCharsets.UTF_8);
+
+			Properties properties = new Properties();
+			properties.setProperty("name", "template");
+			assertEquals("first template", templateEngine.generateDocumentTxt(properties, templateFile));
+			assertTrue(templateEngine.extractTemplateVariablesTxt(templateFile).getVariables().contains("name"));
+
+			FileUtils.writeStringToFile(templateFile, "second ${name} $other", StandardCharsets.UTF_8);
+			// the modification time may have a resolution of seconds
+			templateFile.setLastModified(templateFile.lastModified() + 2000);
+			properties.setProperty("other", "version");
+			assertEquals("second template version", templateEngine.generateDocumentTxt(properties, templateFile));
+			assertTrue(templateEngine.extractTemplateVariablesTxt(templateFile).getVariables().contains("other"));
+		} finally {
+			FileUtils.deleteDirectory(templateDir);
+		}
+	}
+
 	private void genericTestCases(TestCaseRunner testCaseRunner)
 		throws IOException, XDocReportException, ParseException, ClassNotFoundException, URISyntaxException, DocumentTemplateException {
 		File testCasesDir = new File(getClass().getResource(testCaseRunner.getTestCasesDirPath()).toURI());
@@ -190,7 +216,7 @@ public class TemplateEngineTest {
 			}
 
 			@Override
-			public String getGeneratedText(File testCase, Properties properties) {
+			public String getGeneratedText(File testCase, Properties properties) throws DocumentTemplateException {
 				return templateEngine.generateDocumentTxt(properties, testCase);
 			}
 		};
@@ -452,6 +452,34 @@ public class PersonFacadeEjbTest extends AbstractBeanTest {
 		assertEquals(2, personsAfterT1.size());
 	}
 
+	@Test
+	public void testGetPersonsAfterInBatches() {
+		UserDto natUser = useNationalUserLogin();
+
+		Date t1 = new Date();
+
+		for (int i = 0; i < 3; i++) {
+			PersonDto person = creator.createPerson();
+			creator.createContact(natUser.toReference(), person.toReference());
+		}
+
+		List<PersonDto> firstBatch = getPersonFacade().getPersonsAfter(t1, 2, null, null);
+		assertEquals(2, firstBatch.size());
+
+		PersonDto last = firstBatch.get(1);
+		List<PersonDto> secondBatch = getPersonFacade().getPersonsAfter(t1, 2, last.getChangeDate(), last.getUuid());
+		assertEquals(1, secondBatch.size());
+
+		List<String> uuids = firstBatch.stream().map(PersonDto::getUuid).collect(Collectors.toList());
+		uuids.add(secondBatch.get(0).getUuid());
+		assertThat(
+			uuids,
+			containsInAnyOrder(getPersonFacade().getPersonsAfter(t1).stream().map(PersonDto::getUuid).toArray(String[]::new)));
+
+		last = secondBatch.get(0);
+		assertThat(getPersonFacade().getPersonsAfter(t1, 2, last.getChangeDate(), last.getUuid()), hasSize(0));
+	}
+
 	@Test
 	public void testCreateWithoutUuid() {
 		PersonDto person = new PersonDto();
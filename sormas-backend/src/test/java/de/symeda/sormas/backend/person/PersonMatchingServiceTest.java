@@ -0,0 +1,87 @@
+package de.symeda.sormas.backend.person;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.everyItem;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.isIn;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.Test;
+
+import de.symeda.sormas.api.caze.CaseDataDto;
+import de.symeda.sormas.api.event.EventDto;
+import de.symeda.sormas.api.person.PersonDto;
+import de.symeda.sormas.api.person.PersonNameDto;
+import de.symeda.sormas.api.person.PersonSimilarityCriteria;
+import de.symeda.sormas.api.person.Sex;
+import de.symeda.sormas.api.user.UserDto;
+import de.symeda.sormas.api.user.UserRole;
+import de.symeda.sormas.backend.AbstractBeanTest;
+import de.symeda.sormas.backend.TestDataCreator.RDCF;
+
+public class PersonMatchingServiceTest extends AbstractBeanTest {
+
+	@Test
+	public void testGetMatchingNameDtosLikeSingleQuery() {
+
+		RDCF rdcf = creator.createRDCF("Region", "District", "Community", "Facility");
+		RDCF otherRdcf = creator.createRDCF("Other Region", "Other District", "Other Community", "Other Facility");
+		UserDto otherUser = creator.createUser(
+			otherRdcf.region.getUuid(),
+			otherRdcf.district.getUuid(),
+			otherRdcf.facility.getUuid(),
+			"Other",
+			"Off",
+			UserRole.SURVEILLANCE_OFFICER);
+		UserDto user = useSurveillanceOfficerLogin(rdcf);
+
+		// 1-3 = Accessible persons; 4 = Person without reference; 5 = Inactive person; 6 = Not accessible; 7 = Other name
+		PersonDto person1 = creator.createPerson("James", "Smith", Sex.MALE, 1980, 1, 1);
+		PersonDto person2 = creator.createPerson("James", "Smith", Sex.MALE, 1979, 5, 12);
+		PersonDto person3 = creator.createPerson("James", "Smith", Sex.MALE, 1980, 1, 5);
+		creator.createPerson("James", "Smith", Sex.MALE, 1980, 1, 1);
+		PersonDto person5 = creator.createPerson("James", "Smith", Sex.MALE, 1980, 1, 1);
+		PersonDto person6 = creator.createPerson("James", "Smith", Sex.MALE, 1980, 1, 1);
+		PersonDto person7 = creator.createPerson("Maria", "Garcia", Sex.FEMALE, 1984, 12, 2);
+
+		CaseDataDto activeCase = creator.createCase(user.toReference(), person1.toReference(), rdcf);
+		creator.createContact(user.toReference(), person2.toReference(), activeCase);
+		EventDto activeEvent = creator.createEvent(user.toReference());
+		creator.createEventParticipant(activeEvent.toReference(), person3, user.toReference());
+		CaseDataDto inactiveCase = creator.createCase(user.toReference(), person5.toReference(), rdcf);
+		getCaseFacade().archiveOrDearchiveCase(inactiveCase.getUuid(), true);
+		creator.createCase(otherUser.toReference(), person6.toReference(), otherRdcf);
+		creator.createCase(user.toReference(), person7.toReference(), rdcf);
+
+		PersonMatchingService personMatchingService = getPersonMatchingService();
+
+		// Candidates by name first, then the access check on the candidates
+		PersonSimilarityCriteria criteria = new PersonSimilarityCriteria().firstName("James").lastName("Smith");
+		List<String> singleQueryUuids = getUuids(personMatchingService.getAccessibleNameDtos(criteria, null, null));
+		List<String> matchingUuids = getUuids(personMatchingService.getMatchingNameDtos(criteria, null));
+		assertThat(singleQueryUuids, containsInAnyOrder(person1.getUuid(), person2.getUuid(), person3.getUuid()));
+		assertThat(matchingUuids, containsInAnyOrder(singleQueryUuids.toArray()));
+
+		// The access check only returns the remaining number of persons
+		matchingUuids = getUuids(personMatchingService.getMatchingNameDtos(criteria, 2));
+		assertThat(matchingUuids, hasSize(2));
+		assertThat(matchingUuids, everyItem(isIn(singleQueryUuids)));
+
+		criteria.sex(Sex.MALE).birthdateYYYY(1980).birthdateMM(1);
+		singleQueryUuids = getUuids(personMatchingService.getAccessibleNameDtos(criteria, null, null));
+		matchingUuids = getUuids(personMatchingService.getMatchingNameDtos(criteria, null));
+		assertThat(singleQueryUuids, containsInAnyOrder(person1.getUuid(), person3.getUuid()));
+		assertThat(matchingUuids, containsInAnyOrder(singleQueryUuids.toArray()));
+
+		matchingUuids = getUuids(personMatchingService.getMatchingNameDtos(criteria, 1));
+		assertThat(matchingUuids, hasSize(1));
+		assertThat(matchingUuids, everyItem(isIn(singleQueryUuids)));
+	}
+
+	private List<String> getUuids(List<PersonNameDto> persons) {
+		return persons.stream().map(PersonNameDto::getUuid).collect(Collectors.toList());
+	}
+}
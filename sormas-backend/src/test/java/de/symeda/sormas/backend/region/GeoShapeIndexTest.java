@@ -0,0 +1,72 @@
+package de.symeda.sormas.backend.region;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Test;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.geom.MultiPolygon;
+import org.locationtech.jts.geom.Polygon;
+
+import de.symeda.sormas.api.region.GeoLatLon;
+
+public class GeoShapeIndexTest {
+
+	private final GeometryFactory factory = new GeometryFactory();
+
+	@Test
+	public void testGetByCoord() {
+
+		Map<String, MultiPolygon> shapes = new HashMap<>();
+		shapes.put("west", square(0, 0, 10));
+		// L-shaped: the envelope also covers the "north" square, but the shape does not
+		shapes.put(
+			"east",
+			multiPolygon(
+				factory.createPolygon(
+					new Coordinate[] {
+						new Coordinate(10, 0),
+						new Coordinate(30, 0),
+						new Coordinate(30, 20),
+						new Coordinate(20, 20),
+						new Coordinate(20, 10),
+						new Coordinate(10, 10),
+						new Coordinate(10, 0) })));
+		shapes.put("north", square(10, 10, 10));
+
+		GeoShapeIndex<String> index = new GeoShapeIndex<>(shapes);
+
+		assertEquals("west", index.getByCoord(new GeoLatLon(5, 5)));
+		assertEquals("east", index.getByCoord(new GeoLatLon(5, 15)));
+		assertEquals("east", index.getByCoord(new GeoLatLon(15, 25)));
+		assertEquals("north", index.getByCoord(new GeoLatLon(15, 15)));
+		assertNull(index.getByCoord(new GeoLatLon(50, 50)));
+	}
+
+	@Test
+	public void testEmptyIndex() {
+		assertNull(new GeoShapeIndex<String>(Collections.emptyMap()).getByCoord(new GeoLatLon(5, 5)));
+	}
+
+	private MultiPolygon square(double lon, double lat, double size) {
+
+		return multiPolygon(
+			factory.createPolygon(
+				new Coordinate[] {
+					new Coordinate(lon, lat),
+					new Coordinate(lon + size, lat),
+					new Coordinate(lon + size, lat + size),
+					new Coordinate(lon, lat + size),
+					new Coordinate(lon, lat) }));
+	}
+
+	private MultiPolygon multiPolygon(Polygon polygon) {
+		return factory.createMultiPolygon(new Polygon[] {
+			polygon });
+	}
+}
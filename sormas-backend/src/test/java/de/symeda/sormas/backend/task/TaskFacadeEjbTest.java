@@ -258,4 +258,17 @@ public class TaskFacadeEjbTest extends AbstractBeanTest {
 		assertThat(taskCounts.get(user1.getUuid()), is(2L));
 		assertThat(taskCounts.get(user2.getUuid()), is(1L));
 	}
+
+	@Test
+	public void testBuildSmsDigest() {
+
+		List<String> contents = Arrays.asList("Task 1", "Task 2", "Task 3");
+		assertEquals("Task 1\nTask 2\nTask 3", TaskFacadeEjb.buildSmsDigest(contents));
+
+		contents = Arrays.asList("Task 1", "Task 2", "Task 3", "Task 4", "Task 5");
+		String digest = TaskFacadeEjb.buildSmsDigest(contents);
+		assertThat(digest.split("\n").length, is(TaskFacadeEjb.SMS_DIGEST_MAX_TASKS + 1));
+		assertThat(digest.contains("Task 4"), is(false));
+		assertThat(digest.endsWith("2 more tasks"), is(true));
+	}
 }
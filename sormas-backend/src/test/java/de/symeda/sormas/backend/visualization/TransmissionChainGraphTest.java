@@ -0,0 +1,38 @@
+package de.symeda.sormas.backend.visualization;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+public class TransmissionChainGraphTest {
+
+	@Test
+	public void testGetContactIdsOfLargestChains() {
+
+		TransmissionChainGraph graph = new TransmissionChainGraph();
+		// chain of persons 1 - 2 - 3 - 4, linked in reverse order
+		graph.addContact(10L, 3L, 4L);
+		graph.addContact(11L, 1L, 2L);
+		graph.addContact(12L, 2L, 3L);
+		// chain of persons 5 - 6
+		graph.addContact(13L, 5L, 6L);
+		// chain of persons 7 - 8 - 9
+		graph.addContact(14L, 7L, 8L);
+		graph.addContact(15L, 9L, 8L);
+		// contact without source case
+		graph.addContact(16L, null, 10L);
+
+		assertEquals(10, graph.getPersonCount());
+		assertEquals(7, graph.getContactCount());
+
+		assertThat(graph.getContactIdsOfLargestChains(10), contains(10L, 11L, 12L, 13L, 14L, 15L, 16L));
+		// the chain of 2 persons does not fit anymore, but the single person does
+		assertThat(graph.getContactIdsOfLargestChains(8), containsInAnyOrder(10L, 11L, 12L, 14L, 15L, 16L));
+		assertThat(graph.getContactIdsOfLargestChains(4), containsInAnyOrder(10L, 11L, 12L));
+		// the largest chain is cut off
+		assertThat(graph.getContactIdsOfLargestChains(3), containsInAnyOrder(10L, 12L));
+	}
+}
@@ -56,6 +56,16 @@ public class CaseResource extends EntityDtoResource {
 		return FacadeProvider.getCaseFacade().getAllActiveCasesAfter(new Date(since));
 	}
 
+	@GET
+	@Path("/all/{since}/{size}")
+	public List<CaseDataDto> getAllCases(
+		@PathParam("since") long since,
+		@PathParam("size") int size,
+		@QueryParam("lastChangeDate") Long lastChangeDate,
+		@QueryParam("lastUuid") String lastUuid) {
+		return FacadeProvider.getCaseFacade().getAllActiveCasesAfter(new Date(since), size, toDate(lastChangeDate), lastUuid);
+	}
+
 	@POST
 	@Path("/query")
 	public List<CaseDataDto> getByUuids(List<String> uuids) {
@@ -2,6 +2,7 @@ package de.symeda.sormas.rest;
 
 import java.text.DateFormat;
 import java.util.ArrayList;
+import java.util.Date;
 import java.util.List;
 import java.util.function.Function;
 
@@ -11,9 +12,12 @@ import org.apache.commons.lang3.exception.ExceptionUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import de.symeda.sormas.api.ConfigFacade;
 import de.symeda.sormas.api.EntityDto;
+import de.symeda.sormas.api.FacadeProvider;
 import de.symeda.sormas.api.PushResult;
 import de.symeda.sormas.api.utils.OutdatedEntityException;
+import de.symeda.sormas.api.utils.ValidationRuntimeException;
 
 public abstract class EntityDtoResource {
 
@@ -22,30 +26,86 @@ public abstract class EntityDtoResource {
 	@EJB
 	private TransactionWrapper transactionWrapper;
 
+	/**
+	 * Saves the pushed DTOs in chunks of {@link ConfigFacade#getPushChunkSize()}, one transaction per chunk.
+	 * When a chunk fails for other reasons than validation, it is rolled back and its DTOs are saved
+	 * separately, so only the failing DTO is rejected.
+	 */
 	protected <T extends Object> List<PushResult> savePushedDto(List<T> dtos, Function<T, T> saveEntityDto) {
 
+		int chunkSize = FacadeProvider.getConfigFacade().getPushChunkSize();
+		if (chunkSize <= 1) {
+			return saveSeparately(dtos, saveEntityDto);
+		}
+
+		List<PushResult> results = new ArrayList<>(dtos.size());
+		for (int i = 0; i < dtos.size(); i += chunkSize) {
+			List<T> chunk = dtos.subList(i, Math.min(i + chunkSize, dtos.size()));
+			List<PushResult> chunkResults;
+			try {
+				chunkResults = transactionWrapper.execute(c -> saveChunk(c, saveEntityDto), chunk);
+			} catch (Exception e) {
+				logger.warn("Saving pushed chunk of " + chunk.size() + " entities failed, saving them separately: " + e.getMessage());
+				chunkResults = saveSeparately(chunk, saveEntityDto);
+			}
+			results.addAll(chunkResults);
+		}
+		return results;
+	}
+
+	/**
+	 * Runs inside the transaction of the chunk. Validation exceptions don't roll back the transaction and are handled per DTO,
+	 * all other exceptions abort the chunk.
+	 */
+	private <T> List<PushResult> saveChunk(List<T> chunk, Function<T, T> saveEntityDto) {
+
+		List<PushResult> results = new ArrayList<>(chunk.size());
+		for (T dto : chunk) {
+			PushResult result;
+			try {
+				saveEntityDto.apply(dto);
+				result = PushResult.OK;
+			} catch (ValidationRuntimeException e) {
+				result = handlePushException(dto, e);
+			}
+			results.add(result);
+		}
+		return results;
+	}
+
+	private <T> List<PushResult> saveSeparately(List<T> dtos, Function<T, T> saveEntityDto) {
+
 		List<PushResult> results = new ArrayList<>(dtos.size());
 		for (T dto : dtos) {
 			PushResult result;
 			try {
-				dto = transactionWrapper.execute(saveEntityDto, dto);
+				transactionWrapper.execute(saveEntityDto, dto);
 				result = PushResult.OK;
 			} catch (Exception e) {
-				String errorMessage = createErrorMessage(dto);
-				errorMessage += e.getMessage();
-				if (e instanceof OutdatedEntityException || ExceptionUtils.getRootCause(e) instanceof OutdatedEntityException) {
-					logger.warn(errorMessage, e);
-					result = PushResult.TOO_OLD;
-				} else {
-					logger.error(errorMessage, e);
-					result = PushResult.ERROR;
-				}
+				result = handlePushException(dto, e);
 			}
 			results.add(result);
 		}
 		return results;
 	}
 
+	private <T> PushResult handlePushException(T dto, Exception e) {
+
+		String errorMessage = createErrorMessage(dto);
+		errorMessage += e.getMessage();
+		if (e instanceof OutdatedEntityException || ExceptionUtils.getRootCause(e) instanceof OutdatedEntityException) {
+			logger.warn(errorMessage, e);
+			return PushResult.TOO_OLD;
+		} else {
+			logger.error(errorMessage, e);
+			return PushResult.ERROR;
+		}
+	}
+
+	protected static Date toDate(Long time) {
+		return time != null ? new Date(time) : null;
+	}
+
 	protected <T extends Object> String createErrorMessage(T dto) {
 
 		final EntityDto entityDto = (EntityDto) dto;
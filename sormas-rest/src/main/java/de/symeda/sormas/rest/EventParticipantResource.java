@@ -28,6 +28,7 @@ import javax.ws.rs.POST;
 import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
+import javax.ws.rs.QueryParam;
 import javax.ws.rs.core.MediaType;
 
 import de.symeda.sormas.api.FacadeProvider;
@@ -56,6 +57,16 @@ public class EventParticipantResource extends EntityDtoResource {
 		return result;
 	}
 
+	@GET
+	@Path("/all/{since}/{size}")
+	public List<EventParticipantDto> getAllEventParticipantsAfter(
+		@PathParam("since") long since,
+		@PathParam("size") int size,
+		@QueryParam("lastChangeDate") Long lastChangeDate,
+		@QueryParam("lastUuid") String lastUuid) {
+		return FacadeProvider.getEventParticipantFacade().getAllActiveEventParticipantsAfter(new Date(since), size, toDate(lastChangeDate), lastUuid);
+	}
+
 	@POST
 	@Path("/query")
 	public List<EventParticipantDto> getByUuids(List<String> uuids) {
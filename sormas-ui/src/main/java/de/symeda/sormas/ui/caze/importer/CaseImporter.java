@@ -19,8 +19,10 @@ package de.symeda.sormas.ui.caze.importer;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.Iterator;
 import java.util.List;
 import java.util.function.Consumer;
+import java.util.stream.Collectors;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -62,6 +64,7 @@ import de.symeda.sormas.ui.utils.VaadinUiUtil;
  * Data importer that is used to import cases and associated samples.
  * This importer adds the following logic:
  * 
+ * - The lines of a chunk are read and validated in parallel by the backend and then saved in one transaction
  * - Check the database for similar cases and, if at least one is found, execute the
  * similarityCallback received by the calling class.
  * - The import will wait for the similarityCallback to be resolved before it is continued
@@ -109,6 +112,52 @@ public class CaseImporter extends DataImporter {
 		ImportLineResultDto<CaseImportEntities> importResult =
 			caseImportFacade.importCaseData(values, entityClasses, entityProperties, entityPropertyPaths, !firstLine);
 
+		return handleImportResult(values, entityClasses, entityPropertyPaths, importResult);
+	}
+
+	@Override
+	protected void importDataFromCsvLines(
+		List<String[]> lines,
+		String[] entityClasses,
+		String[] entityProperties,
+		String[][] entityPropertyPaths,
+		Consumer<ImportLineResult> lineResultConsumer)
+		throws IOException, InvalidColumnException, InterruptedException {
+
+		// the backend builds and validates the lines of the chunk in parallel
+		List<ImportLineResultDto<CaseImportEntities>> buildResults =
+			caseImportFacade.buildImportEntities(lines, entityClasses, entityProperties, entityPropertyPaths, true);
+
+		List<CaseImportEntities> validEntities =
+			buildResults.stream().filter(ImportLineResultDto::isSuccess).map(ImportLineResultDto::getImportEntities).collect(Collectors.toList());
+		List<ImportLineResultDto<CaseImportEntities>> saveResults;
+		try {
+			saveResults = caseImportFacade.saveImportedEntities(validEntities);
+		} catch (RuntimeException e) {
+			// The transaction of the whole chunk has been rolled back; import the lines one by one so only the faulty ones fail
+			LOGGER.warn("Saving a chunk of imported cases failed, importing its lines separately: {}", e.getMessage());
+			super.importDataFromCsvLines(lines, entityClasses, entityProperties, entityPropertyPaths, lineResultConsumer);
+			return;
+		}
+
+		// Lines whose person is similar to an existing one have been flagged as duplicates and are decided by the user one by one
+		Iterator<ImportLineResultDto<CaseImportEntities>> saveResultIterator = saveResults.iterator();
+		for (int i = 0; i < lines.size(); i++) {
+			ImportLineResultDto<CaseImportEntities> importResult = buildResults.get(i).isSuccess() ? saveResultIterator.next() : buildResults.get(i);
+			lineResultConsumer.accept(handleImportResult(lines.get(i), entityClasses, entityPropertyPaths, importResult));
+			if (isImportCanceled()) {
+				break;
+			}
+		}
+	}
+
+	private ImportLineResult handleImportResult(
+		String[] values,
+		String[] entityClasses,
+		String[][] entityPropertyPaths,
+		ImportLineResultDto<CaseImportEntities> importResult)
+		throws IOException, InvalidColumnException, InterruptedException {
+
 		if (importResult.isError()) {
 			writeImportError(values, importResult.getMessage());
 			return ImportLineResult.ERROR;
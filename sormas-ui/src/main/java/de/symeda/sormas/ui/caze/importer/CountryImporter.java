@@ -151,6 +151,6 @@ public class CountryImporter extends InfrastructureImporter {
 
 	@Override
 	protected ImportProgressLayout getImportProgressLayout(UI currentUI, boolean duplicatesPossible) throws IOException, CsvValidationException {
-		return new CountryImportProgressLayout(readImportFileLength(inputFile), currentUI, this::cancelImport);
+		return new CountryImportProgressLayout(currentUI, this::cancelImport);
 	}
 }
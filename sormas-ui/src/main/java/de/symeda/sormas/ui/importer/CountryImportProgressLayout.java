@@ -6,8 +6,8 @@ public class CountryImportProgressLayout extends ImportProgressLayout {
 
 	private static final long serialVersionUID = 550057797894417947L;
 
-	public CountryImportProgressLayout(int totalCount, UI currentUI, Runnable cancelCallback) {
-		super(totalCount, currentUI, cancelCallback, true, false);
+	public CountryImportProgressLayout(UI currentUI, Runnable cancelCallback) {
+		super(currentUI, cancelCallback, true, false);
 	}
 
 }
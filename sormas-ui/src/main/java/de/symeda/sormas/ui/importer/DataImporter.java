@@ -18,13 +18,19 @@ import java.nio.file.Paths;
 import java.text.ParseException;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
 import java.util.function.BiFunction;
 import java.util.function.Consumer;
 import java.util.function.Function;
+import java.util.function.Supplier;
 
 import org.apache.commons.io.input.BOMInputStream;
+import org.apache.commons.io.input.CountingInputStream;
 import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -72,7 +78,8 @@ import de.symeda.sormas.ui.utils.VaadinUiUtil;
  * These are the steps performed by the data importer (sub classes might add additional logic):
  * 1) Read the CSV file from the passed file path and open an error report file
  * 2) Read the header row(s) from the CSV and build a list of properties based on its columns
- * 3) Insert every line of data into the object using a callback
+ * 3) Insert every line of data into the object using a callback; the lines are passed on in chunks, so importers can
+ * process the lines of a chunk together
  * 4) Present the result of the import and, if errors occurred, an error report file to the user
  */
 public abstract class DataImporter {
@@ -97,13 +104,14 @@ public abstract class DataImporter {
 	protected String errorReportFilePath;
 	protected String errorReportFileName = "sormas_import_error_report.csv";
 	/**
-	 * Called whenever one line of the import file has been processed. Used e.g. to update the progress bar.
+	 * Called whenever one line of the import file has been processed, together with the share of the file that has been read.
+	 * Used e.g. to update the progress bar.
 	 */
-	private Consumer<ImportLineResult> importedLineCallback;
+	private BiConsumer<ImportLineResult, Float> importedLineCallback;
 	/**
 	 * Whether the import should be canceled after the current line.
 	 */
-	private boolean cancelAfterCurrent;
+	private volatile boolean cancelAfterCurrent;
 	/**
 	 * Whether or not the current import has resulted in at least one error.
 	 */
@@ -117,6 +125,10 @@ public abstract class DataImporter {
 	private CSVWriter errorReportCsvWriter;
 
 	private final EnumCaptionCache enumCaptionCache;
+	/**
+	 * The infrastructure data and users referenced by the import file, by the name used in the file.
+	 */
+	private final Map<List<Object>, List<?>> lookupTable = new HashMap<>();
 
 	public DataImporter(File inputFile, boolean hasEntityClassRow, UserDto currentUser) {
 		this.inputFile = inputFile;
@@ -214,7 +226,7 @@ public abstract class DataImporter {
 	 * Can be overriden by subclasses to provide alternative progress layouts
 	 */
 	protected ImportProgressLayout getImportProgressLayout(UI currentUI, boolean duplicatesPossible) throws IOException, CsvValidationException {
-		return new ImportProgressLayout(readImportFileLength(inputFile), currentUI, this::cancelImport, duplicatesPossible);
+		return new ImportProgressLayout(currentUI, this::cancelImport, duplicatesPossible);
 	}
 
 	/**
@@ -225,7 +237,13 @@ public abstract class DataImporter {
 
 		long t0 = System.currentTimeMillis();
 
-		try (CSVReader csvReader = getCSVReader(inputFile)) {
+		// The progress is based on the bytes read, so the file does not need to be parsed in advance to count its lines
+		float fileLength = Math.max(inputFile.length(), 1);
+		int chunkSize = Math.max(FacadeProvider.getConfigFacade().getImportChunkSize(), 1);
+		lookupTable.clear();
+
+		try (CountingInputStream inputStream = new CountingInputStream(Files.newInputStream(inputFile.toPath()));
+			CSVReader csvReader = getCSVReader(inputStream)) {
 			errorReportCsvWriter = CSVUtils.createCSVWriter(createErrorReportWriter(), this.csvSeparator);
 
 			// Build dictionary of entity headers
@@ -252,20 +270,50 @@ public abstract class DataImporter {
 			}
 			errorReportCsvWriter.writeNext(columnNames);
 
-			// Read and import all lines from the import file
-			String[] nextLine = readNextValidLine(csvReader);
+			// Read and import all lines from the import file: the first line on its own, all others in chunks
 			int lineCounter = 0;
-			while (nextLine != null) {
-				ImportLineResult lineResult = importDataFromCsvLine(nextLine, entityClasses, entityProperties, entityPropertyPaths, lineCounter == 0);
+			float progress = 0;
+			String[] nextLine = readNextValidLine(csvReader);
+			if (nextLine != null) {
+				ImportLineResult lineResult = importDataFromCsvLine(nextLine, entityClasses, entityProperties, entityPropertyPaths, true);
 				logger.debug("runImport - line {}", lineCounter);
+				lineCounter++;
+				progress = inputStream.getByteCount() / fileLength;
 				if (importedLineCallback != null) {
-					importedLineCallback.accept(lineResult);
+					importedLineCallback.accept(lineResult, progress);
+				}
+				nextLine = !cancelAfterCurrent ? readNextValidLine(csvReader) : null;
+			}
+
+			List<String[]> chunk = new ArrayList<>(chunkSize);
+			while (nextLine != null) {
+				chunk.add(nextLine);
+				nextLine = readNextValidLine(csvReader);
+				if (chunk.size() < chunkSize && nextLine != null) {
+					continue;
 				}
+
+				// The progress of the lines is interpolated between the bytes read before and after the chunk
+				final float chunkStartProgress = progress;
+				final float chunkEndProgress = nextLine != null ? inputStream.getByteCount() / fileLength : 1;
+				final int chunkStartLine = lineCounter;
+				final int chunkLength = chunk.size();
+				final int[] chunkLineCounter = new int[1];
+				importDataFromCsvLines(chunk, entityClasses, entityProperties, entityPropertyPaths, lineResult -> {
+					logger.debug("runImport - line {}", chunkStartLine + chunkLineCounter[0]);
+					chunkLineCounter[0]++;
+					if (importedLineCallback != null) {
+						importedLineCallback
+							.accept(lineResult, chunkStartProgress + (chunkEndProgress - chunkStartProgress) * chunkLineCounter[0] / chunkLength);
+					}
+				});
+				lineCounter += chunkLineCounter[0];
+				progress = chunkEndProgress;
+				chunk.clear();
+
 				if (cancelAfterCurrent) {
 					break;
 				}
-				nextLine = readNextValidLine(csvReader);
-				lineCounter++;
 			}
 
 			if (logger.isDebugEnabled()) {
@@ -296,6 +344,10 @@ public abstract class DataImporter {
 		cancelAfterCurrent = true;
 	}
 
+	protected boolean isImportCanceled() {
+		return cancelAfterCurrent;
+	}
+
 	protected Writer createErrorReportWriter() throws IOException {
 		File errorReportFile = new File(errorReportFilePath);
 		if (errorReportFile.exists()) {
@@ -314,29 +366,8 @@ public abstract class DataImporter {
 			I18nProperties.getString(Strings.messageErrorReportNotAvailable));
 	}
 
-	/**
-	 * Reads the number of actual CSV lines in the file minus the header line(s).
-	 * This is different from "normal" lines, because CSV may have escaped multi-line text blocks.
-	 */
-	protected int readImportFileLength(File inputFile) throws IOException, CsvValidationException {
-		int importFileLength = 0;
-		try (CSVReader caseCountReader = getCSVReader(inputFile)) {
-			while (readNextValidLine(caseCountReader) != null) {
-				importFileLength++;
-			}
-			// subtract header line(s)
-			importFileLength--;
-			if (hasEntityClassRow) {
-				importFileLength--;
-			}
-		}
-
-		return importFileLength;
-	}
-
-	private CSVReader getCSVReader(File inputFile) throws IOException {
+	private CSVReader getCSVReader(InputStream inputStream) throws IOException {
 		CharsetDecoder decoder = CharsetHelper.getDecoder(inputFile);
-		InputStream inputStream = Files.newInputStream(inputFile.toPath());
 		BOMInputStream bomInputStream = new BOMInputStream(inputStream);
 		Reader reader = new InputStreamReader(bomInputStream, decoder);
 		BufferedReader bufferedReader = new BufferedReader(reader);
@@ -365,6 +396,30 @@ public abstract class DataImporter {
 		boolean firstLine)
 		throws IOException, InvalidColumnException, InterruptedException;
 
+	/**
+	 * Imports a chunk of lines of the import file, except the first one. By default, the lines are imported one after the other
+	 * with {@link #importDataFromCsvLine(String[], String[], String[], String[][], boolean)}, but importers can e.g. hand the whole
+	 * chunk to the backend and save its lines together.
+	 * 
+	 * @param lineResultConsumer
+	 *            Has to be called with the result of each line, in the order of the lines
+	 */
+	protected void importDataFromCsvLines(
+		List<String[]> lines,
+		String[] entityClasses,
+		String[] entityProperties,
+		String[][] entityPropertyPaths,
+		Consumer<ImportLineResult> lineResultConsumer)
+		throws IOException, InvalidColumnException, InterruptedException {
+
+		for (String[] values : lines) {
+			lineResultConsumer.accept(importDataFromCsvLine(values, entityClasses, entityProperties, entityPropertyPaths, false));
+			if (cancelAfterCurrent) {
+				break;
+			}
+		}
+	}
+
 	/**
 	 * Contains checks for the most common data types for entries in the import file. This method should be called
 	 * in every subclass whenever data from the import file is supposed to be written to the entity in question.
@@ -421,7 +476,7 @@ public abstract class DataImporter {
 			return true;
 		}
 		if (propertyType.isAssignableFrom(AreaReferenceDto.class)) {
-			List<AreaReferenceDto> areas = FacadeProvider.getAreaFacade().getByName(entry, false);
+			List<AreaReferenceDto> areas = lookup(() -> FacadeProvider.getAreaFacade().getByName(entry, false), AreaReferenceDto.class, entry);
 			if (areas.isEmpty()) {
 				throw new ImportErrorException(
 					I18nProperties.getValidationError(Validations.importEntryDoesNotExist, entry, buildEntityProperty(entryHeaderPath)));
@@ -434,7 +489,8 @@ public abstract class DataImporter {
 			}
 		}
 		if (propertyType.isAssignableFrom(SubcontinentReferenceDto.class)) {
-			List<SubcontinentReferenceDto> subcontinents = FacadeProvider.getSubcontinentFacade().getByDefaultName(entry, false);
+			List<SubcontinentReferenceDto> subcontinents =
+				lookup(() -> FacadeProvider.getSubcontinentFacade().getByDefaultName(entry, false), SubcontinentReferenceDto.class, entry);
 			if (subcontinents.isEmpty()) {
 				throw new ImportErrorException(
 					I18nProperties.getValidationError(Validations.importEntryDoesNotExist, entry, buildEntityProperty(entryHeaderPath)));
@@ -447,7 +503,8 @@ public abstract class DataImporter {
 			}
 		}
 		if (propertyType.isAssignableFrom(CountryReferenceDto.class)) {
-			List<CountryReferenceDto> countries = FacadeProvider.getCountryFacade().getByDefaultName(entry, false);
+			List<CountryReferenceDto> countries =
+				lookup(() -> FacadeProvider.getCountryFacade().getByDefaultName(entry, false), CountryReferenceDto.class, entry);
 			if (countries.isEmpty()) {
 				throw new ImportErrorException(
 					I18nProperties.getValidationError(Validations.importEntryDoesNotExist, entry, buildEntityProperty(entryHeaderPath)));
@@ -460,7 +517,8 @@ public abstract class DataImporter {
 			}
 		}
 		if (propertyType.isAssignableFrom(ContinentReferenceDto.class)) {
-			List<ContinentReferenceDto> continents = FacadeProvider.getContinentFacade().getByDefaultName(entry, false);
+			List<ContinentReferenceDto> continents =
+				lookup(() -> FacadeProvider.getContinentFacade().getByDefaultName(entry, false), ContinentReferenceDto.class, entry);
 			if (continents.isEmpty()) {
 				throw new ImportErrorException(
 					I18nProperties.getValidationError(Validations.importEntryDoesNotExist, entry, buildEntityProperty(entryHeaderPath)));
@@ -473,7 +531,7 @@ public abstract class DataImporter {
 			}
 		}
 		if (propertyType.isAssignableFrom(RegionReferenceDto.class)) {
-			List<RegionDto> regions = FacadeProvider.getRegionFacade().getByName(entry, false);
+			List<RegionDto> regions = lookup(() -> FacadeProvider.getRegionFacade().getByName(entry, false), RegionDto.class, entry);
 			if (regions.isEmpty()) {
 				throw new ImportErrorException(
 					I18nProperties.getValidationError(Validations.importEntryDoesNotExist, entry, buildEntityProperty(entryHeaderPath)));
@@ -482,7 +540,8 @@ public abstract class DataImporter {
 					I18nProperties.getValidationError(Validations.importRegionNotUnique, entry, buildEntityProperty(entryHeaderPath)));
 			} else {
 				RegionDto region = regions.get(0);
-				CountryReferenceDto serverCountry = FacadeProvider.getCountryFacade().getServerCountry();
+				CountryReferenceDto serverCountry =
+					lookup(() -> Collections.singletonList(FacadeProvider.getCountryFacade().getServerCountry()), CountryReferenceDto.class).get(0);
 
 				if (region.getCountry() != null && !region.getCountry().equals(serverCountry)) {
 					throw new ImportErrorException(
@@ -494,7 +553,7 @@ public abstract class DataImporter {
 			}
 		}
 		if (propertyType.isAssignableFrom(UserReferenceDto.class)) {
-			UserDto user = FacadeProvider.getUserFacade().getByUserName(entry);
+			UserDto user = lookup(() -> Collections.singletonList(FacadeProvider.getUserFacade().getByUserName(entry)), UserDto.class, entry).get(0);
 			if (user != null) {
 				pd.getWriteMethod().invoke(element, user.toReference());
 				return true;
@@ -511,6 +570,14 @@ public abstract class DataImporter {
 		return false;
 	}
 
+	/**
+	 * @return The result of the query, which is only executed once per import for the same key.
+	 */
+	@SuppressWarnings("unchecked")
+	private <T> List<T> lookup(Supplier<List<T>> query, Object... key) {
+		return (List<T>) lookupTable.computeIfAbsent(Arrays.asList(key), k -> query.get());
+	}
+
 	/**
 	 * Provides the structure to insert a whole line into the object entity. The actual inserting has to take
 	 * place in a callback.
@@ -620,7 +687,7 @@ public abstract class DataImporter {
 		return (FacilityType) pd.getReadMethod().invoke(currentElement);
 	}
 
-	protected void writeImportError(String[] errorLine, String message) throws IOException {
+	protected synchronized void writeImportError(String[] errorLine, String message) throws IOException {
 		hasImportError = true;
 		List<String> errorLineAsList = new ArrayList<>();
 		errorLineAsList.add(message);
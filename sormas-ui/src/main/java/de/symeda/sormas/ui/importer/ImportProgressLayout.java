@@ -64,16 +64,14 @@ public class ImportProgressLayout extends VerticalLayout {
 	private int importErrorsCount;
 	private int importSkipsCount;
 	private int importDuplicatesCount;
-	private int totalCount;
 
 	private UI currentUI;
 
-	public ImportProgressLayout(int totalCount, UI currentUI, Runnable cancelCallback, boolean duplicatesPossible) {
-		this(totalCount, currentUI, cancelCallback, duplicatesPossible, true);
+	public ImportProgressLayout(UI currentUI, Runnable cancelCallback, boolean duplicatesPossible) {
+		this(currentUI, cancelCallback, duplicatesPossible, true);
 	}
 
-	public ImportProgressLayout(int totalCount, UI currentUI, Runnable cancelCallback, boolean duplicatesPossible, boolean skipPossible) {
-		this.totalCount = totalCount;
+	public ImportProgressLayout(UI currentUI, Runnable cancelCallback, boolean duplicatesPossible, boolean skipPossible) {
 		this.currentUI = currentUI;
 
 		setWidth(100, Unit.PERCENTAGE);
@@ -86,7 +84,7 @@ public class ImportProgressLayout extends VerticalLayout {
 		initializeInfoComponents();
 		currentInfoComponent = progressCircle;
 		infoLayout.addComponent(currentInfoComponent);
-		infoLabel = new Label(String.format(I18nProperties.getString(Strings.infoImportProcess), totalCount));
+		infoLabel = new Label(I18nProperties.getString(Strings.infoImportProcessRunning));
 		infoLabel.setContentMode(ContentMode.HTML);
 		infoLayout.addComponent(infoLabel);
 		infoLayout.setExpandRatio(infoLabel, 1);
@@ -103,7 +101,7 @@ public class ImportProgressLayout extends VerticalLayout {
 		HorizontalLayout progressInfoLayout = new HorizontalLayout();
 		CssStyles.style(progressInfoLayout, CssStyles.VSPACE_TOP_5);
 		progressInfoLayout.setSpacing(true);
-		processedImportsLabel = new Label(String.format(I18nProperties.getCaption(Captions.importProcessed), 0, totalCount));
+		processedImportsLabel = new Label(String.format(I18nProperties.getCaption(Captions.importProcessedCount), 0));
 		progressInfoLayout.addComponent(processedImportsLabel);
 		successfulImportsLabel = new Label(String.format(I18nProperties.getCaption(Captions.importImports), 0));
 		CssStyles.style(successfulImportsLabel, CssStyles.LABEL_POSITIVE);
@@ -149,7 +147,11 @@ public class ImportProgressLayout extends VerticalLayout {
 		warningIcon.setWidth(35, Unit.PIXELS);
 	}
 
-	public void updateProgress(ImportLineResult result) {
+	/**
+	 * @param progress
+	 *            The share of the import file that has been read so far
+	 */
+	public void updateProgress(ImportLineResult result, float progress) {
 		currentUI.access(() -> {
 			processedImportsCount++;
 			if (result == ImportLineResult.SUCCESS) {
@@ -165,8 +167,8 @@ public class ImportProgressLayout extends VerticalLayout {
 				importDuplicatesCount++;
 				importDuplicatesLabel.setValue(String.format(I18nProperties.getCaption(Captions.importDuplicates), importDuplicatesCount));
 			}
-			processedImportsLabel.setValue(String.format(I18nProperties.getCaption(Captions.importProcessed), processedImportsCount, totalCount));
-			progressBar.setValue((float) processedImportsCount / (float) totalCount);
+			processedImportsLabel.setValue(String.format(I18nProperties.getCaption(Captions.importProcessedCount), processedImportsCount));
+			progressBar.setValue(progress);
 		});
 	}
 
@@ -18,6 +18,7 @@
 
 package de.symeda.sormas.ui;
 
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.reset;
 import static org.mockito.Mockito.spy;
@@ -26,9 +27,12 @@ import static org.mockito.Mockito.when;
 import java.lang.reflect.Field;
 import java.security.Principal;
 import java.util.Properties;
+import java.util.concurrent.Callable;
+import java.util.concurrent.FutureTask;
 
 import javax.ejb.SessionContext;
 import javax.ejb.TimerService;
+import javax.enterprise.concurrent.ManagedExecutorService;
 import javax.enterprise.concurrent.ManagedScheduledExecutorService;
 import javax.enterprise.inject.Produces;
 import javax.jms.ConnectionFactory;
@@ -58,6 +62,7 @@ public class MockProducer {
 	private static Properties properties = new Properties();
 	private static UserTransaction userTransaction = mock(UserTransaction.class);
 	private static ManagedScheduledExecutorService managedScheduledExecutorService = mock(ManagedScheduledExecutorService.class);
+	private static ManagedExecutorService managedExecutorService = mock(ManagedExecutorService.class);
 
 	private static FacadeProvider facadeProvider = new FacadeProviderMock();
 
@@ -94,13 +99,20 @@ public class MockProducer {
 
 	public static void resetMocks() {
 
-		reset(sessionContext, principal, topic, connectionFactory, timerService, userTransaction, managedScheduledExecutorService);
+		reset(sessionContext, principal, topic, connectionFactory, timerService, userTransaction, managedScheduledExecutorService, managedExecutorService);
 		wireMocks();
 	}
 
 	public static void wireMocks() {
 
 		when(sessionContext.getCallerPrincipal()).thenReturn(principal);
+		// submitted tasks are run right away on the test thread
+		when(managedExecutorService.submit(any(Callable.class))).thenAnswer(invocation -> {
+			Callable<?> callable = invocation.getArgument(0);
+			FutureTask<?> task = new FutureTask<>(callable);
+			task.run();
+			return task;
+		});
 	}
 
 	@Produces
@@ -147,4 +159,9 @@ public class MockProducer {
 	public static ManagedScheduledExecutorService getManagedScheduledExecutorService() {
 		return managedScheduledExecutorService;
 	}
+
+	@Produces
+	public static ManagedExecutorService getManagedExecutorService() {
+		return managedExecutorService;
+	}
 }